@@ -49,7 +49,10 @@ export class MessageLogComponent extends mix(BaseListComponent).with(FilterableL
   loading: boolean;
   rows: any[];
   count: number;
+  countCapped: boolean;
   offset: number;
+  // the cursor of each page reached by paging forward from the first one, the first page having an empty cursor
+  pageCursors: Array<string>;
 
   mshRoles: Array<String>;
   msgTypes: Array<String>;
@@ -84,7 +87,9 @@ export class MessageLogComponent extends mix(BaseListComponent).with(FilterableL
     this.loading = false;
     this.rows = [];
     this.count = 0;
+    this.countCapped = false;
     this.offset = 0;
+    this.pageCursors = [];
     this.orderBy = 'received';
     this.asc = false;
 
@@ -281,6 +286,10 @@ export class MessageLogComponent extends mix(BaseListComponent).with(FilterableL
 
     searchParams.set('page', offset.toString());
     searchParams.set('pageSize', pageSize.toString());
+    // the pages reached from the previous one are read from the cursor instead of skipping the rows of the previous pages
+    if (this.pageCursors[offset] != null) {
+      searchParams.set('cursor', this.pageCursors[offset]);
+    }
 
     return this.http.get(MessageLogComponent.MESSAGE_LOG_URL, {search: searchParams})
       .map((response: Response) =>
@@ -294,10 +303,18 @@ export class MessageLogComponent extends mix(BaseListComponent).with(FilterableL
   page (offset, pageSize) {
     this.loading = true;
     super.resetFilters();
+    if (offset == 0) {
+      // the cursors are only valid for the filter, sorting and page size of the previous search
+      this.pageCursors = [''];
+    }
     this.getMessageLogEntries(offset, pageSize).subscribe((result: MessageLogResult) => {
       this.offset = offset;
       this.rowLimiter.pageSize = pageSize;
       this.count = result.count;
+      this.countCapped = result.countCapped;
+      if (result.nextCursor != null) {
+        this.pageCursors[offset + 1] = result.nextCursor;
+      }
       this.selected = [];
 
       const start = offset * pageSize;
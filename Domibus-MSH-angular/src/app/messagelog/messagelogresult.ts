@@ -8,7 +8,9 @@ export class MessageLogResult {
               public mshRoles: Array<string>,
               public msgTypes: Array<string>,
               public msgStatus: Array<string>,
-              public notifStatus: Array<string>
+              public notifStatus: Array<string>,
+              public countCapped?: boolean,
+              public nextCursor?: string
               ) {
 
   }
@@ -40,4 +40,9 @@ public interface SignalService {
      */
     void signalDomibusPropertyChange(String domainCode, String propertyName, String propertyValue);
 
+    /**
+     * signals message filters update to other servers in the cluster
+     */
+    void signalMessageFiltersUpdated();
+
 }
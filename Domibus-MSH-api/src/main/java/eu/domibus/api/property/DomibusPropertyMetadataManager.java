@@ -45,6 +45,8 @@ public interface DomibusPropertyMetadataManager {
     String DOMIBUS_CONSOLE_LOGIN_SUSPENSION_TIME = "domibus.console.login.suspension.time";
     String DOMIBUS_CERTIFICATE_REVOCATION_OFFSET = "domibus.certificate.revocation.offset";
     String DOMIBUS_CERTIFICATE_CRL_EXCLUDED_PROTOCOLS = "domibus.certificate.crl.excludedProtocols";
+    String DOMIBUS_CERTIFICATE_CRL_STORE_LOCATION = "domibus.certificate.crl.store.location";
+    String DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL = "domibus.certificate.crl.store.refresh.interval";
     String DOMIBUS_PLUGIN_LOGIN_MAXIMUM_ATTEMPT = "domibus.plugin.login.maximum.attempt";
     String DOMIBUS_PLUGIN_LOGIN_SUSPENSION_TIME = "domibus.plugin.login.suspension.time";
     String DOMIBUS_PASSWORD_POLICY_PATTERN = "domibus.passwordPolicy.pattern";//NOSONAR
@@ -62,7 +64,9 @@ public interface DomibusPropertyMetadataManager {
     String DOMIBUS_ATTACHMENT_STORAGE_LOCATION = "domibus.attachment.storage.location";
     String DOMIBUS_PAYLOAD_ENCRYPTION_ACTIVE = "domibus.payload.encryption.active";
     String DOMIBUS_MSH_MESSAGEID_SUFFIX = "domibus.msh.messageid.suffix";
+    String DOMIBUS_PMODE_RESOLUTION_CACHE_SIZE = "domibus.pmode.resolution.cache.size";
     String DOMIBUS_MSH_RETRY_MESSAGE_EXPIRATION_DELAY = "domibus.msh.retry.messageExpirationDelay";
+    String DOMIBUS_MSH_RETRY_PAGE_SIZE = "domibus.msh.retry.page.size";
     String DOMIBUS_DYNAMICDISCOVERY_USE_DYNAMIC_DISCOVERY = "domibus.dynamicdiscovery.useDynamicDiscovery";
     String DOMIBUS_SMLZONE = "domibus.smlzone";
     String DOMIBUS_DYNAMICDISCOVERY_CLIENT_SPECIFICATION = "domibus.dynamicdiscovery.client.specification";
@@ -72,7 +76,10 @@ public interface DomibusPropertyMetadataManager {
     String DOMIBUS_DYNAMICDISCOVERY_PARTYID_RESPONDER_ROLE = "domibus.dynamicdiscovery.partyid.responder.role";
     String DOMIBUS_DYNAMICDISCOVERY_PARTYID_TYPE = "domibus.dynamicdiscovery.partyid.type";
     String DOMIBUS_DYNAMICDISCOVERY_TRANSPORTPROFILEAS_4 = "domibus.dynamicdiscovery.transportprofileas4";
+    String DOMIBUS_DYNAMICDISCOVERY_LOOKUP_CACHE_TTL = "domibus.dynamicdiscovery.lookup.cache.ttl";
     String DOMIBUS_LIST_PENDING_MESSAGES_MAX_COUNT = "domibus.listPendingMessages.maxCount";
+    String DOMIBUS_LIST_PENDING_MESSAGES_INDEX_ACTIVE = "domibus.listPendingMessages.index.active";
+    String DOMIBUS_DATABASE_SCHEMA_AFFINITY_ACTIVE = "domibus.database.schema.affinity.active";
     String DOMIBUS_JMS_QUEUE_MAX_BROWSE_SIZE = "domibus.jms.queue.maxBrowseSize";
     String DOMIBUS_JMS_INTERNAL_QUEUE_EXPRESSION = "domibus.jms.internalQueue.expression";
     String DOMIBUS_RECEIVER_CERTIFICATE_VALIDATION_ONSENDING = "domibus.receiver.certificate.validation.onsending";
@@ -91,8 +98,23 @@ public interface DomibusPropertyMetadataManager {
     String DOMIBUS_DISPATCHER_LARGE_FILES_CONCURRENCY = "domibus.dispatcher.largeFiles.concurrency";
     String DOMIBUS_DISPATCHER_CACHEABLE = "domibus.dispatcher.cacheable";
     String DOMIBUS_DISPATCHER_CONNECTION_KEEP_ALIVE = "domibus.dispatcher.connection.keepAlive";
+    String DOMIBUS_DISPATCHER_ASYNC = "domibus.dispatcher.async";
+    String DOMIBUS_DISPATCHER_ASYNC_MAX_IN_FLIGHT = "domibus.dispatcher.async.maxInFlight";
+    String DOMIBUS_DISPATCHER_ASYNC_DEFER_DELAY = "domibus.dispatcher.async.deferDelay";
+    String DOMIBUS_DISPATCHER_ASYNC_MAX_CONNECTIONS = "domibus.dispatcher.async.maxConnections";
+    String DOMIBUS_DISPATCHER_ASYNC_MAX_CONNECTIONS_PER_HOST = "domibus.dispatcher.async.maxConnectionsPerHost";
+    String DOMIBUS_DISPATCHER_RECEIVER_BULKHEAD_ACTIVE = "domibus.dispatcher.receiver.bulkhead.active";
+    String DOMIBUS_DISPATCHER_RECEIVER_MAX_IN_FLIGHT = "domibus.dispatcher.receiver.maxInFlight";
+    String DOMIBUS_DISPATCHER_RECEIVER_LATENCY_THRESHOLD = "domibus.dispatcher.receiver.latencyThreshold";
+    String DOMIBUS_DISPATCHER_RECEIVER_DEFER_DELAY = "domibus.dispatcher.receiver.deferDelay";
+    String DOMIBUS_DISPATCHER_CIRCUIT_BREAKER_ACTIVE = "domibus.dispatcher.circuitBreaker.active";
+    String DOMIBUS_DISPATCHER_CIRCUIT_BREAKER_FAILURE_THRESHOLD = "domibus.dispatcher.circuitBreaker.failureThreshold";
+    String DOMIBUS_DISPATCHER_CIRCUIT_BREAKER_OPEN_DURATION = "domibus.dispatcher.circuitBreaker.openDuration";
     String DOMIBUS_RETENTION_WORKER_MESSAGE_RETENTION_DOWNLOADED_MAX_DELETE = "domibus.retentionWorker.message.retention.downloaded.max.delete";
     String DOMIBUS_RETENTION_WORKER_MESSAGE_RETENTION_NOT_DOWNLOADED_MAX_DELETE = "domibus.retentionWorker.message.retention.not_downloaded.max.delete";
+    String DOMIBUS_RETENTION_WORKER_BULK_ACTIVE = "domibus.retentionWorker.bulk.active";
+    String DOMIBUS_RETENTION_WORKER_BULK_CHUNK_SIZE = "domibus.retentionWorker.bulk.chunk.size";
+    String DOMIBUS_RETENTION_WORKER_BULK_MAX_DELETE = "domibus.retentionWorker.bulk.max.delete";
     String DOMIBUS_RETENTION_JMS_CONCURRENCY = "domibus.retention.jms.concurrency";
     String DOMIBUS_DISPATCH_EBMS_ERROR_UNRECOVERABLE_RETRY = "domibus.dispatch.ebms.error.unrecoverable.retry";
     String DOMIBUS_PROXY_ENABLED = DOMIBUS_PROXY_PREFIX + "enabled";
@@ -102,8 +124,13 @@ public interface DomibusPropertyMetadataManager {
     String DOMIBUS_PROXY_PASSWORD = DOMIBUS_PROXY_PREFIX + "password"; //NOSONAR:
     String DOMIBUS_PROXY_NON_PROXY_HOSTS = DOMIBUS_PROXY_PREFIX + "nonProxyHosts";
     String DOMIBUS_UI_REPLICATION_SYNC_CRON_MAX_ROWS = "domibus.ui.replication.sync.cron.max.rows";
+    String DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_ACTIVE = "domibus.ui.replication.sync.incremental.active";
+    String DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_BATCH_SIZE = "domibus.ui.replication.sync.incremental.batch.size";
+    String DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_DELAY = "domibus.ui.replication.sync.incremental.delay";
+    String DOMIBUS_UI_REPLICATION_SEARCH_COUNT_MAX = "domibus.ui.replication.search.count.max";
     String DOMIBUS_PLUGIN_NOTIFICATION_ACTIVE = "domibus.plugin.notification.active";
     String DOMIBUS_NONREPUDIATION_AUDIT_ACTIVE = "domibus.nonrepudiation.audit.active";
+    String DOMIBUS_NONREPUDIATION_AUDIT_COMPRESSED = "domibus.nonrepudiation.audit.compressed";
     String DOMIBUS_SEND_MESSAGE_FAILURE_DELETE_PAYLOAD = "domibus.sendMessage.failure.delete.payload";
     String DOMIBUS_SEND_MESSAGE_ATTEMPT_AUDIT_ACTIVE = "domibus.sendMessage.attempt.audit.active";
     String DOMIBUS_FOURCORNERMODEL_ENABLED = "domibus.fourcornermodel.enabled";
@@ -122,6 +149,7 @@ public interface DomibusPropertyMetadataManager {
     String DOMIBUS_PASSWORD_POLICIES_CHECK_CRON = "domibus.passwordPolicies.check.cron";//NOSONAR
     String DOMIBUS_PLUGIN_PASSWORD_POLICIES_CHECK_CRON = "domibus.plugin_passwordPolicies.check.cron";//NOSONAR
     String DOMIBUS_PAYLOAD_TEMP_JOB_RETENTION_CRON = "domibus.payload.temp.job.retention.cron";
+    String DOMIBUS_PAYLOAD_PURGE_CRON = "domibus.payload.purge.cron";
     String DOMIBUS_MSH_RETRY_CRON = "domibus.msh.retry.cron";
     String DOMIBUS_RETENTION_WORKER_CRON_EXPRESSION = "domibus.retentionWorker.cronExpression";
     String DOMIBUS_MSH_PULL_CRON = "domibus.msh.pull.cron";
@@ -131,6 +159,7 @@ public interface DomibusPropertyMetadataManager {
     String DOMIBUS_ALERT_SUPER_CLEANER_CRON = "domibus.alert.super.cleaner.cron";
     String DOMIBUS_ALERT_SUPER_RETRY_CRON = "domibus.alert.super.retry.cron";
     String DOMIBUS_UI_REPLICATION_SYNC_CRON = "domibus.ui.replication.sync.cron";
+    String DOMIBUS_UI_REPLICATION_UPDATE_DELAY = "domibus.ui.replication.update.delay";
     String DOMIBUS_SPLIT_AND_JOIN_RECEIVE_EXPIRATION_CRON = "domibus.splitAndJoin.receive.expiration.cron";
     String DOMIBUS_ALERT_ACTIVE = "domibus.alert.active";
     String DOMIBUS_ALERT_MAIL_SENDING_ACTIVE = "domibus.alert.mail.sending.active";
@@ -214,6 +243,11 @@ public interface DomibusPropertyMetadataManager {
     String DOMIBUS_PULL_MULTIPLE_LEGS = "domibus.pull.multiple_legs";
     String DOMIBUS_PULL_FORCE_BY_MPC = "domibus.pull.force_by_mpc";
     String DOMIBUS_PULL_MPC_INITIATOR_SEPARATOR = "domibus.pull.mpc_initiator_separator";
+    String DOMIBUS_PULL_RESERVATION_SKIP_LOCKED = "domibus.pull.reservation.skipLocked";
+    String DOMIBUS_PULL_RESERVATION_PREFETCH_SIZE = "domibus.pull.reservation.prefetch.size";
+    String DOMIBUS_PULL_ADAPTIVE_ACTIVE = "domibus.pull.adaptive.active";
+    String DOMIBUS_PULL_ADAPTIVE_BACKOFF_INITIAL = "domibus.pull.adaptive.backoff.initial";
+    String DOMIBUS_PULL_ADAPTIVE_BACKOFF_MAX = "domibus.pull.adaptive.backoff.max";
     String DOMIBUS_PULL_RECEIPT_QUEUE_CONCURRENCY = "domibus.pull.receipt.queue.concurrency";
     String DOMIBUS_PULL_QUEUE_CONCURENCY = "domibus.pull.queue.concurency";
 
@@ -224,6 +258,10 @@ public interface DomibusPropertyMetadataManager {
     String DOMIBUS_PAYLOAD_TEMP_JOB_RETENTION_EXCLUDE_REGEX = "domibus.payload.temp.job.retention.exclude.regex";
     String DOMIBUS_PAYLOAD_TEMP_JOB_RETENTION_EXPIRATION = "domibus.payload.temp.job.retention.expiration";
     String DOMIBUS_PAYLOAD_TEMP_JOB_RETENTION_DIRECTORIES = "domibus.payload.temp.job.retention.directories";
+    String DOMIBUS_PAYLOAD_PURGE_BATCH_SIZE = "domibus.payload.purge.batch.size";
+    String DOMIBUS_PAYLOAD_PURGE_CONCURRENCY = "domibus.payload.purge.concurrency";
+    String DOMIBUS_PAYLOAD_PURGE_RETRY_DELAY = "domibus.payload.purge.retry.delay";
+    String DOMIBUS_PAYLOAD_PURGE_RETRY_MAX = "domibus.payload.purge.retry.max";
 
     /**
      * Get all the properties metadata that support changing at runtime
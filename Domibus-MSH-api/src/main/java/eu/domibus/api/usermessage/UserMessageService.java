@@ -55,8 +55,32 @@ public interface UserMessageService {
 
     void deleteMessage(String messageId);
 
+    /**
+     * Clears the payloads of the message with the given id: the payloads stored in the database are emptied and the
+     * payload files are scheduled for deletion
+     *
+     * @param messageId the id of the message
+     */
+    void clearPayloadData(String messageId);
+
+    /**
+     * Deletes the messages with the given ids in a new transaction, using one statement per table for all the messages
+     *
+     * @param messageIds the ids of the messages to delete
+     * @return the number of database rows updated
+     */
+    int deleteMessages(List<String> messageIds);
+
     void scheduleSending(String messageId, boolean isSplitAndJoin);
 
+    /**
+     * Schedules the sending of the given messages and marks all of them as scheduled using a single statement
+     *
+     * @param messageIds     the ids of the messages to send
+     * @param isSplitAndJoin true if the messages are sent using the SplitAndJoin queue
+     */
+    void scheduleSending(List<String> messageIds, boolean isSplitAndJoin);
+
     /**
      * Schedules the handling of the SplitAndJoin send failed event
      *
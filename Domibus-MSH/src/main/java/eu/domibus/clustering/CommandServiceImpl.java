@@ -13,6 +13,7 @@ import eu.domibus.core.pmode.PModeProvider;
 import eu.domibus.logging.DomibusLogger;
 import eu.domibus.logging.DomibusLoggerFactory;
 import eu.domibus.messaging.MessageConstants;
+import eu.domibus.plugin.routing.RoutingService;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -54,6 +55,9 @@ public class CommandServiceImpl implements CommandService {
     @Autowired
     private List<DomibusPropertyManager> domibusPropertyManagers;
 
+    @Autowired
+    protected RoutingService routingService;
+
     @Override
     public void createClusterCommand(String command, String domain, String server, Map<String, Object> commandProperties) {
         LOG.debug("Creating command [{}] for domain [{}] and server [{}]", command, domain, server);
@@ -98,6 +102,7 @@ public class CommandServiceImpl implements CommandService {
                 for (String cacheName : cacheNames) {
                     cacheManager.getCache(cacheName).clear();
                 }
+                routingService.invalidateRoutingBackendFilters();
                 break;
             case Command.RELOAD_TRUSTSTORE:
                 multiDomainCryptoService.refreshTrustStore(domain);
@@ -124,6 +129,9 @@ public class CommandServiceImpl implements CommandService {
                     }
                 }
                 break;
+            case Command.MESSAGE_FILTER_UPDATE:
+                routingService.invalidateRoutingBackendFilters();
+                break;
             default:
                 LOG.error("Unknown command received: {}", command);
         }
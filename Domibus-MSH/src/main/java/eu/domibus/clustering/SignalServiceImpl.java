@@ -94,6 +94,16 @@ public class SignalServiceImpl implements SignalService {
         sendMessage(commandProperties);
     }
 
+    @Override
+    public void signalMessageFiltersUpdated() {
+
+        Map<String, Object> commandProperties = new HashMap<>();
+        commandProperties.put(Command.COMMAND, Command.MESSAGE_FILTER_UPDATE);
+        commandProperties.put(MessageConstants.DOMAIN, domainContextProvider.getCurrentDomain().getCode());
+
+        sendMessage(commandProperties);
+    }
+
     protected void sendMessage(Map<String, Object> commandProperties){
         if (!domibusConfigurationService.isClusterDeployment()) {
             LOG.debug("not cluster deployment: no need to {}", commandProperties.get(Command.COMMAND));
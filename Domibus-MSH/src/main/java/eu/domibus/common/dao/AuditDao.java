@@ -8,6 +8,7 @@ import eu.domibus.common.model.audit.PModeAudit;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * @author Thomas Dussart
@@ -23,6 +24,17 @@ public interface AuditDao {
                           int start,
                           int max);
 
+    /**
+     * Same as {@link #listAudit(Set, Set, Set, Date, Date, int, int)} starting with the first audit, read through a
+     * forward-only cursor. The stream must be consumed and closed inside the current transaction.
+     */
+    Stream<Audit> streamAudit(Set<String> auditTargets,
+                              Set<String> actions,
+                              Set<String> users,
+                              Date from,
+                              Date to,
+                              int max);
+
     Long countAudit(Set<String> auditTargets,
                     Set<String> actions,
                     Set<String> users,
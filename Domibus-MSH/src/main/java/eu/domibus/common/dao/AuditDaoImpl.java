@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * @author Thomas Dussart
@@ -52,6 +53,26 @@ public class AuditDaoImpl implements AuditDao {
         return query.getResultList();
     }
 
+    @Override
+    public Stream<Audit> streamAudit(final Set<String> auditTargets,
+                                     final Set<String> actions,
+                                     final Set<String> users,
+                                     final Date from,
+                                     final Date to,
+                                     final int max) {
+
+        logCriteria(auditTargets, actions, users, from, to, 0, max);
+        TypedQuery<Audit> query = entityManager.createQuery(
+                buildAuditListCriteria(
+                        auditTargets,
+                        actions,
+                        users,
+                        from,
+                        to));
+        query.setMaxResults(max);
+        return ScrollableResultsStream.stream(entityManager, query);
+    }
+
     protected CriteriaQuery<Audit> buildAuditListCriteria(final Set<String> auditTargets,
                                                           final Set<String> actions,
                                                           final Set<String> users,
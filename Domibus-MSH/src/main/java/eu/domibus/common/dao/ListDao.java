@@ -9,6 +9,7 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * A basic DAO implementation providing standard list operations (filter, page, sort, count)
@@ -48,6 +49,23 @@ public abstract class ListDao<T extends AbstractBaseEntity> extends BasicDao<T>
     }
 
     public List<T> findPaged(final int from, final int max, final String sortColumn, final boolean asc, final Map<String, Object> filters) {
+        final TypedQuery<T> query = createFindQuery(sortColumn, asc, filters);
+        query.setFirstResult(from);
+        query.setMaxResults(max);
+        return query.getResultList();
+    }
+
+    /**
+     * Same as {@link #findPaged(int, int, String, boolean, Map)} starting with the first entity, read through a
+     * forward-only cursor. The stream must be consumed and closed inside the current transaction.
+     */
+    public Stream<T> streamAll(final int max, final String sortColumn, final boolean asc, final Map<String, Object> filters) {
+        final TypedQuery<T> query = createFindQuery(sortColumn, asc, filters);
+        query.setMaxResults(max);
+        return ScrollableResultsStream.stream(em, query);
+    }
+
+    protected TypedQuery<T> createFindQuery(final String sortColumn, final boolean asc, final Map<String, Object> filters) {
         final CriteriaBuilder cb = this.em.getCriteriaBuilder();
         final CriteriaQuery<T> cq = cb.createQuery(typeOfT);
         final Root<T> ele = cq.from(typeOfT);
@@ -62,9 +80,6 @@ public abstract class ListDao<T extends AbstractBaseEntity> extends BasicDao<T>
                 cq.orderBy(cb.desc(ele.get(newSortColumn)));
             }
         }
-        final TypedQuery<T> query = this.em.createQuery(cq);
-        query.setFirstResult(from);
-        query.setMaxResults(max);
-        return query.getResultList();
+        return this.em.createQuery(cq);
     }
 }
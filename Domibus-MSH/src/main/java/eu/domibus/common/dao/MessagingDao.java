@@ -1,5 +1,6 @@
 package eu.domibus.common.dao;
 
+import com.google.common.collect.Lists;
 import eu.domibus.common.MessageStatus;
 import eu.domibus.ebms3.common.model.*;
 import eu.domibus.logging.DomibusLogger;
@@ -7,6 +8,7 @@ import eu.domibus.logging.DomibusLoggerFactory;
 import eu.domibus.logging.DomibusMessageCode;
 import eu.domibus.logging.MDCKey;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.support.DataAccessUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
@@ -15,11 +17,11 @@ import org.springframework.transaction.annotation.Transactional;
 import javax.persistence.NoResultException;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.springframework.util.StringUtils.hasLength;
 
@@ -38,6 +40,7 @@ public class MessagingDao extends BasicDao<Messaging> {
     private static final String MPC = "MPC";
     private static final String MESSAGE_ID = "MESSAGE_ID";
     private static final String GROUP_ID = "GROUP_ID";
+    private static final int IN_CLAUSE_MAX_SIZE = 1000;
 
     public MessagingDao() {
         super(Messaging.class);
@@ -56,6 +59,92 @@ public class MessagingDao extends BasicDao<Messaging> {
         return DataAccessUtils.singleResult(query.getResultList());
     }
 
+    /**
+     * Finds the values of the given message properties for the user messages with the given ids, with one query per
+     * partition of ids
+     *
+     * @param messageIds    the message ids
+     * @param propertyNames the names of the message properties, compared ignoring the case
+     * @return the values of the properties of each message found, by message id
+     */
+    public Map<String, List<String>> findMessagePropertyValues(final List<String> messageIds, final List<String> propertyNames) {
+        final Map<String, List<String>> result = new HashMap<>();
+        for (List<String> partition : Lists.partition(messageIds, IN_CLAUSE_MAX_SIZE)) {
+            final TypedQuery<Object[]> query = this.em.createNamedQuery("Messaging.findMessagePropertiesForMessages", Object[].class);
+            query.setParameter("MESSAGE_IDS", partition);
+            for (Object[] messageProperty : query.getResultList()) {
+                final String propertyName = (String) messageProperty[1];
+                if (propertyNames.stream().anyMatch(name -> StringUtils.equalsIgnoreCase(name, propertyName))) {
+                    result.computeIfAbsent((String) messageProperty[0], messageId -> new ArrayList<>()).add((String) messageProperty[2]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the routing information of the user messages with the given ids, with one query per partition of ids and
+     * without loading their properties and payloads. The user messages returned are not managed and only contain the
+     * message id, the parties, the collaboration info and the mpc, enough to resolve their PMode leg.
+     *
+     * @param messageIds the message ids
+     * @return the routing information of each message found, by message id
+     */
+    public Map<String, UserMessage> findUserMessageRoutings(final List<String> messageIds) {
+        final Map<String, UserMessage> result = new HashMap<>();
+        for (List<String> partition : Lists.partition(messageIds, IN_CLAUSE_MAX_SIZE)) {
+            final TypedQuery<Object[]> query = this.em.createNamedQuery("Messaging.findRoutingsForMessages", Object[].class);
+            query.setParameter("MESSAGE_IDS", partition);
+            for (Object[] routing : query.getResultList()) {
+                final UserMessage userMessage = result.computeIfAbsent((String) routing[0], messageId -> createUserMessageRouting(routing));
+                // one row is returned for each pair of from and to party ids
+                addPartyId(userMessage.getPartyInfo().getFrom().getPartyId(), (String) routing[2], (String) routing[3]);
+                addPartyId(userMessage.getPartyInfo().getTo().getPartyId(), (String) routing[5], (String) routing[6]);
+            }
+        }
+        return result;
+    }
+
+    protected UserMessage createUserMessageRouting(final Object[] routing) {
+        final UserMessage userMessage = new UserMessage();
+        userMessage.getMessageInfo().setMessageId((String) routing[0]);
+
+        final From from = new From();
+        from.setRole((String) routing[1]);
+        final To to = new To();
+        to.setRole((String) routing[4]);
+        final PartyInfo partyInfo = new PartyInfo();
+        partyInfo.setFrom(from);
+        partyInfo.setTo(to);
+        userMessage.setPartyInfo(partyInfo);
+
+        final CollaborationInfo collaborationInfo = new CollaborationInfo();
+        final Service service = new Service();
+        service.setValue((String) routing[7]);
+        service.setType((String) routing[8]);
+        collaborationInfo.setService(service);
+        collaborationInfo.setAction((String) routing[9]);
+        if (routing[10] != null) {
+            final AgreementRef agreementRef = new AgreementRef();
+            agreementRef.setValue((String) routing[10]);
+            agreementRef.setType((String) routing[11]);
+            collaborationInfo.setAgreementRef(agreementRef);
+        }
+        userMessage.setCollaborationInfo(collaborationInfo);
+        userMessage.setMpc((String) routing[12]);
+        return userMessage;
+    }
+
+    protected void addPartyId(final Set<PartyId> partyIds, final String value, final String type) {
+        if (value == null) {
+            return;
+        }
+        final PartyId partyId = new PartyId();
+        partyId.setValue(value);
+        partyId.setType(type);
+        partyIds.add(partyId);
+    }
+
     public SignalMessage findSignalMessageByMessageId(final String messageId) {
         final TypedQuery<SignalMessage> query = this.em.createNamedQuery("Messaging.findSignalMessageByMessageId", SignalMessage.class);
         query.setParameter(MESSAGE_ID, messageId);
@@ -75,13 +164,15 @@ public class MessagingDao extends BasicDao<Messaging> {
     }
 
     /**
-     * Clears the payloads data for the message with the given messageId.
+     * Clears the payloads data stored in the database for the message with the given messageId. The payload files are
+     * not deleted: they are returned so that the caller schedules their deletion.
      *
      * @param messageId the message id.
+     * @return the payload files of the message.
      */
     @Transactional(propagation = Propagation.MANDATORY)
     @MDCKey(DomibusLogger.MDC_MESSAGE_ID)
-    public void clearPayloadData(String messageId) {
+    public List<String> clearPayloadData(String messageId) {
         LOG.debug("start clearPayloadData");
 
         //add messageId to MDC map
@@ -92,17 +183,14 @@ public class MessagingDao extends BasicDao<Messaging> {
         payloadsQuery.setParameter(MESSAGE_ID, messageId);
         List<PartInfo> results = payloadsQuery.getResultList();
         if (results.isEmpty()) {
-            return;
+            return new ArrayList<>();
         }
         List<PartInfo> databasePayloads = new ArrayList<>();
+        List<String> payloadFiles = new ArrayList<>();
 
         for (PartInfo result : results) {
             if (hasLength(result.getFileName())) {
-                try {
-                    Files.delete(Paths.get(result.getFileName()));
-                } catch (IOException e) {
-                    LOG.debug("Problem deleting payload data files", e);
-                }
+                payloadFiles.add(result.getFileName());
             } else {
                 databasePayloads.add(result);
             }
@@ -113,6 +201,35 @@ public class MessagingDao extends BasicDao<Messaging> {
             emptyQuery.executeUpdate();
         }
         LOG.businessInfo(DomibusMessageCode.BUS_MESSAGE_PAYLOAD_DATA_CLEARED, messageId);
+        return payloadFiles;
+    }
+
+    /**
+     * Finds the payloads of the messages with the given ids.
+     *
+     * @param messageIds the message ids.
+     * @return the payloads of all the messages.
+     */
+    public List<PartInfo> findPartInfosForMessages(List<String> messageIds) {
+        TypedQuery<PartInfo> query = em.createNamedQuery("Messaging.findPartInfosForMessages", PartInfo.class);
+        query.setParameter("MESSAGE_IDS", messageIds);
+        return query.getResultList();
+    }
+
+    /**
+     * Clears the data of the given payloads stored in the database using a single update statement.
+     *
+     * @param partInfos the payloads stored in the database.
+     * @return the number of cleared payloads.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int emptyPayloads(List<PartInfo> partInfos) {
+        if (partInfos.isEmpty()) {
+            return 0;
+        }
+        final Query emptyQuery = em.createNamedQuery("Messaging.emptyPayloads");
+        emptyQuery.setParameter("PARTINFOS", partInfos);
+        return emptyQuery.executeUpdate();
     }
 
     /**
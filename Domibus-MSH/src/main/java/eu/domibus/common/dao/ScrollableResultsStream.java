@@ -0,0 +1,77 @@
+package eu.domibus.common.dao;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the results of a query through a forward-only cursor, instead of loading all of them in memory.
+ * <p>
+ * The returned stream must be consumed and closed inside the transaction that created it. The persistence context is
+ * cleared after each fetch so that the entities already read can be garbage collected.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+public class ScrollableResultsStream<T> implements Iterator<T> {
+
+    protected static final int FETCH_SIZE = 500;
+
+    private final ScrollableResults results;
+
+    private final Session session;
+
+    private Boolean hasNext;
+
+    private int count;
+
+    protected ScrollableResultsStream(ScrollableResults results, Session session) {
+        this.results = results;
+        this.session = session;
+    }
+
+    /**
+     * @param query a query selecting one entity or one DTO per row
+     */
+    public static <T> Stream<T> stream(EntityManager em, Query query) {
+        final ScrollableResults results = query.unwrap(org.hibernate.query.Query.class)
+                .setFetchSize(FETCH_SIZE)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        final ScrollableResultsStream<T> iterator = new ScrollableResultsStream<>(results, em.unwrap(Session.class));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(results::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (hasNext == null) {
+            // the rows already read are consumed by the stream before the next row is requested
+            if (count > 0 && count % FETCH_SIZE == 0) {
+                session.clear();
+            }
+            hasNext = results.next();
+        }
+        return hasNext;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        hasNext = null;
+        count++;
+        return (T) results.get(0);
+    }
+}
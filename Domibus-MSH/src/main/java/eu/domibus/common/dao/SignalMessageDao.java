@@ -8,6 +8,7 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.NoResultException;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import java.util.List;
 
@@ -31,6 +32,37 @@ public class SignalMessageDao extends BasicDao<SignalMessage> {
         return query.getResultList();
     }
 
+    public List<String> findSignalMessageIdsByRefMessageIds(final List<String> originalMessageIds) {
+        final TypedQuery<String> query = em.createNamedQuery("SignalMessage.findSignalMessageIdsByRefMessageIds", String.class);
+        query.setParameter("ORI_MESSAGE_IDS", originalMessageIds);
+        return query.getResultList();
+    }
+
+    public List<Long> findReceiptIdsByRefMessageIds(final List<String> originalMessageIds) {
+        final TypedQuery<Long> query = em.createNamedQuery("SignalMessage.findReceiptIdsByRefMessageIds", Long.class);
+        query.setParameter("ORI_MESSAGE_IDS", originalMessageIds);
+        return query.getResultList();
+    }
+
+    /**
+     * Clears the receipts with the given ids, as {@link #clear(SignalMessage)} does, using one statement for the xml
+     * data and one for the signal messages
+     *
+     * @param receiptIds the receipt ids
+     * @return the number of signal messages updated
+     */
+    public int clearReceipts(final List<Long> receiptIds) {
+        final Query deleteReceiptData = em.createNamedQuery("Receipt.deleteReceiptData");
+        deleteReceiptData.setParameter("RECEIPT_IDS", receiptIds);
+        deleteReceiptData.executeUpdate();
+
+        final Query clearReceipts = em.createNamedQuery("SignalMessage.clearReceipts");
+        clearReceipts.setParameter("RECEIPT_IDS", receiptIds);
+        final int result = clearReceipts.executeUpdate();
+        LOG.debug("Xml data for [{}] receipts have been cleared", receiptIds.size());
+        return result;
+    }
+
     public List<String> findSignalMessageIdsByRefMessageId(final String originalMessageId) {
         final TypedQuery<String> query = em.createNamedQuery("SignalMessage.findSignalMessageIdByRefMessageId", String.class);
         query.setParameter("ORI_MESSAGE_ID", originalMessageId);
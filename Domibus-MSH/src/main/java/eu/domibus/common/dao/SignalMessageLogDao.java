@@ -13,8 +13,10 @@ import org.springframework.stereotype.Repository;
 import javax.persistence.NoResultException;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * @author Federico Martini
@@ -32,6 +34,19 @@ public class SignalMessageLogDao extends MessageLogDao<SignalMessageLog> {
         super(SignalMessageLog.class);
     }
 
+    /**
+     * Marks the signal messages with the given ids as deleted using a single update statement
+     *
+     * @param messageIds the signal message ids
+     * @return the number of updated message logs
+     */
+    public int setMessagesAsDeleted(List<String> messageIds) {
+        Query query = em.createNamedQuery("SignalMessageLog.setMessagesAsDeleted");
+        query.setParameter("MESSAGE_IDS", messageIds);
+        query.setParameter("DATE", new Date());
+        return query.executeUpdate();
+    }
+
     public SignalMessageLog findByMessageId(String messageId) {
         TypedQuery<SignalMessageLog> query = em.createNamedQuery("SignalMessageLog.findByMessageId", SignalMessageLog.class);
         query.setParameter("MESSAGE_ID", messageId);
@@ -72,6 +87,18 @@ public class SignalMessageLogDao extends MessageLogDao<SignalMessageLog> {
         return queryParameterized.getResultList();
     }
 
+    /**
+     * Same as {@link #findAllInfoPaged(int, int, String, boolean, Map)} starting with the first message, read through a
+     * forward-only cursor. The stream must be consumed and closed inside the current transaction.
+     */
+    public Stream<MessageLogInfo> streamAllInfo(int max, String column, boolean asc, Map<String, Object> filters) {
+        String filteredSignalMessageLogQuery = signalMessageLogInfoFilter.filterSignalMessageLogQuery(column, asc, filters);
+        TypedQuery<MessageLogInfo> typedQuery = em.createQuery(filteredSignalMessageLogQuery, MessageLogInfo.class);
+        TypedQuery<MessageLogInfo> queryParameterized = signalMessageLogInfoFilter.applyParameters(typedQuery, filters);
+        queryParameterized.setMaxResults(max);
+        return ScrollableResultsStream.stream(em, queryParameterized);
+    }
+
     public Integer countAll() {
         final Query nativeQuery = em.createNativeQuery("SELECT count(sm.ID_PK) FROM  TB_SIGNAL_MESSAGE sm");
         final Number singleResult = (Number) nativeQuery.getSingleResult();
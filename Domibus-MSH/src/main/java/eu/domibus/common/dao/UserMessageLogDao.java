@@ -1,8 +1,10 @@
 package eu.domibus.common.dao;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import eu.domibus.api.message.MessageSubtype;
 import eu.domibus.common.MSHRole;
+import eu.domibus.common.MessageStatus;
 import eu.domibus.common.NotificationStatus;
 import eu.domibus.common.model.logging.*;
 import eu.domibus.ebms3.common.model.MessageType;
@@ -16,6 +18,7 @@ import javax.persistence.NoResultException;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * @author Christian Koch, Stefan Mueller, Federico Martini
@@ -26,6 +29,11 @@ public class UserMessageLogDao extends MessageLogDao<UserMessageLog> {
 
     protected static final String STR_MESSAGE_ID = "MESSAGE_ID";
 
+    /**
+     * Maximum number of values in an IN clause supported by all the databases
+     */
+    protected static final int IN_CLAUSE_MAX_SIZE = 1000;
+
     @Autowired
     private UserMessageLogInfoFilter userMessageLogInfoFilter;
 
@@ -42,6 +50,39 @@ public class UserMessageLogDao extends MessageLogDao<UserMessageLog> {
         return query.getResultList();
     }
 
+    /**
+     * Finds a page of the messages to be retried, ordered by next attempt. The page starts after the last message of
+     * the previous page, so the retry pass never revisits or skips a message even if the previous pages changed.
+     *
+     * @param currentTimestamp the start of the retry pass; only the messages due before it are returned
+     * @param lastNextAttempt  the next attempt of the last message of the previous page
+     * @param lastEntityId     the id of the last message of the previous page
+     * @param maxResults       the page size
+     * @return the messages to be retried
+     */
+    public List<UserMessageLogRetryDto> findRetryMessages(Date currentTimestamp, Date lastNextAttempt, long lastEntityId, int maxResults) {
+        TypedQuery<UserMessageLogRetryDto> query = this.em.createNamedQuery("UserMessageLog.findRetryMessagesPage", UserMessageLogRetryDto.class);
+        query.setParameter("CURRENT_TIMESTAMP", currentTimestamp);
+        query.setParameter("LAST_NEXT_ATTEMPT", lastNextAttempt);
+        query.setParameter("LAST_ENTITY_ID", lastEntityId);
+        query.setMaxResults(maxResults);
+        return query.getResultList();
+    }
+
+    /**
+     * Finds the messages dispatched asynchronously whose response was not received before their deadline
+     *
+     * @param currentTimestamp the current time
+     * @param maxResults       the maximum number of messages returned
+     * @return the ids of the messages
+     */
+    public List<String> findTimedOutDispatches(Date currentTimestamp, int maxResults) {
+        TypedQuery<String> query = this.em.createNamedQuery("UserMessageLog.findTimedOutDispatches", String.class);
+        query.setParameter("CURRENT_TIMESTAMP", currentTimestamp);
+        query.setMaxResults(maxResults);
+        return query.getResultList();
+    }
+
     public List<String> findFailedMessages(String finalRecipient) {
         return findFailedMessages(finalRecipient, null, null);
     }
@@ -137,6 +178,97 @@ public class UserMessageLogDao extends MessageLogDao<UserMessageLog> {
         return query.getSingleResult();
     }
 
+    /**
+     * Finds the backends of the messages with the given ids
+     *
+     * @param messageIds the message ids
+     * @return the backend name indexed by message id
+     */
+    public Map<String, String> findBackendsForMessageIds(List<String> messageIds) {
+        TypedQuery<Object[]> query = em.createNamedQuery("UserMessageLog.findBackendsForMessages", Object[].class);
+        query.setParameter("MESSAGE_IDS", messageIds);
+        final Map<String, String> result = new HashMap<>();
+        for (Object[] messageBackend : query.getResultList()) {
+            result.put((String) messageBackend[0], (String) messageBackend[1]);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the statuses of the user messages with the given ids, with one query per partition of ids
+     *
+     * @param messageIds the message ids
+     * @return the status of each message found, by message id
+     */
+    public Map<String, MessageStatus> findMessageStatuses(List<String> messageIds) {
+        final Map<String, MessageStatus> result = new HashMap<>();
+        for (List<String> partition : Lists.partition(messageIds, IN_CLAUSE_MAX_SIZE)) {
+            TypedQuery<Object[]> query = em.createNamedQuery("UserMessageLog.findMessageStatuses", Object[].class);
+            query.setParameter("MESSAGE_IDS", partition);
+            for (Object[] messageStatus : query.getResultList()) {
+                result.put((String) messageStatus[0], (MessageStatus) messageStatus[1]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the user message logs of the given message ids, with one query per partition of ids
+     *
+     * @param messageIds the message ids
+     * @return the user message logs found
+     */
+    public List<UserMessageLog> findByMessageIds(List<String> messageIds) {
+        List<UserMessageLog> result = new ArrayList<>();
+        for (List<String> partition : Lists.partition(messageIds, IN_CLAUSE_MAX_SIZE)) {
+            TypedQuery<UserMessageLog> query = em.createNamedQuery("UserMessageLog.findByMessageIds", UserMessageLog.class);
+            query.setParameter("MESSAGE_IDS", partition);
+            result.addAll(query.getResultList());
+        }
+        return result;
+    }
+
+    /**
+     * Finds which of the given message ids are already used by a user message, with one query per partition of ids
+     *
+     * @param messageIds the message ids
+     * @return the message ids already used
+     */
+    public List<String> findExistingMessageIds(List<String> messageIds) {
+        final List<String> result = new ArrayList<>();
+        for (List<String> partition : Lists.partition(messageIds, IN_CLAUSE_MAX_SIZE)) {
+            TypedQuery<String> query = em.createNamedQuery("UserMessageLog.findExistingMessageIds", String.class);
+            query.setParameter("MESSAGE_IDS", partition);
+            result.addAll(query.getResultList());
+        }
+        return result;
+    }
+
+    /**
+     * Marks the messages with the given ids as deleted using a single update statement
+     *
+     * @param messageIds the message ids
+     * @return the number of updated message logs
+     */
+    public int setMessagesAsDeleted(List<String> messageIds) {
+        Query query = em.createNamedQuery("UserMessageLog.setMessagesAsDeleted");
+        query.setParameter("MESSAGE_IDS", messageIds);
+        query.setParameter("DATE", new Date());
+        return query.executeUpdate();
+    }
+
+    /**
+     * Marks the messages with the given ids as scheduled for sending using a single update statement
+     *
+     * @param messageIds the message ids
+     * @return the number of updated message logs
+     */
+    public int setMessagesAsScheduled(List<String> messageIds) {
+        Query query = em.createNamedQuery("UserMessageLog.setMessagesAsScheduled");
+        query.setParameter("MESSAGE_IDS", messageIds);
+        return query.executeUpdate();
+    }
+
     public void setAsNotified(UserMessageLog messageLog) {
         messageLog.setNotificationStatus(NotificationStatus.NOTIFIED);
     }
@@ -195,6 +327,18 @@ public class UserMessageLogDao extends MessageLogDao<UserMessageLog> {
         return resultList;
     }
 
+    /**
+     * Same as {@link #findAllInfoPaged(int, int, String, boolean, Map)} starting with the first message, read through a
+     * forward-only cursor. The stream must be consumed and closed inside the current transaction.
+     */
+    public Stream<MessageLogInfo> streamAllInfo(int max, String column, boolean asc, Map<String, Object> filters) {
+        String filteredUserMessageLogQuery = userMessageLogInfoFilter.filterUserMessageLogQuery(column, asc, filters);
+        TypedQuery<MessageLogInfo> typedQuery = em.createQuery(filteredUserMessageLogQuery, MessageLogInfo.class);
+        TypedQuery<MessageLogInfo> queryParameterized = userMessageLogInfoFilter.applyParameters(typedQuery, filters);
+        queryParameterized.setMaxResults(max);
+        return ScrollableResultsStream.stream(em, queryParameterized);
+    }
+
     public String findLastUserTestMessageId(String party) {
         Map<String, Object> filters = new HashMap<>();
         filters.put("messageSubtype", MessageSubtype.TEST);
@@ -191,6 +191,14 @@ public class Process extends AbstractBaseEntity {
         return this.responderParties;
     }
 
+    public void setInitiatorParties(Set<Party> initiatorParties) {
+        this.initiatorParties = initiatorParties;
+    }
+
+    public void setResponderParties(Set<Party> responderParties) {
+        this.responderParties = responderParties;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
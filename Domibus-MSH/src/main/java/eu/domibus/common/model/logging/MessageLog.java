@@ -90,6 +90,24 @@ public abstract class MessageLog extends AbstractBaseAuditEntity {
     @Temporal(TemporalType.TIMESTAMP)
     private Date nextAttempt;
 
+    /**
+     * The Date of the last change of the message, used to synchronize incrementally the changed messages. It is always
+     * taken from the clock of the server, also by the bulk updates, as the synchronization compares it with that clock.
+     */
+    @Column(name = "LAST_MODIFIED")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastModified;
+
+    @PrePersist
+    @PreUpdate
+    protected void updateLastModified() {
+        lastModified = new Date();
+    }
+
+    public Date getLastModified() {
+        return lastModified;
+    }
+
     public String getEndpoint() {
         return endpoint;
     }
@@ -1,19 +1,45 @@
 package eu.domibus.common.model.logging;
 
+import eu.domibus.api.exceptions.DomibusCoreErrorCode;
+import eu.domibus.api.exceptions.DomibusCoreException;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
 /**
  * @author Thomas Dussart
  * @since 3.3
  */
 public class RawEnvelopeDto {
-    final String rawMessage;
+    String rawMessage;
+    final byte[] rawMessageCompressed;
     final long id;
 
     public RawEnvelopeDto(long id, String rawMessage) {
+        this(id, rawMessage, null);
+    }
+
+    public RawEnvelopeDto(long id, String rawMessage, byte[] rawMessageCompressed) {
         this.id = id;
         this.rawMessage = rawMessage;
+        this.rawMessageCompressed = rawMessageCompressed;
     }
 
+    /**
+     * @return the raw message, decompressed on the first call if it was saved compressed
+     */
     public String getRawMessage() {
+        if (rawMessage == null && rawMessageCompressed != null) {
+            try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(rawMessageCompressed))) {
+                rawMessage = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new DomibusCoreException(DomibusCoreErrorCode.DOM_001, "Could not decompress the raw envelope [" + id + "]", e);
+            }
+        }
         return rawMessage;
     }
 
@@ -16,7 +16,7 @@ import javax.persistence.*;
 @Entity
 @Table(name = "TB_RAWENVELOPE_LOG")
 @NamedQueries({
-        @NamedQuery(name = "RawDto.findByMessageId", query = "SELECT new eu.domibus.common.model.logging.RawEnvelopeDto(l.entityId,l.rawXML) FROM RawEnvelopeLog l where l.messageId=:MESSAGE_ID"),
+        @NamedQuery(name = "RawDto.findByMessageId", query = "SELECT new eu.domibus.common.model.logging.RawEnvelopeDto(l.entityId,l.rawXML,l.rawXMLCompressed) FROM RawEnvelopeLog l where l.messageId=:MESSAGE_ID"),
         @NamedQuery(name = "Raw.findByMessageId", query = "SELECT l FROM RawEnvelopeLog l where l.messageId=:MESSAGE_ID"),
         @NamedQuery(name = "Raw.deleteByMessageID",
                 query = "DELETE FROM RawEnvelopeLog r where r.messageId=:MESSAGE_ID")
@@ -34,6 +34,13 @@ public class RawEnvelopeLog extends AbstractBaseEntity {
     @Column(name = "RAW_XML")
     protected String rawXML;
 
+    /**
+     * The GZIP compressed raw xml, saved instead of rawXML when domibus.nonrepudiation.audit.compressed is enabled
+     */
+    @Lob
+    @Column(name = "RAW_XML_COMPRESSED")
+    protected byte[] rawXMLCompressed;
+
     @Column(name = "MESSAGE_ID")
     protected String messageId;
 
@@ -65,6 +72,14 @@ public class RawEnvelopeLog extends AbstractBaseEntity {
         this.rawXML = rawXML;
     }
 
+    public byte[] getRawXMLCompressed() {
+        return rawXMLCompressed;
+    }
+
+    public void setRawXMLCompressed(byte[] rawXMLCompressed) {
+        this.rawXMLCompressed = rawXMLCompressed;
+    }
+
     public void setMessageId(String messageId) {
         this.messageId = messageId;
     }
@@ -15,7 +15,9 @@ import java.util.Date;
 @DiscriminatorValue("SIGNAL_MESSAGE")
 @NamedQueries({
         @NamedQuery(name = "SignalMessageLog.findByMessageId", query = "select signalMessageLog from SignalMessageLog signalMessageLog where signalMessageLog.messageId=:MESSAGE_ID"),
-        @NamedQuery(name = "SignalMessageLog.findByMessageIdAndRole", query = "select signalMessageLog from SignalMessageLog signalMessageLog where signalMessageLog.messageId=:MESSAGE_ID and signalMessageLog.mshRole=:MSH_ROLE")
+        @NamedQuery(name = "SignalMessageLog.findByMessageIdAndRole", query = "select signalMessageLog from SignalMessageLog signalMessageLog where signalMessageLog.messageId=:MESSAGE_ID and signalMessageLog.mshRole=:MSH_ROLE"),
+        @NamedQuery(name = "SignalMessageLog.setMessagesAsDeleted",
+                query = "update SignalMessageLog signalMessageLog set signalMessageLog.messageStatus=eu.domibus.common.MessageStatus.DELETED, signalMessageLog.deleted=:DATE, signalMessageLog.nextAttempt=null, signalMessageLog.lastModified=:DATE where signalMessageLog.messageId in :MESSAGE_IDS")
 })
 public class SignalMessageLog extends MessageLog {
 
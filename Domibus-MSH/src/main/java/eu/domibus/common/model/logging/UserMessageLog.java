@@ -24,6 +24,24 @@ import java.util.Date;
                         "and userMessageLog.sendAttempts <= userMessageLog.sendAttemptsMax " +
                         "and (userMessageLog.sourceMessage is null or userMessageLog.sourceMessage=false)" +
                         "and (userMessageLog.scheduled is null or userMessageLog.scheduled=false)"),
+        @NamedQuery(name = "UserMessageLog.findRetryMessagesPage",
+                query = "select new eu.domibus.common.model.logging.UserMessageLogRetryDto(userMessageLog.entityId, userMessageLog.messageId, userMessageLog.nextAttempt, " +
+                        "userMessageLog.received, userMessageLog.restored, userMessageLog.messageFragment) " +
+                        "from UserMessageLog userMessageLog " +
+                        "where userMessageLog.messageStatus = eu.domibus.common.MessageStatus.WAITING_FOR_RETRY " +
+                        "and userMessageLog.nextAttempt < :CURRENT_TIMESTAMP " +
+                        "and 1 <= userMessageLog.sendAttempts " +
+                        "and userMessageLog.sendAttempts <= userMessageLog.sendAttemptsMax " +
+                        "and (userMessageLog.sourceMessage is null or userMessageLog.sourceMessage=false) " +
+                        "and (userMessageLog.scheduled is null or userMessageLog.scheduled=false) " +
+                        "and (userMessageLog.nextAttempt > :LAST_NEXT_ATTEMPT or (userMessageLog.nextAttempt = :LAST_NEXT_ATTEMPT and userMessageLog.entityId > :LAST_ENTITY_ID)) " +
+                        "order by userMessageLog.nextAttempt, userMessageLog.entityId"),
+        @NamedQuery(name = "UserMessageLog.findTimedOutDispatches",
+                query = "select userMessageLog.messageId " +
+                        "from UserMessageLog userMessageLog " +
+                        "where userMessageLog.messageStatus = eu.domibus.common.MessageStatus.SEND_IN_PROGRESS " +
+                        "and userMessageLog.nextAttempt < :CURRENT_TIMESTAMP " +
+                        "order by userMessageLog.nextAttempt"),
         @NamedQuery(name = "UserMessageLog.findReadyToPullMessages", query = "SELECT mi.messageId,mi.timestamp FROM UserMessageLog as um ,MessageInfo mi where um.messageStatus=eu.domibus.common.MessageStatus.READY_TO_PULL and um.messageId=mi.messageId order by mi.timestamp desc"),
         @NamedQuery(name = "UserMessageLog.findByMessageId", query = "select userMessageLog from UserMessageLog userMessageLog where userMessageLog.messageId=:MESSAGE_ID"),
         @NamedQuery(name = "UserMessageLog.findByMessageIdAndRole", query = "select userMessageLog from UserMessageLog userMessageLog where userMessageLog.messageId=:MESSAGE_ID and userMessageLog.mshRole=:MSH_ROLE"),
@@ -31,10 +49,18 @@ import java.util.Date;
         @NamedQuery(name = "UserMessageLog.findEntries", query = "select userMessageLog from UserMessageLog userMessageLog"),
         @NamedQuery(name = "UserMessageLog.findUndownloadedUserMessagesOlderThan", query = "select userMessageLog.messageId from UserMessageLog userMessageLog where (userMessageLog.messageStatus = eu.domibus.common.MessageStatus.RECEIVED or userMessageLog.messageStatus = eu.domibus.common.MessageStatus.RECEIVED_WITH_WARNINGS) and userMessageLog.deleted is null and userMessageLog.mpc = :MPC and userMessageLog.received < :DATE"),
         @NamedQuery(name = "UserMessageLog.findDownloadedUserMessagesOlderThan", query = "select userMessageLog.messageId from UserMessageLog userMessageLog where (userMessageLog.messageStatus = eu.domibus.common.MessageStatus.DOWNLOADED) and userMessageLog.mpc = :MPC and userMessageLog.downloaded is not null and userMessageLog.downloaded < :DATE"),
-        @NamedQuery(name = "UserMessageLog.setNotificationStatus", query = "update UserMessageLog userMessageLog set userMessageLog.notificationStatus=:NOTIFICATION_STATUS where userMessageLog.messageId=:MESSAGE_ID"),
+        @NamedQuery(name = "UserMessageLog.setNotificationStatus", query = "update UserMessageLog userMessageLog set userMessageLog.notificationStatus=:NOTIFICATION_STATUS, userMessageLog.lastModified=:LAST_MODIFIED where userMessageLog.messageId=:MESSAGE_ID"),
         @NamedQuery(name = "UserMessageLog.countEntries", query = "select count(userMessageLog.messageId) from UserMessageLog userMessageLog"),
         @NamedQuery(name = "UserMessageLog.setMessageStatusAndNotificationStatus",
-                query = "update UserMessageLog userMessageLog set userMessageLog.deleted=:TIMESTAMP, userMessageLog.messageStatus=:MESSAGE_STATUS, userMessageLog.notificationStatus=:NOTIFICATION_STATUS where userMessageLog.messageId=:MESSAGE_ID"),
+                query = "update UserMessageLog userMessageLog set userMessageLog.deleted=:TIMESTAMP, userMessageLog.messageStatus=:MESSAGE_STATUS, userMessageLog.notificationStatus=:NOTIFICATION_STATUS, userMessageLog.lastModified=:TIMESTAMP where userMessageLog.messageId=:MESSAGE_ID"),
+        @NamedQuery(name = "UserMessageLog.findExistingMessageIds", query = "select userMessageLog.messageId from UserMessageLog userMessageLog where userMessageLog.messageId in :MESSAGE_IDS"),
+        @NamedQuery(name = "UserMessageLog.findByMessageIds", query = "select userMessageLog from UserMessageLog userMessageLog where userMessageLog.messageId in :MESSAGE_IDS"),
+        @NamedQuery(name = "UserMessageLog.findMessageStatuses", query = "select userMessageLog.messageId, userMessageLog.messageStatus from UserMessageLog userMessageLog where userMessageLog.messageId in :MESSAGE_IDS"),
+        @NamedQuery(name = "UserMessageLog.findBackendsForMessages", query = "select userMessageLog.messageId, userMessageLog.backend from UserMessageLog userMessageLog where userMessageLog.messageId in :MESSAGE_IDS"),
+        @NamedQuery(name = "UserMessageLog.setMessagesAsDeleted",
+                query = "update UserMessageLog userMessageLog set userMessageLog.messageStatus=eu.domibus.common.MessageStatus.DELETED, userMessageLog.deleted=:DATE, userMessageLog.nextAttempt=null, userMessageLog.lastModified=:DATE where userMessageLog.messageId in :MESSAGE_IDS"),
+        @NamedQuery(name = "UserMessageLog.setMessagesAsScheduled",
+                query = "update UserMessageLog userMessageLog set userMessageLog.scheduled=true where userMessageLog.messageId in :MESSAGE_IDS"),
         @NamedQuery(name = "UserMessageLog.findAllInfo", query = "select userMessageLog from UserMessageLog userMessageLog")
 })
 public class UserMessageLog extends MessageLog {
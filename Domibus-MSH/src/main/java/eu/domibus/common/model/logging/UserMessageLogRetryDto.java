@@ -0,0 +1,59 @@
+package eu.domibus.common.model.logging;
+
+import java.util.Date;
+
+/**
+ * The columns of a user message log needed by the retry worker to schedule the message again.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+public class UserMessageLogRetryDto {
+
+    protected final long entityId;
+
+    protected final String messageId;
+
+    protected final Date nextAttempt;
+
+    protected final Date received;
+
+    protected final Date restored;
+
+    protected final Boolean messageFragment;
+
+    public UserMessageLogRetryDto(long entityId, String messageId, Date nextAttempt, Date received, Date restored, Boolean messageFragment) {
+        this.entityId = entityId;
+        this.messageId = messageId;
+        this.nextAttempt = nextAttempt;
+        this.received = received;
+        this.restored = restored;
+        this.messageFragment = messageFragment;
+    }
+
+    public long getEntityId() {
+        return entityId;
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public Date getNextAttempt() {
+        return nextAttempt;
+    }
+
+    /**
+     * @return the restored date if the message has been restored, otherwise the received date
+     */
+    public Date getScheduledStartDate() {
+        return restored != null ? restored : received;
+    }
+
+    /**
+     * Source messages are never retried, so a retried message uses the split and join queue only when it is a fragment
+     */
+    public boolean isSplitAndJoin() {
+        return Boolean.TRUE.equals(messageFragment);
+    }
+}
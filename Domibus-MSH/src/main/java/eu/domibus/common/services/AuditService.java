@@ -5,6 +5,7 @@ import eu.domibus.api.audit.AuditLog;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * @author Thomas Dussart
@@ -34,6 +35,25 @@ public interface AuditService {
                              int start,
                              int max);
 
+    /**
+     * Stream the audit for the given criterias, starting with the first one.
+     * The stream must be consumed and closed inside the caller's transaction.
+     *
+     * @param auditTargetName the type of audit to retrive (Message, User, etc...).
+     * @param action          the type of action to retrieve (DEL/ADD/MODD).
+     * @param user            the users that did the modifications.
+     * @param from            the lower bound of the modification date.
+     * @param to              the higher bound of the modification date.
+     * @param max             the maximum number of reccords.
+     * @return a stream of audit.
+     */
+    Stream<AuditLog> streamAudit(Set<String> auditTargetName,
+                                 Set<String> action,
+                                 Set<String> user,
+                                 Date from,
+                                 Date to,
+                                 int max);
+
     /**
      * Count the number of audit for the given criterias.
      *
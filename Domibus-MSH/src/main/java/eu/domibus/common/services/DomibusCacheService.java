@@ -12,7 +12,6 @@ public interface DomibusCacheService {
     String ALL_DOMAINS_CACHE = "allDomains";
     String DOMAIN_BY_CODE_CACHE = "domainByCode";
     String DOMAIN_BY_SCHEDULER_CACHE = "domainByScheduler";
-    String DYNAMIC_DISCOVERY_ENDPOINT = "lookupInfo";
     String DISPATCH_CLIENT = "dispatchClient";
 
     void clearCache(String refreshCacheName);
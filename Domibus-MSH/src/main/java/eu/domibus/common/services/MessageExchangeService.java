@@ -47,6 +47,17 @@ public interface MessageExchangeService {
      */
     void initiatePullRequest(final String mpc);
 
+    /**
+     * Sends pull requests to the responder.
+     *
+     * @param number                the number of pull requests to send
+     * @param mpcQualifiedName      the qualified name of the mpc to pull
+     * @param pModeKey              the pmode key of the pull exchange
+     * @param responder             the name of the responder party
+     * @param notifyBusinessOnError true if the backend must be notified when the pulled message is in error
+     */
+    void sendPullRequests(int number, String mpcQualifiedName, String pModeKey, String responder, boolean notifyBusinessOnError);
+
     /**
      * Check if a message exist for the association mpc/responder. If it does it returns the first one that arrived.
      *
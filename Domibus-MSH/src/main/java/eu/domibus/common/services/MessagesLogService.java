@@ -6,6 +6,7 @@ import eu.domibus.web.rest.ro.MessageLogResultRO;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * @author Federico Martini
@@ -17,4 +18,10 @@ public interface MessagesLogService {
 
     List<MessageLogInfo> findAllInfoCSV(MessageType messageType, int max, String orderByColumn, boolean asc, Map<String, Object> filters);
 
+    /**
+     * Same as {@link #findAllInfoCSV(MessageType, int, String, boolean, Map)} without loading all the messages in
+     * memory. The stream must be consumed and closed inside the caller's transaction.
+     */
+    Stream<MessageLogInfo> streamAllInfoCSV(MessageType messageType, int max, String orderByColumn, boolean asc, Map<String, Object> filters);
+
 }
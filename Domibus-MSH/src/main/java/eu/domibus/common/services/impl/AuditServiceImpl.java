@@ -23,6 +23,7 @@ import org.reflections.Reflections;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Date;
@@ -30,6 +31,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Thomas Dussart
@@ -88,6 +90,22 @@ public class AuditServiceImpl implements AuditService {
                         max), AuditLog.class);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<AuditLog> streamAudit(
+            final Set<String> auditTargets,
+            final Set<String> actions,
+            final Set<String> users,
+            final Date from,
+            final Date to,
+            final int max) {
+        return auditDao.streamAudit(auditTargets, actions, users, from, to, max)
+                .map(audit -> domainCoreConverter.convert(audit, AuditLog.class));
+    }
+
     /**
      * {@inheritDoc}
      */
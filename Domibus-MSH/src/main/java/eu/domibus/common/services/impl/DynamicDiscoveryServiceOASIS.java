@@ -27,7 +27,6 @@ import eu.europa.ec.dynamicdiscovery.model.*;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,7 +35,6 @@ import java.security.KeyStore;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static eu.domibus.common.services.DomibusCacheService.DYNAMIC_DISCOVERY_ENDPOINT;
 
 /**
  * Service to query a compliant eDelivery SMP profile based on the OASIS BDX Service Metadata Publishers
@@ -74,7 +72,6 @@ public class DynamicDiscoveryServiceOASIS implements DynamicDiscoveryService {
     @Autowired
     DomibusProxyService domibusProxyService;
 
-    @Cacheable(value = DYNAMIC_DISCOVERY_ENDPOINT, key = "#domain + #participantId + #participantIdScheme + #documentId + #processId + #processIdScheme")
     @Transactional(noRollbackFor = IllegalStateException.class, propagation = Propagation.SUPPORTS)
     public EndpointInfo lookupInformation(final String domain,
                                           final String participantId,
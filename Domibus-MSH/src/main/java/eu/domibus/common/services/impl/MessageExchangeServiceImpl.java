@@ -25,12 +25,14 @@ import eu.domibus.common.model.logging.RawEnvelopeDto;
 import eu.domibus.common.model.logging.RawEnvelopeLog;
 import eu.domibus.common.services.MessageExchangeService;
 import eu.domibus.common.validators.ProcessValidator;
+import eu.domibus.core.crypto.CertificateValidationCache;
 import eu.domibus.core.crypto.api.MultiDomainCryptoService;
 import eu.domibus.core.mpc.MpcService;
 import eu.domibus.core.pmode.PModeProvider;
 import eu.domibus.core.pull.PullMessageService;
 import eu.domibus.ebms3.common.context.MessageExchangeConfiguration;
 import eu.domibus.ebms3.common.model.UserMessage;
+import eu.domibus.ebms3.puller.AdaptivePullScheduler;
 import eu.domibus.ebms3.puller.PullFrequencyHelper;
 import eu.domibus.logging.DomibusLogger;
 import eu.domibus.logging.DomibusLoggerFactory;
@@ -105,6 +107,9 @@ public class MessageExchangeServiceImpl implements MessageExchangeService {
     @Autowired
     protected CertificateService certificateService;
 
+    @Autowired
+    protected CertificateValidationCache certificateValidationCache;
+
     @Autowired
     protected DomainContextProvider domainProvider;
 
@@ -120,6 +125,9 @@ public class MessageExchangeServiceImpl implements MessageExchangeService {
     @Autowired
     private PullFrequencyHelper pullFrequencyHelper;
 
+    @Autowired
+    private AdaptivePullScheduler adaptivePullScheduler;
+
 
     /**
      * {@inheritDoc}
@@ -190,13 +198,14 @@ public class MessageExchangeServiceImpl implements MessageExchangeService {
                 .collect(Collectors.toSet());
         pullFrequencyHelper.setMpcNames(mpcNames);
 
-        final Integer maxPullRequestNumber = pullFrequencyHelper.getTotalPullRequestNumberPerJobCycle();
-        if (pause(maxPullRequestNumber)) {
+        // the adaptive scheduler counts the pull requests in flight instead of reading the size of the pull queue
+        final boolean adaptive = adaptivePullScheduler.isActive();
+        if (!adaptive && pause(pullFrequencyHelper.getTotalPullRequestNumberPerJobCycle())) {
             return;
         }
         validPullProcesses.forEach(pullProcess ->
                 pullProcess.getLegs().stream().forEach(legConfiguration ->
-                        preparePullRequestForMpc(mpc, initiator, pullProcess, legConfiguration)));
+                        preparePullRequestForMpc(mpc, initiator, pullProcess, legConfiguration, adaptive)));
     }
 
     private List<Process> getValidProcesses(List<Process> pullProcesses) {
@@ -212,7 +221,7 @@ public class MessageExchangeServiceImpl implements MessageExchangeService {
         return validPullProcesses;
     }
 
-    private void preparePullRequestForMpc(String mpc, Party initiator, Process pullProcess, LegConfiguration legConfiguration) {
+    private void preparePullRequestForMpc(String mpc, Party initiator, Process pullProcess, LegConfiguration legConfiguration, boolean adaptive) {
         for (Party responder : pullProcess.getResponderParties()) {
             String mpcQualifiedName = legConfiguration.getDefaultMpc().getQualifiedName();
             if (mpc != null && !mpc.equals(mpcQualifiedName)) {
@@ -231,15 +240,28 @@ public class MessageExchangeServiceImpl implements MessageExchangeService {
             LOG.debug("messageExchangeConfiguration:[{}]", messageExchangeConfiguration);
             String mpcName = legConfiguration.getDefaultMpc().getName();
             Integer pullRequestNumberForResponder = pullFrequencyHelper.getPullRequestNumberForMpc(mpcName);
-            LOG.debug("Sending:[{}] pull request for mpcFQN:[{}] to mpc:[{}]", pullRequestNumberForResponder, mpcQualifiedName, mpcName);
-            for (int i = 0; i < pullRequestNumberForResponder; i++) {
-                jmsManager.sendMapMessageToQueue(JMSMessageBuilder.create()
-                        .property(MPC, mpcQualifiedName)
-                        .property(PMODE_KEY, messageExchangeConfiguration.getReversePmodeKey())
-                        .property(PullContext.NOTIFY_BUSINNES_ON_ERROR, String.valueOf(legConfiguration.getErrorHandling().isBusinessErrorNotifyConsumer()))
-                        .build(), pullMessageQueue);
+            if (adaptive) {
+                pullRequestNumberForResponder = adaptivePullScheduler.acquire(mpcQualifiedName, responder.getName(), pullRequestNumberForResponder);
             }
+            LOG.debug("Sending:[{}] pull request for mpcFQN:[{}] to mpc:[{}]", pullRequestNumberForResponder, mpcQualifiedName, mpcName);
+            sendPullRequests(pullRequestNumberForResponder, mpcQualifiedName, messageExchangeConfiguration.getReversePmodeKey(), responder.getName(),
+                    legConfiguration.getErrorHandling().isBusinessErrorNotifyConsumer());
+        }
+    }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sendPullRequests(int number, String mpcQualifiedName, String pModeKey, String responder, boolean notifyBusinessOnError) {
+        for (int i = 0; i < number; i++) {
+            jmsManager.sendMapMessageToQueue(JMSMessageBuilder.create()
+                    .property(MPC, mpcQualifiedName)
+                    .property(PMODE_KEY, pModeKey)
+                    .property(PullContext.RESPONDER, responder)
+                    .property(PullContext.NODE, adaptivePullScheduler.getNodeId())
+                    .property(PullContext.NOTIFY_BUSINNES_ON_ERROR, String.valueOf(notifyBusinessOnError))
+                    .build(), pullMessageQueue);
         }
     }
 
@@ -395,7 +417,8 @@ public class MessageExchangeServiceImpl implements MessageExchangeService {
                 if (certificate == null) {
                     throw new ChainCertificateInvalidException(DomibusCoreErrorCode.DOM_001, "Cannot send message: sender[" + senderName + "] certificate not found in Keystore");
                 }
-                if (!certificateService.isCertificateValid(certificate)) {
+                final X509Certificate[] certificateChain = {certificate};
+                if (!certificateValidationCache.isValid(domainProvider.getCurrentDomain(), CertificateValidationCache.ValidationType.KEYSTORE_CERTIFICATE, senderName, certificateChain, () -> certificateService.isCertificateValid(certificate))) {
                     throw new ChainCertificateInvalidException(DomibusCoreErrorCode.DOM_001, chainExceptionMessage);
                 }
                 LOG.info("Sender certificate exists and is valid [{}]", senderName);
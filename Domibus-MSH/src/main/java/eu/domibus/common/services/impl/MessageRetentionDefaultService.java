@@ -1,33 +1,45 @@
 package eu.domibus.common.services.impl;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Lists;
 import eu.domibus.api.jms.JMSManager;
 import eu.domibus.api.jms.JMSMessageBuilder;
 import eu.domibus.api.jms.JmsMessage;
 import eu.domibus.api.multitenancy.Domain;
 import eu.domibus.api.multitenancy.DomainContextProvider;
 import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.api.usermessage.UserMessageService;
 import eu.domibus.common.dao.UserMessageLogDao;
 import eu.domibus.core.pmode.PModeProvider;
 import eu.domibus.logging.DomibusLogger;
 import eu.domibus.logging.DomibusLoggerFactory;
 import eu.domibus.messaging.MessageConstants;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.DateUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.jms.Queue;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static eu.domibus.api.property.DomibusPropertyMetadataManager.*;
 
 /**
  * This service class is responsible for the retention and clean up of Domibus messages, including signal messages.
  * Notice that only payloads data are really deleted.
+ * <p>
+ * By default every expired message is deleted separately, via the retention queue. When the bulk deletion is active
+ * the expired messages are deleted directly, in chunks, each chunk using one statement per table.
  *
  * @author Christian Koch, Stefan Mueller, Federico Martini, Cosmin Baciu
  * @since 3.0
@@ -37,6 +49,10 @@ public class MessageRetentionDefaultService implements MessageRetentionService {
 
     private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(MessageRetentionDefaultService.class);
 
+    protected static final int BULK_DELETE_MAX_CHUNK_SIZE = 1000;
+
+    protected static final String METRIC_BULK = "bulk";
+
     @Autowired
     protected DomibusPropertyProvider domibusPropertyProvider;
 
@@ -56,6 +72,17 @@ public class MessageRetentionDefaultService implements MessageRetentionService {
     @Qualifier("retentionMessageQueue")
     private Queue retentionMessageQueue;
 
+    @Autowired
+    protected UserMessageService userMessageService;
+
+    @Autowired
+    protected MetricRegistry metricRegistry;
+
+    /**
+     * Number of expired messages of each domain that were selected for bulk deletion and are not deleted yet
+     */
+    protected final Map<String, AtomicLong> bulkDeleteBacklog = new ConcurrentHashMap<>();
+
 
     /**
      * {@inheritDoc}
@@ -71,6 +98,25 @@ public class MessageRetentionDefaultService implements MessageRetentionService {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * No transaction is held while the expired messages are selected: each chunk is deleted by
+     * {@link UserMessageService#deleteMessages(List)} in a transaction of its own.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void deleteExpiredMessagesInBulk() {
+        final List<String> mpcs = pModeProvider.getMpcURIList();
+        // the max.delete limits are sized for the retention queue; the bulk deletion has its own limit
+        final Integer expiredMessagesLimit = getRetentionValue(DOMIBUS_RETENTION_WORKER_BULK_MAX_DELETE);
+        for (final String mpc : mpcs) {
+            LOG.debug("Deleting expired messages in bulk for MPC [{}] using expiredMessagesLimit [{}]", mpc, expiredMessagesLimit);
+            deleteExpiredDownloadedMessages(mpc, expiredMessagesLimit);
+            deleteExpiredNotDownloadedMessages(mpc, expiredMessagesLimit);
+        }
+    }
+
     @Override
     @Transactional
     public void deleteExpiredMessages(String mpc, Integer expiredDownloadedMessagesLimit, Integer expiredNotDownloadedMessagesLimit) {
@@ -92,7 +138,7 @@ public class MessageRetentionDefaultService implements MessageRetentionService {
             if (CollectionUtils.isNotEmpty(downloadedMessageIds)) {
                 final int deleted = downloadedMessageIds.size();
                 LOG.debug("Found [{}] downloaded messages to delete", deleted);
-                scheduleDeleteMessages(downloadedMessageIds);
+                deleteMessages(downloadedMessageIds);
                 LOG.debug("Deleted [{}] downloaded messages", deleted);
             }
         }
@@ -107,12 +153,68 @@ public class MessageRetentionDefaultService implements MessageRetentionService {
             if (CollectionUtils.isNotEmpty(notDownloadedMessageIds)) {
                 final int deleted = notDownloadedMessageIds.size();
                 LOG.debug("Found [{}] not-downloaded messages to delete", deleted);
-                scheduleDeleteMessages(notDownloadedMessageIds);
+                deleteMessages(notDownloadedMessageIds);
                 LOG.debug("Deleted [{}] not-downloaded messages", deleted);
             }
         }
     }
 
+    protected void deleteMessages(List<String> messageIds) {
+        if (isBulkDeleteActive()) {
+            deleteMessagesInBulk(messageIds);
+            return;
+        }
+        scheduleDeleteMessages(messageIds);
+    }
+
+    /**
+     * Deletes the messages in chunks, each chunk in its own transaction. A chunk that fails is logged and skipped;
+     * its messages are selected again by the next run.
+     *
+     * @param messageIds the ids of the expired messages
+     */
+    protected void deleteMessagesInBulk(List<String> messageIds) {
+        final String domainCode = domainContextProvider.getCurrentDomain().getCode();
+        final AtomicLong backlog = getBulkDeleteBacklog(domainCode);
+        backlog.addAndGet(messageIds.size());
+
+        final int chunkSize = getBulkDeleteChunkSize();
+        LOG.debug("Deleting [{}] messages in chunks of [{}]", messageIds.size(), chunkSize);
+        for (List<String> chunk : Lists.partition(messageIds, chunkSize)) {
+            try {
+                final int rows = userMessageService.deleteMessages(chunk);
+                metricRegistry.meter(MetricRegistry.name(MessageRetentionDefaultService.class, domainCode, METRIC_BULK, "messages")).mark(chunk.size());
+                metricRegistry.meter(MetricRegistry.name(MessageRetentionDefaultService.class, domainCode, METRIC_BULK, "rows")).mark(rows);
+            } catch (RuntimeException e) {
+                LOG.error("Could not delete a chunk of [{}] expired messages", chunk.size(), e);
+            } finally {
+                backlog.addAndGet(-chunk.size());
+            }
+        }
+    }
+
+    protected AtomicLong getBulkDeleteBacklog(String domainCode) {
+        return bulkDeleteBacklog.computeIfAbsent(domainCode, code -> {
+            final AtomicLong backlog = new AtomicLong();
+            metricRegistry.register(MetricRegistry.name(MessageRetentionDefaultService.class, code, METRIC_BULK, "backlog"), (Gauge<Long>) backlog::get);
+            return backlog;
+        });
+    }
+
+    @Override
+    public boolean isBulkDeleteActive() {
+        return BooleanUtils.isTrue(domibusPropertyProvider.getBooleanDomainProperty(DOMIBUS_RETENTION_WORKER_BULK_ACTIVE));
+    }
+
+    protected int getBulkDeleteChunkSize() {
+        final Integer chunkSize = getRetentionValue(DOMIBUS_RETENTION_WORKER_BULK_CHUNK_SIZE);
+        if (chunkSize == null || chunkSize <= 0 || chunkSize > BULK_DELETE_MAX_CHUNK_SIZE) {
+            LOG.debug("Invalid bulk delete chunk size [{}], using [{}]", chunkSize, BULK_DELETE_MAX_CHUNK_SIZE);
+            return BULK_DELETE_MAX_CHUNK_SIZE;
+        }
+        return chunkSize;
+    }
+
     @Override
     public void scheduleDeleteMessages(List<String> messageIds) {
         if (CollectionUtils.isEmpty(messageIds)) {
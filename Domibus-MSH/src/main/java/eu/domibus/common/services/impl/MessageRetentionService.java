@@ -16,6 +16,16 @@ public interface MessageRetentionService {
      */
     void deleteExpiredMessages();
 
+    /**
+     * Deletes the expired messages(downloaded or not) directly, in chunks, using the bulk deletion limit
+     */
+    void deleteExpiredMessagesInBulk();
+
+    /**
+     * @return true if the expired messages are deleted in bulk instead of via the retention queue
+     */
+    boolean isBulkDeleteActive();
+
     void deleteExpiredMessages(String mpc, Integer expiredDownloadedMessagesLimit, Integer expiredNotDownloadedMessagesLimit);
 
     void scheduleDeleteMessages(List<String> messageIds);
@@ -12,11 +12,14 @@ import eu.domibus.web.rest.ro.MessageLogRO;
 import eu.domibus.web.rest.ro.MessageLogResultRO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Federico Martini
@@ -75,6 +78,13 @@ public class MessagesLogServiceImpl implements MessagesLogService {
                 userMessageLogDao.findAllInfoPaged(0, max, orderByColumn, asc, filters));
     }
 
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<MessageLogInfo> streamAllInfoCSV(MessageType messageType, int max, String orderByColumn, boolean asc, Map<String, Object> filters) {
+        return (messageType == MessageType.SIGNAL_MESSAGE ?
+                signalMessageLogDao.streamAllInfo(max, orderByColumn, asc, filters) :
+                userMessageLogDao.streamAllInfo(max, orderByColumn, asc, filters));
+    }
 
     /**
      * @param messageLogInfo
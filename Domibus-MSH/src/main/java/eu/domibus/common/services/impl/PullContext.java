@@ -24,6 +24,8 @@ public class PullContext {
     public static final String MPC = "mpc";
     public static final String PMODE_KEY = "pmodKey";
     public static final String NOTIFY_BUSINNES_ON_ERROR = "NOTIFY_BUSINNES_ON_ERROR";
+    public static final String RESPONDER = "responder";
+    public static final String NODE = "node";
 
     public PullContext(final Process process, final Party responder, final String mpcQualifiedName) {
         Validate.notNull(process);
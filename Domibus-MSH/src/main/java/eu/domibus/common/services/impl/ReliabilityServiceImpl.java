@@ -3,7 +3,6 @@ package eu.domibus.common.services.impl;
 import eu.domibus.api.message.UserMessageLogService;
 import eu.domibus.api.usermessage.UserMessageService;
 import eu.domibus.common.MSHRole;
-import eu.domibus.common.dao.MessagingDao;
 import eu.domibus.common.dao.UserMessageLogDao;
 import eu.domibus.common.model.configuration.LegConfiguration;
 import eu.domibus.common.model.logging.UserMessageLog;
@@ -41,9 +40,6 @@ public class ReliabilityServiceImpl implements ReliabilityService {
     @Autowired
     private BackendNotificationService backendNotificationService;
 
-    @Autowired
-    private MessagingDao messagingDao;
-
     @Autowired
     private UpdateRetryLoggingService updateRetryLoggingService;
 
@@ -110,7 +106,7 @@ public class ReliabilityServiceImpl implements ReliabilityService {
                     backendNotificationService.notifyOfSendSuccess(userMessageLog);
                 }
                 userMessageLog.setSendAttempts(userMessageLog.getSendAttempts() + 1);
-                messagingDao.clearPayloadData(messageId);
+                userMessageService.clearPayloadData(messageId);
                 LOG.businessInfo(isTestMessage ? DomibusMessageCode.BUS_TEST_MESSAGE_SEND_SUCCESS : DomibusMessageCode.BUS_MESSAGE_SEND_SUCCESS,
                         userMessage.getFromFirstPartyId(), userMessage.getToFirstPartyId());
                 break;
@@ -38,7 +38,12 @@ public class RetentionWorker extends DomibusQuartzJobBean {
         }
 
         if (configurationDAO.configurationExists()) {
-            messageRetentionService.deleteExpiredMessages();
+            if (messageRetentionService.isBulkDeleteActive()) {
+                // the bulk deletion must not run in the transaction used to schedule the deletions on the retention queue
+                messageRetentionService.deleteExpiredMessagesInBulk();
+            } else {
+                messageRetentionService.deleteExpiredMessages();
+            }
         }
     }
 }
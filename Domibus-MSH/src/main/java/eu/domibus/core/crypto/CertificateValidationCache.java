@@ -0,0 +1,169 @@
+package eu.domibus.core.crypto;
+
+import eu.domibus.api.multitenancy.Domain;
+import eu.domibus.api.pki.DomibusCertificateException;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import eu.domibus.pki.CRLRevocationStore;
+import eu.domibus.pki.CRLRevokedSerials;
+import eu.domibus.pki.CRLUtil;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL;
+
+/**
+ * Keeps per domain the result of the validation of the certificate chains, by kind of validation, alias and fingerprint
+ * of the chain.
+ * <p>
+ * A result expires when a certificate of the chain becomes valid or expires, when a CRL of the chain reaches its next
+ * update, or after the refresh interval of the CRLs, whichever comes first. The expired results are evicted at most once
+ * per refresh interval of the CRLs, when another result is cached. The results of a domain are cleared when its
+ * truststore is reloaded or replaced.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Service
+public class CertificateValidationCache {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(CertificateValidationCache.class);
+
+    @Autowired
+    protected CRLUtil crlUtil;
+
+    @Autowired
+    protected CRLRevocationStore crlRevocationStore;
+
+    @Autowired
+    protected DomibusPropertyProvider domibusPropertyProvider;
+
+    protected final Map<String, Map<String, Verdict>> verdictsByDomain = new ConcurrentHashMap<>();
+
+    protected final Map<String, AtomicLong> lastEvictions = new ConcurrentHashMap<>();
+
+    /**
+     * The validations cached, which do not check the same things for the same alias
+     */
+    public enum ValidationType {
+        /**
+         * Validity and revocation of a certificate of the keystore
+         */
+        KEYSTORE_CERTIFICATE,
+        /**
+         * Validity, revocation and trust of a certificate chain of the truststore
+         */
+        TRUSTSTORE_CERTIFICATE_CHAIN
+    }
+
+    /**
+     * @param domain           the domain of the certificate store
+     * @param validationType   the kind of validation
+     * @param alias            the alias of the certificate in the store
+     * @param certificateChain the certificate chain, starting with the certificate of the alias
+     * @param validation       validates the certificate chain when no valid result is cached; its exceptions are not cached
+     * @return true if the certificate chain is valid
+     */
+    public boolean isValid(Domain domain, ValidationType validationType, String alias, X509Certificate[] certificateChain, BooleanSupplier validation) {
+        final String key = validationType + ":" + alias + ":" + getFingerprint(certificateChain);
+        final Map<String, Verdict> verdicts = verdictsByDomain.computeIfAbsent(domain.getCode(), code -> new ConcurrentHashMap<>());
+        final long now = System.currentTimeMillis();
+        final Verdict verdict = verdicts.get(key);
+        if (verdict != null && now < verdict.expiry) {
+            LOG.debug("Using the cached validation of the certificate [{}] in domain [{}]: valid [{}]", alias, domain, verdict.valid);
+            return verdict.valid;
+        }
+
+        final boolean valid = validation.getAsBoolean();
+        verdicts.put(key, new Verdict(valid, getExpiry(certificateChain, now)));
+        evictExpired(domain, verdicts, now);
+        return valid;
+    }
+
+    /**
+     * Removes the results expired, which would otherwise be kept until the certificate is validated again
+     */
+    protected void evictExpired(Domain domain, Map<String, Verdict> verdicts, long now) {
+        final long evictionInterval = domibusPropertyProvider.getIntegerProperty(DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL) * 1000L;
+        final AtomicLong lastEviction = lastEvictions.computeIfAbsent(domain.getCode(), code -> new AtomicLong(now));
+        final long previousEviction = lastEviction.get();
+        if (now - previousEviction < evictionInterval || !lastEviction.compareAndSet(previousEviction, now)) {
+            return;
+        }
+        final int size = verdicts.size();
+        verdicts.values().removeIf(verdict -> now >= verdict.expiry);
+        LOG.debug("Evicted [{}] expired certificate validations of domain [{}]", size - verdicts.size(), domain);
+    }
+
+    public void clear(Domain domain) {
+        LOG.debug("Clearing the certificate validations of domain [{}]", domain);
+        verdictsByDomain.remove(domain.getCode());
+    }
+
+    public void clear() {
+        verdictsByDomain.clear();
+    }
+
+    protected long getExpiry(X509Certificate[] certificateChain, long now) {
+        long expiry = now + domibusPropertyProvider.getIntegerProperty(DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL) * 1000L;
+        for (X509Certificate certificate : certificateChain) {
+            if (certificate == null) {
+                continue;
+            }
+            if (certificate.getNotBefore().getTime() > now) {
+                expiry = Math.min(expiry, certificate.getNotBefore().getTime());
+            }
+            expiry = Math.min(expiry, certificate.getNotAfter().getTime());
+            try {
+                for (String crlDistributionPointURL : crlUtil.getCrlDistributionPoints(certificate)) {
+                    final long nextUpdate = crlRevocationStore.getNextUpdate(crlDistributionPointURL);
+                    if (nextUpdate != CRLRevokedSerials.NO_NEXT_UPDATE) {
+                        expiry = Math.min(expiry, nextUpdate);
+                    }
+                }
+            } catch (RuntimeException e) {
+                LOG.debug("Could not read the CRL distribution points of the certificate [{}], the validation is not cached", certificate.getSubjectDN(), e);
+                return now;
+            }
+        }
+        return expiry;
+    }
+
+    protected String getFingerprint(X509Certificate[] certificateChain) {
+        final MessageDigest digest = DigestUtils.getSha256Digest();
+        for (X509Certificate certificate : certificateChain) {
+            if (certificate == null) {
+                continue;
+            }
+            try {
+                digest.update(certificate.getEncoded());
+            } catch (CertificateEncodingException e) {
+                throw new DomibusCertificateException("Could not encode the certificate [" + certificate.getSubjectDN() + "]", e);
+            }
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    protected static final class Verdict {
+
+        private final boolean valid;
+
+        private final long expiry;
+
+        protected Verdict(boolean valid, long expiry) {
+            this.valid = valid;
+            this.expiry = expiry;
+        }
+    }
+}
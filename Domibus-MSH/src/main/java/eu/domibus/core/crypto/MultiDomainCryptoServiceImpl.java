@@ -3,23 +3,23 @@ package eu.domibus.core.crypto;
 import eu.domibus.api.crypto.CryptoException;
 import eu.domibus.api.multitenancy.Domain;
 import eu.domibus.api.pki.DomibusCertificateException;
-import eu.domibus.common.services.DomibusCacheService;
 import eu.domibus.core.crypto.api.CertificateEntry;
 import eu.domibus.core.crypto.api.DomainCryptoService;
 import eu.domibus.core.crypto.api.DomainCryptoServiceFactory;
 import eu.domibus.core.crypto.api.MultiDomainCryptoService;
+import eu.domibus.core.pmode.DynamicDiscoveryParticipantCache;
 import eu.domibus.logging.DomibusLogger;
 import eu.domibus.logging.DomibusLoggerFactory;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.wss4j.common.crypto.CryptoType;
 import org.apache.wss4j.common.ext.WSSecurityException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.security.auth.callback.CallbackHandler;
 import java.security.*;
+import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.util.*;
 import java.util.regex.Pattern;
@@ -39,7 +39,10 @@ public class MultiDomainCryptoServiceImpl implements MultiDomainCryptoService {
     DomainCryptoServiceFactory domainCertificateProviderFactory;
 
     @Autowired
-    private DomibusCacheService domibusCacheService;
+    protected CertificateValidationCache certificateValidationCache;
+
+    @Autowired
+    protected DynamicDiscoveryParticipantCache dynamicDiscoveryParticipantCache;
 
     @Override
     public X509Certificate[] getX509Certificates(Domain domain, CryptoType cryptoType) throws WSSecurityException {
@@ -100,6 +103,8 @@ public class MultiDomainCryptoServiceImpl implements MultiDomainCryptoService {
     public void refreshTrustStore(Domain domain) {
         final DomainCryptoService domainCertificateProvider = getDomainCertificateProvider(domain);
         domainCertificateProvider.refreshTrustStore();
+        certificateValidationCache.clear(domain);
+        dynamicDiscoveryParticipantCache.trustStoreChanged(domain);
     }
 
     @Override
@@ -109,7 +114,8 @@ public class MultiDomainCryptoServiceImpl implements MultiDomainCryptoService {
         validateTruststoreType(domainCertificateProvider.getTrustStoreType(), storeFileName);
 
         domainCertificateProvider.replaceTrustStore(store, password);
-        domibusCacheService.clearCache("certValidationByAlias");
+        certificateValidationCache.clear(domain);
+        dynamicDiscoveryParticipantCache.trustStoreChanged(domain);
     }
 
     protected void validateTruststoreType(String storeType, String storeFileName) {
@@ -141,10 +147,38 @@ public class MultiDomainCryptoServiceImpl implements MultiDomainCryptoService {
 
     @Override
     @Transactional(noRollbackFor = DomibusCertificateException.class)
-    @Cacheable(value = "certValidationByAlias", key = "#domain.code + #alias")
     public boolean isCertificateChainValid(Domain domain, String alias) throws DomibusCertificateException {
         final DomainCryptoService domainCertificateProvider = getDomainCertificateProvider(domain);
-        return domainCertificateProvider.isCertificateChainValid(alias);
+        final X509Certificate[] certificateChain = getTrustStoreCertificateChain(domainCertificateProvider, alias);
+        if (certificateChain == null) {
+            // the provider reports the alias missing from the truststore
+            return domainCertificateProvider.isCertificateChainValid(alias);
+        }
+        return certificateValidationCache.isValid(domain, CertificateValidationCache.ValidationType.TRUSTSTORE_CERTIFICATE_CHAIN, alias, certificateChain, () -> domainCertificateProvider.isCertificateChainValid(alias));
+    }
+
+    /**
+     * @return the certificate chain of the alias in the truststore, or only its certificate if it has no chain; null if the alias is not found
+     */
+    protected X509Certificate[] getTrustStoreCertificateChain(DomainCryptoService domainCertificateProvider, String alias) {
+        final KeyStore trustStore = domainCertificateProvider.getTrustStore();
+        if (trustStore == null) {
+            return null;
+        }
+        try {
+            Certificate[] certificateChain = trustStore.getCertificateChain(alias);
+            if (certificateChain == null) {
+                final Certificate certificate = trustStore.getCertificate(alias);
+                certificateChain = certificate != null ? new Certificate[]{certificate} : null;
+            }
+            if (certificateChain == null || !(certificateChain[0] instanceof X509Certificate)) {
+                return null;
+            }
+            return Arrays.copyOf(certificateChain, certificateChain.length, X509Certificate[].class);
+        } catch (KeyStoreException | ArrayStoreException e) {
+            LOG.debug("Could not read the certificate chain of [{}] from the truststore", alias, e);
+            return null;
+        }
     }
 
     @Override
@@ -200,6 +234,8 @@ public class MultiDomainCryptoServiceImpl implements MultiDomainCryptoService {
     @Override
     public void reset() {
         domainCertificateProviderMap.values().stream().forEach(service -> service.reset());
+        certificateValidationCache.clear();
+        domainCertificateProviderMap.keySet().forEach(domain -> dynamicDiscoveryParticipantCache.trustStoreChanged(domain));
     }
 
     @Override
@@ -214,5 +250,7 @@ public class MultiDomainCryptoServiceImpl implements MultiDomainCryptoService {
         }
 
         domainCertificateProvider.reset();
+        certificateValidationCache.clear(domain);
+        dynamicDiscoveryParticipantCache.trustStoreChanged(domain);
     }
 }
@@ -2,8 +2,11 @@ package eu.domibus.core.csv;
 
 import org.springframework.http.ResponseEntity;
 
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * @author Tiago Miguel
@@ -17,6 +20,17 @@ public interface CsvService {
     String exportToCSV(List<?> list, Class tClass,
                        final Map<String, String> customColumnNames, List<String> excludedColumns);
 
+    /**
+     * Writes the rows as CSV while they are read, without keeping them in memory. The rows are opened, read and closed
+     * in a read-only transaction.
+     *
+     * @param rows   opens the stream of the rows to export, all of the given class
+     * @param tClass the class of the rows, giving the columns of the CSV
+     * @param writer the writer receiving the CSV, flushed but not closed
+     */
+    void exportToCSV(Supplier<? extends Stream<?>> rows, Class tClass,
+                     final Map<String, String> customColumnNames, List<String> excludedColumns, Writer writer);
+
     int getMaxNumberRowsToExport();
 
     String getCsvFilename(String module);
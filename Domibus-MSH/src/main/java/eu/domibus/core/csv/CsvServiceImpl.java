@@ -16,15 +16,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
 import java.text.SimpleDateFormat;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Tiago Miguel
@@ -37,6 +44,15 @@ public class CsvServiceImpl implements CsvService {
 
     static final String MAXIMUM_NUMBER_CSV_ROWS = "domibus.ui.csv.max.rows";
 
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss'GMT'Z");
+
+    /**
+     * The declared fields of each exported class, already made accessible
+     */
+    private static final Map<Class<?>, List<Field>> DECLARED_FIELDS = new ConcurrentHashMap<>();
+
     @Autowired
     private DomibusPropertyProvider domibusPropertyProvider;
 
@@ -54,6 +70,26 @@ public class CsvServiceImpl implements CsvService {
         return result.toString();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportToCSV(Supplier<? extends Stream<?>> rows, Class theClass,
+                            Map<String, String> customColumnNames, List<String> excludedColumns, Writer writer) {
+        CSVWriter csvBuilder = new CSVWriter(writer);
+
+        List<Field> activeFields = getExportedFields(null, theClass, excludedColumns);
+
+        createCSVColumnHeader(csvBuilder, activeFields, customColumnNames);
+        try (Stream<?> openedRows = rows.get()) {
+            openedRows.forEach(elem -> createCSVRow(elem, csvBuilder, activeFields));
+        }
+
+        try {
+            csvBuilder.flush();
+        } catch (IOException e) {
+            throw new CsvException(DomibusCoreErrorCode.DOM_001, "Exception while writing on CSV", e);
+        }
+    }
+
     @Override
     public int getMaxNumberRowsToExport() {
         return NumberUtils.toInt(domibusPropertyProvider.getDomainProperty(MAXIMUM_NUMBER_CSV_ROWS));
@@ -77,14 +113,21 @@ public class CsvServiceImpl implements CsvService {
         }
 
         final List<String> excludedCols = excludedColumns == null ? new ArrayList<>() : excludedColumns;
-        Field[] fields = clazz.getDeclaredFields();
-        List<Field> activeFields = Arrays.stream(fields)
+        List<Field> activeFields = getDeclaredFields(clazz).stream()
                 .filter(field -> !excludedCols.contains(field.getName()))
                 .collect(Collectors.toList());
 
         return activeFields;
     }
 
+    protected List<Field> getDeclaredFields(Class<?> clazz) {
+        return DECLARED_FIELDS.computeIfAbsent(clazz, key -> {
+            Field[] fields = key.getDeclaredFields();
+            AccessibleObject.setAccessible(fields, true);
+            return Collections.unmodifiableList(Arrays.asList(fields));
+        });
+    }
+
     protected void writeCSVRow(CSVWriter csvBuilder, List<String> values) {
         csvBuilder.writeNext(values.toArray(new String[0]), false);
     }
@@ -110,20 +153,22 @@ public class CsvServiceImpl implements CsvService {
             return;
         }
         for (Object elem : list) {
-            List<String> fieldValues = new ArrayList<>();
-            for (Field field : fields) {
-                // set that field to be accessible
-                field.setAccessible(true);
-                try {
-                    String value = serializeFieldValue(field, elem);
-                    fieldValues.add(value);
-                } catch (IllegalAccessException e) {
-                    LOG.error("Exception while writing on CSV ", e);
-                    throw new CsvException(DomibusCoreErrorCode.DOM_001, "Exception while writing on CSV", e);
-                }
+            createCSVRow(elem, csvBuilder, fields);
+        }
+    }
+
+    protected void createCSVRow(Object elem, CSVWriter csvBuilder, List<Field> fields) {
+        List<String> fieldValues = new ArrayList<>(fields.size());
+        for (Field field : fields) {
+            try {
+                String value = serializeFieldValue(field, elem);
+                fieldValues.add(value);
+            } catch (IllegalAccessException e) {
+                LOG.error("Exception while writing on CSV ", e);
+                throw new CsvException(DomibusCoreErrorCode.DOM_001, "Exception while writing on CSV", e);
             }
-            writeCSVRow(csvBuilder, fieldValues);
         }
+        writeCSVRow(csvBuilder, fieldValues);
     }
 
     protected String serializeFieldValue(Field field, Object elem) throws IllegalAccessException {
@@ -132,13 +177,11 @@ public class CsvServiceImpl implements CsvService {
             return StringUtils.EMPTY;
         }
         if (fieldValue instanceof Map) {
-            Gson gson = new GsonBuilder().disableHtmlEscaping().create();
-            return gson.toJson(fieldValue);
+            return GSON.toJson(fieldValue);
         }
         if (fieldValue instanceof Date) {
-            DateTimeFormatter f = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss'GMT'Z");
             ZonedDateTime d = ZonedDateTime.ofInstant(((Date) fieldValue).toInstant(), ZoneId.systemDefault());
-            return d.format(f);
+            return d.format(DATE_FORMATTER);
         }
         return Objects.toString(fieldValue, StringUtils.EMPTY);
     }
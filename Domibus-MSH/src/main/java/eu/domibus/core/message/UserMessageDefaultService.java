@@ -1,5 +1,6 @@
 package eu.domibus.core.message;
 
+import com.google.common.collect.Lists;
 import eu.domibus.api.exceptions.DomibusCoreErrorCode;
 import eu.domibus.api.exceptions.DomibusCoreException;
 import eu.domibus.api.jms.JMSManager;
@@ -25,12 +26,16 @@ import eu.domibus.common.services.MessageExchangeService;
 import eu.domibus.core.converter.DomainCoreConverter;
 import eu.domibus.core.message.fragment.MessageGroupDao;
 import eu.domibus.core.message.fragment.MessageGroupEntity;
+import eu.domibus.core.payload.purge.PayloadPurgeService;
 import eu.domibus.core.pmode.PModeProvider;
 import eu.domibus.core.pull.PartyExtractor;
 import eu.domibus.core.pull.PullMessageService;
+import eu.domibus.core.replication.UIMessageDao;
 import eu.domibus.core.replication.UIReplicationSignalService;
 import eu.domibus.ebms3.common.UserMessageServiceHelper;
 import eu.domibus.ebms3.common.context.MessageExchangeConfiguration;
+import eu.domibus.ebms3.common.model.MessageType;
+import eu.domibus.ebms3.common.model.PartInfo;
 import eu.domibus.ebms3.common.model.SignalMessage;
 import eu.domibus.ebms3.common.model.UserMessage;
 import eu.domibus.ebms3.receiver.BackendNotificationService;
@@ -57,9 +62,8 @@ import org.springframework.transaction.annotation.Transactional;
 import javax.jms.JMSException;
 import javax.jms.Queue;
 import java.sql.Timestamp;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * @author Cosmin Baciu
@@ -72,6 +76,11 @@ public class UserMessageDefaultService implements UserMessageService {
     static final String MESSAGE = "Message [";
     static final String DOES_NOT_EXIST = "] does not exist";
 
+    /**
+     * Maximum number of values bound to an IN clause; Oracle does not accept more than 1000
+     */
+    protected static final int IN_CLAUSE_MAX_SIZE = 1000;
+
     @Autowired
     @Qualifier("sendMessageQueue")
     private Queue sendMessageQueue;
@@ -145,6 +154,12 @@ public class UserMessageDefaultService implements UserMessageService {
     @Autowired
     private PModeProvider pModeProvider;
 
+    @Autowired
+    protected UIMessageDao uiMessageDao;
+
+    @Autowired
+    protected PayloadPurgeService payloadPurgeService;
+
     @Transactional(propagation = Propagation.REQUIRES_NEW, timeout = 1200) // 20 minutes
     public void createMessageFragments(UserMessage sourceMessage, MessageGroupEntity messageGroupEntity, List<String> fragmentFiles) {
         messageGroupDao.create(messageGroupEntity);
@@ -289,6 +304,19 @@ public class UserMessageDefaultService implements UserMessageService {
         scheduleSending(messageId, new DispatchMessageCreator(messageId).createMessage(), isSplitAndJoin);
     }
 
+    @Override
+    public void scheduleSending(List<String> messageIds, boolean isSplitAndJoin) {
+        if (messageIds.isEmpty()) {
+            return;
+        }
+        final Queue queue = isSplitAndJoin ? sendLargeMessageQueue : sendMessageQueue;
+        LOG.debug("Sending [{}] messages to queue [{}]", messageIds.size(), queue);
+        for (String messageId : messageIds) {
+            jmsManager.sendMessageToQueue(new DispatchMessageCreator(messageId).createMessage(), queue);
+        }
+        userMessageLogDao.setMessagesAsScheduled(messageIds);
+    }
+
     @Override
     public void scheduleSending(String messageId, Long delay, boolean isSplitAndJoin) {
         scheduleSending(messageId, new DelayedDispatchMessageCreator(messageId, delay).createMessage(), isSplitAndJoin);
@@ -506,11 +534,126 @@ public class UserMessageDefaultService implements UserMessageService {
 
         deleteMessagePluginCallback(messageId);
 
-        messagingDao.clearPayloadData(messageId);
+        clearPayloadData(messageId);
         userMessageLogService.setMessageAsDeleted(messageId);
         handleSignalMessageDelete(messageId);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int deleteMessages(List<String> messageIds) {
+        LOG.debug("Deleting [{}] messages", messageIds.size());
+
+        deleteMessagesPluginCallback(messageIds);
+        notifyOfMessagesDeleted(messageIds);
+
+        int rows = clearPayloadData(messageIds);
+        rows += userMessageLogDao.setMessagesAsDeleted(messageIds);
+
+        final List<Long> receiptIds = signalMessageDao.findReceiptIdsByRefMessageIds(messageIds);
+        for (List<Long> receiptIdsPartition : Lists.partition(receiptIds, IN_CLAUSE_MAX_SIZE)) {
+            rows += signalMessageDao.clearReceipts(receiptIdsPartition);
+        }
+        final List<String> signalMessageIds = signalMessageDao.findSignalMessageIdsByRefMessageIds(messageIds);
+        for (List<String> signalMessageIdsPartition : Lists.partition(signalMessageIds, IN_CLAUSE_MAX_SIZE)) {
+            rows += signalMessageLogDao.setMessagesAsDeleted(signalMessageIdsPartition);
+        }
+
+        if (uiReplicationSignalService.isReplicationEnabled()) {
+            rows += uiMessageDao.setMessagesAsDeleted(messageIds);
+            for (List<String> signalMessageIdsPartition : Lists.partition(signalMessageIds, IN_CLAUSE_MAX_SIZE)) {
+                rows += uiMessageDao.setMessagesAsDeleted(signalMessageIdsPartition);
+            }
+        }
+        LOG.debug("Deleted [{}] messages and [{}] signal messages: [{}] rows updated", messageIds.size(), signalMessageIds.size(), rows);
+        return rows;
+    }
+
+    /**
+     * Notifies the backends and the alerts of the deletion of the given messages, as {@link UserMessageLogDefaultService#setMessageAsDeleted(String)} does
+     */
+    protected void notifyOfMessagesDeleted(List<String> messageIds) {
+        final Timestamp deletionTimestamp = new Timestamp(System.currentTimeMillis());
+        for (UserMessageLog userMessageLog : userMessageLogDao.findByMessageIds(messageIds)) {
+            if (MessageType.USER_MESSAGE == userMessageLog.getMessageType() && !userMessageLog.isTestMessage()) {
+                backendNotificationService.notifyOfMessageStatusChange(userMessageLog, MessageStatus.DELETED, deletionTimestamp);
+            }
+        }
+        LOG.removeMDC(DomibusLogger.MDC_MESSAGE_ID);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void clearPayloadData(String messageId) {
+        final List<String> payloadFiles = messagingDao.clearPayloadData(messageId);
+        if (!payloadFiles.isEmpty()) {
+            payloadPurgeService.schedulePurge(payloadFiles);
+        }
+    }
+
+    /**
+     * Clears the payloads of the given messages: the payloads stored in the database are emptied with one statement
+     * and the payload files are scheduled for deletion by the {@link PayloadPurgeService}
+     *
+     * @return the number of database payloads emptied
+     */
+    protected int clearPayloadData(List<String> messageIds) {
+        final List<PartInfo> databasePayloads = new ArrayList<>();
+        final List<String> payloadFiles = new ArrayList<>();
+        for (PartInfo partInfo : messagingDao.findPartInfosForMessages(messageIds)) {
+            if (StringUtils.isNotEmpty(partInfo.getFileName())) {
+                payloadFiles.add(partInfo.getFileName());
+            } else {
+                databasePayloads.add(partInfo);
+            }
+        }
+        int rows = 0;
+        for (List<PartInfo> databasePayloadsPartition : Lists.partition(databasePayloads, IN_CLAUSE_MAX_SIZE)) {
+            rows += messagingDao.emptyPayloads(databasePayloadsPartition);
+        }
+        if (!payloadFiles.isEmpty()) {
+            payloadPurgeService.schedulePurge(payloadFiles);
+        }
+        return rows;
+    }
+
+    protected void deleteMessagesPluginCallback(List<String> messageIds) {
+        if (backendNotificationService.getNotificationListenerServices() == null) {
+            LOG.debug("No notification listeners found");
+            return;
+        }
+        final Map<String, List<String>> messageIdsByBackend = userMessageLogDao.findBackendsForMessageIds(messageIds).entrySet().stream()
+                .filter(messageBackend -> StringUtils.isNotEmpty(messageBackend.getValue()))
+                .collect(Collectors.groupingBy(Map.Entry::getValue, Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+        for (Map.Entry<String, List<String>> backendMessageIds : messageIdsByBackend.entrySet()) {
+            NotificationListener notificationListener = backendNotificationService.getNotificationListener(backendMessageIds.getKey());
+            if (notificationListener == null) {
+                LOG.warn("Could not find notification listener for backend [{}]", backendMessageIds.getKey());
+                continue;
+            }
+            deleteMessagesPluginCallback(backendMessageIds.getValue(), notificationListener);
+        }
+    }
+
+    protected void deleteMessagesPluginCallback(List<String> messageIds, NotificationListener notificationListener) {
+        try {
+            Queue backendNotificationQueue = notificationListener.getBackendNotificationQueue();
+            if (backendNotificationQueue != null) {
+                String queueName = backendNotificationQueue.getQueueName();
+                for (String messageId : messageIds) {
+                    JmsMessage message = jmsManager.consumeMessage(queueName, messageId);
+                    if (message != null) {
+                        LOG.businessInfo(DomibusMessageCode.BUS_MSG_CONSUMED, messageId, queueName);
+                    }
+                }
+            }
+        } catch (JMSException jmsEx) {
+            LOG.error("Error trying to get the queue name", jmsEx);
+            throw new DomibusCoreException(DomibusCoreErrorCode.DOM_001, "Could not get the queue name", jmsEx.getCause());
+        }
+        notificationListener.deleteMessagesCallback(messageIds);
+    }
+
     protected void deleteMessagePluginCallback(String messageId) {
         if (backendNotificationService.getNotificationListenerServices() == null) {
             LOG.debug("No notification listeners found");
@@ -16,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.sql.Timestamp;
+import java.util.Date;
 
 /**
  * @author Cosmin Baciu
@@ -105,6 +106,15 @@ public class UserMessageLogDefaultService implements UserMessageLogService {
         updateMessageStatus(userMessageLog, MessageStatus.SEND_FAILURE);
     }
 
+    /**
+     * Marks the message as dispatched and waiting for the response of the receiver until the given deadline, after
+     * which it is put back in waiting for retry
+     */
+    public void setMessageAsSendInProgress(UserMessageLog userMessageLog, Date responseDeadline) {
+        userMessageLog.setNextAttempt(responseDeadline);
+        updateMessageStatus(userMessageLog, MessageStatus.SEND_IN_PROGRESS);
+    }
+
     /**
      * Checks <code>service</code> and <code>action</code> to determine if it's a TEST message
      *
@@ -5,6 +5,7 @@ import eu.domibus.common.MessageStatus;
 import eu.domibus.common.dao.BasicDao;
 import eu.domibus.logging.DomibusLogger;
 import eu.domibus.logging.DomibusLoggerFactory;
+import org.springframework.dao.support.DataAccessUtils;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.NoResultException;
@@ -36,6 +37,48 @@ public class MessageGroupDao extends BasicDao<MessageGroupEntity> {
         }
     }
 
+    /**
+     * Increments the sent fragments of the group with an update statement. The row stays locked until the current
+     * transaction ends, so no other transaction, on any node, sees or changes the returned value meanwhile.
+     *
+     * @param groupId the group id
+     * @return the sent fragments after the increment, null if the group does not exist
+     */
+    public Long incrementSentFragments(String groupId) {
+        return incrementFragments("MessageGroupEntity.incrementSentFragments", "MessageGroupEntity.findSentFragments", groupId);
+    }
+
+    /**
+     * Increments the received fragments of the group with an update statement. The row stays locked until the current
+     * transaction ends, so no other transaction, on any node, sees or changes the returned value meanwhile.
+     *
+     * @param groupId the group id
+     * @return the received fragments after the increment, null if the group does not exist
+     */
+    public Long incrementReceivedFragments(String groupId) {
+        return incrementFragments("MessageGroupEntity.incrementReceivedFragments", "MessageGroupEntity.findReceivedFragments", groupId);
+    }
+
+    public Long findFragmentCount(String groupId) {
+        final TypedQuery<Long> query = em.createNamedQuery("MessageGroupEntity.findFragmentCount", Long.class);
+        query.setParameter("GROUP_ID", groupId);
+        return DataAccessUtils.singleResult(query.getResultList());
+    }
+
+    protected Long incrementFragments(String incrementQuery, String findQuery, String groupId) {
+        final int updated = em.createNamedQuery(incrementQuery)
+                .setParameter("GROUP_ID", groupId)
+                .executeUpdate();
+        if (updated == 0) {
+            LOG.debug("Could not find MessageGroupEntity for group [{}]", groupId);
+            return null;
+        }
+        // the scalar query reads the row updated above instead of an entity possibly cached in the persistence context
+        final TypedQuery<Long> query = em.createNamedQuery(findQuery, Long.class);
+        query.setParameter("GROUP_ID", groupId);
+        return query.getSingleResult();
+    }
+
     public List<MessageGroupEntity> findOngoingReceivedNonExpiredOrRejected() {
         TypedQuery<MessageGroupEntity> query = this.em.createNamedQuery("MessageGroupEntity.findReceivedNonExpiredOrRejected", MessageGroupEntity.class);
         query.setParameter("MSH_ROLE", MSHRole.RECEIVING);
@@ -21,7 +21,12 @@ import java.math.BigInteger;
         @NamedQuery(name = "MessageGroupEntity.findReceivedNonExpiredOrRejected", query = "SELECT c FROM MessageGroupEntity c where c.mshRole = :MSH_ROLE " +
                 "and c.fragmentCount <> c.receivedFragments and ( (c.rejected is null or c.rejected=false) or (c.expired is null or c.expired=false) )"),
         @NamedQuery(name = "MessageGroupEntity.findSendNonExpiredOrRejected", query = "SELECT c FROM MessageGroupEntity c, UserMessageLog msg where c.mshRole = :MSH_ROLE " +
-                " and ( (c.rejected is null or c.rejected=false) or (c.expired is null or c.expired=false) ) and c.sourceMessageId = msg.messageInfo.messageId and msg.messageStatus = :SOURCE_MSG_STATUS")
+                " and ( (c.rejected is null or c.rejected=false) or (c.expired is null or c.expired=false) ) and c.sourceMessageId = msg.messageInfo.messageId and msg.messageStatus = :SOURCE_MSG_STATUS"),
+        @NamedQuery(name = "MessageGroupEntity.incrementSentFragments", query = "UPDATE MessageGroupEntity c set c.sentFragments = COALESCE(c.sentFragments, 0) + 1 where c.groupId=:GROUP_ID"),
+        @NamedQuery(name = "MessageGroupEntity.incrementReceivedFragments", query = "UPDATE MessageGroupEntity c set c.receivedFragments = COALESCE(c.receivedFragments, 0) + 1 where c.groupId=:GROUP_ID"),
+        @NamedQuery(name = "MessageGroupEntity.findSentFragments", query = "SELECT c.sentFragments FROM MessageGroupEntity c where c.groupId=:GROUP_ID"),
+        @NamedQuery(name = "MessageGroupEntity.findReceivedFragments", query = "SELECT c.receivedFragments FROM MessageGroupEntity c where c.groupId=:GROUP_ID"),
+        @NamedQuery(name = "MessageGroupEntity.findFragmentCount", query = "SELECT c.fragmentCount FROM MessageGroupEntity c where c.groupId=:GROUP_ID")
 })
 public class MessageGroupEntity extends AbstractBaseEntity {
 
@@ -170,20 +175,6 @@ public class MessageGroupEntity extends AbstractBaseEntity {
         this.mshRole = mshRole;
     }
 
-    public void incrementSentFragments() {
-        if (sentFragments == null) {
-            sentFragments = 0L;
-        }
-        sentFragments++;
-    }
-
-    public void incrementReceivedFragments() {
-        if (receivedFragments == null) {
-            receivedFragments = 0L;
-        }
-        receivedFragments++;
-    }
-
     @Override
     public String toString() {
         return new ToStringBuilder(this)
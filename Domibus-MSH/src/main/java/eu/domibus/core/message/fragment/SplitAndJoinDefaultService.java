@@ -611,30 +611,34 @@ public class SplitAndJoinDefaultService implements SplitAndJoinService {
         }
     }
 
+    @Transactional
     @Override
-    public synchronized void incrementSentFragments(String groupId) {
+    public void incrementSentFragments(String groupId) {
         LOG.debug("Incrementing the sentFragments count for group [{}]", groupId);
 
-        final MessageGroupEntity groupEntity = messageGroupDao.findByGroupId(groupId);
-        groupEntity.incrementSentFragments();
-        messageGroupDao.update(groupEntity);
-        LOG.debug("Sent fragments [{}] out of [{}] for group [{}]", groupEntity.getSentFragments(), groupEntity.getFragmentCount(), groupId);
+        final Long sentFragments = messageGroupDao.incrementSentFragments(groupId);
+        LOG.debug("Sent fragments [{}] for group [{}]", sentFragments, groupId);
     }
 
+    /**
+     * The counter is incremented in the database, which locks only the row of the group until the transaction ends:
+     * the fragments of different groups are counted in parallel and only the transaction reaching the fragment count
+     * schedules the rejoin.
+     */
+    @Transactional
     @Override
-    public synchronized void incrementReceivedFragments(String groupId, String backendName) {
+    public void incrementReceivedFragments(String groupId, String backendName) {
         LOG.debug("Incrementing receivedFragments count for group [{}]", groupId);
 
-        final MessageGroupEntity groupEntity = messageGroupDao.findByGroupId(groupId);
-        groupEntity.incrementReceivedFragments();
-        messageGroupDao.update(groupEntity);
+        final Long receivedFragments = messageGroupDao.incrementReceivedFragments(groupId);
+        final Long fragmentCount = messageGroupDao.findFragmentCount(groupId);
 
-        LOG.debug("Received fragments [{}] out of expected [{}] for group [{}]", groupEntity.getReceivedFragments(), groupEntity.getFragmentCount(), groupEntity.getGroupId());
+        LOG.debug("Received fragments [{}] out of expected [{}] for group [{}]", receivedFragments, fragmentCount, groupId);
 
-        if (groupEntity.getReceivedFragments().equals(groupEntity.getFragmentCount())) {
-            LOG.info("All fragment files received for group [{}], scheduling the source message rejoin", groupEntity.getGroupId());
+        if (receivedFragments != null && receivedFragments.equals(fragmentCount)) {
+            LOG.info("All fragment files received for group [{}], scheduling the source message rejoin", groupId);
 
-            userMessageService.scheduleSourceMessageRejoinFile(groupEntity.getGroupId(), backendName);
+            userMessageService.scheduleSourceMessageRejoinFile(groupId, backendName);
         }
     }
 
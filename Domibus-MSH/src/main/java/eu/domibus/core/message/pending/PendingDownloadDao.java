@@ -0,0 +1,54 @@
+package eu.domibus.core.message.pending;
+
+import com.google.common.collect.Lists;
+import eu.domibus.common.dao.BasicDao;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@Repository
+public class PendingDownloadDao extends BasicDao<PendingDownloadEntity> {
+
+    protected static final int IN_CLAUSE_MAX_SIZE = 1000;
+
+    public PendingDownloadDao() {
+        super(PendingDownloadEntity.class);
+    }
+
+    /**
+     * @param finalRecipient the final recipient of the messages or null for all the messages of the backend
+     * @param maxResults     the maximum number of message ids returned or 0 for all of them
+     */
+    public List<String> findMessageIds(String backend, String finalRecipient, int firstResult, int maxResults) {
+        final TypedQuery<String> query;
+        if (finalRecipient == null) {
+            query = em.createNamedQuery("PendingDownloadEntity.findMessageIds", String.class);
+        } else {
+            query = em.createNamedQuery("PendingDownloadEntity.findMessageIdsByFinalRecipient", String.class);
+            query.setParameter("FINAL_RECIPIENT", finalRecipient);
+        }
+        query.setParameter("BACKEND", backend);
+        query.setFirstResult(firstResult);
+        if (maxResults > 0) {
+            query.setMaxResults(maxResults);
+        }
+        return query.getResultList();
+    }
+
+    public int deleteByMessageIds(String backend, List<String> messageIds) {
+        int deleted = 0;
+        for (List<String> partition : Lists.partition(messageIds, IN_CLAUSE_MAX_SIZE)) {
+            final Query query = em.createNamedQuery("PendingDownloadEntity.deleteByMessageIds");
+            query.setParameter("BACKEND", backend);
+            query.setParameter("MESSAGE_IDS", partition);
+            deleted += query.executeUpdate();
+        }
+        return deleted;
+    }
+}
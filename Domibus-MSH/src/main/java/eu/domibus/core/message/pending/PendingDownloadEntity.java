@@ -0,0 +1,73 @@
+package eu.domibus.core.message.pending;
+
+import eu.domibus.ebms3.common.model.AbstractBaseEntity;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+
+/**
+ * Message received for a plugin in PULL mode and not yet downloaded by it.
+ * <p>
+ * The entry is created together with the MESSAGE_RECEIVED notification sent to the plugin and is removed when the
+ * notification is consumed, so that the pending messages can be listed without browsing the notification queue.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Entity
+@Table(name = "TB_PENDING_DOWNLOAD")
+@NamedQueries({
+        @NamedQuery(name = "PendingDownloadEntity.findMessageIds", query = "SELECT p.messageId FROM PendingDownloadEntity p where p.backend=:BACKEND order by p.entityId"),
+        @NamedQuery(name = "PendingDownloadEntity.findMessageIdsByFinalRecipient", query = "SELECT p.messageId FROM PendingDownloadEntity p where p.backend=:BACKEND and p.finalRecipient=:FINAL_RECIPIENT order by p.entityId"),
+        @NamedQuery(name = "PendingDownloadEntity.deleteByMessageIds", query = "DELETE FROM PendingDownloadEntity p where p.backend=:BACKEND and p.messageId in :MESSAGE_IDS")
+})
+public class PendingDownloadEntity extends AbstractBaseEntity {
+
+    @Column(name = "MESSAGE_ID")
+    @NotNull
+    protected String messageId;
+
+    @Column(name = "BACKEND")
+    @NotNull
+    protected String backend;
+
+    @Column(name = "FINAL_RECIPIENT")
+    protected String finalRecipient;
+
+    @Column(name = "CREATION_TIME")
+    @Temporal(TemporalType.TIMESTAMP)
+    protected Date creationTime;
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(String messageId) {
+        this.messageId = messageId;
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public void setBackend(String backend) {
+        this.backend = backend;
+    }
+
+    public String getFinalRecipient() {
+        return finalRecipient;
+    }
+
+    public void setFinalRecipient(String finalRecipient) {
+        this.finalRecipient = finalRecipient;
+    }
+
+    public Date getCreationTime() {
+        return creationTime;
+    }
+
+    public void setCreationTime(Date creationTime) {
+        this.creationTime = creationTime;
+    }
+}
@@ -0,0 +1,79 @@
+package eu.domibus.core.message.pending;
+
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_LIST_PENDING_MESSAGES_INDEX_ACTIVE;
+
+/**
+ * Index of the messages pending for download by the plugins in PULL mode, used to list them instead of browsing the
+ * backend notification queues.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Service
+public class PendingDownloadService {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(PendingDownloadService.class);
+
+    @Autowired
+    protected PendingDownloadDao pendingDownloadDao;
+
+    @Autowired
+    protected DomibusPropertyProvider domibusPropertyProvider;
+
+    public boolean isActive() {
+        return domibusPropertyProvider.getBooleanProperty(DOMIBUS_LIST_PENDING_MESSAGES_INDEX_ACTIVE);
+    }
+
+    /**
+     * Adds the message to the index in the transaction sending the notification to the plugin
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void addPendingDownload(String messageId, String backend, String finalRecipient) {
+        if (!isActive()) {
+            return;
+        }
+        final PendingDownloadEntity pendingDownload = new PendingDownloadEntity();
+        pendingDownload.setMessageId(messageId);
+        pendingDownload.setBackend(backend);
+        pendingDownload.setFinalRecipient(finalRecipient);
+        pendingDownload.setCreationTime(new Date());
+        pendingDownloadDao.create(pendingDownload);
+        LOG.debug("Message [{}] pending for download by [{}]", messageId, backend);
+    }
+
+    /**
+     * @param finalRecipient the final recipient of the messages or null for all the messages of the backend
+     * @param pageSize       the maximum number of message ids returned or 0 for all of them
+     */
+    @Transactional(readOnly = true)
+    public List<String> findPendingMessageIds(String backend, String finalRecipient, int pageStart, int pageSize) {
+        return pendingDownloadDao.findMessageIds(backend, finalRecipient, pageStart, pageSize);
+    }
+
+    /**
+     * Removes the messages from the index. The entries are removed even if the index is no longer active so that they
+     * are not listed again once it is reactivated.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void removePendingDownloads(String backend, List<String> messageIds) {
+        final int deleted = pendingDownloadDao.deleteByMessageIds(backend, messageIds);
+        LOG.debug("[{}] messages no longer pending for download by [{}]", deleted, backend);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void removePendingDownload(String backend, String messageId) {
+        removePendingDownloads(backend, Collections.singletonList(messageId));
+    }
+}
@@ -1,5 +1,7 @@
 package eu.domibus.core.multitenancy;
 
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.MapMaker;
 import eu.domibus.api.configuration.DataBaseEngine;
 import eu.domibus.api.configuration.DomibusConfigurationService;
 import eu.domibus.api.multitenancy.Domain;
@@ -13,14 +15,29 @@ import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_DATABASE_SCHEMA_AFFINITY_ACTIVE;
 
 /**
+ * Switches the connections of the Hibernate sessions to the database schema of the current domain.
+ * <p>
+ * When domibus.database.schema.affinity.active is enabled, the schema set on each pooled connection is remembered and
+ * the connection is switched only when it is reused for another schema. The physical connection is identified by unwrapping
+ * the pooled handle to the connection interface of the JDBC driver; when that is not possible the schema is switched for
+ * each session as if the affinity was disabled.
+ *
  * @author Cosmin Baciu
  * @since 4.0
  */
@@ -30,6 +47,22 @@ public class DomibusMultiTenantConnectionProvider implements MultiTenantConnecti
 
     private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(DomibusMultiTenantConnectionProvider.class);
 
+    protected static final String METRIC_SWITCHED = "switched";
+
+    protected static final String METRIC_REUSED = "reused";
+
+    protected static final String METRIC_IN_USE = "in_use";
+
+    /**
+     * The connection interfaces of the supported JDBC drivers, loaded by name as the drivers are provided by the server
+     */
+    protected static final Map<DataBaseEngine, List<String>> DRIVER_CONNECTION_CLASSES = new HashMap<>();
+
+    static {
+        DRIVER_CONNECTION_CLASSES.put(DataBaseEngine.ORACLE, Arrays.asList("oracle.jdbc.OracleConnection"));
+        DRIVER_CONNECTION_CLASSES.put(DataBaseEngine.MYSQL, Arrays.asList("com.mysql.jdbc.Connection", "com.mysql.cj.jdbc.JdbcConnection"));
+    }
+
     @Qualifier("domibusJDBC-XADataSource")
     @Autowired
     protected DataSource dataSource; //NOSONAR: not necessary to be transient or serializable
@@ -46,9 +79,31 @@ public class DomibusMultiTenantConnectionProvider implements MultiTenantConnecti
     @Autowired
     protected DomibusConfigurationService domibusConfigurationService;
 
+    /**
+     * The metrics are created after the entity manager factory using this provider
+     */
+    @Lazy
+    @Autowired
+    protected MetricRegistry metricRegistry;
+
+    /**
+     * The schema last set on each physical connection, compared by identity and removed once the connection is discarded by the pool
+     */
+    protected final Map<Connection, String> connectionSchemas = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * The schema each borrowed handle was switched to, used to account the connection in use until it is released
+     */
+    protected final Map<Connection, String> inUseSchemas = new MapMaker().weakKeys().makeMap();
+
     @Override
     public Connection getAnyConnection() throws SQLException {
-        return dataSource.getConnection();
+        final Connection connection = dataSource.getConnection();
+        if (isSchemaAffinityActive()) {
+            // the pooled connections are not reset to the general schema anymore when released
+            switchSchema(connection, domainService.getGeneralSchema());
+        }
+        return connection;
     }
 
     @Override
@@ -58,23 +113,79 @@ public class DomibusMultiTenantConnectionProvider implements MultiTenantConnecti
 
     @Override
     public Connection getConnection(String identifier) throws SQLException {
+        final String databaseSchema = getCurrentSchema();
+
+        final Connection connection = dataSource.getConnection();
+        switchSchema(connection, databaseSchema);
+        inUseSchemas.put(connection, databaseSchema);
+        metricRegistry.counter(MetricRegistry.name(DomibusMultiTenantConnectionProvider.class, databaseSchema, METRIC_IN_USE)).inc();
+        return connection;
+    }
+
+    protected String getCurrentSchema() {
         final Domain currentDomain = domainContextProvider.getCurrentDomainSafely();
-        String databaseSchema = null;
         if (currentDomain != null) {
             LOG.trace("Getting schema for domain [{}]", currentDomain);
-            databaseSchema = domainService.getDatabaseSchema(currentDomain);
-        } else {
-            LOG.trace("Getting general schema");
-            databaseSchema = domainService.getGeneralSchema();
+            return domainService.getDatabaseSchema(currentDomain);
+        }
+        LOG.trace("Getting general schema");
+        return domainService.getGeneralSchema();
+    }
+
+    protected void switchSchema(final Connection connection, String databaseSchema) throws SQLException {
+        if (!isSchemaAffinityActive()) {
+            setSchema(connection, databaseSchema);
+            return;
         }
 
-        final Connection connection = getAnyConnection();
-        LOG.trace("Setting database schema to [{}] ", databaseSchema);
+        final Connection physicalConnection = getPhysicalConnection(connection);
+        if (physicalConnection == null) {
+            LOG.trace("Could not identify the physical connection of [{}], switching the database schema", connection);
+            setSchema(connection, databaseSchema);
+            return;
+        }
+        if (databaseSchema.equals(connectionSchemas.get(physicalConnection))) {
+            LOG.trace("Connection already uses the database schema [{}]", databaseSchema);
+            metricRegistry.meter(MetricRegistry.name(DomibusMultiTenantConnectionProvider.class, databaseSchema, METRIC_REUSED)).mark();
+            return;
+        }
+        // the schema is unknown until the switch succeeds
+        connectionSchemas.remove(physicalConnection);
         setSchema(connection, databaseSchema);
-        return connection;
+        connectionSchemas.put(physicalConnection, databaseSchema);
+    }
+
+    /**
+     * The pools hand out a new handle for each borrowed connection; the schema belongs to the driver connection behind it.
+     * Unwrapping to {@link Connection} may return the handle itself, so the handle is unwrapped to the connection interface
+     * of the JDBC driver instead.
+     *
+     * @return the driver connection or null if it could not be identified
+     */
+    protected Connection getPhysicalConnection(final Connection connection) {
+        final List<String> driverConnectionClasses = DRIVER_CONNECTION_CLASSES.get(domibusConfigurationService.getDataBaseEngine());
+        if (driverConnectionClasses == null) {
+            return null;
+        }
+        for (String driverConnectionClass : driverConnectionClasses) {
+            try {
+                final Class<?> driverConnectionType = ClassUtils.forName(driverConnectionClass, null);
+                if (!connection.isWrapperFor(driverConnectionType)) {
+                    continue;
+                }
+                final Object physicalConnection = connection.unwrap(driverConnectionType);
+                if (physicalConnection != connection && physicalConnection instanceof Connection) {
+                    return (Connection) physicalConnection;
+                }
+            } catch (ClassNotFoundException | LinkageError | SQLException e) {
+                LOG.trace("Could not unwrap the connection [{}] to [{}]", connection, driverConnectionClass, e);
+            }
+        }
+        return null;
     }
 
     protected void setSchema(final Connection connection, String databaseSchema) throws SQLException {
+        metricRegistry.meter(MetricRegistry.name(DomibusMultiTenantConnectionProvider.class, databaseSchema, METRIC_SWITCHED)).mark();
         try {
             try (final Statement statement = connection.createStatement()) {
                 final String schemaChangeSQL = getSchemaChangeSQL(databaseSchema);
@@ -97,12 +208,22 @@ public class DomibusMultiTenantConnectionProvider implements MultiTenantConnecti
 
     @Override
     public void releaseConnection(String tenantIdentifier, Connection connection) throws SQLException {
-        final String generalSchema = domainService.getGeneralSchema();
-        LOG.trace("Releasing connection, setting database schema to [{}] ", generalSchema);
-        setSchema(connection, generalSchema);
+        final String databaseSchema = inUseSchemas.remove(connection);
+        if (databaseSchema != null) {
+            metricRegistry.counter(MetricRegistry.name(DomibusMultiTenantConnectionProvider.class, databaseSchema, METRIC_IN_USE)).dec();
+        }
+        if (!isSchemaAffinityActive()) {
+            final String generalSchema = domainService.getGeneralSchema();
+            LOG.trace("Releasing connection, setting database schema to [{}] ", generalSchema);
+            setSchema(connection, generalSchema);
+        }
         connection.close();
     }
 
+    protected boolean isSchemaAffinityActive() {
+        return domibusPropertyProvider.getBooleanProperty(DOMIBUS_DATABASE_SCHEMA_AFFINITY_ACTIVE);
+    }
+
     @Override
     public boolean supportsAggressiveRelease() {
         return true;
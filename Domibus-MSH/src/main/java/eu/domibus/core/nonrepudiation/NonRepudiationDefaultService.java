@@ -13,8 +13,12 @@ import org.springframework.stereotype.Service;
 
 import javax.xml.soap.SOAPMessage;
 import javax.xml.transform.TransformerException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
 
 import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_NONREPUDIATION_AUDIT_ACTIVE;
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_NONREPUDIATION_AUDIT_COMPRESSED;
 
 /**
  * @author Cosmin Baciu
@@ -41,16 +45,14 @@ public class NonRepudiationDefaultService implements NonRepudiationService {
         }
 
         try {
-            String rawXMLMessage = soapUtil.getRawXMLMessage(request);
-            LOG.debug("Persist raw XML envelope: " + rawXMLMessage);
             RawEnvelopeLog rawEnvelopeLog = new RawEnvelopeLog();
             if (userMessage != null) {
                 rawEnvelopeLog.setMessageId(userMessage.getMessageInfo().getMessageId());
             }
-            rawEnvelopeLog.setRawXML(rawXMLMessage);
+            setRawXML(rawEnvelopeLog, request);
             rawEnvelopeLog.setUserMessage(userMessage);
             rawEnvelopeLogDao.create(rawEnvelopeLog);
-        } catch (TransformerException e) {
+        } catch (TransformerException | IOException e) {
             LOG.warn("Unable to log the raw message XML due to: ", e);
         }
     }
@@ -62,17 +64,35 @@ public class NonRepudiationDefaultService implements NonRepudiationService {
         }
 
         try {
-            String rawXMLMessage = soapUtil.getRawXMLMessage(response);
-            LOG.debug("Persist raw XML envelope: " + rawXMLMessage);
             RawEnvelopeLog rawEnvelopeLog = new RawEnvelopeLog();
-            rawEnvelopeLog.setRawXML(rawXMLMessage);
+            setRawXML(rawEnvelopeLog, response);
             rawEnvelopeLog.setSignalMessage(signalMessage);
             rawEnvelopeLogDao.create(rawEnvelopeLog);
-        } catch (TransformerException e) {
+        } catch (TransformerException | IOException e) {
             LOG.warn("Unable to log the raw message XML due to: ", e);
         }
     }
 
+    /**
+     * Saves the envelope GZIP compressed when domibus.nonrepudiation.audit.compressed is enabled, without building
+     * the intermediate String; the envelope is decompressed when read through {@link eu.domibus.common.model.logging.RawEnvelopeDto}.
+     */
+    protected void setRawXML(RawEnvelopeLog rawEnvelopeLog, SOAPMessage soapMessage) throws TransformerException, IOException {
+        if (domibusPropertyProvider.getBooleanProperty(DOMIBUS_NONREPUDIATION_AUDIT_COMPRESSED)) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream outputStream = new GZIPOutputStream(compressed)) {
+                soapUtil.writeRawXMLMessage(soapMessage, outputStream);
+            }
+            LOG.debug("Persist compressed raw XML envelope of [{}] bytes", compressed.size());
+            rawEnvelopeLog.setRawXMLCompressed(compressed.toByteArray());
+            return;
+        }
+
+        String rawXMLMessage = soapUtil.getRawXMLMessage(soapMessage);
+        LOG.debug("Persist raw XML envelope: [{}]", rawXMLMessage);
+        rawEnvelopeLog.setRawXML(rawXMLMessage);
+    }
+
     protected boolean isNonRepudiationAuditDisabled() {
         return !domibusPropertyProvider.getBooleanProperty(DOMIBUS_NONREPUDIATION_AUDIT_ACTIVE);
     }
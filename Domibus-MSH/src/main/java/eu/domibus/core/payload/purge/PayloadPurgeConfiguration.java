@@ -0,0 +1,51 @@
+package eu.domibus.core.payload.purge;
+
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_PAYLOAD_PURGE_CONCURRENCY;
+
+/**
+ * Configuration of the executor deleting the payload files, kept apart from the shared task executor so that a large
+ * purge backlog does not take the threads needed to send and receive messages.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Configuration
+public class PayloadPurgeConfiguration {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(PayloadPurgeConfiguration.class);
+
+    public static final String PAYLOAD_PURGE_TASK_EXECUTOR = "payloadPurgeTaskExecutor";
+
+    protected static final String THREAD_NAME_PREFIX = "payload-purge-";
+
+    /**
+     * The pool is sized with the purge concurrency of the default domain and has no queue: the files of the tasks
+     * that do not find a free thread are deleted by the purge job itself, so that no more threads are ever used.
+     */
+    @Bean(PAYLOAD_PURGE_TASK_EXECUTOR)
+    public ThreadPoolTaskExecutor payloadPurgeTaskExecutor(DomibusPropertyProvider domibusPropertyProvider) {
+        Integer poolSize = domibusPropertyProvider.getIntegerProperty(DOMIBUS_PAYLOAD_PURGE_CONCURRENCY);
+        if (poolSize == null || poolSize <= 0) {
+            LOG.debug("Invalid value [{}] for property [{}], using a single thread", poolSize, DOMIBUS_PAYLOAD_PURGE_CONCURRENCY);
+            poolSize = 1;
+        }
+
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(0);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        executor.setDaemon(true);
+        return executor;
+    }
+}
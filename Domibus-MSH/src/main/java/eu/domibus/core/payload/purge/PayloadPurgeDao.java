@@ -0,0 +1,39 @@
+package eu.domibus.core.payload.purge;
+
+import eu.domibus.common.dao.BasicDao;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@Repository
+public class PayloadPurgeDao extends BasicDao<PayloadPurgeEntity> {
+
+    public PayloadPurgeDao() {
+        super(PayloadPurgeEntity.class);
+    }
+
+    public List<PayloadPurgeEntity> findReadyToPurge(Date now, int maxResults) {
+        final TypedQuery<PayloadPurgeEntity> query = em.createNamedQuery("PayloadPurgeEntity.findReadyToPurge", PayloadPurgeEntity.class);
+        query.setParameter("NOW", now);
+        query.setMaxResults(maxResults);
+        return query.getResultList();
+    }
+
+    public long countEntries() {
+        final TypedQuery<Long> query = em.createNamedQuery("PayloadPurgeEntity.countEntries", Long.class);
+        return query.getSingleResult();
+    }
+
+    public int deleteByIds(List<Long> ids) {
+        final Query query = em.createNamedQuery("PayloadPurgeEntity.deleteByIds");
+        query.setParameter("IDS", ids);
+        return query.executeUpdate();
+    }
+}
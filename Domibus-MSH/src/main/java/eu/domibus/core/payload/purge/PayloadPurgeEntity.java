@@ -0,0 +1,73 @@
+package eu.domibus.core.payload.purge;
+
+import eu.domibus.ebms3.common.model.AbstractBaseEntity;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+
+/**
+ * Journal entry of a payload file that has to be deleted from the file system.
+ * <p>
+ * The entry is created in the same transaction that clears the payload of the message, so the file is only deleted
+ * once that transaction has been committed.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Entity
+@Table(name = "TB_PAYLOAD_PURGE")
+@NamedQueries({
+        @NamedQuery(name = "PayloadPurgeEntity.findReadyToPurge", query = "SELECT p FROM PayloadPurgeEntity p where p.nextAttempt<=:NOW order by p.entityId"),
+        @NamedQuery(name = "PayloadPurgeEntity.countEntries", query = "SELECT count(p) FROM PayloadPurgeEntity p"),
+        @NamedQuery(name = "PayloadPurgeEntity.deleteByIds", query = "DELETE FROM PayloadPurgeEntity p where p.entityId in :IDS")
+})
+public class PayloadPurgeEntity extends AbstractBaseEntity {
+
+    @Column(name = "FILE_NAME")
+    @NotNull
+    protected String fileName;
+
+    @Column(name = "CREATION_TIME")
+    @Temporal(TemporalType.TIMESTAMP)
+    protected Date creationTime;
+
+    @Column(name = "ATTEMPTS")
+    protected int attempts;
+
+    @Column(name = "NEXT_ATTEMPT")
+    @Temporal(TemporalType.TIMESTAMP)
+    protected Date nextAttempt;
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public Date getCreationTime() {
+        return creationTime;
+    }
+
+    public void setCreationTime(Date creationTime) {
+        this.creationTime = creationTime;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Date getNextAttempt() {
+        return nextAttempt;
+    }
+
+    public void setNextAttempt(Date nextAttempt) {
+        this.nextAttempt = nextAttempt;
+    }
+}
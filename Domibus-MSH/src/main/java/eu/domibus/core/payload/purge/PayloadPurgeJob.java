@@ -0,0 +1,28 @@
+package eu.domibus.core.payload.purge;
+
+import eu.domibus.api.multitenancy.Domain;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import eu.domibus.quartz.DomibusQuartzJobBean;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@DisallowConcurrentExecution
+public class PayloadPurgeJob extends DomibusQuartzJobBean {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(PayloadPurgeJob.class);
+
+    @Autowired
+    protected PayloadPurgeService payloadPurgeService;
+
+    @Override
+    protected void executeJob(JobExecutionContext context, Domain domain) {
+        LOG.trace("Executing PayloadPurgeJob");
+        payloadPurgeService.purgePayloadFiles(domain);
+    }
+}
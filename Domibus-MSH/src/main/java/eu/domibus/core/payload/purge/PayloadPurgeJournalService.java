@@ -0,0 +1,55 @@
+package eu.domibus.core.payload.purge;
+
+import com.google.common.collect.Lists;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reads and updates the TB_PAYLOAD_PURGE journal in short transactions of their own, so that no transaction is held
+ * by the {@link PayloadPurgeService} while the payload files are deleted.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Service
+public class PayloadPurgeJournalService {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(PayloadPurgeJournalService.class);
+
+    protected static final int IN_CLAUSE_MAX_SIZE = 1000;
+
+    @Autowired
+    protected PayloadPurgeDao payloadPurgeDao;
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<PayloadPurgeEntity> findReadyToPurge(int maxResults) {
+        return payloadPurgeDao.findReadyToPurge(new Date(), maxResults);
+    }
+
+    /**
+     * Removes the entries of the purged files and saves the next attempt of the rescheduled ones
+     *
+     * @param removedEntries     the ids of the entries to remove
+     * @param rescheduledEntries the entries to be retried later
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void updateEntries(List<Long> removedEntries, List<PayloadPurgeEntity> rescheduledEntries) {
+        for (List<Long> removedEntriesPartition : Lists.partition(removedEntries, IN_CLAUSE_MAX_SIZE)) {
+            payloadPurgeDao.deleteByIds(removedEntriesPartition);
+        }
+        payloadPurgeDao.updateAll(rescheduledEntries);
+        LOG.debug("Removed [{}] and rescheduled [{}] payload purge entries", removedEntries.size(), rescheduledEntries.size());
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long countEntries() {
+        return payloadPurgeDao.countEntries();
+    }
+}
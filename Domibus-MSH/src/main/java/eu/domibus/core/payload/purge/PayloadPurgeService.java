@@ -0,0 +1,29 @@
+package eu.domibus.core.payload.purge;
+
+import eu.domibus.api.multitenancy.Domain;
+
+import java.util.List;
+
+/**
+ * Deletes the payload files of the deleted messages outside the transaction deleting the messages.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+public interface PayloadPurgeService {
+
+    /**
+     * Records the given payload files for deletion. Must be called in the transaction clearing the payloads so that
+     * the files are only deleted if that transaction is committed.
+     *
+     * @param fileNames the absolute names of the payload files
+     */
+    void schedulePurge(List<String> fileNames);
+
+    /**
+     * Deletes in parallel the payload files recorded for deletion and reschedules the ones that could not be deleted.
+     *
+     * @param domain the current domain
+     */
+    void purgePayloadFiles(Domain domain);
+}
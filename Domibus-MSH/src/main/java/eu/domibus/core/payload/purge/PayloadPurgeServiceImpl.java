@@ -0,0 +1,215 @@
+package eu.domibus.core.payload.purge;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Lists;
+import eu.domibus.api.multitenancy.Domain;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.apache.commons.lang3.time.DateUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.SchedulingTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.*;
+
+/**
+ * The payload files are recorded in the TB_PAYLOAD_PURGE journal in the transaction deleting the messages and deleted
+ * afterwards by the {@link PayloadPurgeJob}. A run of the job splits the entries ready to be purged between at most
+ * {@code domibus.payload.purge.concurrency} tasks executed in parallel by the dedicated executor of the
+ * {@link PayloadPurgeConfiguration}; the entries of the files that could not be deleted are retried later, with a
+ * delay growing with the number of failed attempts.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Service
+public class PayloadPurgeServiceImpl implements PayloadPurgeService {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(PayloadPurgeServiceImpl.class);
+
+    protected static final String METRIC_PURGED = "purged";
+
+    protected static final String METRIC_FAILED = "failed";
+
+    protected static final String METRIC_BACKLOG = "backlog";
+
+    protected static final int IN_CLAUSE_MAX_SIZE = 1000;
+
+    @Autowired
+    protected PayloadPurgeDao payloadPurgeDao;
+
+    @Autowired
+    protected PayloadPurgeJournalService payloadPurgeJournalService;
+
+    @Autowired
+    protected DomibusPropertyProvider domibusPropertyProvider;
+
+    @Autowired
+    protected MetricRegistry metricRegistry;
+
+    @Qualifier(PayloadPurgeConfiguration.PAYLOAD_PURGE_TASK_EXECUTOR)
+    @Autowired
+    protected SchedulingTaskExecutor schedulingTaskExecutor;
+
+    protected final Map<String, AtomicLong> backlog = new ConcurrentHashMap<>();
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void schedulePurge(List<String> fileNames) {
+        final Date now = new Date();
+        for (String fileName : fileNames) {
+            final PayloadPurgeEntity payloadPurgeEntity = new PayloadPurgeEntity();
+            payloadPurgeEntity.setFileName(fileName);
+            payloadPurgeEntity.setCreationTime(now);
+            payloadPurgeEntity.setNextAttempt(now);
+            payloadPurgeDao.create(payloadPurgeEntity);
+        }
+        LOG.debug("Scheduled [{}] payload files for deletion", fileNames.size());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The journal is read and updated in short transactions of their own: no transaction nor database connection is
+     * held while the files are deleted.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void purgePayloadFiles(Domain domain) {
+        final List<PayloadPurgeEntity> entries = payloadPurgeJournalService.findReadyToPurge(getPositiveValue(domain, DOMIBUS_PAYLOAD_PURGE_BATCH_SIZE, IN_CLAUSE_MAX_SIZE));
+        if (!entries.isEmpty()) {
+            LOG.debug("Deleting [{}] payload files", entries.size());
+            final Set<Long> deletedEntries = deleteFiles(entries, getPositiveValue(domain, DOMIBUS_PAYLOAD_PURGE_CONCURRENCY, 1));
+
+            final List<Long> entriesToRemove = new ArrayList<>(deletedEntries);
+            final List<PayloadPurgeEntity> failedEntries = new ArrayList<>();
+            for (PayloadPurgeEntity entry : entries) {
+                if (!deletedEntries.contains(entry.getEntityId())) {
+                    failedEntries.add(entry);
+                }
+            }
+            final List<Long> givenUpEntries = rescheduleFailedEntries(domain, failedEntries);
+            entriesToRemove.addAll(givenUpEntries);
+            final List<PayloadPurgeEntity> rescheduledEntries = new ArrayList<>();
+            for (PayloadPurgeEntity entry : failedEntries) {
+                if (!givenUpEntries.contains(entry.getEntityId())) {
+                    rescheduledEntries.add(entry);
+                }
+            }
+            payloadPurgeJournalService.updateEntries(entriesToRemove, rescheduledEntries);
+
+            metricRegistry.meter(MetricRegistry.name(PayloadPurgeService.class, domain.getCode(), METRIC_PURGED)).mark(deletedEntries.size());
+            metricRegistry.meter(MetricRegistry.name(PayloadPurgeService.class, domain.getCode(), METRIC_FAILED)).mark(failedEntries.size());
+            LOG.debug("Deleted [{}] payload files, [{}] could not be deleted", deletedEntries.size(), failedEntries.size());
+        }
+        getBacklog(domain.getCode()).set(payloadPurgeJournalService.countEntries());
+    }
+
+    /**
+     * Deletes the files of the given entries using at most {@code concurrency} parallel tasks
+     *
+     * @return the ids of the entries whose files have been deleted
+     */
+    protected Set<Long> deleteFiles(List<PayloadPurgeEntity> entries, int concurrency) {
+        final int sliceSize = (entries.size() + concurrency - 1) / concurrency;
+        final List<Future<Set<Long>>> futures = new ArrayList<>();
+        for (List<PayloadPurgeEntity> slice : Lists.partition(entries, sliceSize)) {
+            final List<PayloadPurgeEntity> sliceEntries = new ArrayList<>(slice);
+            futures.add(schedulingTaskExecutor.submit(() -> deleteFiles(sliceEntries)));
+        }
+
+        final Set<Long> result = new HashSet<>();
+        for (Future<Set<Long>> future : futures) {
+            try {
+                result.addAll(future.get());
+            } catch (InterruptedException e) {
+                LOG.warn("Interrupted while deleting payload files", e);
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                LOG.warn("Could not delete payload files", e);
+            }
+        }
+        return result;
+    }
+
+    protected Set<Long> deleteFiles(List<PayloadPurgeEntity> entries) {
+        final Set<Long> result = new HashSet<>();
+        for (PayloadPurgeEntity entry : entries) {
+            if (deleteFile(entry.getFileName())) {
+                result.add(entry.getEntityId());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the file has been deleted or does not exist anymore
+     */
+    protected boolean deleteFile(String fileName) {
+        try {
+            Files.deleteIfExists(Paths.get(fileName));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Problem deleting payload data file [{}]", fileName, e);
+            return false;
+        }
+    }
+
+    /**
+     * Reschedules the failed entries, which are saved by the caller, or gives up on them once the maximum number of
+     * attempts has been reached
+     *
+     * @return the ids of the entries given up on
+     */
+    protected List<Long> rescheduleFailedEntries(Domain domain, List<PayloadPurgeEntity> failedEntries) {
+        final List<Long> result = new ArrayList<>();
+        if (failedEntries.isEmpty()) {
+            return result;
+        }
+        final int maxAttempts = getPositiveValue(domain, DOMIBUS_PAYLOAD_PURGE_RETRY_MAX, 1);
+        final int retryDelay = getPositiveValue(domain, DOMIBUS_PAYLOAD_PURGE_RETRY_DELAY, 1);
+        final Date now = new Date();
+        for (PayloadPurgeEntity entry : failedEntries) {
+            final int attempts = entry.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                LOG.warn("Could not delete payload file [{}] after [{}] attempts, giving up", entry.getFileName(), attempts);
+                result.add(entry.getEntityId());
+                continue;
+            }
+            entry.setAttempts(attempts);
+            entry.setNextAttempt(DateUtils.addMinutes(now, retryDelay * attempts));
+        }
+        return result;
+    }
+
+    protected int getPositiveValue(Domain domain, String propertyName, int defaultValue) {
+        final Integer value = domibusPropertyProvider.getIntegerDomainProperty(domain, propertyName);
+        if (value == null || value <= 0) {
+            LOG.debug("Invalid value [{}] for property [{}], using [{}]", value, propertyName, defaultValue);
+            return defaultValue;
+        }
+        return value;
+    }
+
+    protected AtomicLong getBacklog(String domainCode) {
+        return backlog.computeIfAbsent(domainCode, code -> {
+            final AtomicLong result = new AtomicLong();
+            metricRegistry.register(MetricRegistry.name(PayloadPurgeService.class, code, METRIC_BACKLOG), (Gauge<Long>) result::get);
+            return result;
+        });
+    }
+}
@@ -2,7 +2,10 @@
 package eu.domibus.core.pmode;
 
 import com.google.common.collect.Lists;
+import com.codahale.metrics.MetricRegistry;
 import eu.domibus.api.multitenancy.Domain;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.common.MSHRole;
 import eu.domibus.common.ErrorCode;
 import eu.domibus.common.exception.ConfigurationException;
 import eu.domibus.common.exception.EbMS3Exception;
@@ -13,6 +16,7 @@ import eu.domibus.ebms3.common.context.MessageExchangeConfiguration;
 import eu.domibus.ebms3.common.model.AgreementRef;
 import eu.domibus.ebms3.common.model.MessageExchangePattern;
 import eu.domibus.ebms3.common.model.PartyId;
+import eu.domibus.ebms3.common.model.UserMessage;
 import eu.domibus.logging.DomibusLogger;
 import eu.domibus.logging.DomibusLoggerFactory;
 import eu.domibus.logging.DomibusMessageCode;
@@ -28,6 +32,8 @@ import java.net.URI;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_PMODE_RESOLUTION_CACHE_SIZE;
+
 
 /**
  * @author Cosmin Baciu, Thomas Dussart, Ioana Dragusanu
@@ -39,12 +45,24 @@ public class CachingPModeProvider extends PModeProvider {
     //Don't access directly, use getter instead
     private volatile Configuration configuration;
 
+    //Don't access directly, use getter instead
+    private volatile PModeIndex pModeIndex;
+
     @Autowired
     private ProcessPartyExtractorProvider processPartyExtractorProvider;
 
     @Autowired
     PullMessageService pullMessageService;
 
+    @Autowired
+    protected DomibusPropertyProvider domibusPropertyProvider;
+
+    @Autowired
+    protected MetricRegistry metricRegistry;
+
+    //recreated on every configuration reload; null when the cache is disabled
+    private volatile MessageExchangeConfigurationCache messageExchangeConfigurationCache;
+
     //pull processes cache.
     private Map<Party, List<Process>> pullProcessesByInitiatorCache = new HashMap<>();
 
@@ -80,10 +98,80 @@ public class CachingPModeProvider extends PModeProvider {
             throw new IllegalStateException("No processing modes found. To exchange messages, upload configuration file through the web gui.");
         }
         LOG.debug("Initialising the configuration");
-        this.configuration = this.configurationDAO.readEager();
+        final Configuration newConfiguration = this.configurationDAO.readEager();
+        // the index is published before the configuration so that a loaded configuration always comes with its index
+        this.pModeIndex = new PModeIndex(newConfiguration);
+        this.configuration = newConfiguration;
         LOG.trace("Configuration initialized: [{}]", this.configuration.getEntityId());
 
         initPullProcessesCache();
+        initMessageExchangeConfigurationCache();
+    }
+
+    protected void initMessageExchangeConfigurationCache() {
+        final Integer cacheSize = domibusPropertyProvider.getIntegerDomainProperty(domain, DOMIBUS_PMODE_RESOLUTION_CACHE_SIZE);
+        if (cacheSize == null || cacheSize <= 0) {
+            LOG.debug("The message exchange configuration cache is disabled for domain [{}]", domain);
+            this.messageExchangeConfigurationCache = null;
+            return;
+        }
+        this.messageExchangeConfigurationCache = new MessageExchangeConfigurationCache(domain.getCode(), cacheSize, metricRegistry);
+    }
+
+    /**
+     * Pull resolutions are not cached as they depend on the pull by mpc properties, which can be changed at runtime.
+     */
+    @Override
+    protected MessageExchangeConfiguration getCachedUserMessageExchangeContext(final UserMessage userMessage, final MSHRole mshRole, final boolean isPull) {
+        final MessageExchangeConfigurationCache cache = this.messageExchangeConfigurationCache;
+        if (cache == null || isPull) {
+            return null;
+        }
+        return cache.get(userMessage, mshRole);
+    }
+
+    /**
+     * The resolution is dropped if the PMode has been reloaded since it started: the cache is read before the loaded
+     * configuration so that a reload completed in between is always detected.
+     */
+    @Override
+    protected void cacheUserMessageExchangeContext(final UserMessage userMessage, final MSHRole mshRole, final boolean isPull, final Configuration resolvedConfiguration,
+                                                   final MessageExchangeConfiguration messageExchangeConfiguration) {
+        final MessageExchangeConfigurationCache cache = this.messageExchangeConfigurationCache;
+        if (cache == null || isPull) {
+            return;
+        }
+        if (resolvedConfiguration == null || resolvedConfiguration != this.configuration) {
+            LOG.debug("The PMode was reloaded while resolving pmodeKey [{}]: the resolution is not cached", messageExchangeConfiguration.getPmodeKey());
+            return;
+        }
+        cache.put(userMessage, mshRole, messageExchangeConfiguration);
+    }
+
+    @Override
+    protected Configuration getLoadedConfiguration() {
+        return this.configuration;
+    }
+
+    protected PModeIndex getPModeIndex() {
+        PModeIndex index = this.pModeIndex;
+        if (index == null) {
+            synchronized (configurationLock) {
+                if (this.pModeIndex == null) {
+                    this.pModeIndex = new PModeIndex(getConfiguration());
+                }
+                index = this.pModeIndex;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Rebuilds the lookup index after the loaded configuration has been modified in memory, e.g. by the dynamic discovery.
+     */
+    protected void refreshPModeIndex() {
+        LOG.debug("Refreshing the PMode index");
+        this.pModeIndex = new PModeIndex(getConfiguration());
     }
 
     private void initPullProcessesCache() {
@@ -203,37 +291,18 @@ public class CachingPModeProvider extends PModeProvider {
     //FIXME: only works for the first leg, as sender=initiator
     protected String findLegName(final String agreementName, final String senderParty, final String receiverParty,
                                  final String service, final String action) throws EbMS3Exception {
-        final List<LegConfiguration> candidates = new ArrayList<>();
-        for (final Process process : this.getConfiguration().getBusinessProcesses().getProcesses()) {
-            final ProcessTypePartyExtractor processTypePartyExtractor = processPartyExtractorProvider.getProcessTypePartyExtractor(process.getMepBinding().getValue(), senderParty, receiverParty);
-            for (final Party party : process.getInitiatorParties()) {
-                if (StringUtils.equalsIgnoreCase(party.getName(), processTypePartyExtractor.getSenderParty())) {
-                    for (final Party responder : process.getResponderParties()) {
-                        if (StringUtils.equalsIgnoreCase(responder.getName(), processTypePartyExtractor.getReceiverParty())) {
-                            if (process.getAgreement() != null && StringUtils.equalsIgnoreCase(process.getAgreement().getName(), agreementName)
-                                    || (StringUtils.equalsIgnoreCase(agreementName, OPTIONAL_AND_EMPTY) && process.getAgreement() == null)
-                                    // Please notice that this is only for backward compatibility and will be removed ASAP!
-                                    || (StringUtils.equalsIgnoreCase(agreementName, OPTIONAL_AND_EMPTY) && process.getAgreement() != null && StringUtils.isEmpty(process.getAgreement().getValue()))
-                            ) {
-                                /**
-                                 * The Process is a candidate because either has an Agreement and its name matches the Agreement name found previously
-                                 * or it has no Agreement configured and the Agreement name was not indicated in the submitted message.
-                                 **/
-                                candidates.addAll(process.getLegs());
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        if (candidates.isEmpty()) {
+        final PModeIndex index = getPModeIndex();
+        /*
+         * A Process provides candidates because either has an Agreement and its name matches the Agreement name found previously
+         * or it has no Agreement configured and the Agreement name was not indicated in the submitted message.
+         */
+        if (!index.hasLegCandidates(agreementName, senderParty, receiverParty)) {
             LOG.businessError(DomibusMessageCode.BUS_LEG_NAME_NOT_FOUND, agreementName, senderParty, receiverParty, service, action);
             throw new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0001, "No Candidates for Legs found", null, null);
         }
-        for (final LegConfiguration candidate : candidates) {
-            if (StringUtils.equalsIgnoreCase(candidate.getService().getName(), service) && StringUtils.equalsIgnoreCase(candidate.getAction().getName(), action)) {
-                return candidate.getName();
-            }
+        final String legName = index.findLegName(agreementName, senderParty, receiverParty, service, action);
+        if (legName != null) {
+            return legName;
         }
         LOG.businessError(DomibusMessageCode.BUS_LEG_NAME_NOT_FOUND, agreementName, senderParty, receiverParty, service, action);
         throw new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0001, "No matching leg found for service [" + service + "] and action [" + action + "]", null, null);
@@ -241,10 +310,9 @@ public class CachingPModeProvider extends PModeProvider {
 
     @Override
     protected String findActionName(final String action) throws EbMS3Exception {
-        for (final Action action1 : this.getConfiguration().getBusinessProcesses().getActions()) {
-            if (StringUtils.equalsIgnoreCase(action1.getValue(), action)) {
-                return action1.getName();
-            }
+        final String actionName = getPModeIndex().findActionName(action);
+        if (actionName != null) {
+            return actionName;
         }
         throw new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0001, "No matching action found [" + action + "]", null, null);
     }
@@ -265,11 +333,9 @@ public class CachingPModeProvider extends PModeProvider {
             throw new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0001, "Service is not found in the message", null, null);
         }
 
-        for (final Service service1 : this.getConfiguration().getBusinessProcesses().getServices()) {
-            if ((StringUtils.equalsIgnoreCase(service1.getServiceType(), service.getType()) || (!StringUtils.isNotEmpty(service1.getServiceType()) && !StringUtils.isNotEmpty(service.getType()))))
-                if (StringUtils.equalsIgnoreCase(service1.getValue(), service.getValue())) {
-                    return service1.getName();
-                }
+        final String serviceName = getPModeIndex().findServiceName(service.getType(), service.getValue());
+        if (serviceName != null) {
+            return serviceName;
         }
         throw new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0001, "No matching service found for type [" + service.getType() + "] and value [" + service.getValue() + "]", null, null);
     }
@@ -277,33 +343,27 @@ public class CachingPModeProvider extends PModeProvider {
     @Override
     //@Transactional(propagation = Propagation.SUPPORTS, noRollbackFor = IllegalStateException.class)
     protected String findPartyName(final Collection<PartyId> partyId) throws EbMS3Exception {
+        final PModeIndex index = getPModeIndex();
         String partyIdType = StringUtils.EMPTY;
         String partyIdValue = StringUtils.EMPTY;
-        for (final Party party : this.getConfiguration().getBusinessProcesses().getParties()) {
-            for (final PartyId id : partyId) {
-                for (final Identifier identifier : party.getIdentifiers()) {
-                    if (id.getType() != null) {
-                        partyIdType = id.getType();
-                        try {
-                            URI.create(partyIdType);
-                        } catch (final IllegalArgumentException e) {
-                            final EbMS3Exception ex = new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0003, "no matching party found", null, e);
-                            ex.setErrorDetail("PartyId " + id.getValue() + " is not a valid URI [CORE]");
-                            throw ex;
-                        }
-                    }
-                    String identifierPartyIdType = "";
-                    partyIdValue = id.getValue();
-                    if (identifier.getPartyIdType() != null) {
-                        identifierPartyIdType = identifier.getPartyIdType().getValue();
-                    }
-                    LOG.trace("Find party with type:[{}] and identifier:[{}] by comparing with pmode id type:[{}] and pmode identifier:[{}]", partyIdType, id.getValue(), identifierPartyIdType, identifier.getPartyId());
-                    if (StringUtils.equalsIgnoreCase(partyIdType, identifierPartyIdType) && StringUtils.equalsIgnoreCase(id.getValue(), identifier.getPartyId())) {
-                        LOG.trace("Party with type:[{}] and identifier:[{}] matched", partyIdType, id.getValue());
-                        return party.getName();
-                    }
+        for (final PartyId id : partyId) {
+            if (id.getType() != null) {
+                partyIdType = id.getType();
+                try {
+                    URI.create(partyIdType);
+                } catch (final IllegalArgumentException e) {
+                    final EbMS3Exception ex = new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0003, "no matching party found", null, e);
+                    ex.setErrorDetail("PartyId " + id.getValue() + " is not a valid URI [CORE]");
+                    throw ex;
                 }
             }
+            partyIdValue = id.getValue();
+            LOG.trace("Find party with type:[{}] and identifier:[{}]", partyIdType, partyIdValue);
+            final Party party = index.getPartyByIdentifier(partyIdType, partyIdValue);
+            if (party != null) {
+                LOG.trace("Party with type:[{}] and identifier:[{}] matched", partyIdType, partyIdValue);
+                return party.getName();
+            }
         }
         throw new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0003, "No matching party found for type [" + partyIdType + "] and value [" + partyIdValue + "]", null, null);
     }
@@ -314,35 +374,24 @@ public class CachingPModeProvider extends PModeProvider {
             return OPTIONAL_AND_EMPTY; // AgreementRef is optional
         }
 
-        for (final Agreement agreement : this.getConfiguration().getBusinessProcesses().getAgreements()) {
-            if ((StringUtils.isEmpty(agreementRef.getType()) || StringUtils.equalsIgnoreCase(agreement.getType(), agreementRef.getType()))
-                    && StringUtils.equalsIgnoreCase(agreementRef.getValue(), agreement.getValue())) {
-                return agreement.getName();
-            }
+        final String agreementName = getPModeIndex().findAgreementName(agreementRef.getType(), agreementRef.getValue());
+        if (agreementName != null) {
+            return agreementName;
         }
         throw new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0001, "No matching agreement found for type [" + agreementRef.getType() + "] and value [" + agreementRef.getValue() + "]", null, null);
     }
 
     @Override
     public Party getPartyByIdentifier(String partyIdentifier) {
-        for (final Party party : this.getConfiguration().getBusinessProcesses().getParties()) {
-            final Set<Identifier> identifiers = party.getIdentifiers();
-            for (Identifier identifier : identifiers) {
-                if (StringUtils.equalsIgnoreCase(identifier.getPartyId(), partyIdentifier)) {
-                    return party;
-                }
-            }
-        }
-        return null;
+        return getPModeIndex().getPartyByIdentifierValue(partyIdentifier);
     }
 
     @Override
     public Party getSenderParty(final String pModeKey) {
         final String partyKey = this.getSenderPartyNameFromPModeKey(pModeKey);
-        for (final Party party : this.getConfiguration().getBusinessProcesses().getParties()) {
-            if (StringUtils.equalsIgnoreCase(party.getName(), partyKey)) {
-                return party;
-            }
+        final Party party = getPModeIndex().getPartyByName(partyKey);
+        if (party != null) {
+            return party;
         }
         throw new ConfigurationException("no matching sender party found with name: " + partyKey);
     }
@@ -350,10 +399,9 @@ public class CachingPModeProvider extends PModeProvider {
     @Override
     public Party getReceiverParty(final String pModeKey) {
         final String partyKey = this.getReceiverPartyNameFromPModeKey(pModeKey);
-        for (final Party party : this.getConfiguration().getBusinessProcesses().getParties()) {
-            if (StringUtils.equalsIgnoreCase(party.getName(), partyKey)) {
-                return party;
-            }
+        final Party party = getPModeIndex().getPartyByName(partyKey);
+        if (party != null) {
+            return party;
         }
         throw new ConfigurationException("no matching receiver party found with name: " + partyKey);
     }
@@ -361,10 +409,9 @@ public class CachingPModeProvider extends PModeProvider {
     @Override
     public Service getService(final String pModeKey) {
         final String serviceKey = this.getServiceNameFromPModeKey(pModeKey);
-        for (final Service service : this.getConfiguration().getBusinessProcesses().getServices()) {
-            if (StringUtils.equalsIgnoreCase(service.getName(), serviceKey)) {
-                return service;
-            }
+        final Service service = getPModeIndex().getServiceByName(serviceKey);
+        if (service != null) {
+            return service;
         }
         throw new ConfigurationException("no matching service found with name: " + serviceKey);
     }
@@ -372,10 +419,9 @@ public class CachingPModeProvider extends PModeProvider {
     @Override
     public Action getAction(final String pModeKey) {
         final String actionKey = this.getActionNameFromPModeKey(pModeKey);
-        for (final Action action : this.getConfiguration().getBusinessProcesses().getActions()) {
-            if (StringUtils.equalsIgnoreCase(action.getName(), actionKey)) {
-                return action;
-            }
+        final Action action = getPModeIndex().getActionByName(actionKey);
+        if (action != null) {
+            return action;
         }
         throw new ConfigurationException("no matching action found with name: " + actionKey);
     }
@@ -383,10 +429,9 @@ public class CachingPModeProvider extends PModeProvider {
     @Override
     public Agreement getAgreement(final String pModeKey) {
         final String agreementKey = this.getAgreementRefNameFromPModeKey(pModeKey);
-        for (final Agreement agreement : this.getConfiguration().getBusinessProcesses().getAgreements()) {
-            if (StringUtils.equalsIgnoreCase(agreement.getName(), agreementKey)) {
-                return agreement;
-            }
+        final Agreement agreement = getPModeIndex().getAgreementByName(agreementKey);
+        if (agreement != null) {
+            return agreement;
         }
         throw new ConfigurationException("no matching agreement found with name: " + agreementKey);
     }
@@ -394,10 +439,9 @@ public class CachingPModeProvider extends PModeProvider {
     @Override
     public LegConfiguration getLegConfiguration(final String pModeKey) {
         final String legKey = this.getLegConfigurationNameFromPModeKey(pModeKey);
-        for (final LegConfiguration legConfiguration : this.getConfiguration().getBusinessProcesses().getLegConfigurations()) {
-            if (StringUtils.equalsIgnoreCase(legConfiguration.getName(), legKey)) {
-                return legConfiguration;
-            }
+        final LegConfiguration legConfiguration = getPModeIndex().getLegConfigurationByName(legKey);
+        if (legConfiguration != null) {
+            return legConfiguration;
         }
         throw new ConfigurationException("no matching legConfiguration found with name: " + legKey);
     }
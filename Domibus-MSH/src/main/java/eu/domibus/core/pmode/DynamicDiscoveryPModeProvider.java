@@ -3,7 +3,6 @@ package eu.domibus.core.pmode;
 import eu.domibus.api.multitenancy.Domain;
 import eu.domibus.api.multitenancy.DomainContextProvider;
 import eu.domibus.api.pki.CertificateService;
-import eu.domibus.api.property.DomibusPropertyProvider;
 import eu.domibus.common.ErrorCode;
 import eu.domibus.common.MSHRole;
 import eu.domibus.common.exception.EbMS3Exception;
@@ -11,6 +10,7 @@ import eu.domibus.common.model.configuration.Process;
 import eu.domibus.common.model.configuration.*;
 import eu.domibus.common.services.DynamicDiscoveryService;
 import eu.domibus.common.util.EndpointInfo;
+import eu.domibus.core.crypto.api.CertificateEntry;
 import eu.domibus.core.crypto.api.MultiDomainCryptoService;
 import eu.domibus.ebms3.common.context.MessageExchangeConfiguration;
 import eu.domibus.ebms3.common.model.PartyId;
@@ -26,11 +26,10 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.naming.InvalidNameException;
+import java.security.KeyStoreException;
 import java.security.cert.X509Certificate;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_DYNAMICDISCOVERY_CLIENT_SPECIFICATION;
 
@@ -52,6 +51,10 @@ import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_DYN
  *
  * The sender may not register, it can send a message to a registered receiver even if he (the sender) is not registered.
  * Therefore, on the receiver there is no lookup for the sender. The message is accepted based on the root CA as long as the process matches.
+ *
+ * The receivers found are kept in the DynamicDiscoveryParticipantCache, so the SMP is not queried for every message. A receiver is
+ * published in the pMode and its certificate in the truststore only the first time it is found or when its lookup changed.
+ * The pMode collections are replaced with updated copies instead of being modified, so that the lookups never wait for the updates.
  */
 public class DynamicDiscoveryPModeProvider extends CachingPModeProvider {
 
@@ -65,9 +68,6 @@ public class DynamicDiscoveryPModeProvider extends CachingPModeProvider {
     @Autowired
     protected DomainContextProvider domainProvider;
 
-    @Autowired
-    protected DomibusPropertyProvider domibusPropertyProvider;
-
     @Autowired
     @Qualifier("dynamicDiscoveryServiceOASIS")
     private DynamicDiscoveryService dynamicDiscoveryServiceOASIS;
@@ -81,6 +81,24 @@ public class DynamicDiscoveryPModeProvider extends CachingPModeProvider {
     @Autowired
     protected CertificateService certificateService;
 
+    @Autowired
+    protected DynamicDiscoveryParticipantCache participantCache;
+
+    // serializes the updates of the pMode, which the lookups read without locking
+    private final Object pModeUpdateLock = new Object();
+
+    private final Object truststoreLock = new Object();
+
+    // the certificates waiting to be added to the truststore with the next batch
+    protected final Map<String, X509Certificate> pendingCertificates = new ConcurrentHashMap<>();
+
+    // the participants already published in the configuration below, by participant key
+    protected final Map<List<String>, DynamicDiscoveryParticipant> publishedParticipants = new ConcurrentHashMap<>();
+
+    private volatile Configuration publishedConfiguration;
+
+    private volatile long publishedTrustStoreVersion;
+
     protected Collection<eu.domibus.common.model.configuration.Process> dynamicResponderProcesses;
     protected Collection<eu.domibus.common.model.configuration.Process> dynamicInitiatorProcesses;
 
@@ -103,6 +121,8 @@ public class DynamicDiscoveryPModeProvider extends CachingPModeProvider {
         } else { // OASIS client is used by default
             dynamicDiscoveryService = dynamicDiscoveryServiceOASIS;
         }
+        // the dynamic processes were completed with the gateway party
+        refreshPModeIndex();
     }
 
     protected Collection<eu.domibus.common.model.configuration.Process> findDynamicResponderProcesses() {
@@ -173,18 +193,90 @@ public class DynamicDiscoveryPModeProvider extends CachingPModeProvider {
 
         if(MSHRole.RECEIVING.equals(mshRole)) {
             PartyId fromPartyId = getFromPartyId(userMessage);
-            Party configurationParty = updateConfigurationParty(fromPartyId.getValue(), fromPartyId.getType(), null);
-            updateInitiatorPartiesInPmode(candidates, configurationParty);
+            if (isInitiatorPublished(fromPartyId, candidates)) {
+                LOG.debug("The initiator party [{}] is already in the pMode", fromPartyId.getValue());
+                return;
+            }
+            synchronized (pModeUpdateLock) {
+                Party configurationParty = updateConfigurationParty(fromPartyId.getValue(), fromPartyId.getType(), null);
+                updateInitiatorPartiesInPmode(candidates, configurationParty);
+                refreshPModeIndex();
+            }
 
         } else {//MSHRole.SENDING
-            EndpointInfo endpointInfo = lookupByFinalRecipient(userMessage);
-            updateToParty(userMessage, endpointInfo.getCertificate());
-            PartyId toPartyId = getToPartyId(userMessage);
-            Party configurationParty = updateConfigurationParty(toPartyId.getValue(), toPartyId.getType(), endpointInfo.getAddress());
+            final List<String> participantKey = getParticipantKey(userMessage);
+            final DynamicDiscoveryParticipant participant;
+            try {
+                participant = participantCache.getParticipant(domainProvider.getCurrentDomain(), participantKey, this::lookupParticipant);
+            } catch (EbMS3Exception e) {
+                e.setRefToMessageId(userMessage.getMessageInfo().getMessageId());
+                throw e;
+            }
+            updateToParty(userMessage, participant.getPartyName());
+            publishParticipant(participantKey, participant, candidates);
+        }
+    }
+
+    /**
+     * Adds the participant to the truststore and to the pMode, unless it was already published in the current pMode
+     * and truststore
+     */
+    protected void publishParticipant(List<String> participantKey, DynamicDiscoveryParticipant participant, Collection<eu.domibus.common.model.configuration.Process> candidates) {
+        // read before trusting the certificate, so that a truststore replaced meanwhile is published again
+        final long trustStoreVersion = participantCache.getTrustStoreVersion(domainProvider.getCurrentDomain());
+        if (publishedConfiguration == getConfiguration() && publishedTrustStoreVersion == trustStoreVersion
+                && publishedParticipants.get(participantKey) == participant) {
+            return;
+        }
+
+        trustCertificate(participant.getPartyName(), participant.getCertificate());
+        synchronized (pModeUpdateLock) {
+            final Configuration configuration = getConfiguration();
+            if (publishedConfiguration != configuration || publishedTrustStoreVersion != trustStoreVersion) {
+                // the pMode was reloaded without the discovered parties or the truststore without their certificates
+                publishedParticipants.clear();
+                publishedConfiguration = configuration;
+                publishedTrustStoreVersion = trustStoreVersion;
+            }
+            Party configurationParty = updateConfigurationParty(participant.getPartyName(), dynamicDiscoveryService.getPartyIdType(), participant.getEndpoint());
             updateResponderPartiesInPmode(candidates, configurationParty);
+            refreshPModeIndex();
+            publishedParticipants.put(participantKey, participant);
         }
     }
 
+    protected boolean isInitiatorPublished(PartyId partyId, Collection<eu.domibus.common.model.configuration.Process> candidates) {
+        final Party party = getPModeIndex().getPartyByName(partyId.getValue());
+        if (party == null || !hasPartyIdType(party, partyId.getType())) {
+            return false;
+        }
+        for (final Process candidate : candidates) {
+            if (!containsParty(candidate.getInitiatorParties(), party.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected boolean hasPartyIdType(Party party, String type) {
+        for (final Identifier identifier : party.getIdentifiers()) {
+            final String identifierType = identifier.getPartyIdType() != null ? identifier.getPartyIdType().getValue() : null;
+            if (StringUtils.equalsIgnoreCase(identifierType, type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected boolean containsParty(Collection<Party> parties, String partyName) {
+        for (final Party party : parties) {
+            if (StringUtils.equalsIgnoreCase(partyName, party.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected PartyId getToPartyId(UserMessage userMessage) throws EbMS3Exception {
         PartyId to = null;
         if(userMessage != null &&
@@ -219,14 +311,18 @@ public class DynamicDiscoveryPModeProvider extends CachingPModeProvider {
         return from;
     }
 
-    protected synchronized Party updateConfigurationParty(String name, String type, String endpoint) {
+    protected Party updateConfigurationParty(String name, String type, String endpoint) {
         LOG.info("Update the configuration party with [{}] [{}] [{}]", name, type, endpoint);
         // update the list of party types
         PartyIdType configurationType = updateConfigurationType(type);
 
+        // the list of parties is replaced with an updated copy
+        final BusinessProcesses businessProcesses = getConfiguration().getBusinessProcesses();
+        final List<Party> parties = new ArrayList<>(businessProcesses.getParties());
+
         // search if the party exists in the pMode
         Party configurationParty = null;
-        for (final Party party : getConfiguration().getBusinessProcesses().getParties()) {
+        for (final Party party : parties) {
             if (StringUtils.equalsIgnoreCase(party.getName(), name)) {
                 LOG.debug("Party exists in the pmode: " + party.getName());
                 configurationParty = party;
@@ -237,7 +333,7 @@ public class DynamicDiscoveryPModeProvider extends CachingPModeProvider {
         // remove party if exists to add it with latest values for address and type
         if (configurationParty != null) {
             LOG.debug("Remove party to add with new values " + configurationParty.getName());
-            getConfiguration().getBusinessProcesses().removeParty(configurationParty);
+            parties.remove(configurationParty);
         }
         // set the new endpoint if exists, otherwise copy the old one if exists
         String newEndpoint = endpoint;
@@ -251,7 +347,8 @@ public class DynamicDiscoveryPModeProvider extends CachingPModeProvider {
         LOG.debug("New endpoint is [{}]", newEndpoint);
         Party newConfigurationParty = buildNewConfigurationParty(name, configurationType, newEndpoint);
         LOG.debug("Add new configuration party: " + newConfigurationParty.getName());
-        getConfiguration().getBusinessProcesses().addParty(newConfigurationParty);
+        parties.add(newConfigurationParty);
+        businessProcesses.setParties(parties);
 
         return newConfigurationParty;
     }
@@ -288,13 +385,14 @@ public class DynamicDiscoveryPModeProvider extends CachingPModeProvider {
             configurationType = new PartyIdType();
             configurationType.setName(type);
             configurationType.setValue(type);
-            partyIdTypes.add(configurationType);
-            this.getConfiguration().getBusinessProcesses().setPartyIdTypes(partyIdTypes);
+            final Set<PartyIdType> newPartyIdTypes = new HashSet<>(partyIdTypes);
+            newPartyIdTypes.add(configurationType);
+            this.getConfiguration().getBusinessProcesses().setPartyIdTypes(newPartyIdTypes);
         }
         return configurationType;
     }
 
-    protected synchronized void updateResponderPartiesInPmode(Collection<eu.domibus.common.model.configuration.Process> candidates, Party configurationParty) {
+    protected void updateResponderPartiesInPmode(Collection<eu.domibus.common.model.configuration.Process> candidates, Party configurationParty) {
         LOG.debug("updateResponderPartiesInPmode with party " + configurationParty.getName());
         for (final Process candidate : candidates) {
             boolean partyFound = false;
@@ -306,12 +404,14 @@ public class DynamicDiscoveryPModeProvider extends CachingPModeProvider {
                 }
             }
             if (!partyFound) {
-                candidate.getResponderParties().add(configurationParty);
+                final Set<Party> responderParties = new HashSet<>(candidate.getResponderParties());
+                responderParties.add(configurationParty);
+                candidate.setResponderParties(responderParties);
             }
         }
     }
 
-    protected synchronized void updateInitiatorPartiesInPmode(Collection<eu.domibus.common.model.configuration.Process> candidates, Party configurationParty) {
+    protected void updateInitiatorPartiesInPmode(Collection<eu.domibus.common.model.configuration.Process> candidates, Party configurationParty) {
         LOG.debug("updateInitiatorPartiesInPmode with party " + configurationParty.getName());
         for (final Process candidate : candidates) {
             boolean partyFound = false;
@@ -323,21 +423,26 @@ public class DynamicDiscoveryPModeProvider extends CachingPModeProvider {
                 }
             }
             if (!partyFound) {
-                candidate.getInitiatorParties().add(configurationParty);
+                final Set<Party> initiatorParties = new HashSet<>(candidate.getInitiatorParties());
+                initiatorParties.add(configurationParty);
+                candidate.setInitiatorParties(initiatorParties);
             }
         }
     }
 
-    protected void updateToParty(UserMessage userMessage, final X509Certificate certificate) throws EbMS3Exception{
-        String cn = null;
+    protected String extractCommonName(final X509Certificate certificate) throws EbMS3Exception {
         try {
             //parse certificate for common name = toPartyId
-            cn = certificateService.extractCommonName(certificate);
+            final String cn = certificateService.extractCommonName(certificate);
             LOG.debug("Extracted the common name [{}]", cn);
+            return cn;
         } catch (final InvalidNameException e) {
             LOG.error("Error while extracting CommonName from certificate", e);
             throw new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0003, "Error while extracting CommonName from certificate", null, e);
         }
+    }
+
+    protected void updateToParty(UserMessage userMessage, final String cn) {
         //set toPartyId in UserMessage
         final PartyId receiverParty = new PartyId();
         receiverParty.setValue(cn);
@@ -348,31 +453,86 @@ public class DynamicDiscoveryPModeProvider extends CachingPModeProvider {
         if(userMessage.getPartyInfo().getTo().getRole() == null) {
             userMessage.getPartyInfo().getTo().setRole(dynamicDiscoveryService.getResponderRole());
         }
+    }
 
-        LOG.debug("Add public certificate to the truststore");
-        //add certificate to Truststore
-        multiDomainCertificateProvider.addCertificate(domainProvider.getCurrentDomain(), certificate, cn, true);
-        LOG.debug("Certificate added");
+    /**
+     * Adds the certificate to the truststore if it is not there yet. The certificates added concurrently are written
+     * together by the first thread getting the truststore lock.
+     */
+    protected void trustCertificate(final String alias, final X509Certificate certificate) {
+        final Domain currentDomain = domainProvider.getCurrentDomain();
+        if (certificate.equals(getTrustedCertificate(currentDomain, alias))) {
+            LOG.debug("The certificate [{}] is already in the truststore", alias);
+            return;
+        }
 
+        pendingCertificates.put(alias, certificate);
+        synchronized (truststoreLock) {
+            if (!pendingCertificates.containsKey(alias)) {
+                LOG.debug("The certificate [{}] was added to the truststore with another batch", alias);
+                return;
+            }
+            final List<CertificateEntry> certificates = new ArrayList<>();
+            for (String pendingAlias : new ArrayList<>(pendingCertificates.keySet())) {
+                final X509Certificate pendingCertificate = pendingCertificates.remove(pendingAlias);
+                if (pendingCertificate != null) {
+                    certificates.add(new CertificateEntry(pendingAlias, pendingCertificate));
+                }
+            }
+            LOG.debug("Add [{}] public certificates to the truststore", certificates.size());
+            try {
+                multiDomainCertificateProvider.addCertificate(currentDomain, certificates, true);
+            } catch (RuntimeException e) {
+                // the other threads of the batch retry
+                certificates.forEach(entry -> pendingCertificates.putIfAbsent(entry.getAlias(), entry.getCertificate()));
+                throw e;
+            }
+            LOG.debug("Certificates added");
+        }
     }
 
-    protected EndpointInfo lookupByFinalRecipient(UserMessage userMessage) throws EbMS3Exception {
-        Property finalRecipient = getFinalRecipient(userMessage);
-        if(finalRecipient == null) {
-            throw new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0010, "Dynamic discovery processes found for message but finalRecipient information is missing in messageProperties.", userMessage.getMessageInfo().getMessageId(), null);
+    protected X509Certificate getTrustedCertificate(Domain domain, String alias) {
+        try {
+            return multiDomainCertificateProvider.getCertificateFromTruststore(domain, alias);
+        } catch (KeyStoreException e) {
+            LOG.debug("Could not read the certificate [{}] from the truststore", alias, e);
+            return null;
         }
-        LOG.info("Perform lookup by finalRecipient: " + finalRecipient.getName() + " " + finalRecipient.getType() + " " +finalRecipient.getValue());
+    }
 
-        //lookup sml/smp - result is cached
-        final EndpointInfo endpoint = dynamicDiscoveryService.lookupInformation(domainProvider.getCurrentDomain().getCode(), finalRecipient.getValue(),
-                finalRecipient.getType(),
+    protected List<String> getParticipantKey(UserMessage userMessage) throws EbMS3Exception {
+        final Property finalRecipient = getRequiredFinalRecipient(userMessage);
+        return Arrays.asList(finalRecipient.getValue(), finalRecipient.getType(),
                 userMessage.getCollaborationInfo().getAction(),
                 userMessage.getCollaborationInfo().getService().getValue(),
                 userMessage.getCollaborationInfo().getService().getType());
+    }
+
+    /**
+     * @param participantKey the final recipient value and type, the action and the service value and type, as returned by
+     *                       {@link #getParticipantKey(UserMessage)}
+     */
+    protected DynamicDiscoveryParticipant lookupParticipant(List<String> participantKey) throws EbMS3Exception {
+        final EndpointInfo endpointInfo = lookupByFinalRecipient(participantKey);
+        final String cn = extractCommonName(endpointInfo.getCertificate());
+        return new DynamicDiscoveryParticipant(endpointInfo.getAddress(), endpointInfo.getCertificate(), cn);
+    }
+
+    protected EndpointInfo lookupByFinalRecipient(List<String> participantKey) throws EbMS3Exception {
+        final String finalRecipientValue = participantKey.get(0);
+        final String finalRecipientType = participantKey.get(1);
+        LOG.info("Perform lookup by finalRecipient: " + finalRecipientType + " " + finalRecipientValue);
+
+        //lookup sml/smp
+        final EndpointInfo endpoint = dynamicDiscoveryService.lookupInformation(domainProvider.getCurrentDomain().getCode(), finalRecipientValue,
+                finalRecipientType,
+                participantKey.get(2),
+                participantKey.get(3),
+                participantKey.get(4));
 
         // The SMP entries missing this info are not for the use of Domibus
         if(endpoint.getAddress() == null  || endpoint.getCertificate() == null) {
-            throw new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0010, "Invalid endpoint metadata received from the dynamic discovery process.", userMessage.getMessageInfo().getMessageId(), null);
+            throw new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0010, "Invalid endpoint metadata received from the dynamic discovery process.", null, null);
         }
         LOG.debug("Lookup successful: " + endpoint.getAddress());
         return endpoint;
@@ -412,6 +572,14 @@ public class DynamicDiscoveryPModeProvider extends CachingPModeProvider {
         }
     }
 
+    protected Property getRequiredFinalRecipient(UserMessage userMessage) throws EbMS3Exception {
+        Property finalRecipient = getFinalRecipient(userMessage);
+        if(finalRecipient == null) {
+            throw new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0010, "Dynamic discovery processes found for message but finalRecipient information is missing in messageProperties.", userMessage.getMessageInfo().getMessageId(), null);
+        }
+        return finalRecipient;
+    }
+
     protected Property getFinalRecipient(UserMessage userMessage) {
         if(userMessage.getMessageProperties() == null ||
                 userMessage.getMessageProperties().getProperty().isEmpty()) {
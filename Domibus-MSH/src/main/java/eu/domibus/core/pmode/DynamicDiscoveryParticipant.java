@@ -0,0 +1,37 @@
+package eu.domibus.core.pmode;
+
+import java.security.cert.X509Certificate;
+
+/**
+ * A receiver found by the dynamic discovery: its endpoint, its certificate and the name of its PMode party, taken from
+ * the common name of the certificate.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+public class DynamicDiscoveryParticipant {
+
+    private final String endpoint;
+
+    private final X509Certificate certificate;
+
+    private final String partyName;
+
+    public DynamicDiscoveryParticipant(String endpoint, X509Certificate certificate, String partyName) {
+        this.endpoint = endpoint;
+        this.certificate = certificate;
+        this.partyName = partyName;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public X509Certificate getCertificate() {
+        return certificate;
+    }
+
+    public String getPartyName() {
+        return partyName;
+    }
+}
@@ -0,0 +1,238 @@
+package eu.domibus.core.pmode;
+
+import eu.domibus.api.multitenancy.Domain;
+import eu.domibus.api.multitenancy.DomainTaskExecutor;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.common.exception.EbMS3Exception;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_DYNAMICDISCOVERY_LOOKUP_CACHE_TTL;
+
+/**
+ * Keeps per domain the participants found by the dynamic discovery, by final recipient, action and service.
+ * <p>
+ * A participant is looked up on the calling thread only the first time it is used, or when it is expired. Once three
+ * quarters of its time to live are gone it is looked up again in the background, while the messages keep using the
+ * previous one. The participants expired are evicted at most once per time to live, when another participant is looked up.
+ * <p>
+ * It also keeps per domain a version of the truststore, increased each time the truststore is reloaded or replaced, so
+ * that the participants already trusted are added again to the truststore.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Service
+public class DynamicDiscoveryParticipantCache {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(DynamicDiscoveryParticipantCache.class);
+
+    /**
+     * Delay before looking up again a participant whose background refresh failed
+     */
+    protected static final long REFRESH_RETRY_DELAY = 60 * 1000L;
+
+    @Autowired
+    protected DomibusPropertyProvider domibusPropertyProvider;
+
+    @Autowired
+    protected DomainTaskExecutor domainTaskExecutor;
+
+    protected final Map<String, Map<List<String>, Entry>> participantsByDomain = new ConcurrentHashMap<>();
+
+    /**
+     * The lookups in progress on the calling threads, removed once completed
+     */
+    protected final Map<List<String>, CompletableFuture<DynamicDiscoveryParticipant>> pendingLookups = new ConcurrentHashMap<>();
+
+    protected final Map<String, AtomicLong> lastEvictions = new ConcurrentHashMap<>();
+
+    protected final Set<List<String>> refreshing = ConcurrentHashMap.newKeySet();
+
+    protected final Map<String, AtomicLong> trustStoreVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Looks up a participant from its key only, so that no message is kept by the background refreshes
+     */
+    @FunctionalInterface
+    public interface ParticipantLookup {
+        DynamicDiscoveryParticipant lookup(List<String> key) throws EbMS3Exception;
+    }
+
+    /**
+     * @param domain the domain of the PMode
+     * @param key    identifies the participant, e.g. the final recipient, action and service of the message
+     * @param lookup looks up the participant in the SMP
+     * @return the participant found by the last lookup
+     * @throws EbMS3Exception if the participant is neither known nor could be looked up
+     */
+    public DynamicDiscoveryParticipant getParticipant(Domain domain, List<String> key, ParticipantLookup lookup) throws EbMS3Exception {
+        final long now = System.currentTimeMillis();
+        final Entry entry = getParticipants(domain).get(key);
+        if (entry == null || entry.isExpired(now)) {
+            return loadParticipant(domain, key, lookup);
+        }
+        if (entry.isRefreshDue(now)) {
+            refreshInBackground(domain, key, entry, lookup);
+        }
+        return entry.participant;
+    }
+
+    public void clear(String domainCode) {
+        LOG.debug("Clearing the dynamic discovery participants of domain [{}]", domainCode);
+        participantsByDomain.remove(domainCode);
+    }
+
+    public void trustStoreChanged(Domain domain) {
+        LOG.debug("The truststore of domain [{}] changed", domain);
+        getTrustStoreVersionCounter(domain).incrementAndGet();
+    }
+
+    public long getTrustStoreVersion(Domain domain) {
+        return getTrustStoreVersionCounter(domain).get();
+    }
+
+    protected AtomicLong getTrustStoreVersionCounter(Domain domain) {
+        return trustStoreVersions.computeIfAbsent(domain.getCode(), domainCode -> new AtomicLong());
+    }
+
+    /**
+     * Looks up the participant; the concurrent messages for the same participant wait for a single lookup and share its
+     * outcome
+     */
+    protected DynamicDiscoveryParticipant loadParticipant(Domain domain, List<String> key, ParticipantLookup lookup) throws EbMS3Exception {
+        final List<String> lookupKey = getLookupKey(domain, key);
+        final CompletableFuture<DynamicDiscoveryParticipant> pendingLookup = new CompletableFuture<>();
+        final CompletableFuture<DynamicDiscoveryParticipant> currentLookup = pendingLookups.putIfAbsent(lookupKey, pendingLookup);
+        if (currentLookup != null) {
+            LOG.debug("Waiting for the lookup in progress of the dynamic discovery participant [{}]", key);
+            return waitForLookup(currentLookup);
+        }
+        try {
+            final Entry entry = getParticipants(domain).get(key);
+            final DynamicDiscoveryParticipant participant = entry != null && !entry.isExpired(System.currentTimeMillis()) ?
+                    entry.participant : lookupParticipant(domain, key, lookup);
+            pendingLookup.complete(participant);
+            return participant;
+        } catch (EbMS3Exception | RuntimeException e) {
+            pendingLookup.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingLookups.remove(lookupKey, pendingLookup);
+        }
+    }
+
+    protected DynamicDiscoveryParticipant waitForLookup(CompletableFuture<DynamicDiscoveryParticipant> lookup) throws EbMS3Exception {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof EbMS3Exception) {
+                throw (EbMS3Exception) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    protected DynamicDiscoveryParticipant lookupParticipant(Domain domain, List<String> key, ParticipantLookup lookup) throws EbMS3Exception {
+        final DynamicDiscoveryParticipant participant = lookup.lookup(key);
+        final long timeToLive = getTimeToLive(domain);
+        if (timeToLive > 0) {
+            final long now = System.currentTimeMillis();
+            getParticipants(domain).put(key, new Entry(participant, now, timeToLive));
+            evictExpired(domain, now, timeToLive);
+        }
+        return participant;
+    }
+
+    /**
+     * Removes the participants expired, which would otherwise be kept until they are looked up again
+     */
+    protected void evictExpired(Domain domain, long now, long timeToLive) {
+        final AtomicLong lastEviction = lastEvictions.computeIfAbsent(domain.getCode(), domainCode -> new AtomicLong(now));
+        final long previousEviction = lastEviction.get();
+        if (now - previousEviction < timeToLive || !lastEviction.compareAndSet(previousEviction, now)) {
+            return;
+        }
+        final Map<List<String>, Entry> participants = getParticipants(domain);
+        final int size = participants.size();
+        // only the entries still expired when removed are evicted, not the ones looked up again in the meantime
+        participants.values().removeIf(entry -> entry.isExpired(now));
+        LOG.debug("Evicted [{}] expired dynamic discovery participants of domain [{}]", size - participants.size(), domain);
+    }
+
+    protected void refreshInBackground(Domain domain, List<String> key, Entry entry, ParticipantLookup lookup) {
+        final List<String> refreshKey = getLookupKey(domain, key);
+        if (!refreshing.add(refreshKey)) {
+            return;
+        }
+        LOG.debug("Refreshing in background the dynamic discovery participant [{}]", key);
+        try {
+            domainTaskExecutor.submitLongRunningTask(() -> {
+                try {
+                    lookupParticipant(domain, key, lookup);
+                } catch (EbMS3Exception | RuntimeException e) {
+                    LOG.warn("Could not refresh the dynamic discovery participant [{}], the previous lookup is still used", key, e);
+                    entry.nextRefresh = System.currentTimeMillis() + REFRESH_RETRY_DELAY;
+                } finally {
+                    refreshing.remove(refreshKey);
+                }
+            }, domain);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not schedule the refresh of the dynamic discovery participant [{}]", key, e);
+            refreshing.remove(refreshKey);
+        }
+    }
+
+    protected Map<List<String>, Entry> getParticipants(Domain domain) {
+        return participantsByDomain.computeIfAbsent(domain.getCode(), domainCode -> new ConcurrentHashMap<>());
+    }
+
+    protected List<String> getLookupKey(Domain domain, List<String> key) {
+        final List<String> lockKey = new ArrayList<>(key.size() + 1);
+        lockKey.add(domain.getCode());
+        lockKey.addAll(key);
+        return lockKey;
+    }
+
+    protected long getTimeToLive(Domain domain) {
+        final Integer timeToLive = domibusPropertyProvider.getIntegerDomainProperty(domain, DOMIBUS_DYNAMICDISCOVERY_LOOKUP_CACHE_TTL);
+        return timeToLive != null ? timeToLive * 1000L : 0;
+    }
+
+    protected static class Entry {
+
+        private final DynamicDiscoveryParticipant participant;
+
+        private final long expiry;
+
+        private volatile long nextRefresh;
+
+        protected Entry(DynamicDiscoveryParticipant participant, long loaded, long timeToLive) {
+            this.participant = participant;
+            this.expiry = loaded + timeToLive;
+            this.nextRefresh = loaded + timeToLive * 3 / 4;
+        }
+
+        protected boolean isExpired(long now) {
+            return now >= expiry;
+        }
+
+        protected boolean isRefreshDue(long now) {
+            return now >= nextRefresh;
+        }
+    }
+}
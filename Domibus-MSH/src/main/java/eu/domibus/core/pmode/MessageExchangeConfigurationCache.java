@@ -0,0 +1,117 @@
+package eu.domibus.core.pmode;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import eu.domibus.common.MSHRole;
+import eu.domibus.ebms3.common.context.MessageExchangeConfiguration;
+import eu.domibus.ebms3.common.model.AgreementRef;
+import eu.domibus.ebms3.common.model.CollaborationInfo;
+import eu.domibus.ebms3.common.model.From;
+import eu.domibus.ebms3.common.model.PartyId;
+import eu.domibus.ebms3.common.model.PartyInfo;
+import eu.domibus.ebms3.common.model.Service;
+import eu.domibus.ebms3.common.model.To;
+import eu.domibus.ebms3.common.model.UserMessage;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+
+/**
+ * Bounded cache of the {@link MessageExchangeConfiguration} resolved for a user message, keyed by the routing
+ * information of the message: from and to parties, service, action, agreement, mpc and roles.
+ * <p>
+ * The cache belongs to the PMode provider of a domain and is recreated every time the PMode is reloaded, so an entry
+ * never outlives the configuration it was resolved against. Hits and misses are reported to the {@link MetricRegistry}.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+public class MessageExchangeConfigurationCache {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(MessageExchangeConfigurationCache.class);
+
+    protected static final String METRIC_HITS = "hits";
+
+    protected static final String METRIC_MISSES = "misses";
+
+    protected final Cache<List<String>, MessageExchangeConfiguration> cache;
+
+    protected final Counter hits;
+
+    protected final Counter misses;
+
+    public MessageExchangeConfigurationCache(String domainCode, long maximumSize, MetricRegistry metricRegistry) {
+        this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+        this.hits = metricRegistry.counter(MetricRegistry.name(MessageExchangeConfigurationCache.class, domainCode, METRIC_HITS));
+        this.misses = metricRegistry.counter(MetricRegistry.name(MessageExchangeConfigurationCache.class, domainCode, METRIC_MISSES));
+        LOG.debug("Created the message exchange configuration cache for domain [{}] with maximum size [{}]", domainCode, maximumSize);
+    }
+
+    public MessageExchangeConfiguration get(UserMessage userMessage, MSHRole mshRole) {
+        final MessageExchangeConfiguration result = cache.getIfPresent(getKey(userMessage, mshRole));
+        if (result == null) {
+            misses.inc();
+        } else {
+            hits.inc();
+        }
+        return result;
+    }
+
+    public void put(UserMessage userMessage, MSHRole mshRole, MessageExchangeConfiguration messageExchangeConfiguration) {
+        cache.put(getKey(userMessage, mshRole), messageExchangeConfiguration);
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Builds the normalised routing key of the message. The PMode lookups are case insensitive so all the values are
+     * lower cased, except the mpc which is copied as such into the resolved {@link MessageExchangeConfiguration}.
+     */
+    protected List<String> getKey(UserMessage userMessage, MSHRole mshRole) {
+        final List<String> key = new ArrayList<>();
+        key.add(mshRole == null ? null : mshRole.name());
+
+        final PartyInfo partyInfo = userMessage.getPartyInfo();
+        final From from = partyInfo == null ? null : partyInfo.getFrom();
+        final To to = partyInfo == null ? null : partyInfo.getTo();
+        key.add(from == null ? null : normalize(from.getRole()));
+        key.add(from == null ? null : getPartyIdsKey(from.getPartyId()));
+        key.add(to == null ? null : normalize(to.getRole()));
+        key.add(to == null ? null : getPartyIdsKey(to.getPartyId()));
+
+        final CollaborationInfo collaborationInfo = userMessage.getCollaborationInfo();
+        if (collaborationInfo != null) {
+            final Service service = collaborationInfo.getService();
+            key.add(service == null ? null : normalize(service.getType()));
+            key.add(service == null ? null : normalize(service.getValue()));
+            key.add(normalize(collaborationInfo.getAction()));
+            final AgreementRef agreementRef = collaborationInfo.getAgreementRef();
+            key.add(agreementRef == null ? null : normalize(agreementRef.getType()));
+            key.add(agreementRef == null ? null : normalize(agreementRef.getValue()));
+        }
+        key.add(userMessage.getMpc());
+        return key;
+    }
+
+    protected String getPartyIdsKey(Collection<PartyId> partyIds) {
+        if (partyIds == null) {
+            return null;
+        }
+        final List<String> result = new ArrayList<>();
+        for (PartyId partyId : partyIds) {
+            result.add(normalize(partyId.getType()) + ":" + normalize(partyId.getValue()));
+        }
+        Collections.sort(result);
+        return result.toString();
+    }
+
+    protected String normalize(String value) {
+        return StringUtils.lowerCase(value, Locale.ROOT);
+    }
+}
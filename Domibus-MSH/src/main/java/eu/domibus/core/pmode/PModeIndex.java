@@ -0,0 +1,241 @@
+package eu.domibus.core.pmode;
+
+import eu.domibus.common.model.configuration.Process;
+import eu.domibus.common.model.configuration.*;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+
+import static eu.domibus.plugin.BackendConnector.Mode.PULL;
+
+/**
+ * Immutable lookup index built once from a PMode {@link Configuration}.
+ * <p>
+ * All the keys are normalised to lower case so the lookups keep the case insensitive semantics of the linear scans
+ * they replace. When several PMode entries map to the same key, the first one in the PMode order wins, as it did before.
+ * The index is never modified after creation; a new instance is built and swapped in whenever the configuration changes.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+public class PModeIndex {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(PModeIndex.class);
+
+    protected final Map<String, Party> partiesByName = new HashMap<>();
+
+    protected final Map<List<String>, Party> partiesByIdentifier = new HashMap<>();
+
+    protected final Map<String, Party> partiesByIdentifierValue = new HashMap<>();
+
+    protected final Map<List<String>, String> serviceNamesByTypeAndValue = new HashMap<>();
+
+    protected final Map<String, Service> servicesByName = new HashMap<>();
+
+    protected final Map<String, String> actionNamesByValue = new HashMap<>();
+
+    protected final Map<String, Action> actionsByName = new HashMap<>();
+
+    protected final Map<String, String> agreementNamesByValue = new HashMap<>();
+
+    protected final Map<List<String>, String> agreementNamesByTypeAndValue = new HashMap<>();
+
+    protected final Map<String, Agreement> agreementsByName = new HashMap<>();
+
+    protected final Map<String, LegConfiguration> legConfigurationsByName = new HashMap<>();
+
+    /**
+     * (sender party, receiver party, agreement) combinations having at least one leg candidate
+     */
+    protected final Set<List<String>> legCandidates = new HashSet<>();
+
+    /**
+     * (sender party, receiver party, agreement, service, action) to leg name
+     */
+    protected final Map<List<String>, String> legNamesByRoute = new HashMap<>();
+
+    public PModeIndex(final Configuration configuration) {
+        final BusinessProcesses businessProcesses = configuration.getBusinessProcesses();
+        indexParties(businessProcesses.getParties());
+        indexServices(businessProcesses.getServices());
+        indexActions(businessProcesses.getActions());
+        indexAgreements(businessProcesses.getAgreements());
+        indexLegConfigurations(businessProcesses.getLegConfigurations());
+        indexProcesses(businessProcesses.getProcesses());
+        LOG.debug("PMode index created: [{}] parties, [{}] services, [{}] actions, [{}] agreements, [{}] legs and [{}] routes",
+                partiesByName.size(), servicesByName.size(), actionsByName.size(), agreementsByName.size(), legConfigurationsByName.size(), legNamesByRoute.size());
+    }
+
+    protected void indexParties(final Collection<Party> parties) {
+        if (parties == null) {
+            return;
+        }
+        for (final Party party : parties) {
+            partiesByName.putIfAbsent(normalize(party.getName()), party);
+            for (final Identifier identifier : party.getIdentifiers()) {
+                final String identifierPartyIdType = identifier.getPartyIdType() != null ? identifier.getPartyIdType().getValue() : StringUtils.EMPTY;
+                partiesByIdentifier.putIfAbsent(key(identifierPartyIdType, identifier.getPartyId()), party);
+                partiesByIdentifierValue.putIfAbsent(normalize(identifier.getPartyId()), party);
+            }
+        }
+    }
+
+    protected void indexServices(final Collection<Service> services) {
+        if (services == null) {
+            return;
+        }
+        for (final Service service : services) {
+            // an empty service type only matches an empty type in the message
+            serviceNamesByTypeAndValue.putIfAbsent(key(StringUtils.defaultString(service.getServiceType()), service.getValue()), service.getName());
+            servicesByName.putIfAbsent(normalize(service.getName()), service);
+        }
+    }
+
+    protected void indexActions(final Collection<Action> actions) {
+        if (actions == null) {
+            return;
+        }
+        for (final Action action : actions) {
+            actionNamesByValue.putIfAbsent(normalize(action.getValue()), action.getName());
+            actionsByName.putIfAbsent(normalize(action.getName()), action);
+        }
+    }
+
+    protected void indexAgreements(final Collection<Agreement> agreements) {
+        if (agreements == null) {
+            return;
+        }
+        for (final Agreement agreement : agreements) {
+            agreementNamesByValue.putIfAbsent(normalize(agreement.getValue()), agreement.getName());
+            agreementNamesByTypeAndValue.putIfAbsent(key(agreement.getType(), agreement.getValue()), agreement.getName());
+            agreementsByName.putIfAbsent(normalize(agreement.getName()), agreement);
+        }
+    }
+
+    protected void indexLegConfigurations(final Collection<LegConfiguration> legConfigurations) {
+        if (legConfigurations == null) {
+            return;
+        }
+        for (final LegConfiguration legConfiguration : legConfigurations) {
+            legConfigurationsByName.putIfAbsent(normalize(legConfiguration.getName()), legConfiguration);
+        }
+    }
+
+    protected void indexProcesses(final Collection<Process> processes) {
+        if (processes == null) {
+            return;
+        }
+        for (final Process process : processes) {
+            if (process.getLegs() == null || process.getLegs().isEmpty()) {
+                continue;
+            }
+            final boolean pullProcess = process.getMepBinding() != null && PULL.getFileMapping().equalsIgnoreCase(process.getMepBinding().getValue());
+            final List<String> agreementNames = getAgreementNames(process);
+            for (final Party initiator : process.getInitiatorParties()) {
+                for (final Party responder : process.getResponderParties()) {
+                    // in a pull process the sender of the user message is the responder of the process
+                    final String senderParty = pullProcess ? responder.getName() : initiator.getName();
+                    final String receiverParty = pullProcess ? initiator.getName() : responder.getName();
+                    for (final String agreementName : agreementNames) {
+                        indexLegs(process, senderParty, receiverParty, agreementName);
+                    }
+                }
+            }
+        }
+    }
+
+    protected void indexLegs(final Process process, final String senderParty, final String receiverParty, final String agreementName) {
+        legCandidates.add(key(senderParty, receiverParty, agreementName));
+        for (final LegConfiguration leg : process.getLegs()) {
+            if (leg.getService() == null || leg.getAction() == null) {
+                LOG.debug("Leg [{}] has no service or action configured, skipping it", leg.getName());
+                continue;
+            }
+            legNamesByRoute.putIfAbsent(key(senderParty, receiverParty, agreementName, leg.getService().getName(), leg.getAction().getName()), leg.getName());
+        }
+    }
+
+    /**
+     * A process matches either its agreement name or, when it has no agreement (or an agreement without value),
+     * the {@link PModeProvider#OPTIONAL_AND_EMPTY} marker used for messages that do not indicate any agreement.
+     */
+    protected List<String> getAgreementNames(final Process process) {
+        final List<String> result = new ArrayList<>();
+        final Agreement agreement = process.getAgreement();
+        if (agreement == null) {
+            result.add(PModeProvider.OPTIONAL_AND_EMPTY);
+            return result;
+        }
+        result.add(agreement.getName());
+        // Please notice that this is only for backward compatibility and will be removed ASAP!
+        if (StringUtils.isEmpty(agreement.getValue())) {
+            result.add(PModeProvider.OPTIONAL_AND_EMPTY);
+        }
+        return result;
+    }
+
+    public Party getPartyByName(final String partyName) {
+        return partiesByName.get(normalize(partyName));
+    }
+
+    public Party getPartyByIdentifier(final String partyIdType, final String partyIdValue) {
+        return partiesByIdentifier.get(key(StringUtils.defaultString(partyIdType), partyIdValue));
+    }
+
+    public Party getPartyByIdentifierValue(final String partyIdValue) {
+        return partiesByIdentifierValue.get(normalize(partyIdValue));
+    }
+
+    public String findServiceName(final String serviceType, final String serviceValue) {
+        return serviceNamesByTypeAndValue.get(key(StringUtils.defaultString(serviceType), serviceValue));
+    }
+
+    public Service getServiceByName(final String serviceName) {
+        return servicesByName.get(normalize(serviceName));
+    }
+
+    public String findActionName(final String actionValue) {
+        return actionNamesByValue.get(normalize(actionValue));
+    }
+
+    public Action getActionByName(final String actionName) {
+        return actionsByName.get(normalize(actionName));
+    }
+
+    public String findAgreementName(final String agreementType, final String agreementValue) {
+        if (StringUtils.isEmpty(agreementType)) {
+            return agreementNamesByValue.get(normalize(agreementValue));
+        }
+        return agreementNamesByTypeAndValue.get(key(agreementType, agreementValue));
+    }
+
+    public Agreement getAgreementByName(final String agreementName) {
+        return agreementsByName.get(normalize(agreementName));
+    }
+
+    public LegConfiguration getLegConfigurationByName(final String legName) {
+        return legConfigurationsByName.get(normalize(legName));
+    }
+
+    public boolean hasLegCandidates(final String agreementName, final String senderParty, final String receiverParty) {
+        return legCandidates.contains(key(senderParty, receiverParty, agreementName));
+    }
+
+    public String findLegName(final String agreementName, final String senderParty, final String receiverParty, final String service, final String action) {
+        return legNamesByRoute.get(key(senderParty, receiverParty, agreementName, service, action));
+    }
+
+    protected static String normalize(final String value) {
+        return StringUtils.lowerCase(value, Locale.ROOT);
+    }
+
+    protected static List<String> key(final String... values) {
+        final List<String> result = new ArrayList<>(values.length);
+        for (final String value : values) {
+            result.add(normalize(value));
+        }
+        return result;
+    }
+}
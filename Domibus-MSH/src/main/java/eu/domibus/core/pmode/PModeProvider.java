@@ -259,6 +259,14 @@ public abstract class PModeProvider {
         LOG.putMDC(DomibusLogger.MDC_SERVICE, userMessage.getCollaborationInfo().getService().getValue());
         LOG.putMDC(DomibusLogger.MDC_ACTION, userMessage.getCollaborationInfo().getAction());
 
+        // captured before the lookup so that a resolution made against a PMode replaced in the meantime is not cached
+        final Configuration resolvedConfiguration = getLoadedConfiguration();
+        final MessageExchangeConfiguration cachedConfiguration = getCachedUserMessageExchangeContext(userMessage, mshRole, isPull);
+        if (cachedConfiguration != null) {
+            LOG.debug("Found cached pmodeKey [{}] for message [{}]", cachedConfiguration.getPmodeKey(), messageId);
+            return cachedConfiguration;
+        }
+
         try {
             agreementName = findAgreement(userMessage.getCollaborationInfo().getAgreementRef());
             LOG.businessInfo(DomibusMessageCode.BUS_MESSAGE_AGREEMENT_FOUND, agreementName, userMessage.getCollaborationInfo().getAgreementRef());
@@ -294,6 +302,7 @@ public abstract class PModeProvider {
 
             MessageExchangeConfiguration messageExchangeConfiguration = new MessageExchangeConfiguration(agreementName, senderParty, receiverParty, service, action, leg, mpc);
             LOG.debug("Found pmodeKey [{}] for message [{}]", messageExchangeConfiguration.getPmodeKey(), userMessage);
+            cacheUserMessageExchangeContext(userMessage, mshRole, isPull, resolvedConfiguration, messageExchangeConfiguration);
             return messageExchangeConfiguration;
         } catch (EbMS3Exception e) {
             e.setRefToMessageId(messageId);
@@ -311,6 +320,31 @@ public abstract class PModeProvider {
     }
 
 
+    /**
+     * Returns the exchange context previously resolved for a message having the same routing information, if any.
+     * The default implementation does not cache anything.
+     */
+    protected MessageExchangeConfiguration getCachedUserMessageExchangeContext(final UserMessage userMessage, final MSHRole mshRole, final boolean isPull) {
+        return null;
+    }
+
+    /**
+     * Caches the exchange context resolved for the message.
+     *
+     * @param resolvedConfiguration the configuration loaded when the resolution started, see {@link #getLoadedConfiguration()}
+     */
+    protected void cacheUserMessageExchangeContext(final UserMessage userMessage, final MSHRole mshRole, final boolean isPull, final Configuration resolvedConfiguration,
+                                                   final MessageExchangeConfiguration messageExchangeConfiguration) {
+        //nothing to cache by default
+    }
+
+    /**
+     * @return the configuration currently loaded in memory, if any
+     */
+    protected Configuration getLoadedConfiguration() {
+        return null;
+    }
+
     class ReloadPmodeMessageCreator implements MessageCreator {
         @Override
         public Message createMessage(Session session) throws JMSException {
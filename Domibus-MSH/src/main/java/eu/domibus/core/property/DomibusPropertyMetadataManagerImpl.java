@@ -31,6 +31,8 @@ public class DomibusPropertyMetadataManagerImpl implements DomibusPropertyMetada
             new DomibusPropertyMetadata(DOMIBUS_CONSOLE_LOGIN_SUSPENSION_TIME, true, true),
             new DomibusPropertyMetadata(DOMIBUS_CERTIFICATE_REVOCATION_OFFSET, true, false),
             new DomibusPropertyMetadata(DOMIBUS_CERTIFICATE_CRL_EXCLUDED_PROTOCOLS, true, false),
+            new DomibusPropertyMetadata(DOMIBUS_CERTIFICATE_CRL_STORE_LOCATION, false),
+            new DomibusPropertyMetadata(DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL, false),
 
             new DomibusPropertyMetadata(DOMIBUS_PLUGIN_LOGIN_MAXIMUM_ATTEMPT, true, false),
             new DomibusPropertyMetadata(DOMIBUS_PLUGIN_LOGIN_SUSPENSION_TIME, true, true),
@@ -54,6 +56,7 @@ public class DomibusPropertyMetadataManagerImpl implements DomibusPropertyMetada
 
             new DomibusPropertyMetadata(DOMIBUS_MSH_MESSAGEID_SUFFIX, true, true),
             new DomibusPropertyMetadata(DOMIBUS_MSH_RETRY_MESSAGE_EXPIRATION_DELAY, false),
+            new DomibusPropertyMetadata(DOMIBUS_MSH_RETRY_PAGE_SIZE, true, true),
 
             new DomibusPropertyMetadata(DOMIBUS_DYNAMICDISCOVERY_USE_DYNAMIC_DISCOVERY, true, true),
             new DomibusPropertyMetadata(DOMIBUS_SMLZONE, true, true),
@@ -64,8 +67,11 @@ public class DomibusPropertyMetadataManagerImpl implements DomibusPropertyMetada
             new DomibusPropertyMetadata(DOMIBUS_DYNAMICDISCOVERY_PARTYID_RESPONDER_ROLE, true, true),
             new DomibusPropertyMetadata(DOMIBUS_DYNAMICDISCOVERY_PARTYID_TYPE, true, true),
             new DomibusPropertyMetadata(DOMIBUS_DYNAMICDISCOVERY_TRANSPORTPROFILEAS_4, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_DYNAMICDISCOVERY_LOOKUP_CACHE_TTL, true, true),
 
             new DomibusPropertyMetadata(DOMIBUS_LIST_PENDING_MESSAGES_MAX_COUNT, false),
+            new DomibusPropertyMetadata(DOMIBUS_LIST_PENDING_MESSAGES_INDEX_ACTIVE, false),
+            new DomibusPropertyMetadata(DOMIBUS_DATABASE_SCHEMA_AFFINITY_ACTIVE, false),
             new DomibusPropertyMetadata(DOMIBUS_JMS_QUEUE_MAX_BROWSE_SIZE, false), //there is one place at init time that it is not refreshed
             new DomibusPropertyMetadata(DOMIBUS_JMS_INTERNAL_QUEUE_EXPRESSION, false),
 
@@ -86,8 +92,23 @@ public class DomibusPropertyMetadataManagerImpl implements DomibusPropertyMetada
             new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_LARGE_FILES_CONCURRENCY, true, true),
             new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_CACHEABLE, true, true),
             new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_CONNECTION_KEEP_ALIVE, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_ASYNC, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_ASYNC_MAX_IN_FLIGHT, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_ASYNC_DEFER_DELAY, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_ASYNC_MAX_CONNECTIONS, false),
+            new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_ASYNC_MAX_CONNECTIONS_PER_HOST, false),
+            new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_RECEIVER_BULKHEAD_ACTIVE, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_RECEIVER_MAX_IN_FLIGHT, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_RECEIVER_LATENCY_THRESHOLD, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_RECEIVER_DEFER_DELAY, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_CIRCUIT_BREAKER_ACTIVE, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_CIRCUIT_BREAKER_FAILURE_THRESHOLD, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_CIRCUIT_BREAKER_OPEN_DURATION, true, true),
             new DomibusPropertyMetadata(DOMIBUS_RETENTION_WORKER_MESSAGE_RETENTION_DOWNLOADED_MAX_DELETE, true, true),
             new DomibusPropertyMetadata(DOMIBUS_RETENTION_WORKER_MESSAGE_RETENTION_NOT_DOWNLOADED_MAX_DELETE, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_RETENTION_WORKER_BULK_ACTIVE, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_RETENTION_WORKER_BULK_CHUNK_SIZE, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_RETENTION_WORKER_BULK_MAX_DELETE, true, true),
             new DomibusPropertyMetadata(DOMIBUS_RETENTION_JMS_CONCURRENCY, true, true),
             new DomibusPropertyMetadata(DOMIBUS_DISPATCH_EBMS_ERROR_UNRECOVERABLE_RETRY, true, true),
 
@@ -99,8 +120,13 @@ public class DomibusPropertyMetadataManagerImpl implements DomibusPropertyMetada
             new DomibusPropertyMetadata(DOMIBUS_PROXY_NON_PROXY_HOSTS, false),
 
             new DomibusPropertyMetadata(DOMIBUS_UI_REPLICATION_SYNC_CRON_MAX_ROWS, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_ACTIVE, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_BATCH_SIZE, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_DELAY, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_UI_REPLICATION_SEARCH_COUNT_MAX, true, true),
             new DomibusPropertyMetadata(DOMIBUS_PLUGIN_NOTIFICATION_ACTIVE, false),
             new DomibusPropertyMetadata(DOMIBUS_NONREPUDIATION_AUDIT_ACTIVE, false),
+            new DomibusPropertyMetadata(DOMIBUS_NONREPUDIATION_AUDIT_COMPRESSED, false),
             new DomibusPropertyMetadata(DOMIBUS_SEND_MESSAGE_FAILURE_DELETE_PAYLOAD, true, true),
             new DomibusPropertyMetadata(DOMIBUS_SEND_MESSAGE_ATTEMPT_AUDIT_ACTIVE, false),
             new DomibusPropertyMetadata(DOMIBUS_FOURCORNERMODEL_ENABLED, false),
@@ -111,6 +137,10 @@ public class DomibusPropertyMetadataManagerImpl implements DomibusPropertyMetada
             new DomibusPropertyMetadata(DOMIBUS_PAYLOAD_TEMP_JOB_RETENTION_EXCLUDE_REGEX, true),
             new DomibusPropertyMetadata(DOMIBUS_PAYLOAD_TEMP_JOB_RETENTION_EXPIRATION, true),
             new DomibusPropertyMetadata(DOMIBUS_PAYLOAD_TEMP_JOB_RETENTION_DIRECTORIES, true),
+            new DomibusPropertyMetadata(DOMIBUS_PAYLOAD_PURGE_BATCH_SIZE, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_PAYLOAD_PURGE_CONCURRENCY, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_PAYLOAD_PURGE_RETRY_DELAY, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_PAYLOAD_PURGE_RETRY_MAX, true, true),
 
             new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_SPLIT_AND_JOIN_CONCURRENCY, true, true),
             new DomibusPropertyMetadata(DOMIBUS_DISPATCHER_SPLIT_AND_JOIN_PAYLOADS_SCHEDULE_THRESHOLD, true, true),
@@ -125,6 +155,7 @@ public class DomibusPropertyMetadataManagerImpl implements DomibusPropertyMetada
             new DomibusPropertyMetadata(DOMIBUS_PASSWORD_POLICIES_CHECK_CRON, true, true),
             new DomibusPropertyMetadata(DOMIBUS_PLUGIN_PASSWORD_POLICIES_CHECK_CRON, true, true),
             DomibusPropertyMetadata.getGlobalProperty(DOMIBUS_PAYLOAD_TEMP_JOB_RETENTION_CRON),
+            new DomibusPropertyMetadata(DOMIBUS_PAYLOAD_PURGE_CRON, true, true),
             new DomibusPropertyMetadata(DOMIBUS_MSH_RETRY_CRON, true, true),
             new DomibusPropertyMetadata(DOMIBUS_RETENTION_WORKER_CRON_EXPRESSION, true, true),
             new DomibusPropertyMetadata(DOMIBUS_MSH_PULL_CRON, true, true),
@@ -134,6 +165,7 @@ public class DomibusPropertyMetadataManagerImpl implements DomibusPropertyMetada
             DomibusPropertyMetadata.getGlobalProperty(DOMIBUS_ALERT_SUPER_CLEANER_CRON),
             DomibusPropertyMetadata.getGlobalProperty(DOMIBUS_ALERT_SUPER_RETRY_CRON),
             DomibusPropertyMetadata.getGlobalProperty(DOMIBUS_UI_REPLICATION_SYNC_CRON),
+            DomibusPropertyMetadata.getGlobalProperty(DOMIBUS_UI_REPLICATION_UPDATE_DELAY),
             new DomibusPropertyMetadata(DOMIBUS_SPLIT_AND_JOIN_RECEIVE_EXPIRATION_CRON, true, true),
 
             new DomibusPropertyMetadata(DOMIBUS_ALERT_ACTIVE, true, true),
@@ -218,6 +250,11 @@ public class DomibusPropertyMetadataManagerImpl implements DomibusPropertyMetada
             new DomibusPropertyMetadata(DOMIBUS_PULL_MULTIPLE_LEGS, true, true),
             new DomibusPropertyMetadata(DOMIBUS_PULL_FORCE_BY_MPC, true, true),
             new DomibusPropertyMetadata(DOMIBUS_PULL_MPC_INITIATOR_SEPARATOR, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_PULL_RESERVATION_SKIP_LOCKED, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_PULL_RESERVATION_PREFETCH_SIZE, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_PULL_ADAPTIVE_ACTIVE, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_PULL_ADAPTIVE_BACKOFF_INITIAL, true, true),
+            new DomibusPropertyMetadata(DOMIBUS_PULL_ADAPTIVE_BACKOFF_MAX, true, true),
             new DomibusPropertyMetadata(DOMIBUS_PULL_RECEIPT_QUEUE_CONCURRENCY, true, true),
             new DomibusPropertyMetadata(DOMIBUS_PULL_QUEUE_CONCURENCY, true, true),
 
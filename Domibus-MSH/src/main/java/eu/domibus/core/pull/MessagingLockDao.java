@@ -12,6 +12,12 @@ public interface MessagingLockDao {
 
     PullMessageId getNextPullMessageToProcess(Long messageId);
 
+    /**
+     * Claims the ready message lock with the given id using FOR UPDATE SKIP LOCKED: if the lock is held by another
+     * transaction the message is skipped instead of waiting for it to be released.
+     */
+    PullMessageId claimNextPullMessageToProcess(Long idPk);
+
     MessagingLock getLock(String messageId);
 
     void save(MessagingLock messagingLock);
@@ -28,6 +34,8 @@ public interface MessagingLockDao {
 
     List<MessagingLock> findReadyToPull(String mpc, String initiator);
 
+    List<Long> findReadyToPullIds(String mpc, String initiator, int maxResults);
+
     List<MessagingLock> findWaitingForReceipt();
 
 }
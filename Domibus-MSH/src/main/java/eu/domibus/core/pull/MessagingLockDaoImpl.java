@@ -37,6 +37,8 @@ public class MessagingLockDaoImpl implements MessagingLockDao {
 
     protected static final String LOCK_BY_ID_QUERY = "SELECT ID_PK,MESSAGE_TYPE,MESSAGE_RECEIVED,MESSAGE_STATE,MESSAGE_ID,INITIATOR,MPC,SEND_ATTEMPTS,SEND_ATTEMPTS_MAX,NEXT_ATTEMPT,MESSAGE_STALED FROM TB_MESSAGING_LOCK ml where ml.MESSAGE_STATE='READY' and ml.ID_PK=?1 FOR UPDATE";
 
+    protected static final String LOCK_BY_ID_SKIP_LOCKED_QUERY = LOCK_BY_ID_QUERY + " SKIP LOCKED";
+
     protected static final String LOCK_BY_MESSAGE_ID_QUERY = "SELECT ID_PK,MESSAGE_TYPE,MESSAGE_RECEIVED,MESSAGE_STATE,MESSAGE_ID,INITIATOR,MPC,SEND_ATTEMPTS,SEND_ATTEMPTS_MAX,NEXT_ATTEMPT,MESSAGE_STALED FROM TB_MESSAGING_LOCK ml where ml.MESSAGE_ID=?1 FOR UPDATE";
 
     @PersistenceContext(unitName = "domibusJTA")
@@ -45,8 +47,18 @@ public class MessagingLockDaoImpl implements MessagingLockDao {
     @Override
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public PullMessageId getNextPullMessageToProcess(final Long idPk) {
+        return getNextPullMessageToProcess(LOCK_BY_ID_QUERY, idPk);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public PullMessageId claimNextPullMessageToProcess(final Long idPk) {
+        return getNextPullMessageToProcess(LOCK_BY_ID_SKIP_LOCKED_QUERY, idPk);
+    }
+
+    protected PullMessageId getNextPullMessageToProcess(final String lockQuery, final Long idPk) {
         try {
-            Query q = entityManager.createNativeQuery(LOCK_BY_ID_QUERY, MessagingLock.class);
+            Query q = entityManager.createNativeQuery(lockQuery, MessagingLock.class);
             q.setParameter(1, idPk);
             final MessagingLock messagingLock = (MessagingLock) q.getSingleResult();
             LOG.debug("[getNextPullMessageToProcess]:id[{}] locked", idPk);
@@ -150,6 +162,17 @@ public class MessagingLockDaoImpl implements MessagingLockDao {
         return namedQuery.getResultList();
     }
 
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<Long> findReadyToPullIds(final String mpc, final String initiator, final int maxResults) {
+        final TypedQuery<Long> namedQuery = entityManager.createNamedQuery("MessagingLock.findReadyToPullIds", Long.class);
+        namedQuery.setFirstResult(0);
+        namedQuery.setMaxResults(maxResults);
+        namedQuery.setParameter(MPC, mpc);
+        namedQuery.setParameter(INITIATOR, initiator);
+        return namedQuery.getResultList();
+    }
+
     @Override
     public List<MessagingLock> findWaitingForReceipt() {
         final TypedQuery<MessagingLock> namedQuery = entityManager.createNamedQuery("MessagingLock.findWaitingForReceipt", MessagingLock.class);
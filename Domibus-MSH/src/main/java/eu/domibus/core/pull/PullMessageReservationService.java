@@ -0,0 +1,122 @@
+package eu.domibus.core.pull;
+
+import eu.domibus.api.configuration.DataBaseEngine;
+import eu.domibus.api.configuration.DomibusConfigurationService;
+import eu.domibus.api.multitenancy.Domain;
+import eu.domibus.api.multitenancy.DomainContextProvider;
+import eu.domibus.api.multitenancy.DomainRunnable;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_PULL_RESERVATION_PREFETCH_SIZE;
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_PULL_RESERVATION_SKIP_LOCKED;
+
+/**
+ * Reserves the messages to be pulled with SELECT ... FOR UPDATE SKIP LOCKED instead of waiting on the row locks
+ * of the messages already reserved by concurrent pull requests.
+ * <p>
+ * The ids of the ready messages are kept in a buffer per domain, mpc and initiator, refilled in the background once
+ * half of it has been consumed. Every id is handed to one pull request only, so that the concurrent pull requests of
+ * the same server do not race on the same messages.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Service
+public class PullMessageReservationService {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(PullMessageReservationService.class);
+
+    protected static class ReadyQueue {
+        protected final Queue<Long> ids = new ConcurrentLinkedQueue<>();
+        protected final AtomicBoolean refilling = new AtomicBoolean();
+    }
+
+    @Autowired
+    protected MessagingLockDao messagingLockDao;
+
+    @Autowired
+    protected DomibusPropertyProvider domibusPropertyProvider;
+
+    @Autowired
+    protected DomibusConfigurationService domibusConfigurationService;
+
+    @Autowired
+    protected DomainContextProvider domainContextProvider;
+
+    @Autowired
+    @Qualifier("taskExecutor")
+    protected Executor executor;
+
+    protected final Map<String, ReadyQueue> readyQueues = new ConcurrentHashMap<>();
+
+    /**
+     * @return true if the reservation with SKIP LOCKED is activated and supported by the database
+     */
+    public boolean isActive() {
+        return domibusPropertyProvider.getBooleanDomainProperty(DOMIBUS_PULL_RESERVATION_SKIP_LOCKED)
+                && DataBaseEngine.H2 != domibusConfigurationService.getDataBaseEngine();
+    }
+
+    /**
+     * Claims the next message ready to be pulled by the initiator on the mpc, in a new transaction.
+     *
+     * @return the claimed message or null if no message could be claimed
+     */
+    public PullMessageId claimNextPullMessage(final String mpc, final String initiator) {
+        final Domain domain = domainContextProvider.getCurrentDomain();
+        final ReadyQueue readyQueue = readyQueues.computeIfAbsent(domain.getCode() + ":" + mpc + ":" + initiator, key -> new ReadyQueue());
+        if (readyQueue.ids.isEmpty()) {
+            refill(readyQueue, mpc, initiator);
+        }
+
+        Long idPk;
+        while ((idPk = readyQueue.ids.poll()) != null) {
+            if (readyQueue.ids.size() < getPrefetchSize() / 2 && !readyQueue.refilling.get()) {
+                executor.execute(new DomainRunnable(domainContextProvider, domain, () -> refill(readyQueue, mpc, initiator)));
+            }
+            final PullMessageId pullMessageId = messagingLockDao.claimNextPullMessageToProcess(idPk);
+            if (pullMessageId != null) {
+                return pullMessageId;
+            }
+            LOG.trace("Message lock [{}] already claimed", idPk);
+        }
+        return null;
+    }
+
+    protected void refill(final ReadyQueue readyQueue, final String mpc, final String initiator) {
+        if (!readyQueue.refilling.compareAndSet(false, true)) {
+            LOG.trace("Ready messages of mpc [{}] and initiator [{}] already being loaded", mpc, initiator);
+            return;
+        }
+        try {
+            final List<Long> readyIds = messagingLockDao.findReadyToPullIds(mpc, initiator, getPrefetchSize());
+            for (Long readyId : readyIds) {
+                if (!readyQueue.ids.contains(readyId)) {
+                    readyQueue.ids.add(readyId);
+                }
+            }
+            LOG.debug("Loaded [{}] ready messages for mpc [{}] and initiator [{}]", readyIds.size(), mpc, initiator);
+        } catch (RuntimeException e) {
+            LOG.error("Could not load the ready messages for mpc [{}] and initiator [{}]", mpc, initiator, e);
+        } finally {
+            readyQueue.refilling.set(false);
+        }
+    }
+
+    protected int getPrefetchSize() {
+        return domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_PULL_RESERVATION_PREFETCH_SIZE);
+    }
+}
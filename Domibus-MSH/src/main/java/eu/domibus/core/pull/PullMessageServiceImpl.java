@@ -4,9 +4,9 @@ import eu.domibus.api.exceptions.DomibusCoreErrorCode;
 import eu.domibus.api.message.UserMessageLogService;
 import eu.domibus.api.pmode.PModeException;
 import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.api.usermessage.UserMessageService;
 import eu.domibus.common.MSHRole;
 import eu.domibus.common.MessageStatus;
-import eu.domibus.common.dao.MessagingDao;
 import eu.domibus.common.dao.RawEnvelopeLogDao;
 import eu.domibus.common.dao.UserMessageLogDao;
 import eu.domibus.common.exception.EbMS3Exception;
@@ -56,7 +56,7 @@ public class PullMessageServiceImpl implements PullMessageService {
     private BackendNotificationService backendNotificationService;
 
     @Autowired
-    private MessagingDao messagingDao;
+    private UserMessageService userMessageService;
 
     @Autowired
     private PullMessageStateService pullMessageStateService;
@@ -82,6 +82,9 @@ public class PullMessageServiceImpl implements PullMessageService {
     @Autowired
     protected MpcService mpcService;
 
+    @Autowired
+    protected PullMessageReservationService pullMessageReservationService;
+
     private Integer extraNumberOfAttemptTimeForExpirationDate;
 
     /**
@@ -154,7 +157,7 @@ public class PullMessageServiceImpl implements PullMessageService {
                 backendNotificationService.notifyOfSendSuccess(userMessageLog);
                 LOG.businessInfo(userMessageLog.isTestMessage() ? DomibusMessageCode.BUS_TEST_MESSAGE_SEND_SUCCESS : DomibusMessageCode.BUS_MESSAGE_SEND_SUCCESS,
                         userMessage.getFromFirstPartyId(), userMessage.getToFirstPartyId());
-                messagingDao.clearPayloadData(messageId);
+                userMessageService.clearPayloadData(messageId);
                 uiReplicationSignalService.messageChange(messageId);
                 return new PullRequestResult(userMessageLog);
             case PULL_FAILED:
@@ -170,6 +173,19 @@ public class PullMessageServiceImpl implements PullMessageService {
     @Override
     @Transactional(propagation = Propagation.REQUIRED)
     public String getPullMessageId(final String initiator, final String mpc) {
+        if (pullMessageReservationService.isActive()) {
+            LOG.trace("[PULL_REQUEST]:Claiming message for initiatior [{}] mpc[{}].", initiator, mpc);
+            PullMessageId pullMessageId;
+            while ((pullMessageId = pullMessageReservationService.claimNextPullMessage(mpc, initiator)) != null) {
+                final String messageId = getMessageIdToPull(pullMessageId);
+                if (messageId != null) {
+                    return messageId;
+                }
+            }
+            LOG.trace("[PULL_REQUEST]:No message found.");
+            return null;
+        }
+
         final List<MessagingLock> messagingLock = messagingLockDao.findReadyToPull(mpc, initiator);
         LOG.trace("[PULL_REQUEST]:Reading messages for initiatior [{}] mpc[{}].", initiator, mpc);
         for (MessagingLock lock : messagingLock) {
@@ -181,20 +197,9 @@ public class PullMessageServiceImpl implements PullMessageService {
                 LOG.error("Error while locking message ", ex);
             }
             if (pullMessageId != null) {
-                LOG.debug("[PULL_REQUEST]:Message:[{}] retrieved", pullMessageId.getMessageId());
-                final String messageId = pullMessageId.getMessageId();
-                switch (pullMessageId.getState()) {
-                    case EXPIRED:
-                        pullMessageStateService.expirePullMessage(messageId);
-                        LOG.debug("[PULL_REQUEST]:Message:[{}] is staled for reason:[{}].", pullMessageId.getMessageId(), pullMessageId.getStaledReason());
-                        break;
-                    case FIRST_ATTEMPT:
-                        LOG.debug("[PULL_REQUEST]:Message:[{}] first pull attempt.", pullMessageId.getMessageId());
-                        return messageId;
-                    case RETRY:
-                        LOG.debug("[PULL_REQUEST]:message:[{}] retry pull attempt.", pullMessageId.getMessageId());
-                        rawEnvelopeLogDao.deleteUserMessageRawEnvelope(messageId);
-                        return messageId;
+                final String messageId = getMessageIdToPull(pullMessageId);
+                if (messageId != null) {
+                    return messageId;
                 }
             }
         }
@@ -202,6 +207,29 @@ public class PullMessageServiceImpl implements PullMessageService {
         return null;
     }
 
+    /**
+     * @return the id of the locked message if it can be pulled, null if it has expired
+     */
+    protected String getMessageIdToPull(final PullMessageId pullMessageId) {
+        LOG.debug("[PULL_REQUEST]:Message:[{}] retrieved", pullMessageId.getMessageId());
+        final String messageId = pullMessageId.getMessageId();
+        switch (pullMessageId.getState()) {
+            case EXPIRED:
+                pullMessageStateService.expirePullMessage(messageId);
+                LOG.debug("[PULL_REQUEST]:Message:[{}] is staled for reason:[{}].", pullMessageId.getMessageId(), pullMessageId.getStaledReason());
+                return null;
+            case FIRST_ATTEMPT:
+                LOG.debug("[PULL_REQUEST]:Message:[{}] first pull attempt.", pullMessageId.getMessageId());
+                return messageId;
+            case RETRY:
+                LOG.debug("[PULL_REQUEST]:message:[{}] retry pull attempt.", pullMessageId.getMessageId());
+                rawEnvelopeLogDao.deleteUserMessageRawEnvelope(messageId);
+                return messageId;
+            default:
+                return null;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
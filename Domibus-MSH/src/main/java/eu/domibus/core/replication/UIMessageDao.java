@@ -2,8 +2,10 @@ package eu.domibus.core.replication;
 
 import eu.domibus.common.model.logging.UserMessageLog;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * @author Catalin Enache
@@ -15,10 +17,51 @@ public interface UIMessageDao {
 
     long countEntries(Map<String, Object> filters);
 
+    /**
+     * Counts the messages without reading more than {@code maxCount + 1} of them
+     *
+     * @param filters  it should include messageType always - User or Signal message
+     * @param maxCount the maximum number of messages counted
+     * @return the number of messages, at most {@code maxCount + 1}
+     */
+    long countEntries(Map<String, Object> filters, int maxCount);
+
     List<UIMessageEntity> findPaged(int from, int max, String column, boolean asc, Map<String, Object> filters);
 
+    /**
+     * Lists the messages following the given one in the (received, entityId) order, seeking directly to it instead of
+     * skipping all the previous pages
+     *
+     * @param lastReceived the received date of the last message of the previous page, null for the first page
+     * @param lastEntityId the entity id of the last message of the previous page
+     * @param max          how many messages in a page
+     * @param asc          ordering type - ascending or descending
+     * @param filters      it should include messageType always - User or Signal message
+     * @return a list of {@link UIMessageEntity}
+     */
+    List<UIMessageEntity> findNextPage(Date lastReceived, long lastEntityId, int max, boolean asc, Map<String, Object> filters);
+
+    Stream<UIMessageEntity> streamAll(int max, String column, boolean asc, Map<String, Object> filters);
+
     void saveOrUpdate(UIMessageEntity uiMessageEntity);
 
+    /**
+     * Marks the replicated messages with the given ids as deleted using a single update statement
+     *
+     * @param messageIds the message ids
+     * @return the number of updated rows
+     */
+    int setMessagesAsDeleted(List<String> messageIds);
+
     boolean updateMessage(UserMessageLog userMessageLog, long lastModified);
 
+    /**
+     * Updates the replicated messages in one JDBC batch, skipping the ones already updated by a more recent change
+     *
+     * @param userMessageLogs the current state of the messages
+     * @param lastModified    the timestamp of the latest change of each message, by message id
+     * @return the number of updated rows
+     */
+    int updateMessages(List<UserMessageLog> userMessageLogs, Map<String, Long> lastModified);
+
 }
@@ -6,6 +6,7 @@ import eu.domibus.common.model.logging.UserMessageLog;
 import eu.domibus.logging.DomibusLogger;
 import eu.domibus.logging.DomibusLoggerFactory;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Session;
 import org.springframework.dao.support.DataAccessUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Isolation;
@@ -14,8 +15,13 @@ import org.springframework.transaction.annotation.Transactional;
 import javax.persistence.TemporalType;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.util.*;
 
 /**
@@ -37,6 +43,16 @@ public class UIMessageDaoImpl extends ListDao<UIMessageEntity> implements UIMess
      */
     private static final String MESSAGE_ID = "MESSAGE_ID";
 
+    private static final String RECEIVED = "received";
+
+    private static final String ENTITY_ID = "entityId";
+
+    /**
+     * same update as UIMessageEntity.updateMessage, skipping the rows already updated by a more recent change
+     */
+    protected static final String UPDATE_MESSAGE_IF_OLDER = "UPDATE TB_MESSAGE_UI SET MESSAGE_STATUS=?, NOTIFICATION_STATUS=?, DELETED=?, FAILED=?, RESTORED=?, NEXT_ATTEMPT=?, SEND_ATTEMPTS=?, SEND_ATTEMPTS_MAX=?, LAST_MODIFIED=? " +
+            " WHERE MESSAGE_ID=? AND LAST_MODIFIED <= ?";
+
     /**
      * just map special column names which doesn't match filterKey with the same name
      */
@@ -90,6 +106,80 @@ public class UIMessageDaoImpl extends ListDao<UIMessageEntity> implements UIMess
         return result;
     }
 
+    /**
+     * Counts the messages from {@code TB_MESSAGE_UI} table, reading at most {@code maxCount + 1} primary keys instead of
+     * counting all the messages
+     *
+     * @param filters  it should include messageType always - User or Signal message
+     * @param maxCount the maximum number of messages counted
+     * @return number of messages, at most {@code maxCount + 1}
+     */
+    @Override
+    public long countEntries(Map<String, Object> filters, int maxCount) {
+        long startTime = System.currentTimeMillis();
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<UIMessageEntity> ume = cq.from(UIMessageEntity.class);
+        cq.select(ume.<Long>get(ENTITY_ID));
+        List<Predicate> predicates = getPredicates(filters, cb, ume);
+        cq.where(cb.and(predicates.toArray(new Predicate[predicates.size()])));
+        TypedQuery<Long> query = em.createQuery(cq);
+        query.setMaxResults(maxCount + 1);
+        long result = query.getResultList().size();
+
+        if (LOG.isDebugEnabled()) {
+            final long endTime = System.currentTimeMillis();
+            LOG.debug("[{}] milliseconds to countMessages up to [{}]", endTime - startTime, maxCount);
+        }
+        return result;
+    }
+
+    /**
+     * list the messages from {@code TB_MESSAGE_UI} table following the given one, ordered by received date and entity id
+     *
+     * @param lastReceived the received date of the last message of the previous page, null for the first page
+     * @param lastEntityId the entity id of the last message of the previous page
+     * @param max          how many messages in a page
+     * @param asc          ordering type - ascending or descending
+     * @param filters      it should include messageType always - User or Signal message
+     * @return a list of {@link UIMessageEntity}
+     */
+    @Override
+    public List<UIMessageEntity> findNextPage(Date lastReceived, long lastEntityId, int max, boolean asc, Map<String, Object> filters) {
+        long startTime = System.currentTimeMillis();
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<UIMessageEntity> cq = cb.createQuery(UIMessageEntity.class);
+        Root<UIMessageEntity> ume = cq.from(UIMessageEntity.class);
+        cq.select(ume);
+        final Path<Date> received = ume.get(RECEIVED);
+        final Path<Long> entityId = ume.get(ENTITY_ID);
+        List<Predicate> predicates = getPredicates(filters, cb, ume);
+        if (lastReceived != null) {
+            if (asc) {
+                predicates.add(cb.or(cb.greaterThan(received, lastReceived),
+                        cb.and(cb.equal(received, lastReceived), cb.greaterThan(entityId, lastEntityId))));
+            } else {
+                predicates.add(cb.or(cb.lessThan(received, lastReceived),
+                        cb.and(cb.equal(received, lastReceived), cb.lessThan(entityId, lastEntityId))));
+            }
+        }
+        cq.where(cb.and(predicates.toArray(new Predicate[predicates.size()])));
+        if (asc) {
+            cq.orderBy(cb.asc(received), cb.asc(entityId));
+        } else {
+            cq.orderBy(cb.desc(received), cb.desc(entityId));
+        }
+        TypedQuery<UIMessageEntity> query = em.createQuery(cq);
+        query.setMaxResults(max);
+        List<UIMessageEntity> result = query.getResultList();
+
+        final long endTime = System.currentTimeMillis();
+        LOG.debug("[{}] milliseconds to findNextPage [{}] messages", endTime - startTime, max);
+        return result;
+    }
+
     /**
      * list the messages from {@code TB_MESSAGE_UI} table with pagination
      *
@@ -144,6 +234,15 @@ public class UIMessageDaoImpl extends ListDao<UIMessageEntity> implements UIMess
         LOG.debug("uiMessageEntity having messageId=[{}] have been inserted", uiMessageEntity.getMessageId());
     }
 
+    @Override
+    public int setMessagesAsDeleted(List<String> messageIds) {
+        LOG.debug("setMessagesAsDeleted executed for [{}] messages", messageIds.size());
+        return this.em.createNamedQuery("UIMessageEntity.setMessagesAsDeleted")
+                .setParameter("MESSAGE_IDS", messageIds)
+                .setParameter("DATE", new Date(), TemporalType.TIMESTAMP)
+                .executeUpdate();
+    }
+
     @Override
     public boolean updateMessage(UserMessageLog userMessageLog, long lastModified) {
         LOG.debug("updateMessage executed MessageStatus=[{}] NotificationStatus=[{}] lastModified=[{}]",
@@ -169,6 +268,43 @@ public class UIMessageDaoImpl extends ListDao<UIMessageEntity> implements UIMess
         }
     }
 
+    @Override
+    public int updateMessages(List<UserMessageLog> userMessageLogs, Map<String, Long> lastModified) {
+        if (userMessageLogs.isEmpty()) {
+            return 0;
+        }
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_MESSAGE_IF_OLDER)) {
+                for (UserMessageLog userMessageLog : userMessageLogs) {
+                    final Timestamp changeTimestamp = new Timestamp(lastModified.get(userMessageLog.getMessageId()));
+                    statement.setString(1, userMessageLog.getMessageStatus().name());
+                    statement.setString(2, userMessageLog.getNotificationStatus().name());
+                    statement.setTimestamp(3, toTimestamp(userMessageLog.getDeleted()));
+                    statement.setTimestamp(4, toTimestamp(userMessageLog.getFailed()));
+                    statement.setTimestamp(5, toTimestamp(userMessageLog.getRestored()));
+                    statement.setTimestamp(6, toTimestamp(userMessageLog.getNextAttempt()));
+                    statement.setInt(7, userMessageLog.getSendAttempts());
+                    statement.setInt(8, userMessageLog.getSendAttemptsMax());
+                    statement.setTimestamp(9, changeTimestamp);
+                    statement.setString(10, userMessageLog.getMessageId());
+                    statement.setTimestamp(11, changeTimestamp);
+                    statement.addBatch();
+                }
+                int rowsUpdated = 0;
+                for (int result : statement.executeBatch()) {
+                    // some drivers only report that the statement succeeded
+                    rowsUpdated += result == Statement.SUCCESS_NO_INFO ? 1 : result;
+                }
+                LOG.debug("[{}] rows updated out of [{}] message changes", rowsUpdated, userMessageLogs.size());
+                return rowsUpdated;
+            }
+        });
+    }
+
+    private Timestamp toTimestamp(Date date) {
+        return date == null ? null : new Timestamp(date.getTime());
+    }
+
     /**
      * builds the predicates list based on search criteria (filters)
      *
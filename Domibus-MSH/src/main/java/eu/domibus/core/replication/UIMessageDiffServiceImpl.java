@@ -11,10 +11,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_UI_REPLICATION_SYNC_CRON_MAX_ROWS;
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_BATCH_SIZE;
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_DELAY;
 
 @Service
 public class UIMessageDiffServiceImpl implements UIMessageDiffService {
@@ -36,6 +39,9 @@ public class UIMessageDiffServiceImpl implements UIMessageDiffService {
     @Autowired
     private UIMessageService uiMessageService;
 
+    @Autowired
+    private UIReplicationIncrementalSyncService uiReplicationIncrementalSyncService;
+
     @Override
     @Transactional(readOnly = true, propagation=Propagation.SUPPORTS)
     public int countAll() {
@@ -76,6 +82,11 @@ public class UIMessageDiffServiceImpl implements UIMessageDiffService {
      */
     @Override
     public void findAndSyncUIMessages() {
+        if (uiReplicationIncrementalSyncService.isActive()) {
+            syncChangedUIMessages();
+            return;
+        }
+
         LOG.debug("start counting differences for UIReplication");
 
         int rowsToSyncCount = countAll();
@@ -145,6 +156,49 @@ public class UIMessageDiffServiceImpl implements UIMessageDiffService {
         return recordsToSync;
     }
 
+    /**
+     * Synchronizes the messages changed since the last synchronization, up to the maximum number of rows to be
+     * synchronized by the cron job. The synchronization stops at the first message that cannot be synchronized, so
+     * that it is retried from that message at the next run instead of skipping it.
+     */
+    protected void syncChangedUIMessages() {
+        final int maxRowsToSync = NumberUtils.toInt(domibusPropertyProvider.getDomainProperty(MAX_ROWS_KEY));
+        final int batchSize = domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_BATCH_SIZE);
+        // the messages changed by transactions not yet committed are left for the next run
+        final Date modifiedUntil = new Date(System.currentTimeMillis() - domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_DELAY));
+        long startTime = System.currentTimeMillis();
+
+        int syncedRows = 0;
+        while (syncedRows < maxRowsToSync) {
+            final int rowsToSync = Math.min(batchSize, maxRowsToSync - syncedRows);
+            final List<Object[]> changedMessageLogs = uiReplicationIncrementalSyncService.findNextChanges(modifiedUntil, rowsToSync);
+            final int batchRows = synchronizeChanges(changedMessageLogs);
+            syncedRows += batchRows;
+            // the last changes have been found or a change could not be synchronized
+            if (batchRows < rowsToSync) {
+                break;
+            }
+        }
+        LOG.debug("[{}] changed messages synchronized into TB_MESSAGE_UI in [{}] milliseconds", syncedRows, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * @return the number of changes synchronized before the first failure
+     */
+    protected int synchronizeChanges(List<Object[]> changedMessageLogs) {
+        int syncedRows = 0;
+        for (Object[] changedMessageLog : changedMessageLogs) {
+            try {
+                uiReplicationIncrementalSyncService.synchronizeChange(changedMessageLog);
+            } catch (RuntimeException e) {
+                LOG.error("Could not synchronize into TB_MESSAGE_UI the message [{}]: the synchronization resumes from this message at the next run", changedMessageLog[1], e);
+                return syncedRows;
+            }
+            syncedRows++;
+        }
+        return syncedRows;
+    }
+
 
     /**
      * Converts one record of the diff query to {@link UIMessageEntity}
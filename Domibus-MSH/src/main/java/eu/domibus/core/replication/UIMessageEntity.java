@@ -23,7 +23,9 @@ import java.util.Date;
 @Table(name = "TB_MESSAGE_UI")
 @NamedQueries({
         @NamedQuery(name = "UIMessageEntity.findUIMessageByMessageId",
-                query = "select uiMessageEntity from UIMessageEntity uiMessageEntity where uiMessageEntity.messageId=:MESSAGE_ID")})
+                query = "select uiMessageEntity from UIMessageEntity uiMessageEntity where uiMessageEntity.messageId=:MESSAGE_ID"),
+        @NamedQuery(name = "UIMessageEntity.setMessagesAsDeleted",
+                query = "update UIMessageEntity uiMessageEntity set uiMessageEntity.messageStatus=eu.domibus.common.MessageStatus.DELETED, uiMessageEntity.deleted=:DATE, uiMessageEntity.nextAttempt=null, uiMessageEntity.lastModified=:DATE where uiMessageEntity.messageId in :MESSAGE_IDS")})
 @SqlResultSetMapping(name="updateResult", columns = { @ColumnResult(name = "count")})
 @NamedNativeQueries({
         @NamedNativeQuery(
@@ -5,6 +5,7 @@ import eu.domibus.web.rest.ro.MessageLogResultRO;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Service class for handling business for {@link UIMessageEntity}
@@ -16,7 +17,21 @@ public interface UIMessageService {
 
     List<MessageLogInfo> findPaged(int from, int max, String column, boolean asc, Map<String, Object> filters);
 
+    /**
+     * Streams the messages for the CSV export. The stream must be consumed and closed inside the caller's transaction.
+     */
+    Stream<MessageLogInfo> streamAll(int max, String column, boolean asc, Map<String, Object> filters);
+
     MessageLogResultRO countAndFindPaged(int from, int max, String column, boolean asc, Map<String, Object> filters);
 
+    /**
+     * Returns the page following the given cursor, ordered by received date, together with the count of the messages
+     * capped at {@code domibus.ui.replication.search.count.max}
+     *
+     * @param cursor the next cursor of the previous page, empty for the first page
+     * @return the page, with the cursor of the next page if the page is full
+     */
+    MessageLogResultRO countAndFindNextPage(String cursor, int max, boolean asc, Map<String, Object> filters);
+
     void saveOrUpdate(UIMessageEntity uiMessageEntity);
 }
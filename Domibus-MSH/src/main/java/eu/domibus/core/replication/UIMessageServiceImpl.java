@@ -1,20 +1,26 @@
 package eu.domibus.core.replication;
 
+import eu.domibus.api.property.DomibusPropertyProvider;
 import eu.domibus.common.model.logging.MessageLogInfo;
 import eu.domibus.core.converter.DomainCoreConverter;
 import eu.domibus.logging.DomibusLogger;
 import eu.domibus.logging.DomibusLoggerFactory;
 import eu.domibus.web.rest.ro.MessageLogRO;
 import eu.domibus.web.rest.ro.MessageLogResultRO;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_UI_REPLICATION_SEARCH_COUNT_MAX;
 
 /**
  * Implementation for {@link UIMessageService}
@@ -27,12 +33,17 @@ public class UIMessageServiceImpl implements UIMessageService {
 
     private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(UIMessageServiceImpl.class);
 
+    private static final String CURSOR_SEPARATOR = "_";
+
     @Autowired
     private UIMessageDao uiMessageDao;
 
     @Autowired
     private DomainCoreConverter domainConverter;
 
+    @Autowired
+    private DomibusPropertyProvider domibusPropertyProvider;
+
     @Override
     @Transactional(readOnly = true)
     public List<MessageLogInfo> findPaged(int from, int max, String column, boolean asc, Map<String, Object> filters) {
@@ -42,6 +53,13 @@ public class UIMessageServiceImpl implements UIMessageService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<MessageLogInfo> streamAll(int max, String column, boolean asc, Map<String, Object> filters) {
+        return uiMessageDao.streamAll(max, column, asc, filters)
+                .map(uiMessageEntity -> convertToMessageLogInfo(uiMessageEntity));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public MessageLogResultRO countAndFindPaged(int from, int max, String column, boolean asc, Map<String, Object> filters) {
@@ -50,13 +68,13 @@ public class UIMessageServiceImpl implements UIMessageService {
 
         //make the count
         long numberOfMessages = uiMessageDao.countEntries(filters);
+        result.setCount(numberOfMessages);
 
         if (numberOfMessages != 0) {
             //query for the page results
             uiMessageEntityList = uiMessageDao.findPaged(from, max, column, asc, filters);
         }
 
-        result.setCount(numberOfMessages);
         result.setMessageLogEntries(uiMessageEntityList
                 .stream()
                 .map(uiMessageEntity -> convertUIMessageEntity(uiMessageEntity))
@@ -65,6 +83,65 @@ public class UIMessageServiceImpl implements UIMessageService {
         return result;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public MessageLogResultRO countAndFindNextPage(String cursor, int max, boolean asc, Map<String, Object> filters) {
+        MessageLogResultRO result = new MessageLogResultRO();
+        List<UIMessageEntity> uiMessageEntityList = new ArrayList<>();
+
+        Date lastReceived = null;
+        long lastEntityId = 0;
+        if (StringUtils.isNotBlank(cursor)) {
+            final String[] cursorParts = StringUtils.split(cursor, CURSOR_SEPARATOR);
+            if (cursorParts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor [" + cursor + "]");
+            }
+            // NumberFormatException is an IllegalArgumentException as well
+            lastReceived = new Date(Long.parseLong(cursorParts[0]));
+            lastEntityId = Long.parseLong(cursorParts[1]);
+        }
+
+        //make the count
+        long numberOfMessages = countMessages(result, filters);
+
+        if (numberOfMessages != 0) {
+            //seek the page results
+            uiMessageEntityList = uiMessageDao.findNextPage(lastReceived, lastEntityId, max, asc, filters);
+        }
+
+        if (!uiMessageEntityList.isEmpty() && uiMessageEntityList.size() == max) {
+            final UIMessageEntity last = uiMessageEntityList.get(uiMessageEntityList.size() - 1);
+            result.setNextCursor(last.getReceived().getTime() + CURSOR_SEPARATOR + last.getEntityId());
+        }
+        result.setMessageLogEntries(uiMessageEntityList
+                .stream()
+                .map(uiMessageEntity -> convertUIMessageEntity(uiMessageEntity))
+                .collect(Collectors.toList()));
+
+        return result;
+    }
+
+    /**
+     * Counts the messages up to {@code domibus.ui.replication.search.count.max}, so that the count does not read all
+     * the messages matching the filters. Only the clients paging with a cursor get a capped count: the other ones need
+     * the exact count to compute the number of pages.
+     *
+     * @return the number of messages counted
+     */
+    protected long countMessages(MessageLogResultRO result, Map<String, Object> filters) {
+        final int maxCount = domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_UI_REPLICATION_SEARCH_COUNT_MAX);
+        if (maxCount <= 0) {
+            long numberOfMessages = uiMessageDao.countEntries(filters);
+            result.setCount(numberOfMessages);
+            return numberOfMessages;
+        }
+
+        long numberOfMessages = uiMessageDao.countEntries(filters, maxCount);
+        result.setCountCapped(numberOfMessages > maxCount);
+        result.setCount(Math.min(numberOfMessages, maxCount));
+        return numberOfMessages;
+    }
+
     @Override
     @Transactional (propagation = Propagation.REQUIRES_NEW)
     public void saveOrUpdate(UIMessageEntity uiMessageEntity) {
@@ -0,0 +1,106 @@
+package eu.domibus.core.replication;
+
+import eu.domibus.api.multitenancy.DomainContextProvider;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects in memory the changes of the messages replicated in {@code TB_MESSAGE_UI}, per domain and message id, instead
+ * of updating the row of the message at every change.
+ * <p>
+ * A change is registered once the transaction consuming it commits. The changes received for the same message during
+ * {@code domibus.ui.replication.wait.before.update} milliseconds are coalesced: only the most recent one is kept and
+ * the row of the message is updated once, together with the rows of the other messages ready to be updated.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Service
+public class UIReplicationChangeCoalescer {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(UIReplicationChangeCoalescer.class);
+
+    static final String DOMIBUS_UI_REPLICATION_WAIT_BEFORE_UPDATE = "domibus.ui.replication.wait.before.update";
+
+    protected static class MessageChange {
+        protected final long jmsTimestamp;
+        protected final long readyTime;
+
+        protected MessageChange(long jmsTimestamp, long readyTime) {
+            this.jmsTimestamp = jmsTimestamp;
+            this.readyTime = readyTime;
+        }
+    }
+
+    @Autowired
+    protected DomainContextProvider domainContextProvider;
+
+    @Autowired
+    protected DomibusPropertyProvider domibusPropertyProvider;
+
+    protected final Map<String, Map<String, MessageChange>> pendingChanges = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the change of a message in the current domain, after the commit of the current transaction if any.
+     *
+     * @param messageId    the message id
+     * @param jmsTimestamp the timestamp of the change
+     */
+    public void messageChange(final String messageId, final long jmsTimestamp) {
+        final String domainCode = domainContextProvider.getCurrentDomain().getCode();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            addChange(domainCode, messageId, jmsTimestamp);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                addChange(domainCode, messageId, jmsTimestamp);
+            }
+        });
+    }
+
+    protected void addChange(String domainCode, String messageId, long jmsTimestamp) {
+        final MessageChange messageChange = new MessageChange(jmsTimestamp, System.currentTimeMillis() + getWaitTimeBeforeUpdate());
+        pendingChanges.computeIfAbsent(domainCode, key -> new ConcurrentHashMap<>())
+                // the first change of the message sets when its row is updated, so that frequent changes do not delay it forever
+                .merge(messageId, messageChange, (previous, latest) -> new MessageChange(Math.max(previous.jmsTimestamp, latest.jmsTimestamp), previous.readyTime));
+        LOG.trace("Change of message [{}] at [{}] registered", messageId, jmsTimestamp);
+    }
+
+    /**
+     * Removes the changes of the current domain ready to be applied.
+     *
+     * @return the timestamp of the most recent change of each message, by message id
+     */
+    public Map<String, Long> drainReadyChanges() {
+        final Map<String, MessageChange> domainChanges = pendingChanges.get(domainContextProvider.getCurrentDomain().getCode());
+        if (domainChanges == null || domainChanges.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final long now = System.currentTimeMillis();
+        final Map<String, Long> result = new HashMap<>();
+        for (Map.Entry<String, MessageChange> entry : domainChanges.entrySet()) {
+            final MessageChange messageChange = entry.getValue();
+            // a change coalesced in the meantime replaces the entry and is drained at the next run
+            if (messageChange.readyTime <= now && domainChanges.remove(entry.getKey(), messageChange)) {
+                result.put(entry.getKey(), messageChange.jmsTimestamp);
+            }
+        }
+        return result;
+    }
+
+    protected int getWaitTimeBeforeUpdate() {
+        return domibusPropertyProvider.getIntegerProperty(DOMIBUS_UI_REPLICATION_WAIT_BEFORE_UPDATE);
+    }
+}
@@ -0,0 +1,52 @@
+package eu.domibus.core.replication;
+
+import eu.domibus.ebms3.common.model.AbstractBaseEntity;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * High-water mark of the incremental UI replication sync: the last message log synchronized into {@code TB_MESSAGE_UI},
+ * ordered by last modification date and primary key.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Entity
+@Table(name = "TB_UI_REPLICATION_CHECKPOINT")
+@NamedQueries({
+        @NamedQuery(name = "UIReplicationCheckpoint.findAll", query = "select c from UIReplicationCheckpoint c order by c.entityId")
+})
+@NamedNativeQueries({
+        @NamedNativeQuery(
+                name = "UIReplicationCheckpoint.findChangedMessageLogs",
+                query = "SELECT ID_PK, MESSAGE_ID, MESSAGE_TYPE, LAST_MODIFIED FROM TB_MESSAGE_LOG " +
+                        " WHERE (LAST_MODIFIED > ?1 OR (LAST_MODIFIED = ?1 AND ID_PK > ?2)) AND LAST_MODIFIED < ?3 " +
+                        " ORDER BY LAST_MODIFIED, ID_PK"
+        )
+})
+public class UIReplicationCheckpoint extends AbstractBaseEntity {
+
+    @Column(name = "LAST_MODIFIED")
+    @Temporal(TemporalType.TIMESTAMP)
+    protected Date lastModified;
+
+    @Column(name = "LAST_ID_PK")
+    protected long lastEntityId;
+
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Date lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public long getLastEntityId() {
+        return lastEntityId;
+    }
+
+    public void setLastEntityId(long lastEntityId) {
+        this.lastEntityId = lastEntityId;
+    }
+}
@@ -0,0 +1,47 @@
+package eu.domibus.core.replication;
+
+import eu.domibus.common.dao.BasicDao;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.Query;
+import javax.persistence.TemporalType;
+import javax.persistence.TypedQuery;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@Repository
+public class UIReplicationCheckpointDao extends BasicDao<UIReplicationCheckpoint> {
+
+    public UIReplicationCheckpointDao() {
+        super(UIReplicationCheckpoint.class);
+    }
+
+    public UIReplicationCheckpoint findCheckpoint() {
+        final TypedQuery<UIReplicationCheckpoint> query = em.createNamedQuery("UIReplicationCheckpoint.findAll", UIReplicationCheckpoint.class);
+        query.setMaxResults(1);
+        return DataAccessUtils.singleResult(query.getResultList());
+    }
+
+    /**
+     * Finds the next message logs changed after the given position, using the last modification date and primary key
+     * as key set instead of an offset.
+     *
+     * @param lastModified  the last modification date of the last message log already synchronized
+     * @param lastEntityId  the primary key of the last message log already synchronized
+     * @param modifiedUntil only the message logs modified before this date are returned
+     * @return the primary key, message id, message type and last modification date of each message log found
+     */
+    public List<Object[]> findChangedMessageLogs(Date lastModified, long lastEntityId, Date modifiedUntil, int maxResults) {
+        final Query query = em.createNamedQuery("UIReplicationCheckpoint.findChangedMessageLogs");
+        query.setParameter(1, lastModified, TemporalType.TIMESTAMP);
+        query.setParameter(2, lastEntityId);
+        query.setParameter(3, modifiedUntil, TemporalType.TIMESTAMP);
+        query.setMaxResults(maxResults);
+        return query.getResultList();
+    }
+}
@@ -1,5 +1,7 @@
 package eu.domibus.core.replication;
 
+import eu.domibus.ebms3.common.model.MessageType;
+
 /**
  * Replication Data service interface - all operations of writing data into {@code TB_MESSAGE_UI} table
  *
@@ -32,6 +34,19 @@ public interface UIReplicationDataService {
      */
     void messageChange(final String messageId, final long jmsTimestamp);
 
+    /**
+     * updates/sync data in one batch for the message changes collected during the configured time window
+     */
+    void updateChangedMessages();
+
+    /**
+     * inserts or updates the data of a message with its current state, used by the incremental sync
+     *
+     * @param messageId
+     * @param messageType
+     */
+    void synchronizeMessage(final String messageId, final MessageType messageType);
+
     /**
      * replicates data on sender side when a new signal message is submitted
      *
@@ -1,6 +1,5 @@
 package eu.domibus.core.replication;
 
-import eu.domibus.api.property.DomibusPropertyProvider;
 import eu.domibus.common.dao.MessagingDao;
 import eu.domibus.common.dao.SignalMessageLogDao;
 import eu.domibus.common.dao.UserMessageLogDao;
@@ -8,6 +7,7 @@ import eu.domibus.common.model.logging.MessageLog;
 import eu.domibus.common.model.logging.UserMessageLog;
 import eu.domibus.core.converter.DomainCoreConverter;
 import eu.domibus.ebms3.common.UserMessageDefaultServiceHelper;
+import eu.domibus.ebms3.common.model.MessageType;
 import eu.domibus.ebms3.common.model.Messaging;
 import eu.domibus.ebms3.common.model.SignalMessage;
 import eu.domibus.ebms3.common.model.UserMessage;
@@ -16,8 +16,12 @@ import eu.domibus.logging.DomibusLoggerFactory;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -33,10 +37,6 @@ public class UIReplicationDataServiceImpl implements UIReplicationDataService {
 
     private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(UIReplicationDataServiceImpl.class);
 
-    static final String DOMIBUS_UI_REPLICATION_WAIT_BEFORE_UPDATE = "domibus.ui.replication.wait.before.update";
-
-    static final String LOG_WARN_NO_RECORD_FOUND = "no record found in TB_MESSAGE_UI for messageId=[{}]";
-
     @Autowired
     private UIMessageDaoImpl uiMessageDao;
 
@@ -56,7 +56,7 @@ public class UIReplicationDataServiceImpl implements UIReplicationDataService {
     private DomainCoreConverter domainConverter;
 
     @Autowired
-    private DomibusPropertyProvider domibusPropertyProvider;
+    private UIReplicationChangeCoalescer uiReplicationChangeCoalescer;
 
 
     /**
@@ -91,41 +91,37 @@ public class UIReplicationDataServiceImpl implements UIReplicationDataService {
      */
     @Override
     public void messageChange(String messageId, long jmsTimestamp) {
+        uiReplicationChangeCoalescer.messageChange(messageId, jmsTimestamp);
+    }
 
-        int timeToWait = getWaitTimeBeforePerformingUpdate();
-        LOG.debug("wait [{}] ms and then start the update", timeToWait);
-        try {
-            //TODO EDELIVERY-5517
-            //ugly stuff till we send messages with delay or implement another mechanism
-            //updates are done in parallel and we need a delay as data may not be yet committed /visible
-            Thread.sleep(timeToWait);
-        } catch (InterruptedException e) {
-            LOG.warn("exception while sleeping ", e);
-            Thread.currentThread().interrupt();
-        }
-
-        //search for an existing record first
-        final UIMessageEntity entity = uiMessageDao.findUIMessageByMessageId(messageId);
-        if (entity == null) {
-            LOG.warn(LOG_WARN_NO_RECORD_FOUND, messageId);
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void updateChangedMessages() {
+        final Map<String, Long> changes = uiReplicationChangeCoalescer.drainReadyChanges();
+        if (changes.isEmpty()) {
             return;
         }
-
-        //run the update only if necessary
-        if (entity.getLastModified() != null && entity.getLastModified().getTime() <= jmsTimestamp) {
-            final UserMessageLog userMessageLog = userMessageLogDao.findByMessageId(messageId);
-            boolean updateSuccess = uiMessageDao.updateMessage(userMessageLog,
-                    jmsTimestamp);
-            if (updateSuccess) {
-                LOG.debug("{} updated", userMessageLog.getMessageType());
-                return;
-            }
-        }
-        LOG.debug("messageChange skipped for messageId=[{}]", messageId);
+        final List<UserMessageLog> userMessageLogs = userMessageLogDao.findByMessageIds(new ArrayList<>(changes.keySet()));
+        final int rowsUpdated = uiMessageDao.updateMessages(userMessageLogs, changes);
+        LOG.debug("[{}] messages updated for [{}] message changes", rowsUpdated, changes.size());
     }
 
-    private int getWaitTimeBeforePerformingUpdate() {
-        return domibusPropertyProvider.getIntegerProperty(DOMIBUS_UI_REPLICATION_WAIT_BEFORE_UPDATE);
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void synchronizeMessage(String messageId, MessageType messageType) {
+        final UIMessageEntity entity;
+        if (MessageType.SIGNAL_MESSAGE == messageType) {
+            entity = createUIMessageEntityFromSignalMessageLog(messageId, System.currentTimeMillis());
+        } else {
+            entity = createUIMessageEntityFromUserMessageLog(messageId, System.currentTimeMillis());
+        }
+        uiMessageDao.saveOrUpdate(entity);
+        LOG.debug("{} with messageId=[{}] synchronized", messageType, messageId);
     }
 
     /**
@@ -159,16 +155,21 @@ public class UIReplicationDataServiceImpl implements UIReplicationDataService {
      * @param jmsTimestamp
      */
     void createUIMessageFromUserMessageLog(String messageId, long jmsTimestamp) {
+        UIMessageEntity entity = createUIMessageEntityFromUserMessageLog(messageId, jmsTimestamp);
+
+        uiMessageDao.create(entity);
+
+        LOG.debug("UserMessage with messageId=[{}] inserted", messageId);
+    }
+
+    protected UIMessageEntity createUIMessageEntityFromUserMessageLog(String messageId, long jmsTimestamp) {
         final MessageLog userMessageLog = userMessageLogDao.findByMessageId(messageId);
         final UserMessage userMessage = messagingDao.findUserMessageByMessageId(messageId);
 
         UIMessageEntity entity = createUIMessageEntity(messageId, jmsTimestamp, userMessageLog, userMessage);
         entity.setRefToMessageId(userMessage.getMessageInfo().getRefToMessageId());
         entity.setConversationId(userMessage.getCollaborationInfo().getConversationId());
-
-        uiMessageDao.create(entity);
-
-        LOG.debug("UserMessage with messageId=[{}] inserted", messageId);
+        return entity;
     }
 
     /**
@@ -178,6 +179,13 @@ public class UIReplicationDataServiceImpl implements UIReplicationDataService {
      * @param jmsTimestamp
      */
     void createUIMessageFromSignalMessageLog(String messageId, final long jmsTimestamp) {
+        UIMessageEntity entity = createUIMessageEntityFromSignalMessageLog(messageId, jmsTimestamp);
+        uiMessageDao.create(entity);
+
+        LOG.debug("SignalMessage with messageId=[{}] inserted", messageId);
+    }
+
+    protected UIMessageEntity createUIMessageEntityFromSignalMessageLog(String messageId, final long jmsTimestamp) {
         final MessageLog signalMessageLog = signalMessageLogDao.findByMessageId(messageId);
         final SignalMessage signalMessage = messagingDao.findSignalMessageByMessageId(messageId);
 
@@ -187,9 +195,7 @@ public class UIReplicationDataServiceImpl implements UIReplicationDataService {
         UIMessageEntity entity = createUIMessageEntity(messageId, jmsTimestamp, signalMessageLog, userMessage);
         entity.setRefToMessageId(signalMessage.getMessageInfo().getRefToMessageId());
         entity.setConversationId(StringUtils.EMPTY);
-        uiMessageDao.create(entity);
-
-        LOG.debug("SignalMessage with messageId=[{}] inserted", messageId);
+        return entity;
     }
 
     private UIMessageEntity createUIMessageEntity(String messageId, long jmsTimestamp, MessageLog messageLog, UserMessage userMessage) {
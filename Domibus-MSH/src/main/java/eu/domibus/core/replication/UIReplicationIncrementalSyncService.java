@@ -0,0 +1,80 @@
+package eu.domibus.core.replication;
+
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.ebms3.common.model.MessageType;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_ACTIVE;
+
+/**
+ * Synchronizes into {@code TB_MESSAGE_UI} only the messages changed since the last synchronization, instead of
+ * comparing all the messages with {@code TB_MESSAGE_UI}.
+ * <p>
+ * The changed messages are read in batches ordered by their last modification date and primary key, starting after the
+ * high-water mark. Each message is synchronized in its own transaction, which saves the mark after it, so that a
+ * restarted server resumes where the previous synchronization stopped.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Service
+public class UIReplicationIncrementalSyncService {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(UIReplicationIncrementalSyncService.class);
+
+    @Autowired
+    protected UIReplicationCheckpointDao uiReplicationCheckpointDao;
+
+    @Autowired
+    protected UIReplicationDataService uiReplicationDataService;
+
+    @Autowired
+    protected DomibusPropertyProvider domibusPropertyProvider;
+
+    public boolean isActive() {
+        return domibusPropertyProvider.getBooleanDomainProperty(DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_ACTIVE);
+    }
+
+    /**
+     * Finds the next batch of messages changed after the high-water mark, creating the mark at the first run.
+     *
+     * @param modifiedUntil only the messages modified before this date are returned
+     * @param batchSize     the maximum number of messages returned
+     * @return the primary key, message id, message type and last modification date of each changed message
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<Object[]> findNextChanges(Date modifiedUntil, int batchSize) {
+        UIReplicationCheckpoint checkpoint = uiReplicationCheckpointDao.findCheckpoint();
+        if (checkpoint == null) {
+            checkpoint = new UIReplicationCheckpoint();
+            checkpoint.setLastModified(new Date(0));
+            uiReplicationCheckpointDao.create(checkpoint);
+        }
+        return uiReplicationCheckpointDao.findChangedMessageLogs(checkpoint.getLastModified(), checkpoint.getLastEntityId(), modifiedUntil, batchSize);
+    }
+
+    /**
+     * Synchronizes one changed message and moves the high-water mark after it, in a new transaction: a failure rolls
+     * back neither the messages synchronized before nor leaves the mark past the failed message.
+     *
+     * @param changedMessageLog a changed message returned by {@link #findNextChanges(Date, int)}
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void synchronizeChange(Object[] changedMessageLog) {
+        uiReplicationDataService.synchronizeMessage((String) changedMessageLog[1], MessageType.valueOf((String) changedMessageLog[2]));
+
+        final UIReplicationCheckpoint checkpoint = uiReplicationCheckpointDao.findCheckpoint();
+        // the primary key type depends on the database
+        checkpoint.setLastEntityId(((Number) changedMessageLog[0]).longValue());
+        checkpoint.setLastModified((Date) changedMessageLog[3]);
+        LOG.trace("Message [{}] synchronized, changes synchronized up to [{}]", changedMessageLog[1], checkpoint.getLastModified());
+    }
+}
@@ -0,0 +1,101 @@
+package eu.domibus.core.replication;
+
+import eu.domibus.api.multitenancy.Domain;
+import eu.domibus.api.multitenancy.DomainService;
+import eu.domibus.api.multitenancy.DomainTaskExecutor;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Date;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_UI_REPLICATION_UPDATE_DELAY;
+
+/**
+ * Updates {@code TB_MESSAGE_UI} with the message changes collected by {@link UIReplicationChangeCoalescer}.
+ * <p>
+ * The changes are collected in the memory of each node, so they are drained by a scheduler local to the node instead
+ * of a Quartz job, which runs on a single node of the cluster.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Service
+public class UIReplicationUpdateScheduler {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(UIReplicationUpdateScheduler.class);
+
+    protected static final long START_DELAY = 30000L;
+
+    @Autowired
+    protected DomainService domainService;
+
+    @Autowired
+    protected DomainTaskExecutor domainTaskExecutor;
+
+    @Autowired
+    protected DomibusPropertyProvider domibusPropertyProvider;
+
+    @Autowired
+    protected UIReplicationDataService uiReplicationDataService;
+
+    @Autowired
+    protected UIReplicationSignalService uiReplicationSignalService;
+
+    protected ThreadPoolTaskScheduler taskScheduler;
+
+    @PostConstruct
+    public void init() {
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setThreadNamePrefix("UIReplicationUpdate-");
+        taskScheduler.setDaemon(true);
+        taskScheduler.initialize();
+        taskScheduler.schedule(this::updateChangedMessages, this::nextExecutionTime);
+        LOG.debug("UI replication update scheduled");
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (taskScheduler != null) {
+            taskScheduler.shutdown();
+        }
+    }
+
+    /**
+     * The delay is read before each run, so that its changes are applied without restarting the scheduler
+     */
+    protected Date nextExecutionTime(TriggerContext triggerContext) {
+        final Date lastCompletionTime = triggerContext.lastCompletionTime();
+        if (lastCompletionTime == null) {
+            return new Date(System.currentTimeMillis() + START_DELAY);
+        }
+        return new Date(lastCompletionTime.getTime() + getUpdateDelay());
+    }
+
+    protected void updateChangedMessages() {
+        if (!uiReplicationSignalService.isReplicationEnabled()) {
+            return;
+        }
+
+        LOG.trace("UI replication update start");
+        for (Domain domain : domainService.getDomains()) {
+            try {
+                domainTaskExecutor.submit(() -> uiReplicationDataService.updateChangedMessages(), domain);
+            } catch (RuntimeException e) {
+                // the messages not updated are synchronized later on by the UIReplicationJob
+                LOG.error("Could not update the changed messages of domain [{}]", domain, e);
+            }
+        }
+        LOG.trace("UI replication update end");
+    }
+
+    protected long getUpdateDelay() {
+        return domibusPropertyProvider.getIntegerProperty(DOMIBUS_UI_REPLICATION_UPDATE_DELAY);
+    }
+}
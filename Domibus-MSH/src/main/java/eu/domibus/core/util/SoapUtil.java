@@ -21,6 +21,8 @@ import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.soap.*;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
@@ -43,6 +45,11 @@ public class SoapUtil {
 
     private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(SoapUtil.class);
 
+    /**
+     * Transformers are not thread safe and their factory is expensive to look up, so each thread reuses its own
+     */
+    private static final ThreadLocal<Transformer> RAW_XML_TRANSFORMER = ThreadLocal.withInitial(SoapUtil::createRawXMLTransformer);
+
     @Autowired
     protected TransformerFactory transformerFactory;
 
@@ -110,14 +117,38 @@ public class SoapUtil {
 
     public String getRawXMLMessage(SOAPMessage soapMessage) throws TransformerException {
         final StringWriter rawXmlMessageWriter = new StringWriter();
+        transformRawXMLMessage(soapMessage, new StreamResult(rawXmlMessageWriter));
+        return rawXmlMessageWriter.toString();
+    }
+
+    /**
+     * Writes the envelope encoded in UTF-8 directly from the DOM, without building it as a String
+     *
+     * @param soapMessage  the message
+     * @param outputStream the stream receiving the envelope, not closed
+     * @throws TransformerException if the envelope could not be written
+     */
+    public void writeRawXMLMessage(SOAPMessage soapMessage, OutputStream outputStream) throws TransformerException {
+        transformRawXMLMessage(soapMessage, new StreamResult(outputStream));
+    }
 
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        transformerFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-        transformerFactory.newTransformer().transform(
-                new DOMSource(soapMessage.getSOAPPart()),
-                new StreamResult(rawXmlMessageWriter));
+    protected void transformRawXMLMessage(SOAPMessage soapMessage, StreamResult result) throws TransformerException {
+        final Transformer transformer = RAW_XML_TRANSFORMER.get();
+        try {
+            transformer.transform(new DOMSource(soapMessage.getSOAPPart()), result);
+        } finally {
+            transformer.reset();
+        }
+    }
 
-        return rawXmlMessageWriter.toString();
+    protected static Transformer createRawXMLTransformer() {
+        try {
+            TransformerFactory transformerFactory = TransformerFactory.newInstance();
+            transformerFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            return transformerFactory.newTransformer();
+        } catch (TransformerConfigurationException e) {
+            throw new IllegalStateException("Could not create the transformer of the raw XML messages", e);
+        }
     }
 
     public SOAPMessage createSOAPMessage(final String rawXml) throws SOAPException, IOException, ParserConfigurationException, SAXException {
@@ -38,8 +38,16 @@ import java.util.Map;
                 query = "select messaging from Messaging messaging where messaging.userMessage.messageInfo.messageId = :MESSAGE_ID"),
         @NamedQuery(name = "Messaging.findSignalMessageByMessageId",
                 query = "select messaging.signalMessage from Messaging messaging where messaging.signalMessage.messageInfo.messageId = :MESSAGE_ID"),
+        @NamedQuery(name = "Messaging.findMessagePropertiesForMessages",
+                query = "select um.messageInfo.messageId, p.name, p.value from Messaging messaging join messaging.userMessage um join um.messageProperties.property p where um.messageInfo.messageId in :MESSAGE_IDS"),
+        @NamedQuery(name = "Messaging.findRoutingsForMessages",
+                query = "select um.messageInfo.messageId, um.partyInfo.from.role, fromPartyId.value, fromPartyId.type, um.partyInfo.to.role, toPartyId.value, toPartyId.type, " +
+                        "um.collaborationInfo.service.value, um.collaborationInfo.service.type, um.collaborationInfo.action, um.collaborationInfo.agreementRef.value, " +
+                        "um.collaborationInfo.agreementRef.type, um.mpc from Messaging messaging join messaging.userMessage um left join um.partyInfo.from.partyId fromPartyId " +
+                        "left join um.partyInfo.to.partyId toPartyId where um.messageInfo.messageId in :MESSAGE_IDS"),
 
         @NamedQuery(name = "Messaging.findPartInfosForMessage", query = "select m.userMessage.payloadInfo.partInfo from Messaging m where m.userMessage.messageInfo.messageId = :MESSAGE_ID"),
+        @NamedQuery(name = "Messaging.findPartInfosForMessages", query = "select m.userMessage.payloadInfo.partInfo from Messaging m where m.userMessage.messageInfo.messageId in :MESSAGE_IDS"),
 
         @NamedQuery(name = "Messaging.emptyPayloads", query = "update PartInfo p set p.binaryData = null where p in :PARTINFOS"),
 })
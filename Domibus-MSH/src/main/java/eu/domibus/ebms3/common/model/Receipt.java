@@ -25,6 +25,7 @@ import java.util.List;
 @XmlType(name = "Receipt", propOrder = "any")
 @Entity
 @Table(name = "TB_RECEIPT")
+@NamedNativeQuery(name = "Receipt.deleteReceiptData", query = "DELETE FROM TB_RECEIPT_DATA WHERE RECEIPT_ID IN (:RECEIPT_IDS)")
 public class Receipt extends AbstractBaseEntity {
     @SuppressWarnings("JpaAttributeTypeInspection")
     @XmlAnyElement(lax = false)
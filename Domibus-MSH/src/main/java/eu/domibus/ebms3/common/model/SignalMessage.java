@@ -31,6 +31,12 @@ import java.util.Set;
                 query = "select signalMessage.messageInfo.messageId from SignalMessage signalMessage where signalMessage.messageInfo.refToMessageId = :ORI_MESSAGE_ID"),
         @NamedQuery(name = "SignalMessage.findSignalMessageByRefMessageId",
                 query = "select signalMessage from SignalMessage signalMessage where signalMessage.messageInfo.refToMessageId = :ORI_MESSAGE_ID"),
+        @NamedQuery(name = "SignalMessage.findSignalMessageIdsByRefMessageIds",
+                query = "select signalMessage.messageInfo.messageId from SignalMessage signalMessage where signalMessage.messageInfo.refToMessageId in :ORI_MESSAGE_IDS"),
+        @NamedQuery(name = "SignalMessage.findReceiptIdsByRefMessageIds",
+                query = "select signalMessage.receipt.entityId from SignalMessage signalMessage where signalMessage.messageInfo.refToMessageId in :ORI_MESSAGE_IDS"),
+        @NamedQuery(name = "SignalMessage.clearReceipts",
+                query = "update SignalMessage signalMessage set signalMessage.receipt=null where signalMessage.receipt.entityId in :RECEIPT_IDS"),
 })
 public class SignalMessage extends AbstractBaseEntity {
 
@@ -0,0 +1,193 @@
+package eu.domibus.ebms3.puller;
+
+import eu.domibus.api.multitenancy.DomainContextProvider;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.*;
+
+/**
+ * Adapts the pull requests sent for each domain, mpc and responder to the responses received, instead of sending a
+ * fixed number of pull requests every job cycle.
+ * <p>
+ * The pull requests in flight are counted in memory. While the responder returns messages the number of pull requests
+ * in flight doubles, up to the maximum configured for the mpc, and a new pull request is sent as soon as a message is
+ * pulled. When the responder answers that the mpc is empty (EBMS:0006) the mpc is pulled with one request at a time and
+ * not before a delay doubled at each consecutive empty pull.
+ * <p>
+ * The accounting is per node: each pull request carries the id of the node which sent it and only that node counts
+ * its outcome. In a cluster the pull queue is consumed by all the nodes, so the outcome of a pull request processed by
+ * another node is ignored and the request stops being counted in flight once {@link #IN_FLIGHT_TIMEOUT} has passed.
+ * The outcomes are reported once the transaction processing the pull request is committed; a rolled back pull request
+ * is redelivered and reports its outcome again.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Service
+public class AdaptivePullScheduler {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(AdaptivePullScheduler.class);
+
+    /**
+     * Pull requests whose outcome is not reported to this node (e.g. dropped while the server was starting or processed
+     * by another node of the cluster) are no longer counted in flight after this delay
+     */
+    protected static final long IN_FLIGHT_TIMEOUT = 5 * 60 * 1000L;
+
+    protected static class PullState {
+        protected int limit = 1;
+        protected int maxRequests = 1;
+        /**
+         * The times at which the pull requests in flight were sent, oldest first
+         */
+        protected final Deque<Long> inFlight = new ArrayDeque<>();
+        protected int consecutiveEmptyPulls;
+        protected long nextPullTime;
+    }
+
+    @Autowired
+    protected DomibusPropertyProvider domibusPropertyProvider;
+
+    @Autowired
+    protected DomainContextProvider domainContextProvider;
+
+    protected final Map<String, PullState> pullStates = new ConcurrentHashMap<>();
+
+    /**
+     * Identifies the pull requests sent by this node since it started
+     */
+    protected final String nodeId = UUID.randomUUID().toString();
+
+    public boolean isActive() {
+        return domibusPropertyProvider.getBooleanDomainProperty(DOMIBUS_PULL_ADAPTIVE_ACTIVE);
+    }
+
+    /**
+     * @return the id carried by the pull requests sent by this node
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Called by the pull job to know how many pull requests to send to the responder.
+     *
+     * @param maxRequests the maximum number of pull requests in flight for the mpc
+     * @return the number of pull requests to send, already counted in flight
+     */
+    public int acquire(String mpc, String responder, int maxRequests) {
+        final PullState pullState = getPullState(mpc, responder);
+        synchronized (pullState) {
+            final long now = System.currentTimeMillis();
+            if (now < pullState.nextPullTime) {
+                LOG.trace("Pulling of mpc [{}] from responder [{}] backed off until [{}]", mpc, responder, pullState.nextPullTime);
+                return 0;
+            }
+            pullState.maxRequests = Math.max(1, maxRequests);
+            return acquire(pullState, now);
+        }
+    }
+
+    /**
+     * Called when a pull request returned a message: the pulling pace increases, up to the maximum number of pull
+     * requests given by the last job cycle.
+     *
+     * @return the number of pull requests to send right away, already counted in flight
+     */
+    public int onMessagePulled(String mpc, String responder, String node) {
+        if (!isTracked(mpc, responder, node)) {
+            return 0;
+        }
+        final PullState pullState = getPullState(mpc, responder);
+        synchronized (pullState) {
+            release(pullState);
+            pullState.consecutiveEmptyPulls = 0;
+            pullState.nextPullTime = 0;
+            pullState.limit = Math.min(pullState.maxRequests, pullState.limit * 2);
+            final int next = acquire(pullState, System.currentTimeMillis());
+            LOG.debug("Message pulled on mpc [{}] from responder [{}]: sending [{}] new pull requests, [{}] in flight", mpc, responder, next, pullState.inFlight.size());
+            return next;
+        }
+    }
+
+    /**
+     * Called when the responder answered that the mpc is empty: the mpc is pulled again after an exponential back off.
+     */
+    public void onEmptyMpc(String mpc, String responder, String node) {
+        if (!isTracked(mpc, responder, node)) {
+            return;
+        }
+        final long initialDelay = domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_PULL_ADAPTIVE_BACKOFF_INITIAL);
+        final long maxDelay = domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_PULL_ADAPTIVE_BACKOFF_MAX);
+        final PullState pullState = getPullState(mpc, responder);
+        synchronized (pullState) {
+            release(pullState);
+            pullState.limit = 1;
+            pullState.consecutiveEmptyPulls++;
+            final long delay = Math.min(maxDelay, initialDelay << Math.min(pullState.consecutiveEmptyPulls - 1, 20));
+            pullState.nextPullTime = System.currentTimeMillis() + delay;
+            LOG.debug("Mpc [{}] of responder [{}] empty [{}] times in a row: next pull in [{}] ms", mpc, responder, pullState.consecutiveEmptyPulls, delay);
+        }
+    }
+
+    /**
+     * Called when a pull request ended without a message nor an empty mpc answer, e.g. because of an error.
+     */
+    public void release(String mpc, String responder, String node) {
+        if (!isTracked(mpc, responder, node)) {
+            return;
+        }
+        final PullState pullState = getPullState(mpc, responder);
+        synchronized (pullState) {
+            release(pullState);
+        }
+    }
+
+    protected int acquire(PullState pullState, long now) {
+        expireInFlight(pullState, now);
+        final int limit = Math.max(1, Math.min(pullState.limit, pullState.maxRequests));
+        final int count = Math.max(0, limit - pullState.inFlight.size());
+        for (int i = 0; i < count; i++) {
+            pullState.inFlight.addLast(now);
+        }
+        return count;
+    }
+
+    protected void expireInFlight(PullState pullState, long now) {
+        int expired = 0;
+        while (!pullState.inFlight.isEmpty() && now - pullState.inFlight.peekFirst() > IN_FLIGHT_TIMEOUT) {
+            pullState.inFlight.pollFirst();
+            expired++;
+        }
+        if (expired > 0) {
+            LOG.warn("No outcome received for [{}] pull requests: they are no longer counted in flight", expired);
+        }
+    }
+
+    protected void release(PullState pullState) {
+        // the outcome of a pull request which already expired is ignored
+        pullState.inFlight.pollFirst();
+    }
+
+    /**
+     * The pull requests sent before the scheduler was activated, before this node started or by another node do not
+     * carry the id of this node and are not tracked
+     */
+    protected boolean isTracked(String mpc, String responder, String node) {
+        return mpc != null && responder != null && nodeId.equals(node) && isActive();
+    }
+
+    protected PullState getPullState(String mpc, String responder) {
+        return pullStates.computeIfAbsent(domainContextProvider.getCurrentDomain().getCode() + ":" + mpc + ":" + responder, key -> new PullState());
+    }
+}
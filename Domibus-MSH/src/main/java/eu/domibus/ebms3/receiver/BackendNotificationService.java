@@ -15,7 +15,7 @@ import eu.domibus.common.services.impl.UserMessageHandlerService;
 import eu.domibus.core.alerts.model.service.MessagingModuleConfiguration;
 import eu.domibus.core.alerts.service.EventService;
 import eu.domibus.core.alerts.service.MultiDomainAlertConfigurationService;
-import eu.domibus.core.converter.DomainCoreConverter;
+import eu.domibus.core.message.pending.PendingDownloadService;
 import eu.domibus.core.replication.UIReplicationSignalService;
 import eu.domibus.ebms3.common.UserMessageServiceHelper;
 import eu.domibus.ebms3.common.model.PartInfo;
@@ -29,11 +29,9 @@ import eu.domibus.messaging.NotifyMessageCreator;
 import eu.domibus.plugin.BackendConnector;
 import eu.domibus.plugin.NotificationListener;
 import eu.domibus.plugin.Submission;
-import eu.domibus.plugin.routing.BackendFilterEntity;
 import eu.domibus.plugin.routing.CriteriaFactory;
 import eu.domibus.plugin.routing.IRoutingCriteria;
 import eu.domibus.plugin.routing.RoutingService;
-import eu.domibus.plugin.routing.dao.BackendFilterDao;
 import eu.domibus.plugin.transformer.impl.SubmissionAS4Transformer;
 import eu.domibus.plugin.validation.SubmissionValidator;
 import eu.domibus.plugin.validation.SubmissionValidatorList;
@@ -69,9 +67,6 @@ public class BackendNotificationService {
     @Autowired
     JMSManager jmsManager;
 
-    @Autowired
-    private BackendFilterDao backendFilterDao;
-
     @Autowired
     private RoutingService routingService;
 
@@ -102,9 +97,6 @@ public class BackendNotificationService {
     @Autowired
     protected DomibusPropertyProvider domibusPropertyProvider;
 
-    @Autowired
-    private DomainCoreConverter coreConverter;
-
     @Autowired
     private EventService eventService;
 
@@ -126,6 +118,9 @@ public class BackendNotificationService {
     @Autowired
     protected UserMessageService userMessageService;
 
+    @Autowired
+    protected PendingDownloadService pendingDownloadService;
+
 
     //TODO move this into a dedicate provider(a different spring bean class)
     private Map<String, IRoutingCriteria> criteriaMap;
@@ -255,10 +250,10 @@ public class BackendNotificationService {
     }
 
     protected List<BackendFilter> getBackendFilters() {
-        List<BackendFilterEntity> backendFilterEntities = backendFilterDao.findAll();
+        List<BackendFilter> routingBackendFilters = routingService.getRoutingBackendFilters();
 
-        if (!backendFilterEntities.isEmpty()) {
-            return coreConverter.convert(backendFilterEntities, BackendFilter.class);
+        if (!routingBackendFilters.isEmpty()) {
+            return routingBackendFilters;
         }
 
         List<BackendFilter> backendFilters = routingService.getBackendFilters();
@@ -267,7 +262,7 @@ public class BackendNotificationService {
         }
         if (backendFilters.size() > 1) { //There is more than one unconfigured backend available. For security reasons we cannot send the message just to the first one
             LOG.error("There are multiple unconfigured backend plugins available. Please set up the configuration using the \"Message filter\" pannel of the administrative GUI.");
-            backendFilters.clear(); // empty the list so its handled in the desired way.
+            return new ArrayList<>(); // return an empty list so its handled in the desired way.
         }
         //If there is only one backend deployed we send it to that as this is most likely the intent
         return backendFilters;
@@ -339,8 +334,9 @@ public class BackendNotificationService {
             return;
         }
 
+        String finalRecipient = null;
         if (properties != null) {
-            String finalRecipient = (String) properties.get(MessageConstants.FINAL_RECIPIENT);
+            finalRecipient = (String) properties.get(MessageConstants.FINAL_RECIPIENT);
             LOG.info("Notifying plugin [{}] for message [{}] with notificationType [{}] and finalRecipient [{}]", backendName, messageId, notificationType, finalRecipient);
         } else {
             LOG.info("Notifying plugin [{}] for message [{}] with notificationType [{}]", backendName, messageId, notificationType);
@@ -350,6 +346,9 @@ public class BackendNotificationService {
         if (backendNotificationQueue != null) {
             LOG.debug("Notifying plugin [{}] using queue", backendName);
             jmsManager.sendMessageToQueue(new NotifyMessageCreator(messageId, notificationType, properties).createMessage(), backendNotificationQueue);
+            if (notificationType == NotificationType.MESSAGE_RECEIVED && notificationListener.getMode() == BackendConnector.Mode.PULL) {
+                pendingDownloadService.addPendingDownload(messageId, backendName, finalRecipient);
+            }
         } else {
             LOG.debug("Notifying plugin [{}] using callback", backendName);
             notificationListener.notify(messageId, notificationType, properties);
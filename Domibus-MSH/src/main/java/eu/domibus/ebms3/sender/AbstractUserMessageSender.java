@@ -5,6 +5,7 @@ import eu.domibus.api.message.attempt.MessageAttempt;
 import eu.domibus.api.message.attempt.MessageAttemptService;
 import eu.domibus.api.message.attempt.MessageAttemptStatus;
 import eu.domibus.api.security.ChainCertificateInvalidException;
+import eu.domibus.api.usermessage.UserMessageService;
 import eu.domibus.common.ErrorCode;
 import eu.domibus.common.MSHRole;
 import eu.domibus.common.dao.UserMessageLogDao;
@@ -16,6 +17,7 @@ import eu.domibus.common.model.configuration.LegConfiguration;
 import eu.domibus.common.model.configuration.Party;
 import eu.domibus.common.services.MessageExchangeService;
 import eu.domibus.common.services.ReliabilityService;
+import eu.domibus.core.message.UserMessageLogDefaultService;
 import eu.domibus.core.pmode.PModeProvider;
 import eu.domibus.ebms3.common.model.UserMessage;
 import eu.domibus.logging.DomibusLogger;
@@ -70,6 +72,18 @@ public abstract class AbstractUserMessageSender implements MessageSender {
     @Autowired
     protected UserMessageLogDao userMessageLogDao;
 
+    @Autowired
+    protected DispatchCompletionService dispatchCompletionService;
+
+    @Autowired
+    protected DispatchCircuitBreaker dispatchCircuitBreaker;
+
+    @Autowired
+    protected UserMessageService userMessageService;
+
+    @Autowired
+    protected UserMessageLogDefaultService userMessageLogService;
+
     @Override
     @Timer(OUTGOING_USER_MESSAGE)
     @Counter(OUTGOING_USER_MESSAGE)
@@ -87,6 +101,9 @@ public abstract class AbstractUserMessageSender implements MessageSender {
 
         LegConfiguration legConfiguration = null;
         final String pModeKey;
+        boolean dispatchedAsync = false;
+        boolean deferred = false;
+        boolean shortCircuited = false;
 
         try {
 
@@ -134,8 +151,33 @@ public abstract class AbstractUserMessageSender implements MessageSender {
                 return;
             }
 
+            if (dispatchCircuitBreaker.shortCircuit(receiverParty.getEndpoint())) {
+                getLog().warn("Endpoint [{}] is not reachable: message [{}] is not sent and will be retried", receiverParty.getEndpoint(), messageId);
+                // this flag is used in the finally clause: no attempt is recorded as the message is not dispatched
+                shortCircuited = true;
+                return;
+            }
+
             getLog().debug("PMode found : " + pModeKey);
             final SOAPMessage soapMessage = createSOAPMessage(userMessage, legConfiguration);
+            if (mshDispatcher.isAsyncDispatchActivated()) {
+                final String endpoint = receiverParty.getEndpoint();
+                final LegConfiguration dispatchedLegConfiguration = legConfiguration;
+                dispatchedAsync = mshDispatcher.dispatchAsync(soapMessage, endpoint, policy, legConfiguration, pModeKey,
+                        asyncResponse -> dispatchCompletionService.handleResponse(messageId, soapMessage, asyncResponse, endpoint, pModeKey, dispatchedLegConfiguration, attempt));
+                if (!dispatchedAsync) {
+                    final long deferDelay = mshDispatcher.getAsyncDeferDelay();
+                    getLog().debug("Maximum number of requests in flight reached for endpoint [{}]: sending of message [{}] deferred by [{}] ms", endpoint, messageId, deferDelay);
+                    userMessageService.scheduleSending(messageId, deferDelay, Boolean.TRUE.equals(userMessage.isSplitAndJoin()));
+                    // this flag is used in the finally clause: the message is not dispatched and no attempt is recorded
+                    deferred = true;
+                    return;
+                }
+                // a message whose response is lost, e.g. because the server stopped, is put back in waiting for retry once the deadline has passed
+                userMessageLogService.setMessageAsSendInProgress(userMessageLogDao.findByMessageId(messageId, MSHRole.SENDING), mshDispatcher.getAsyncResponseDeadline());
+                getLog().debug("Message [{}] dispatched asynchronously", messageId);
+                return;
+            }
             final SOAPMessage response = mshDispatcher.dispatch(soapMessage, receiverParty.getEndpoint(), policy, legConfiguration, pModeKey);
             isOk = responseHandler.handle(response);
             if (ResponseHandler.CheckResult.UNMARSHALL_ERROR.equals(isOk)) {
@@ -166,14 +208,21 @@ public abstract class AbstractUserMessageSender implements MessageSender {
             attempt.setStatus(MessageAttemptStatus.ERROR);
             throw t;
         } finally {
-            try {
-                getLog().debug("Finally handle reliability");
-                reliabilityService.handleReliability(messageId, userMessage, reliabilityCheckSuccessful, isOk, legConfiguration);
-                updateAndCreateAttempt(attempt);
-            } catch (Exception ex) {
-                getLog().warn("Finally exception when handlingReliability", ex);
-                reliabilityService.handleReliabilityInNewTransaction(messageId, userMessage, reliabilityCheckSuccessful, isOk, legConfiguration);
-                updateAndCreateAttempt(attempt);
+            // the reliability of the messages dispatched asynchronously is handled once their response is received
+            if (!dispatchedAsync && !deferred) {
+                try {
+                    getLog().debug("Finally handle reliability");
+                    reliabilityService.handleReliability(messageId, userMessage, reliabilityCheckSuccessful, isOk, legConfiguration);
+                    if (!shortCircuited) {
+                        updateAndCreateAttempt(attempt);
+                    }
+                } catch (Exception ex) {
+                    getLog().warn("Finally exception when handlingReliability", ex);
+                    reliabilityService.handleReliabilityInNewTransaction(messageId, userMessage, reliabilityCheckSuccessful, isOk, legConfiguration);
+                    if (!shortCircuited) {
+                        updateAndCreateAttempt(attempt);
+                    }
+                }
             }
         }
     }
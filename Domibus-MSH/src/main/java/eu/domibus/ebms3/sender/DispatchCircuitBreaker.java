@@ -0,0 +1,125 @@
+package eu.domibus.ebms3.sender;
+
+import eu.domibus.api.multitenancy.DomainContextProvider;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.*;
+
+/**
+ * Circuit breaker per domain and receiver endpoint, used to stop dispatching messages to an access point which cannot
+ * be reached.
+ * <p>
+ * The circuit opens after {@code domibus.dispatcher.circuitBreaker.failureThreshold} consecutive connection failures.
+ * While it is open the messages are not dispatched and are rescheduled for retry. Once
+ * {@code domibus.dispatcher.circuitBreaker.openDuration} has elapsed, one message is dispatched to probe the endpoint:
+ * the circuit closes if it can be delivered and opens again otherwise.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Service
+public class DispatchCircuitBreaker {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(DispatchCircuitBreaker.class);
+
+    protected enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    protected static class Circuit {
+        protected State state = State.CLOSED;
+        protected int consecutiveFailures;
+        protected long stateChangeTime;
+    }
+
+    @Autowired
+    protected DomibusPropertyProvider domibusPropertyProvider;
+
+    @Autowired
+    protected DomainContextProvider domainContextProvider;
+
+    protected final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    /**
+     * Checks if the dispatch to the given endpoint must be skipped. When the open duration has elapsed the first
+     * caller is let through to probe the endpoint and the other ones are rejected until the probe is finished.
+     *
+     * @return true if the message must not be dispatched to the endpoint
+     */
+    public boolean shortCircuit(String endpoint) {
+        if (!isActive()) {
+            return false;
+        }
+        final Circuit circuit = getCircuit(endpoint);
+        synchronized (circuit) {
+            if (circuit.state == State.CLOSED) {
+                return false;
+            }
+            final long now = System.currentTimeMillis();
+            // a probe which did not report its outcome does not keep the circuit half open forever
+            if (now - circuit.stateChangeTime < getOpenDuration()) {
+                return true;
+            }
+            LOG.info("Circuit of endpoint [{}] half open: probing the endpoint", endpoint);
+            circuit.state = State.HALF_OPEN;
+            circuit.stateChangeTime = now;
+            return false;
+        }
+    }
+
+    public void onSuccess(String endpoint) {
+        final Circuit circuit = circuits.get(getKey(endpoint));
+        if (circuit == null) {
+            return;
+        }
+        synchronized (circuit) {
+            if (circuit.state != State.CLOSED) {
+                LOG.info("Circuit of endpoint [{}] closed", endpoint);
+            }
+            circuit.state = State.CLOSED;
+            circuit.consecutiveFailures = 0;
+        }
+    }
+
+    public void onConnectionFailure(String endpoint) {
+        if (!isActive()) {
+            return;
+        }
+        final Circuit circuit = getCircuit(endpoint);
+        synchronized (circuit) {
+            circuit.consecutiveFailures++;
+            if (circuit.state == State.HALF_OPEN || (circuit.state == State.CLOSED && circuit.consecutiveFailures >= getFailureThreshold())) {
+                LOG.warn("Circuit of endpoint [{}] opened after [{}] consecutive connection failures", endpoint, circuit.consecutiveFailures);
+                circuit.state = State.OPEN;
+                circuit.stateChangeTime = System.currentTimeMillis();
+            }
+        }
+    }
+
+    protected boolean isActive() {
+        return domibusPropertyProvider.getBooleanDomainProperty(DOMIBUS_DISPATCHER_CIRCUIT_BREAKER_ACTIVE);
+    }
+
+    protected int getFailureThreshold() {
+        return domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_CIRCUIT_BREAKER_FAILURE_THRESHOLD);
+    }
+
+    protected long getOpenDuration() {
+        return domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_CIRCUIT_BREAKER_OPEN_DURATION);
+    }
+
+    protected Circuit getCircuit(String endpoint) {
+        return circuits.computeIfAbsent(getKey(endpoint), key -> new Circuit());
+    }
+
+    protected String getKey(String endpoint) {
+        return domainContextProvider.getCurrentDomain().getCode() + endpoint;
+    }
+}
@@ -1,5 +1,6 @@
 package eu.domibus.ebms3.sender;
 
+import eu.domibus.api.multitenancy.DomainContextProvider;
 import eu.domibus.api.property.DomibusPropertyProvider;
 import eu.domibus.logging.DomibusLogger;
 import eu.domibus.logging.DomibusLoggerFactory;
@@ -68,6 +69,9 @@ public class DispatchClientDefaultProvider implements DispatchClientProvider {
     @Qualifier("domibusProxyService")
     protected DomibusProxyService domibusProxyService;
 
+    @Autowired
+    protected DomainContextProvider domainContextProvider;
+
     @Cacheable(value = "dispatchClient", key = "#domain + #endpoint + #pModeKey", condition = "#cacheable")
     @Override
     public Dispatch<SOAPMessage> getClient(String domain, String endpoint, String algorithm, Policy policy, final String pModeKey, boolean cacheable) {
@@ -78,6 +82,8 @@ public class DispatchClientDefaultProvider implements DispatchClientProvider {
         dispatch.getRequestContext().put(ASYMMETRIC_SIG_ALGO_PROPERTY, algorithm);
         dispatch.getRequestContext().put(PMODE_KEY_CONTEXT_PROPERTY, pModeKey);
         final Client client = ((DispatchImpl<SOAPMessage>) dispatch).getClient();
+        // the responses of the asynchronous dispatches are processed by the executor, outside the thread of the sender
+        client.setExecutor(getDomainExecutor(domain));
         final HTTPConduit httpConduit = (HTTPConduit) client.getConduit();
         final HTTPClientPolicy httpClientPolicy = httpConduit.getClient();
 
@@ -135,6 +141,22 @@ public class DispatchClientDefaultProvider implements DispatchClientProvider {
         httpClientPolicy.setConnection(connectionType);
     }
 
+    /**
+     * @return an executor setting the given domain on the thread before running the tasks and clearing it afterwards,
+     * as the threads are pooled
+     */
+    protected Executor getDomainExecutor(final String domain) {
+        return task -> executor.execute(() -> {
+            domainContextProvider.setCurrentDomain(domain);
+            try {
+                task.run();
+            } finally {
+                LOG.removeMDC(DomibusLogger.MDC_MESSAGE_ID);
+                domainContextProvider.clearCurrentDomain();
+            }
+        });
+    }
+
     protected Dispatch<SOAPMessage> createWSServiceDispatcher(String endpoint) {
         final javax.xml.ws.Service service = javax.xml.ws.Service.create(SERVICE_NAME);
         service.setExecutor(executor);
@@ -0,0 +1,125 @@
+package eu.domibus.ebms3.sender;
+
+import eu.domibus.api.message.attempt.MessageAttempt;
+import eu.domibus.api.message.attempt.MessageAttemptService;
+import eu.domibus.api.message.attempt.MessageAttemptStatus;
+import eu.domibus.common.ErrorCode;
+import eu.domibus.common.MSHRole;
+import eu.domibus.common.dao.MessagingDao;
+import eu.domibus.common.exception.EbMS3Exception;
+import eu.domibus.common.model.configuration.LegConfiguration;
+import eu.domibus.common.services.ReliabilityService;
+import eu.domibus.ebms3.common.model.UserMessage;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.apache.cxf.interceptor.Fault;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.xml.soap.SOAPMessage;
+import javax.xml.ws.Response;
+import javax.xml.ws.soap.SOAPFaultException;
+import java.sql.Timestamp;
+
+/**
+ * Handles the responses of the user messages dispatched asynchronously by the {@link MSHDispatcher}, in the same
+ * way as {@link AbstractUserMessageSender} does for the messages dispatched synchronously.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Service
+public class DispatchCompletionService {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(DispatchCompletionService.class);
+
+    @Autowired
+    protected MSHDispatcher mshDispatcher;
+
+    @Autowired
+    protected ResponseHandler responseHandler;
+
+    @Autowired
+    protected ReliabilityChecker reliabilityChecker;
+
+    @Autowired
+    protected ReliabilityService reliabilityService;
+
+    @Autowired
+    protected MessageAttemptService messageAttemptService;
+
+    @Autowired
+    protected MessagingDao messagingDao;
+
+    @Autowired
+    protected ReceiverBulkheadService receiverBulkheadService;
+
+    /**
+     * Handles the response received for a user message and updates the status of the message accordingly.
+     * <p>
+     * It is called by the thread receiving the response, after the transaction dispatching the message has been
+     * committed, so the user message is loaded again.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, timeout = 1200) // 20 minutes
+    public void handleResponse(final String messageId, final SOAPMessage request, final Response<SOAPMessage> response, final String endpoint,
+                               final String pModeKey, final LegConfiguration legConfiguration, final MessageAttempt attempt) {
+        LOG.putMDC(DomibusLogger.MDC_MESSAGE_ID, messageId);
+        LOG.debug("Handling the response of message [{}]", messageId);
+
+        ReliabilityChecker.CheckResult reliabilityCheckSuccessful = ReliabilityChecker.CheckResult.SEND_FAIL;
+        ResponseHandler.CheckResult isOk = ResponseHandler.CheckResult.OK;
+        try {
+            final SOAPMessage responseMessage = mshDispatcher.getAsyncResponse(response, endpoint);
+            isOk = responseHandler.handle(responseMessage);
+            if (ResponseHandler.CheckResult.UNMARSHALL_ERROR.equals(isOk)) {
+                EbMS3Exception e = new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0004, "Problem occurred during marshalling", messageId, null);
+                e.setMshRole(MSHRole.SENDING);
+                throw e;
+            }
+            reliabilityCheckSuccessful = reliabilityChecker.check(request, responseMessage, pModeKey);
+        } catch (final SOAPFaultException soapFEx) {
+            LOG.error("A SOAP fault occurred when sending message with ID [{}]", messageId, soapFEx);
+
+            if (soapFEx.getCause() instanceof Fault && soapFEx.getCause().getCause() instanceof EbMS3Exception) {
+                reliabilityChecker.handleEbms3Exception((EbMS3Exception) soapFEx.getCause().getCause(), messageId);
+            }
+            attempt.setError(soapFEx.getMessage());
+            attempt.setStatus(MessageAttemptStatus.ERROR);
+        } catch (final EbMS3Exception e) {
+            LOG.error("EbMS3 exception occurred when sending message with ID [{}]", messageId, e);
+
+            reliabilityChecker.handleEbms3Exception(e, messageId);
+            attempt.setError(e.getMessage());
+            attempt.setStatus(MessageAttemptStatus.ERROR);
+        } catch (RuntimeException e) {
+            LOG.error("Error occurred when sending message with ID [{}]", messageId, e);
+
+            attempt.setError(e.getMessage());
+            attempt.setStatus(MessageAttemptStatus.ERROR);
+        } finally {
+            try {
+                final UserMessage userMessage = messagingDao.findUserMessageByMessageId(messageId);
+                try {
+                    LOG.debug("Finally handle reliability");
+                    reliabilityService.handleReliability(messageId, userMessage, reliabilityCheckSuccessful, isOk, legConfiguration);
+                    updateAndCreateAttempt(attempt);
+                } catch (Exception ex) {
+                    LOG.warn("Finally exception when handlingReliability", ex);
+                    reliabilityService.handleReliabilityInNewTransaction(messageId, userMessage, reliabilityCheckSuccessful, isOk, legConfiguration);
+                    updateAndCreateAttempt(attempt);
+                }
+            } finally {
+                // the permit of the receiver bulkhead is kept by the message until its response is handled
+                receiverBulkheadService.releaseAsync(messageId);
+                LOG.removeMDC(DomibusLogger.MDC_MESSAGE_ID);
+            }
+        }
+    }
+
+    protected void updateAndCreateAttempt(MessageAttempt attempt) {
+        attempt.setEndDate(new Timestamp(System.currentTimeMillis()));
+        messageAttemptService.create(attempt);
+    }
+}
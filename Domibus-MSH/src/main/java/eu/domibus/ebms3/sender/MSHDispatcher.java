@@ -9,23 +9,35 @@ import eu.domibus.common.MSHRole;
 import eu.domibus.common.exception.EbMS3Exception;
 import eu.domibus.common.model.configuration.LegConfiguration;
 import eu.domibus.ebms3.common.model.UserMessage;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.cxf.message.Message;
 import org.apache.neethi.Policy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.xml.soap.SOAPMessage;
+import javax.xml.ws.AsyncHandler;
 import javax.xml.ws.Dispatch;
+import javax.xml.ws.Response;
 import javax.xml.ws.WebServiceException;
+import javax.xml.ws.soap.SOAPFaultException;
 import java.net.ConnectException;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_DISPATCHER_CACHEABLE;
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.*;
 
 /**
  * @author Christian Koch, Stefan Mueller
@@ -34,6 +46,8 @@ import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_DIS
 @Service
 public class MSHDispatcher {
 
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(MSHDispatcher.class);
+
     public static final String MESSAGE_TYPE_IN = "MESSAGE_TYPE";
     public static final String MESSAGE_TYPE_OUT = "MESSAGE_TYPE_OUT";
     public static final String LOCAL_MSH_ENDPOINT = "local://localMSH";
@@ -41,6 +55,12 @@ public class MSHDispatcher {
     public static final String HEADER_DOMIBUS_SPLITTING_COMPRESSION = "DOMIBUS-SPLITTING-COMPRESSION";
     public static final String HEADER_DOMIBUS_DOMAIN = "DOMIBUS-DOMAIN";
 
+    /**
+     * Time in milliseconds added to the connection and receive timeouts before a message dispatched asynchronously is
+     * considered to have lost its response
+     */
+    protected static final long ASYNC_RESPONSE_GRACE_PERIOD = 60 * 1000L;
+
     @Autowired
     private DispatchClientProvider dispatchClientProvider;
 
@@ -50,6 +70,11 @@ public class MSHDispatcher {
     @Autowired
     protected DomainContextProvider domainContextProvider;
 
+    @Autowired
+    protected DispatchCircuitBreaker dispatchCircuitBreaker;
+
+    protected final Map<String, AtomicInteger> inFlightRequests = new ConcurrentHashMap<>();
+
     @Transactional(propagation = Propagation.MANDATORY)
     public SOAPMessage dispatch(final SOAPMessage soapMessage, String endpoint, final Policy policy, final LegConfiguration legConfiguration, final String pModeKey) throws EbMS3Exception {
         boolean cacheable = isDispatchClientCacheActivated();
@@ -60,14 +85,110 @@ public class MSHDispatcher {
         try {
             result = dispatch.invoke(soapMessage);
         } catch (final WebServiceException e) {
-            Exception exception = e;
-            if(e.getCause() instanceof ConnectException) {
-                exception = new WebServiceException("Error dispatching message to [" + endpoint + "]: possible reason is that the receiver is not available", e);
+            recordDispatchFailure(e, endpoint);
+            throw createDispatchException(e, endpoint);
+        }
+        dispatchCircuitBreaker.onSuccess(endpoint);
+        return result;
+    }
+
+    /**
+     * Dispatches the message using the non blocking HTTP client once the current transaction is committed: the request
+     * is written after the commit and the response is passed to the given handler once received, so the sending thread
+     * does not wait for the receiver and the handler always sees the changes of the sending transaction. If the request
+     * cannot be written, the handler receives a response failing with the dispatch error.
+     *
+     * @return false if the maximum number of requests in flight to the endpoint has been reached, in which case the message is not dispatched
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean dispatchAsync(final SOAPMessage soapMessage, String endpoint, final Policy policy, final LegConfiguration legConfiguration, final String pModeKey, final AsyncHandler<SOAPMessage> handler) throws EbMS3Exception {
+        boolean cacheable = isDispatchClientCacheActivated();
+        Domain domain = domainContextProvider.getCurrentDomain();
+        final String inFlightKey = domain.getCode() + endpoint;
+        if (!acquireInFlightRequest(inFlightKey, domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_ASYNC_MAX_IN_FLIGHT))) {
+            LOG.debug("Maximum number of requests in flight reached for endpoint [{}]", endpoint);
+            return false;
+        }
+        final Dispatch<SOAPMessage> dispatch;
+        try {
+            dispatch = dispatchClientProvider.getClient(domain.getCode(), endpoint, legConfiguration.getSecurity().getSignatureMethod().getAlgorithm(), policy, pModeKey, cacheable);
+        } catch (RuntimeException e) {
+            releaseInFlightRequest(inFlightKey);
+            throw e;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invokeAsync(dispatch, soapMessage, endpoint, inFlightKey, handler);
+            return true;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                invokeAsync(dispatch, soapMessage, endpoint, inFlightKey, handler);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != TransactionSynchronization.STATUS_COMMITTED) {
+                    LOG.debug("The transaction was not committed: the message is not dispatched to [{}]", endpoint);
+                    releaseInFlightRequest(inFlightKey);
+                }
+            }
+        });
+        return true;
+    }
+
+    protected void invokeAsync(final Dispatch<SOAPMessage> dispatch, final SOAPMessage soapMessage, String endpoint, String inFlightKey, final AsyncHandler<SOAPMessage> handler) {
+        try {
+            dispatch.invokeAsync(soapMessage, response -> {
+                try {
+                    handler.handleResponse(response);
+                } finally {
+                    releaseInFlightRequest(inFlightKey);
+                }
+            });
+        } catch (final WebServiceException e) {
+            LOG.warn("Error dispatching message asynchronously to [{}]", endpoint, e);
+            releaseInFlightRequest(inFlightKey);
+            handler.handleResponse(new DispatchFailedResponse(e));
+        }
+    }
+
+    /**
+     * @return the date after which the response of a message dispatched asynchronously now is considered lost
+     */
+    public Date getAsyncResponseDeadline() {
+        final long connectionTimeout = domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_CONNECTION_TIMEOUT);
+        final long receiveTimeout = domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_RECEIVE_TIMEOUT);
+        return new Date(System.currentTimeMillis() + connectionTimeout + receiveTimeout + ASYNC_RESPONSE_GRACE_PERIOD);
+    }
+
+    /**
+     * @return the delay in milliseconds after which the messages not dispatched because of the maximum number of requests in flight are sent again
+     */
+    public long getAsyncDeferDelay() {
+        return domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_ASYNC_DEFER_DELAY);
+    }
+
+    /**
+     * Gets the response of a message dispatched with {@link #dispatchAsync}, translating the dispatch errors the same way as {@link #dispatch}
+     */
+    public SOAPMessage getAsyncResponse(final Response<SOAPMessage> response, String endpoint) throws EbMS3Exception {
+        final SOAPMessage result;
+        try {
+            result = response.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw createDispatchException(new WebServiceException(e), endpoint);
+        } catch (ExecutionException e) {
+            final WebServiceException webServiceException = e.getCause() instanceof WebServiceException ? (WebServiceException) e.getCause() : new WebServiceException(e.getCause());
+            recordDispatchFailure(webServiceException, endpoint);
+            if (webServiceException instanceof SOAPFaultException) {
+                throw (SOAPFaultException) webServiceException;
             }
-            EbMS3Exception ex = new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0005, "Error dispatching message to " + endpoint, null, exception);
-            ex.setMshRole(MSHRole.SENDING);
-            throw ex;
+            throw createDispatchException(webServiceException, endpoint);
         }
+        dispatchCircuitBreaker.onSuccess(endpoint);
         return result;
     }
 
@@ -91,17 +212,104 @@ public class MSHDispatcher {
         try {
             result = dispatch.invoke(soapMessage);
         } catch (final WebServiceException e) {
-            Exception exception = e;
-            if(e.getCause() instanceof ConnectException) {
-                exception = new WebServiceException("Error dispatching message to [" + endpoint + "]: possible reason is that the receiver is not available", e);
-            }
-            EbMS3Exception ex = new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0005, "Error dispatching message to " + endpoint, null, exception);
-            ex.setMshRole(MSHRole.SENDING);
-            throw ex;
+            throw createDispatchException(e, endpoint);
         }
         return result;
     }
 
+    /**
+     * Reports the connection failures to the circuit breaker; any other failure means that the endpoint could be reached
+     */
+    protected void recordDispatchFailure(final WebServiceException e, String endpoint) {
+        if (isConnectionFailure(e)) {
+            dispatchCircuitBreaker.onConnectionFailure(endpoint);
+        } else {
+            dispatchCircuitBreaker.onSuccess(endpoint);
+        }
+    }
+
+    protected boolean isConnectionFailure(final Throwable e) {
+        return ExceptionUtils.indexOfType(e, ConnectException.class) != -1
+                || ExceptionUtils.indexOfType(e, SocketTimeoutException.class) != -1
+                || ExceptionUtils.indexOfType(e, UnknownHostException.class) != -1;
+    }
+
+    protected EbMS3Exception createDispatchException(final WebServiceException e, String endpoint) {
+        Exception exception = e;
+        if(e.getCause() instanceof ConnectException) {
+            exception = new WebServiceException("Error dispatching message to [" + endpoint + "]: possible reason is that the receiver is not available", e);
+        }
+        EbMS3Exception ex = new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0005, "Error dispatching message to " + endpoint, null, exception);
+        ex.setMshRole(MSHRole.SENDING);
+        return ex;
+    }
+
+    /**
+     * @param maxInFlight the maximum number of requests in flight to the same endpoint, 0 or less meaning no limit
+     */
+    protected boolean acquireInFlightRequest(String key, Integer maxInFlight) {
+        final AtomicInteger inFlight = inFlightRequests.computeIfAbsent(key, k -> new AtomicInteger());
+        final int current = inFlight.incrementAndGet();
+        if (maxInFlight != null && maxInFlight > 0 && current > maxInFlight) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    protected void releaseInFlightRequest(String key) {
+        final AtomicInteger inFlight = inFlightRequests.get(key);
+        if (inFlight != null) {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * The response of a message whose asynchronous dispatch failed before the request was written
+     */
+    protected static class DispatchFailedResponse implements Response<SOAPMessage> {
+
+        private final WebServiceException exception;
+
+        protected DispatchFailedResponse(WebServiceException exception) {
+            this.exception = exception;
+        }
+
+        @Override
+        public Map<String, Object> getContext() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return true;
+        }
+
+        @Override
+        public SOAPMessage get() throws ExecutionException {
+            throw new ExecutionException(exception);
+        }
+
+        @Override
+        public SOAPMessage get(long timeout, TimeUnit unit) throws ExecutionException {
+            throw new ExecutionException(exception);
+        }
+    }
+
+    public boolean isAsyncDispatchActivated() {
+        return domibusPropertyProvider.getBooleanDomainProperty(DOMIBUS_DISPATCHER_ASYNC);
+    }
+
     protected boolean isDispatchClientCacheActivated() {
         return domibusPropertyProvider.getBooleanDomainProperty(DOMIBUS_DISPATCHER_CACHEABLE);
     }
@@ -44,6 +44,9 @@ public class MessageSenderService  {
     @Autowired
     protected UserMessageHandlerService userMessageHandlerService;
 
+    @Autowired
+    protected ReceiverBulkheadService receiverBulkheadService;
+
     public void sendUserMessage(final String messageId, int retryCount, boolean isSplitAndJoin) {
         final MessageStatus messageStatus = userMessageLogDao.getMessageStatus(messageId);
 
@@ -63,13 +66,39 @@ public class MessageSenderService  {
         }
 
         final UserMessage userMessage = messagingDao.findUserMessageByMessageId(messageId);
+        final String receiver = userMessage.getToFirstPartyId();
+        final boolean bulkheadActive = receiver != null && receiverBulkheadService.isActive();
+        if (bulkheadActive && !receiverBulkheadService.tryAcquire(receiver)) {
+            final long deferDelay = receiverBulkheadService.getDeferDelay();
+            LOG.debug("Maximum number of messages in flight reached for receiver [{}]: sending of message [{}] deferred by [{}] ms", receiver, messageId, deferDelay);
+            userMessageService.scheduleSending(messageId, deferDelay, isSplitAndJoin);
+            return;
+        }
         final MessageSender messageSender = messageSenderFactory.getMessageSender(userMessage);
         final Boolean testMessage = userMessageHandlerService.checkTestMessage(userMessage);
 
 
         LOG.businessInfo(testMessage ? DomibusMessageCode.BUS_TEST_MESSAGE_SEND_INITIATION : DomibusMessageCode.BUS_MESSAGE_SEND_INITIATION,
-                userMessage.getFromFirstPartyId(), userMessage.getToFirstPartyId());
+                userMessage.getFromFirstPartyId(), receiver);
 
-        messageSender.sendMessage(userMessage);
+        if (!bulkheadActive) {
+            messageSender.sendMessage(userMessage);
+            return;
+        }
+        final long start = System.currentTimeMillis();
+        boolean completed = false;
+        boolean dispatchedAsync = false;
+        try {
+            messageSender.sendMessage(userMessage);
+            completed = true;
+            // the message is put in SEND_IN_PROGRESS only when it is dispatched asynchronously
+            dispatchedAsync = MessageStatus.SEND_IN_PROGRESS == userMessageLogDao.getMessageStatus(messageId);
+        } finally {
+            if (dispatchedAsync) {
+                receiverBulkheadService.releaseAfterResponse(receiver, messageId, start);
+            } else {
+                receiverBulkheadService.release(receiver, messageId, System.currentTimeMillis() - start, completed);
+            }
+        }
     }
 }
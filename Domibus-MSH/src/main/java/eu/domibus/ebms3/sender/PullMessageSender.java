@@ -13,6 +13,7 @@ import eu.domibus.common.metrics.Counter;
 import eu.domibus.common.metrics.Timer;
 import eu.domibus.common.model.configuration.LegConfiguration;
 import eu.domibus.common.model.configuration.Party;
+import eu.domibus.common.services.MessageExchangeService;
 import eu.domibus.common.services.impl.PullContext;
 import eu.domibus.common.services.impl.UserMessageHandlerService;
 import eu.domibus.core.message.UserMessageDefaultService;
@@ -21,6 +22,7 @@ import eu.domibus.core.util.MessageUtil;
 import eu.domibus.ebms3.common.context.MessageExchangeConfiguration;
 import eu.domibus.ebms3.common.model.Error;
 import eu.domibus.ebms3.common.model.*;
+import eu.domibus.ebms3.puller.AdaptivePullScheduler;
 import eu.domibus.ebms3.puller.PullFrequencyHelper;
 import eu.domibus.ebms3.receiver.BackendNotificationService;
 import eu.domibus.logging.DomibusLogger;
@@ -34,6 +36,8 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.jms.JMSException;
 import javax.jms.Message;
@@ -101,6 +105,12 @@ public class PullMessageSender {
     @Autowired
     private PullFrequencyHelper pullFrequencyHelper;
 
+    @Autowired
+    private AdaptivePullScheduler adaptivePullScheduler;
+
+    @Autowired
+    private MessageExchangeService messageExchangeService;
+
     @SuppressWarnings("squid:S2583") //TODO: SONAR version updated!
     @Transactional(propagation = Propagation.REQUIRED)
     //@TODO unit test this method.
@@ -125,9 +135,15 @@ public class PullMessageSender {
         Messaging messaging = null;
         String messageId = null;
         String mpcName = null;
+        String mpcQualifiedName = null;
+        String responder = null;
+        String node = null;
+        boolean pullRequestReleased = false;
 
         try {
-            final String mpcQualifiedName = map.getStringProperty(PullContext.MPC);
+            mpcQualifiedName = map.getStringProperty(PullContext.MPC);
+            responder = map.getStringProperty(PullContext.RESPONDER);
+            node = map.getStringProperty(PullContext.NODE);
             final String pModeKey = map.getStringProperty(PullContext.PMODE_KEY);
             notifyBusinessOnError = Boolean.valueOf(map.getStringProperty(PullContext.NOTIFY_BUSINNES_ON_ERROR));
             SignalMessage signalMessage = new SignalMessage();
@@ -148,10 +164,16 @@ public class PullMessageSender {
             if (messaging.getUserMessage() == null && messaging.getSignalMessage() != null) {
                 LOG.trace("No message for sent pull request with mpc:[{}]", mpcQualifiedName);
                 logError(signalMessage);
+                if (isEmptyMpc(messaging.getSignalMessage())) {
+                    onEmptyMpcAfterCommit(mpcQualifiedName, responder, node);
+                    pullRequestReleased = true;
+                }
                 return;
             }
             messageId = messaging.getUserMessage().getMessageInfo().getMessageId();
             handleResponse(response, messaging);
+            pullRequestReleased = true;
+            onMessagePulledAfterCommit(mpcQualifiedName, pModeKey, responder, node, notifyBusinessOnError);
 
             String sendMessageId = messageId;
             if (userMessageHandlerService.checkSelfSending(pModeKey)) {
@@ -174,7 +196,52 @@ public class PullMessageSender {
                 LOG.businessError(DomibusMessageCode.BUS_BACKEND_NOTIFICATION_FAILED, ex, messageId);
             }
             checkConnectionProblem(e, mpcName);
+        } finally {
+            if (!pullRequestReleased) {
+                releaseAfterCommit(mpcQualifiedName, responder, node);
+            }
+        }
+    }
+
+    protected void onEmptyMpcAfterCommit(String mpcQualifiedName, String responder, String node) {
+        afterCommit(() -> adaptivePullScheduler.onEmptyMpc(mpcQualifiedName, responder, node));
+    }
+
+    protected void onMessagePulledAfterCommit(String mpcQualifiedName, String pModeKey, String responder, String node, boolean notifyBusinessOnError) {
+        afterCommit(() -> {
+            final int nextPullRequests = adaptivePullScheduler.onMessagePulled(mpcQualifiedName, responder, node);
+            messageExchangeService.sendPullRequests(nextPullRequests, mpcQualifiedName, pModeKey, responder, notifyBusinessOnError);
+        });
+    }
+
+    protected void releaseAfterCommit(String mpcQualifiedName, String responder, String node) {
+        afterCommit(() -> adaptivePullScheduler.release(mpcQualifiedName, responder, node));
+    }
+
+    /**
+     * Reports the outcome of the pull request to the {@link AdaptivePullScheduler} once the transaction is committed:
+     * a rolled back pull request is redelivered and reports its outcome again.
+     */
+    protected void afterCommit(final Runnable outcome) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            outcome.run();
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                try {
+                    outcome.run();
+                } catch (RuntimeException e) {
+                    LOG.warn("Could not report the outcome of the pull request", e);
+                }
+            }
+        });
+    }
+
+    protected boolean isEmptyMpc(SignalMessage signalMessage) {
+        final String emptyMpcErrorCode = ErrorCode.EbMS3ErrorCode.EBMS_0006.getCode().getErrorCode().getErrorCodeName();
+        return signalMessage.getError().stream().anyMatch(error -> emptyMpcErrorCode.equals(error.getErrorCode()));
     }
 
     protected void handleResponse(final SOAPMessage response, Messaging messaging) throws TransformerException, SOAPException, IOException, JAXBException, EbMS3Exception {
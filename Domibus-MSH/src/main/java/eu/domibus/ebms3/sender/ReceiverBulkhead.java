@@ -0,0 +1,62 @@
+package eu.domibus.ebms3.sender;
+
+/**
+ * Limits the number of messages sent in parallel to one receiver. The limit adapts to the receiver (additive increase,
+ * multiplicative decrease): it grows by one after a full window of successful sendings and is halved after a failed or
+ * slow sending, within 1 and the configured maximum.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+public class ReceiverBulkhead {
+
+    protected static final double MIN_LIMIT = 1;
+
+    protected static final double DECREASE_FACTOR = 0.5;
+
+    protected double limit;
+
+    protected int inFlight;
+
+    public ReceiverBulkhead(int maxLimit) {
+        this.limit = Math.max(MIN_LIMIT, maxLimit);
+    }
+
+    /**
+     * @param maxLimit the maximum number of messages in flight, which might have changed since the previous call
+     * @return true if one more message can be sent to the receiver
+     */
+    public synchronized boolean tryAcquire(int maxLimit) {
+        limit = Math.max(MIN_LIMIT, Math.min(limit, maxLimit));
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Releases a message acquired with {@link #tryAcquire(int)} and adapts the limit to the outcome of its sending
+     *
+     * @param success  true if the message has been sent successfully and in time
+     * @param maxLimit the maximum number of messages in flight
+     */
+    public synchronized void release(boolean success, int maxLimit) {
+        if (inFlight > 0) {
+            inFlight--;
+        }
+        if (success) {
+            limit = Math.min(Math.max(MIN_LIMIT, maxLimit), limit + 1 / limit);
+        } else {
+            limit = Math.max(MIN_LIMIT, limit * DECREASE_FACTOR);
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,175 @@
+package eu.domibus.ebms3.sender;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import eu.domibus.api.multitenancy.DomainContextProvider;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.common.MessageStatus;
+import eu.domibus.common.dao.UserMessageLogDao;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.*;
+
+/**
+ * Keeps one {@link ReceiverBulkhead} per domain and receiver party so that a slow or unavailable receiver cannot take
+ * all the threads sending the messages: once the limit of a receiver is reached its messages are deferred.
+ * <p>
+ * The permit of a message dispatched asynchronously is kept until its response is handled, on the node which sent it.
+ * <p>
+ * The limit and the number of messages in flight of each receiver are exposed as gauges and the deferred messages as a meter.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Service
+public class ReceiverBulkheadService {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(ReceiverBulkheadService.class);
+
+    protected static final Set<MessageStatus> FAILED_STATUSES = EnumSet.of(MessageStatus.WAITING_FOR_RETRY, MessageStatus.SEND_FAILURE);
+
+    protected static final String METRIC_LIMIT = "limit";
+
+    protected static final String METRIC_IN_FLIGHT = "inFlight";
+
+    protected static final String METRIC_DEFERRED = "deferred";
+
+    @Autowired
+    protected DomibusPropertyProvider domibusPropertyProvider;
+
+    @Autowired
+    protected DomainContextProvider domainContextProvider;
+
+    @Autowired
+    protected UserMessageLogDao userMessageLogDao;
+
+    @Autowired
+    protected MetricRegistry metricRegistry;
+
+    protected final Map<String, ReceiverBulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * Messages dispatched asynchronously whose permit is kept until their response is handled, by message id
+     */
+    protected final Map<String, AsyncInFlightMessage> asyncInFlightMessages = new ConcurrentHashMap<>();
+
+    public boolean isActive() {
+        return domibusPropertyProvider.getBooleanDomainProperty(DOMIBUS_DISPATCHER_RECEIVER_BULKHEAD_ACTIVE);
+    }
+
+    /**
+     * @return true if a message can be sent to the receiver, false if it must be deferred
+     */
+    public boolean tryAcquire(String receiver) {
+        final String domainCode = domainContextProvider.getCurrentDomain().getCode();
+        if (getBulkhead(domainCode, receiver).tryAcquire(getMaxInFlight())) {
+            return true;
+        }
+        metricRegistry.meter(MetricRegistry.name(ReceiverBulkheadService.class, domainCode, receiver, METRIC_DEFERRED)).mark();
+        return false;
+    }
+
+    /**
+     * Releases the message once its sending is finished and adapts the limit of the receiver
+     *
+     * @param receiver  the receiver party
+     * @param messageId the id of the message sent
+     * @param duration  the duration of the sending in milliseconds
+     * @param completed false if the sending ended with an exception
+     */
+    public void release(String receiver, String messageId, long duration, boolean completed) {
+        final String domainCode = domainContextProvider.getCurrentDomain().getCode();
+        final boolean success = completed
+                && duration <= domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_RECEIVER_LATENCY_THRESHOLD)
+                && !FAILED_STATUSES.contains(userMessageLogDao.getMessageStatus(messageId));
+        final ReceiverBulkhead bulkhead = getBulkhead(domainCode, receiver);
+        bulkhead.release(success, getMaxInFlight());
+        LOG.debug("Message [{}] sent to receiver [{}] in [{}] ms, success [{}]: limit is [{}]", messageId, receiver, duration, success, bulkhead.getLimit());
+    }
+
+    /**
+     * Keeps the permit of a message dispatched asynchronously until its response is handled, see {@link #releaseAsync(String)}.
+     * If the sending transaction is not committed the message is not dispatched and the permit is released right away.
+     *
+     * @param receiver  the receiver party
+     * @param messageId the id of the message dispatched
+     * @param start     the time in milliseconds at which the sending started
+     */
+    public void releaseAfterResponse(String receiver, String messageId, long start) {
+        asyncInFlightMessages.put(messageId, new AsyncInFlightMessage(receiver, start));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                    return;
+                }
+                final AsyncInFlightMessage inFlightMessage = asyncInFlightMessages.remove(messageId);
+                if (inFlightMessage != null) {
+                    LOG.debug("The transaction was not committed: releasing message [{}]", messageId);
+                    release(inFlightMessage.receiver, messageId, System.currentTimeMillis() - inFlightMessage.start, false);
+                }
+            }
+        });
+    }
+
+    /**
+     * Releases the permit of a message dispatched asynchronously once its response is handled. Does nothing if the
+     * message was sent while the bulkhead was not active.
+     *
+     * @param messageId the id of the message dispatched
+     */
+    public void releaseAsync(String messageId) {
+        final AsyncInFlightMessage inFlightMessage = asyncInFlightMessages.remove(messageId);
+        if (inFlightMessage == null) {
+            LOG.trace("No permit kept for message [{}]", messageId);
+            return;
+        }
+        release(inFlightMessage.receiver, messageId, System.currentTimeMillis() - inFlightMessage.start, true);
+    }
+
+    /**
+     * @return the delay in milliseconds after which the deferred messages are sent again
+     */
+    public long getDeferDelay() {
+        return domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_RECEIVER_DEFER_DELAY);
+    }
+
+    protected int getMaxInFlight() {
+        return domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_RECEIVER_MAX_IN_FLIGHT);
+    }
+
+    protected ReceiverBulkhead getBulkhead(String domainCode, String receiver) {
+        return bulkheads.computeIfAbsent(domainCode + ":" + receiver, key -> {
+            final ReceiverBulkhead bulkhead = new ReceiverBulkhead(getMaxInFlight());
+            metricRegistry.register(MetricRegistry.name(ReceiverBulkheadService.class, domainCode, receiver, METRIC_LIMIT), (Gauge<Integer>) bulkhead::getLimit);
+            metricRegistry.register(MetricRegistry.name(ReceiverBulkheadService.class, domainCode, receiver, METRIC_IN_FLIGHT), (Gauge<Integer>) bulkhead::getInFlight);
+            return bulkhead;
+        });
+    }
+
+    protected static class AsyncInFlightMessage {
+
+        protected final String receiver;
+
+        protected final long start;
+
+        protected AsyncInFlightMessage(String receiver, long start) {
+            this.receiver = receiver;
+            this.start = start;
+        }
+    }
+}
@@ -1,17 +1,14 @@
 package eu.domibus.ebms3.sender;
 
 import eu.domibus.api.property.DomibusPropertyProvider;
-import eu.domibus.api.usermessage.UserMessageService;
-import eu.domibus.common.MSHRole;
-import eu.domibus.common.dao.MessagingDao;
 import eu.domibus.common.dao.UserMessageLogDao;
-import eu.domibus.common.exception.EbMS3Exception;
-import eu.domibus.common.model.logging.UserMessageLog;
+import eu.domibus.common.model.configuration.LegConfiguration;
+import eu.domibus.common.model.configuration.Process;
+import eu.domibus.common.model.logging.UserMessageLogRetryDto;
 import eu.domibus.core.pmode.PModeProvider;
 import eu.domibus.core.pull.MessagingLockDao;
 import eu.domibus.core.pull.PullMessageService;
 import eu.domibus.ebms3.common.model.MessagingLock;
-import eu.domibus.ebms3.common.model.UserMessage;
 import eu.domibus.logging.DomibusLogger;
 import eu.domibus.logging.DomibusLoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,9 +18,11 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.jms.Queue;
-import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_MSH_RETRY_PAGE_SIZE;
+
 /**
  * @author Christian Koch, Stefan Mueller
  */
@@ -32,6 +31,8 @@ public class RetryDefaultService implements RetryService {
 
     private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(RetryDefaultService.class);
 
+    protected static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     protected DomibusPropertyProvider domibusPropertyProvider;
 
@@ -43,15 +44,9 @@ public class RetryDefaultService implements RetryService {
     @Qualifier("sendLargeMessageQueue")
     private Queue sendLargeMessageQueue;
 
-    @Autowired
-    UserMessageService userMessageService;
-
     @Autowired
     private UserMessageLogDao userMessageLogDao;
 
-    @Autowired
-    private MessagingDao messagingDao;
-
     @Autowired
     private PullMessageService pullMessageService;
 
@@ -62,64 +57,91 @@ public class RetryDefaultService implements RetryService {
     PModeProvider pModeProvider;
 
     @Autowired
-    UpdateRetryLoggingService updateRetryLoggingService;
+    protected RetryPageService retryPageService;
 
+    /**
+     * Schedules the messages due for retry page by page, in the order of their next attempt. Each page is handled in
+     * its own transaction by the {@link RetryPageService} and the next page starts after the last message of the
+     * previous one, so a large backlog never holds a long transaction.
+     */
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW, timeout = 1200) // 20 minutes
     public void enqueueMessages() {
-        final List<String> messagesNotAlreadyQueued = getMessagesNotAlreadyScheduled();
-        for (final String messageId : messagesNotAlreadyQueued) {
+        final Date currentTimestamp = new Date();
+        final Long minRetryTimeout = getMinRetryTimeout();
+        final int pageSize = getPageSize();
+
+        Date lastNextAttempt = new Date(0L);
+        long lastEntityId = 0L;
+        int scheduled = 0;
+        List<UserMessageLogRetryDto> retryMessages;
+        do {
+            retryMessages = userMessageLogDao.findRetryMessages(currentTimestamp, lastNextAttempt, lastEntityId, pageSize);
+            if (retryMessages.isEmpty()) {
+                break;
+            }
+            LOG.trace("Found [{}] messages to be sent", retryMessages.size());
             try {
-                LOG.putMDC(DomibusLogger.MDC_MESSAGE_ID, messageId);
-                final UserMessage userMessage = messagingDao.findUserMessageByMessageId(messageId);
-                if (!failIfExpired(userMessage)) {
-                    userMessageService.scheduleSending(messageId, userMessage.isSplitAndJoin());
-                }
-            } finally {
-                LOG.removeMDC(DomibusLogger.MDC_MESSAGE_ID);
+                scheduled += retryPageService.enqueueMessages(retryMessages, minRetryTimeout);
+            } catch (RuntimeException e) {
+                LOG.error("Could not enqueue [{}] messages to be retried", retryMessages.size(), e);
             }
-        }
+            final UserMessageLogRetryDto lastRetryMessage = retryMessages.get(retryMessages.size() - 1);
+            lastNextAttempt = lastRetryMessage.getNextAttempt();
+            lastEntityId = lastRetryMessage.getEntityId();
+        } while (retryMessages.size() == pageSize);
+
+        LOG.debug("Scheduled [{}] messages for retry", scheduled);
     }
 
-    protected boolean failIfExpired(UserMessage userMessage) {
-
-        final String messageId = userMessage.getMessageInfo().getMessageId();
-        UserMessageLog userMessageLog = userMessageLogDao.findByMessageId(messageId, MSHRole.SENDING);
-        eu.domibus.common.model.configuration.LegConfiguration legConfiguration;
-        final String pModeKey;
-
-        try {
-            pModeKey = pModeProvider.findUserMessageExchangeContext(userMessage, MSHRole.SENDING).getPmodeKey();
-            LOG.debug("PMode key found : {}", pModeKey);
-            legConfiguration = pModeProvider.getLegConfiguration(pModeKey);
-            LOG.debug("Found leg [{}] for PMode key [{}]", legConfiguration.getName(), pModeKey);
-        } catch (EbMS3Exception exc) {
-            LOG.warn("Could not find LegConfiguration for message [{}]", messageId);
-            return false;
+    /**
+     * Puts back in waiting for retry the messages dispatched asynchronously whose response was not received before
+     * their deadline, each one in its own transaction
+     */
+    @Override
+    public void resetTimedOutDispatches() {
+        final List<String> messageIds = userMessageLogDao.findTimedOutDispatches(new Date(), getPageSize());
+        for (String messageId : messageIds) {
+            try {
+                retryPageService.resetTimedOutDispatch(messageId);
+            } catch (RuntimeException e) {
+                LOG.error("Could not reset message [{}] dispatched asynchronously", messageId, e);
+            }
         }
-        if (updateRetryLoggingService.isExpired(legConfiguration, userMessageLog)) {
-            updateRetryLoggingService.messageFailed(userMessage, userMessageLog);
-
-            if (userMessage.isUserMessageFragment()) {
-                userMessageService.scheduleSplitAndJoinSendFailed(userMessage.getMessageFragment().getGroupId(), String.format("Message fragment [%s] has failed to be sent", messageId));
+    }
 
+    /**
+     * Gets the shortest retry timeout of the PMode legs, used to check the expiration of the messages without
+     * resolving the leg of each of them
+     *
+     * @return the shortest retry timeout in milliseconds or null if no leg has a reception awareness
+     */
+    protected Long getMinRetryTimeout() {
+        Long result = null;
+        for (Process process : pModeProvider.findAllProcesses()) {
+            if (process.getLegs() == null) {
+                continue;
+            }
+            for (LegConfiguration legConfiguration : process.getLegs()) {
+                if (legConfiguration.getReceptionAwareness() == null) {
+                    continue;
+                }
+                final long retryTimeout = legConfiguration.getReceptionAwareness().getRetryTimeout() * 60000L;
+                if (result == null || retryTimeout < result) {
+                    result = retryTimeout;
+                }
             }
-            return true;
         }
-        return false;
+        LOG.trace("Shortest retry timeout is [{}]", result);
+        return result;
     }
 
-    protected List<String> getMessagesNotAlreadyScheduled() {
-        List<String> result = new ArrayList<>();
-
-        final List<String> messageIdsToSend = userMessageLogDao.findRetryMessages();
-        if (messageIdsToSend.isEmpty()) {
-            LOG.trace("No message found to be resend");
-            return result;
+    protected int getPageSize() {
+        final Integer pageSize = domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_MSH_RETRY_PAGE_SIZE);
+        if (pageSize == null || pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            LOG.debug("Invalid retry page size [{}], using [{}]", pageSize, MAX_PAGE_SIZE);
+            return MAX_PAGE_SIZE;
         }
-        LOG.trace("Found messages to be send [{}]", messageIdsToSend);
-
-        return messageIdsToSend;
+        return pageSize;
     }
 
     /**
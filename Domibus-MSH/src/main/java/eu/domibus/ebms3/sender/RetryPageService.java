@@ -0,0 +1,197 @@
+package eu.domibus.ebms3.sender;
+
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.api.usermessage.UserMessageService;
+import eu.domibus.common.MSHRole;
+import eu.domibus.common.dao.MessagingDao;
+import eu.domibus.common.dao.UserMessageLogDao;
+import eu.domibus.common.exception.EbMS3Exception;
+import eu.domibus.common.model.configuration.LegConfiguration;
+import eu.domibus.common.model.logging.UserMessageLog;
+import eu.domibus.common.model.logging.UserMessageLogRetryDto;
+import eu.domibus.core.pmode.PModeProvider;
+import eu.domibus.ebms3.common.model.UserMessage;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static eu.domibus.ebms3.sender.UpdateRetryLoggingService.MESSAGE_EXPIRATION_DELAY;
+
+/**
+ * Schedules one page of the messages to be retried, in its own transaction.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Service
+public class RetryPageService {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(RetryPageService.class);
+
+    @Autowired
+    protected DomibusPropertyProvider domibusPropertyProvider;
+
+    @Autowired
+    protected UserMessageService userMessageService;
+
+    @Autowired
+    protected UserMessageLogDao userMessageLogDao;
+
+    @Autowired
+    protected MessagingDao messagingDao;
+
+    @Autowired
+    protected PModeProvider pModeProvider;
+
+    @Autowired
+    protected UpdateRetryLoggingService updateRetryLoggingService;
+
+    /**
+     * Fails the expired messages of the page and schedules the sending of the other ones.
+     * <p>
+     * A message cannot be expired while its scheduled start date is more recent than the shortest retry timeout of the
+     * PMode legs, so only the older messages are checked against their own leg. Their legs are resolved from their
+     * routing information, loaded with one query for the whole page; a message is fully loaded only once expired.
+     *
+     * @param retryMessages   the page of messages to be retried
+     * @param minRetryTimeout the shortest retry timeout of the PMode legs in milliseconds or null if unknown
+     * @return the number of messages scheduled for sending
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, timeout = 300) // 5 minutes
+    public int enqueueMessages(List<UserMessageLogRetryDto> retryMessages, Long minRetryTimeout) {
+        final long expirationThreshold = getExpirationThreshold(minRetryTimeout);
+        final List<UserMessageLogRetryDto> expirationCandidates = retryMessages.stream()
+                .filter(retryMessage -> retryMessage.getScheduledStartDate().getTime() < expirationThreshold)
+                .collect(Collectors.toList());
+        final Set<String> expiredMessageIds = failExpiredMessages(expirationCandidates);
+
+        final List<String> messageIds = new ArrayList<>();
+        final List<String> splitAndJoinMessageIds = new ArrayList<>();
+        for (UserMessageLogRetryDto retryMessage : retryMessages) {
+            final String messageId = retryMessage.getMessageId();
+            if (expiredMessageIds.contains(messageId)) {
+                continue;
+            }
+            if (retryMessage.isSplitAndJoin()) {
+                splitAndJoinMessageIds.add(messageId);
+            } else {
+                messageIds.add(messageId);
+            }
+        }
+        userMessageService.scheduleSending(messageIds, false);
+        userMessageService.scheduleSending(splitAndJoinMessageIds, true);
+        LOG.debug("Scheduled [{}] messages out of [{}] for retry", messageIds.size() + splitAndJoinMessageIds.size(), retryMessages.size());
+        return messageIds.size() + splitAndJoinMessageIds.size();
+    }
+
+    /**
+     * Puts back in waiting for retry a message dispatched asynchronously whose response was not received in time
+     *
+     * @param messageId the id of the message
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void resetTimedOutDispatch(String messageId) {
+        final UserMessage userMessage = messagingDao.findUserMessageByMessageId(messageId);
+        LegConfiguration legConfiguration = null;
+        try {
+            final String pModeKey = pModeProvider.findUserMessageExchangeContext(userMessage, MSHRole.SENDING).getPmodeKey();
+            legConfiguration = pModeProvider.getLegConfiguration(pModeKey);
+        } catch (EbMS3Exception exc) {
+            LOG.warn("Could not find LegConfiguration for message [{}]", messageId);
+        }
+        updateRetryLoggingService.updateTimedOutDispatchRetryLogging(messageId, legConfiguration);
+    }
+
+    /**
+     * @return the scheduled start time before which a message might be expired
+     */
+    protected long getExpirationThreshold(Long minRetryTimeout) {
+        if (minRetryTimeout == null) {
+            return Long.MAX_VALUE;
+        }
+        final int delay = domibusPropertyProvider.getIntegerProperty(MESSAGE_EXPIRATION_DELAY);
+        return System.currentTimeMillis() - minRetryTimeout - delay;
+    }
+
+    /**
+     * Fails the messages expired according to their legs. The legs are resolved once per PMode key for the whole page.
+     *
+     * @return the ids of the messages failed
+     */
+    protected Set<String> failExpiredMessages(List<UserMessageLogRetryDto> retryMessages) {
+        final Set<String> expiredMessageIds = new HashSet<>();
+        if (retryMessages.isEmpty()) {
+            return expiredMessageIds;
+        }
+        final List<String> messageIds = retryMessages.stream().map(UserMessageLogRetryDto::getMessageId).collect(Collectors.toList());
+        final Map<String, UserMessage> userMessageRoutings = messagingDao.findUserMessageRoutings(messageIds);
+        final Map<String, LegConfiguration> legConfigurations = new HashMap<>();
+        final int delay = domibusPropertyProvider.getIntegerProperty(MESSAGE_EXPIRATION_DELAY);
+        for (UserMessageLogRetryDto retryMessage : retryMessages) {
+            final String messageId = retryMessage.getMessageId();
+            final UserMessage userMessageRouting = userMessageRoutings.get(messageId);
+            if (userMessageRouting == null) {
+                LOG.warn("Could not find the user message [{}]", messageId);
+                continue;
+            }
+            final LegConfiguration legConfiguration = getLegConfiguration(userMessageRouting, legConfigurations);
+            if (legConfiguration != null && isExpired(legConfiguration, retryMessage, delay)) {
+                failExpiredMessage(messageId);
+                expiredMessageIds.add(messageId);
+            }
+        }
+        return expiredMessageIds;
+    }
+
+    protected LegConfiguration getLegConfiguration(UserMessage userMessageRouting, Map<String, LegConfiguration> legConfigurations) {
+        final String messageId = userMessageRouting.getMessageInfo().getMessageId();
+        try {
+            final String pModeKey = pModeProvider.findUserMessageExchangeContext(userMessageRouting, MSHRole.SENDING).getPmodeKey();
+            LOG.debug("PMode key found : {}", pModeKey);
+            return legConfigurations.computeIfAbsent(pModeKey, key -> pModeProvider.getLegConfiguration(key));
+        } catch (EbMS3Exception exc) {
+            LOG.warn("Could not find LegConfiguration for message [{}]", messageId);
+            return null;
+        } finally {
+            LOG.removeMDC(DomibusLogger.MDC_MESSAGE_ID);
+        }
+    }
+
+    /**
+     * Same computation as {@link UpdateRetryLoggingService#isExpired}, using the scheduled start date already loaded
+     */
+    protected boolean isExpired(LegConfiguration legConfiguration, UserMessageLogRetryDto retryMessage, int delay) {
+        if (legConfiguration.getReceptionAwareness() == null) {
+            return false;
+        }
+        final long retryTimeout = legConfiguration.getReceptionAwareness().getRetryTimeout() * 60000L;
+        return retryMessage.getScheduledStartDate().getTime() + retryTimeout + delay < System.currentTimeMillis();
+    }
+
+    protected void failExpiredMessage(String messageId) {
+        try {
+            LOG.putMDC(DomibusLogger.MDC_MESSAGE_ID, messageId);
+            LOG.debug("Message expired, marking it as failed");
+            final UserMessage userMessage = messagingDao.findUserMessageByMessageId(messageId);
+            final UserMessageLog userMessageLog = userMessageLogDao.findByMessageId(messageId, MSHRole.SENDING);
+            updateRetryLoggingService.messageFailed(userMessage, userMessageLog);
+
+            if (userMessage.isUserMessageFragment()) {
+                userMessageService.scheduleSplitAndJoinSendFailed(userMessage.getMessageFragment().getGroupId(), String.format("Message fragment [%s] has failed to be sent", messageId));
+            }
+        } finally {
+            LOG.removeMDC(DomibusLogger.MDC_MESSAGE_ID);
+        }
+    }
+}
@@ -8,6 +8,8 @@ public interface RetryService {
 
     void enqueueMessages();
 
+    void resetTimedOutDispatches();
+
     void resetWaitingForReceiptPullMessages();
 
     void bulkExpirePullMessages();
@@ -35,6 +35,12 @@ public class SendRetryWorker extends DomibusQuartzJobBean {
             authUtils.setAuthenticationToSecurityContext("retry_user", "retry_password");
         }
 
+        try {
+            retryService.resetTimedOutDispatches();
+        } catch (Exception e) {
+            LOG.error("Error while resetting the messages dispatched asynchronously.", e);
+        }
+
         try {
             retryService.enqueueMessages();
         } catch (Exception e) {
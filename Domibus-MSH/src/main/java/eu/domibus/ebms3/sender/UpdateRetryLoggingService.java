@@ -81,6 +81,24 @@ public class UpdateRetryLoggingService {
     }
 
 
+    /**
+     * Puts back in waiting for retry a message dispatched asynchronously whose response was not received before its
+     * deadline, e.g. because the server stopped while waiting for it. The dispatch counts as a failed attempt.
+     *
+     * @param messageId        id of the message dispatched asynchronously
+     * @param legConfiguration processing information for the message
+     */
+    @Transactional
+    public void updateTimedOutDispatchRetryLogging(final String messageId, final LegConfiguration legConfiguration) {
+        final UserMessageLog userMessageLog = userMessageLogDao.findByMessageId(messageId, MSHRole.SENDING);
+        if (userMessageLog == null || MessageStatus.SEND_IN_PROGRESS != userMessageLog.getMessageStatus()) {
+            LOG.debug("Message [{}] is not waiting anymore for its response", messageId);
+            return;
+        }
+        LOG.warn("No response received in time for message [{}]: the message will be retried", messageId);
+        updateRetryLogging(messageId, legConfiguration, MessageStatus.WAITING_FOR_RETRY);
+    }
+
     private void updateRetryLogging(final String messageId, final LegConfiguration legConfiguration, MessageStatus messageStatus) {
         LOG.debug("Updating retry for message");
         UserMessageLog userMessageLog = this.userMessageLogDao.findByMessageId(messageId, MSHRole.SENDING);
@@ -131,7 +149,7 @@ public class UpdateRetryLoggingService {
         userMessageLogService.setMessageAsSendFailure(userMessageLog);
 
         if (shouldDeletePayloadOnSendFailure(userMessage)) {
-            messagingDao.clearPayloadData(messageId);
+            userMessageService.clearPayloadData(messageId);
         }
     }
 
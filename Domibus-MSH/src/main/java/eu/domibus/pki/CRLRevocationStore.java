@@ -0,0 +1,210 @@
+package eu.domibus.pki;
+
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.logging.DomibusLogger;
+import eu.domibus.logging.DomibusLoggerFactory;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_CERTIFICATE_CRL_STORE_LOCATION;
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL;
+
+/**
+ * Keeps the serial numbers revoked by each CRL distribution point, shared by all the certificates issued under it.
+ * <p>
+ * A CRL is downloaded on the calling thread only the first time its distribution point is used, or when it is expired.
+ * Afterwards it is refreshed in the background, while the lookups keep using the previous one. The revoked serial numbers
+ * are also saved on disk, so that a restarted server does not download again the CRLs still valid.
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+@Service
+public class CRLRevocationStore {
+
+    private static final DomibusLogger LOG = DomibusLoggerFactory.getLogger(CRLRevocationStore.class);
+
+    /**
+     * Delay before downloading again a CRL whose background refresh failed
+     */
+    protected static final long REFRESH_RETRY_DELAY = 60 * 1000L;
+
+    protected static final String FILE_EXTENSION = ".crl.bin";
+
+    @Autowired
+    protected CRLUtil crlUtil;
+
+    @Autowired
+    protected DomibusPropertyProvider domibusPropertyProvider;
+
+    @Autowired
+    @Qualifier("taskExecutor")
+    protected Executor executor;
+
+    protected final Map<String, CRLRevokedSerials> revokedSerialsByUrl = new ConcurrentHashMap<>();
+
+    protected final Map<String, Object> downloadLocks = new ConcurrentHashMap<>();
+
+    protected final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param cert                    the certificate
+     * @param crlDistributionPointURL the CRL distribution point of the certificate
+     * @return true if the certificate is revoked by the CRL of the distribution point
+     * @throws DomibusCRLException if the CRL is neither known nor could be downloaded
+     */
+    public boolean isRevoked(X509Certificate cert, String crlDistributionPointURL) throws DomibusCRLException {
+        return getRevokedSerials(crlDistributionPointURL).isRevoked(cert.getIssuerX500Principal(), cert.getSerialNumber());
+    }
+
+    /**
+     * @return the next update of the CRL of the distribution point, or {@link CRLRevokedSerials#NO_NEXT_UPDATE} if unknown
+     */
+    public long getNextUpdate(String crlDistributionPointURL) {
+        final CRLRevokedSerials revokedSerials = revokedSerialsByUrl.get(crlDistributionPointURL);
+        return revokedSerials != null ? revokedSerials.getNextUpdate() : CRLRevokedSerials.NO_NEXT_UPDATE;
+    }
+
+    protected CRLRevokedSerials getRevokedSerials(String crlDistributionPointURL) {
+        final long now = System.currentTimeMillis();
+        CRLRevokedSerials revokedSerials = revokedSerialsByUrl.get(crlDistributionPointURL);
+        if (revokedSerials == null || revokedSerials.isExpired(now)) {
+            return loadRevokedSerials(crlDistributionPointURL);
+        }
+        if (revokedSerials.isRefreshDue(now)) {
+            refreshInBackground(crlDistributionPointURL, revokedSerials);
+        }
+        return revokedSerials;
+    }
+
+    /**
+     * Loads the CRL saved on disk or downloads it; the concurrent lookups of the same distribution point wait for a single download
+     */
+    protected CRLRevokedSerials loadRevokedSerials(String crlDistributionPointURL) {
+        synchronized (downloadLocks.computeIfAbsent(crlDistributionPointURL, url -> new Object())) {
+            final long now = System.currentTimeMillis();
+            CRLRevokedSerials revokedSerials = revokedSerialsByUrl.get(crlDistributionPointURL);
+            if (revokedSerials != null && !revokedSerials.isExpired(now)) {
+                return revokedSerials;
+            }
+            if (revokedSerials == null) {
+                revokedSerials = readRevokedSerials(crlDistributionPointURL);
+                if (revokedSerials != null && !revokedSerials.isExpired(now)) {
+                    revokedSerials.scheduleRefresh(revokedSerials.getLoaded(), getRefreshInterval());
+                    revokedSerialsByUrl.put(crlDistributionPointURL, revokedSerials);
+                    return revokedSerials;
+                }
+            }
+            return downloadRevokedSerials(crlDistributionPointURL);
+        }
+    }
+
+    protected void refreshInBackground(String crlDistributionPointURL, CRLRevokedSerials revokedSerials) {
+        if (!refreshing.add(crlDistributionPointURL)) {
+            return;
+        }
+        LOG.debug("Refreshing in background the CRL [{}]", crlDistributionPointURL);
+        try {
+            executor.execute(() -> {
+                try {
+                    downloadRevokedSerials(crlDistributionPointURL);
+                } catch (RuntimeException e) {
+                    LOG.warn("Could not refresh the CRL [{}], the CRL downloaded at [{}] is still used", crlDistributionPointURL, revokedSerials.getLoaded(), e);
+                    revokedSerials.scheduleRefresh(System.currentTimeMillis(), REFRESH_RETRY_DELAY);
+                } finally {
+                    refreshing.remove(crlDistributionPointURL);
+                }
+            });
+        } catch (RuntimeException e) {
+            LOG.warn("Could not schedule the refresh of the CRL [{}]", crlDistributionPointURL, e);
+            refreshing.remove(crlDistributionPointURL);
+        }
+    }
+
+    protected CRLRevokedSerials downloadRevokedSerials(String crlDistributionPointURL) {
+        final X509CRL crl = crlUtil.downloadCRL(crlDistributionPointURL);
+        final long now = System.currentTimeMillis();
+        final CRLRevokedSerials revokedSerials = CRLRevokedSerials.of(crl, now);
+        revokedSerials.scheduleRefresh(now, getRefreshInterval());
+        revokedSerialsByUrl.put(crlDistributionPointURL, revokedSerials);
+        LOG.debug("Downloaded CRL [{}] with [{}] revoked certificates", crlDistributionPointURL, revokedSerials.size());
+
+        writeRevokedSerials(crlDistributionPointURL, revokedSerials);
+        return revokedSerials;
+    }
+
+    protected CRLRevokedSerials readRevokedSerials(String crlDistributionPointURL) {
+        final Path file = getStoreFile(crlDistributionPointURL);
+        if (file == null || !Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            LOG.debug("Reading the saved CRL [{}] from [{}]", crlDistributionPointURL, file);
+            return CRLRevokedSerials.read(inputStream);
+        } catch (IOException e) {
+            LOG.warn("Could not read the saved CRL [{}] from [{}]", crlDistributionPointURL, file, e);
+            return null;
+        }
+    }
+
+    protected void writeRevokedSerials(String crlDistributionPointURL, CRLRevokedSerials revokedSerials) {
+        final Path file = getStoreFile(crlDistributionPointURL);
+        if (file == null) {
+            return;
+        }
+        Path tempFile = null;
+        try {
+            Files.createDirectories(file.getParent());
+            // the file is replaced at once, so that a server stopping meanwhile does not leave a partial file
+            tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                revokedSerials.write(outputStream);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Could not save the CRL [{}] to [{}]", crlDistributionPointURL, file, e);
+            deleteQuietly(tempFile);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.debug("Could not delete the file [{}]", file, e);
+        }
+    }
+
+    /**
+     * @return the file of the distribution point, or null if the CRLs are not saved on disk
+     */
+    protected Path getStoreFile(String crlDistributionPointURL) {
+        final String location = domibusPropertyProvider.getProperty(DOMIBUS_CERTIFICATE_CRL_STORE_LOCATION);
+        if (StringUtils.isBlank(location)) {
+            return null;
+        }
+        return Paths.get(location, DigestUtils.sha256Hex(crlDistributionPointURL) + FILE_EXTENSION);
+    }
+
+    protected long getRefreshInterval() {
+        return domibusPropertyProvider.getIntegerProperty(DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL) * 1000L;
+    }
+}
@@ -0,0 +1,152 @@
+package eu.domibus.pki;
+
+import javax.security.auth.x500.X500Principal;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.util.*;
+
+/**
+ * The serial numbers revoked by a CRL, kept sorted per certificate issuer instead of the whole parsed CRL, so that a
+ * certificate is looked up in O(log n).
+ *
+ * @author agent
+ * @since 4.1.5
+ */
+public class CRLRevokedSerials {
+
+    protected static final int FORMAT_VERSION = 1;
+
+    public static final long NO_NEXT_UPDATE = 0;
+
+    private final Map<X500Principal, BigInteger[]> serialsByIssuer;
+
+    private final long loaded;
+
+    private final long nextUpdate;
+
+    private volatile long nextRefresh;
+
+    protected CRLRevokedSerials(Map<X500Principal, BigInteger[]> serialsByIssuer, long loaded, long nextUpdate) {
+        this.serialsByIssuer = serialsByIssuer;
+        this.loaded = loaded;
+        this.nextUpdate = nextUpdate;
+    }
+
+    public static CRLRevokedSerials of(X509CRL crl, long loaded) {
+        final Map<X500Principal, List<BigInteger>> serials = new HashMap<>();
+        final Set<? extends X509CRLEntry> revokedCertificates = crl.getRevokedCertificates();
+        if (revokedCertificates != null) {
+            for (X509CRLEntry entry : revokedCertificates) {
+                // the entries of an indirect CRL may be issued by another CA than the CRL
+                final X500Principal issuer = entry.getCertificateIssuer() != null ? entry.getCertificateIssuer() : crl.getIssuerX500Principal();
+                serials.computeIfAbsent(issuer, key -> new ArrayList<>()).add(entry.getSerialNumber());
+            }
+        }
+
+        final Map<X500Principal, BigInteger[]> serialsByIssuer = new HashMap<>();
+        for (Map.Entry<X500Principal, List<BigInteger>> entry : serials.entrySet()) {
+            final BigInteger[] sortedSerials = entry.getValue().toArray(new BigInteger[0]);
+            Arrays.sort(sortedSerials);
+            serialsByIssuer.put(entry.getKey(), sortedSerials);
+        }
+        final long nextUpdate = crl.getNextUpdate() != null ? crl.getNextUpdate().getTime() : NO_NEXT_UPDATE;
+        return new CRLRevokedSerials(serialsByIssuer, loaded, nextUpdate);
+    }
+
+    public boolean isRevoked(X500Principal issuer, BigInteger serialNumber) {
+        final BigInteger[] serials = serialsByIssuer.get(issuer);
+        return serials != null && Arrays.binarySearch(serials, serialNumber) >= 0;
+    }
+
+    /**
+     * @return true if the CRL is not valid anymore and must not be used
+     */
+    public boolean isExpired(long now) {
+        return nextUpdate != NO_NEXT_UPDATE && now >= nextUpdate;
+    }
+
+    public boolean isRefreshDue(long now) {
+        return now >= nextRefresh;
+    }
+
+    /**
+     * Schedules the refresh after the given interval, and at the latest when three quarters of the validity of the CRL
+     * are gone, so that the refreshed CRL is downloaded before the next update.
+     */
+    public void scheduleRefresh(long now, long refreshInterval) {
+        long refresh = now + refreshInterval;
+        if (nextUpdate != NO_NEXT_UPDATE) {
+            refresh = Math.min(refresh, Math.max(now, loaded + (nextUpdate - loaded) * 3 / 4));
+        }
+        nextRefresh = refresh;
+    }
+
+    public long getLoaded() {
+        return loaded;
+    }
+
+    public long getNextUpdate() {
+        return nextUpdate;
+    }
+
+    public int size() {
+        return serialsByIssuer.values().stream().mapToInt(serials -> serials.length).sum();
+    }
+
+    public void write(DataOutputStream outputStream) throws IOException {
+        outputStream.writeInt(FORMAT_VERSION);
+        outputStream.writeLong(loaded);
+        outputStream.writeLong(nextUpdate);
+        outputStream.writeInt(serialsByIssuer.size());
+        for (Map.Entry<X500Principal, BigInteger[]> entry : serialsByIssuer.entrySet()) {
+            writeBytes(outputStream, entry.getKey() != null ? entry.getKey().getEncoded() : null);
+            outputStream.writeInt(entry.getValue().length);
+            for (BigInteger serial : entry.getValue()) {
+                writeBytes(outputStream, serial.toByteArray());
+            }
+        }
+    }
+
+    public static CRLRevokedSerials read(DataInputStream inputStream) throws IOException {
+        final int version = inputStream.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported revoked serials format version [" + version + "]");
+        }
+        final long loaded = inputStream.readLong();
+        final long nextUpdate = inputStream.readLong();
+        final int issuers = inputStream.readInt();
+        final Map<X500Principal, BigInteger[]> serialsByIssuer = new HashMap<>();
+        for (int i = 0; i < issuers; i++) {
+            final byte[] issuer = readBytes(inputStream);
+            final BigInteger[] serials = new BigInteger[inputStream.readInt()];
+            for (int j = 0; j < serials.length; j++) {
+                serials[j] = new BigInteger(readBytes(inputStream));
+            }
+            serialsByIssuer.put(issuer != null ? new X500Principal(issuer) : null, serials);
+        }
+        return new CRLRevokedSerials(serialsByIssuer, loaded, nextUpdate);
+    }
+
+    private static void writeBytes(DataOutputStream outputStream, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            outputStream.writeInt(-1);
+            return;
+        }
+        outputStream.writeInt(bytes.length);
+        outputStream.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream inputStream) throws IOException {
+        final int length = inputStream.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        inputStream.readFully(bytes);
+        return bytes;
+    }
+}
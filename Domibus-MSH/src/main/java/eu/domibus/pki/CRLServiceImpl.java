@@ -5,12 +5,10 @@ import eu.domibus.logging.DomibusLogger;
 import eu.domibus.logging.DomibusLoggerFactory;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.security.cert.X509CRL;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -29,6 +27,9 @@ public class CRLServiceImpl implements CRLService {
     @Autowired
     protected CRLUtil crlUtil;
 
+    @Autowired
+    protected CRLRevocationStore crlRevocationStore;
+
     @Autowired
     protected DomibusPropertyProvider domibusPropertyProvider;
 
@@ -92,11 +93,8 @@ public class CRLServiceImpl implements CRLService {
 
     @Override
     @Transactional(noRollbackFor = DomibusCRLException.class, propagation = Propagation.SUPPORTS)
-    @Cacheable(value = "crlByCert", key = "{#cert.issuerX500Principal.getName(), #cert.serialNumber}")
     public boolean isCertificateRevoked(X509Certificate cert, String crlDistributionPointURL) {
-        X509CRL crl = crlUtil.downloadCRL(crlDistributionPointURL);
-        LOG.debug("Downloaded CRL is [{}]", crl.getIssuerDN().getName());
-        if (crl.isRevoked(cert)) {
+        if (crlRevocationStore.isRevoked(cert, crlDistributionPointURL)) {
             LOG.warn("The certificate is revoked by CRL: " + crlDistributionPointURL);
             return true;
         }
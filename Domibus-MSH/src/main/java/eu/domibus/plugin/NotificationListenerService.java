@@ -11,6 +11,7 @@ import eu.domibus.api.security.AuthRole;
 import eu.domibus.api.security.AuthUtils;
 import eu.domibus.common.*;
 import eu.domibus.common.exception.ConfigurationException;
+import eu.domibus.core.message.pending.PendingDownloadService;
 import eu.domibus.logging.DomibusLogger;
 import eu.domibus.logging.DomibusLoggerFactory;
 import eu.domibus.logging.DomibusMessageCode;
@@ -68,6 +69,9 @@ public class NotificationListenerService implements MessageListener, JmsListener
     @Autowired
     protected DomainContextProvider domainContextProvider;
 
+    @Autowired
+    protected PendingDownloadService pendingDownloadService;
+
     private Queue backendNotificationQueue;
     private BackendConnector.Mode mode;
     private BackendConnector backendConnector;
@@ -200,10 +204,35 @@ public class NotificationListenerService implements MessageListener, JmsListener
         return getQueueElements(NotificationType.MESSAGE_RECEIVED, originalUser);
     }
 
+    /**
+     * Lists a page of the messages pending for download from the database index, without browsing the notification queue.
+     * Falls back to {@link #listPendingMessages()} when the index is not active.
+     */
+    @Override
+    public Collection<String> listPendingMessages(int pageStart, int pageSize) {
+        if (!pendingDownloadService.isActive()) {
+            return MessageLister.super.listPendingMessages(pageStart, pageSize);
+        }
+        if (this.mode == BackendConnector.Mode.PUSH) {
+            throw new UnsupportedOperationException("this method is only available for clients using Mode.PULL");
+        }
+        if (!authUtils.isUnsecureLoginAllowed())
+            authUtils.hasUserOrAdminRole();
+
+        String originalUser = authUtils.getOriginalUserFromSecurityContext();
+        LOG.info("Authorized as " + (originalUser == null ? "super user" : originalUser));
+
+        return pendingDownloadService.findPendingMessageIds(getBackendName(), originalUser, pageStart, pageSize);
+    }
+
     private Collection<String> getQueueElements(final NotificationType notificationType, final String finalRecipient) {
         if (this.mode == BackendConnector.Mode.PUSH) {
             throw new UnsupportedOperationException("this method is only available for clients using Mode.PULL");
         }
+        if (notificationType == NotificationType.MESSAGE_RECEIVED && pendingDownloadService.isActive()) {
+            final int maxCount = domibusPropertyProvider.getIntegerProperty(PROP_LIST_PENDING_MESSAGES_MAXCOUNT);
+            return pendingDownloadService.findPendingMessageIds(getBackendName(), finalRecipient, 0, maxCount);
+        }
         final Collection<String> result = browseQueue(notificationType, finalRecipient);
         return result;
     }
@@ -276,10 +305,25 @@ public class NotificationListenerService implements MessageListener, JmsListener
             LOG.businessError(DomibusMessageCode.BUS_MSG_NOT_FOUND, messageId);
             throw new MessageNotFoundException("No message with id [" + messageId + "] pending for download");
         }
+        pendingDownloadService.removePendingDownload(getBackendName(), messageId);
         LOG.businessInfo(DomibusMessageCode.BUS_MSG_CONSUMED, messageId, queueName);
 
     }
 
+    @Override
+    public void deleteMessageCallback(String messageId) {
+        if (this.mode == BackendConnector.Mode.PULL) {
+            pendingDownloadService.removePendingDownload(getBackendName(), messageId);
+        }
+    }
+
+    @Override
+    public void deleteMessagesCallback(List<String> messageIds) {
+        if (this.mode == BackendConnector.Mode.PULL) {
+            pendingDownloadService.removePendingDownloads(getBackendName(), messageIds);
+        }
+    }
+
 
     @Override
     public void configureJmsListeners(final JmsListenerEndpointRegistrar registrar) {
@@ -18,6 +18,7 @@ import eu.domibus.common.model.configuration.Mpc;
 import eu.domibus.common.model.configuration.Party;
 import eu.domibus.common.model.logging.ErrorLogEntry;
 import eu.domibus.common.model.logging.UserMessageLog;
+import eu.domibus.common.services.ErrorService;
 import eu.domibus.common.services.MessageExchangeService;
 import eu.domibus.common.services.MessagingService;
 import eu.domibus.common.services.impl.MessageIdGenerator;
@@ -50,9 +51,7 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.NoResultException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  * This class is responsible of handling the plugins requests for all the operations exposed.
@@ -103,6 +102,9 @@ public class DatabaseMessageHandler implements MessageSubmitter, MessageRetrieve
     @Autowired
     private ErrorLogDao errorLogDao;
 
+    @Autowired
+    private ErrorService errorService;
+
     @Autowired
     private PModeProvider pModeProvider;
 
@@ -161,7 +163,7 @@ public class DatabaseMessageHandler implements MessageSubmitter, MessageRetrieve
 
         // Deleting the message and signal message if the retention download is zero and the payload is not stored on the file system.
         if (userMessage != null && 0 == pModeProvider.getRetentionDownloadedByMpcURI(userMessage.getMpc()) && !userMessage.isPayloadOnFileSystem()) {
-            messagingDao.clearPayloadData(messageId);
+            userMessageService.clearPayloadData(messageId);
             List<SignalMessage> signalMessages = signalMessageDao.findSignalMessagesByRefMessageId(messageId);
             if (!signalMessages.isEmpty()) {
                 for (SignalMessage signalMessage : signalMessages) {
@@ -282,6 +284,32 @@ public class DatabaseMessageHandler implements MessageSubmitter, MessageRetrieve
         return userMessageLogDao.getMessageStatus(messageId);
     }
 
+    /**
+     * Gets the statuses of the messages with one query per thousand messages. The messages which cannot be accessed
+     * by the authenticated original user are reported as not found.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, MessageStatus> getStatuses(final List<String> messageIds) {
+        if (!authUtils.isUnsecureLoginAllowed()) {
+            authUtils.hasUserOrAdminRole();
+        }
+
+        final Map<String, MessageStatus> statuses = userMessageLogDao.findMessageStatuses(messageIds);
+        final String originalUser = authUtils.getOriginalUserFromSecurityContext();
+        if (originalUser != null && !statuses.isEmpty()) {
+            final List<String> recipients = Arrays.asList(MessageConstants.ORIGINAL_SENDER, MessageConstants.FINAL_RECIPIENT);
+            final Map<String, List<String>> originalUsers = messagingDao.findMessagePropertyValues(new ArrayList<>(statuses.keySet()), recipients);
+            statuses.keySet().removeIf(messageId -> originalUsers.getOrDefault(messageId, Collections.emptyList()).stream().noneMatch(originalUser::equalsIgnoreCase));
+        }
+
+        final Map<String, MessageStatus> result = new LinkedHashMap<>();
+        for (String messageId : messageIds) {
+            result.put(messageId, statuses.getOrDefault(messageId, MessageStatus.NOT_FOUND));
+        }
+        return result;
+    }
+
     @Override
     public List<? extends ErrorResult> getErrorsForMessage(final String messageId) {
         validateAccessToStatusAndErrors(messageId);
@@ -338,7 +366,7 @@ public class DatabaseMessageHandler implements MessageSubmitter, MessageRetrieve
             userMessageLogService.save(messageId, messageStatus.toString(), pModeDefaultService.getNotificationStatus(legConfiguration).toString(),
                     MSHRole.SENDING.toString(), getMaxAttempts(legConfiguration), message.getUserMessage().getMpc(),
                     backendName, to.getEndpoint(), userMessage.getCollaborationInfo().getService().getValue(), userMessage.getCollaborationInfo().getAction(), null, true);
-            prepareForPushOrPull(userMessage, messageId, pModeKey, to, messageStatus);
+            prepareForPushOrPull(userMessage, messageId, pModeKey, to, messageStatus, null);
 
 
             uiReplicationSignalService.userMessageSubmitted(userMessage.getMessageInfo().getMessageId());
@@ -357,8 +385,10 @@ public class DatabaseMessageHandler implements MessageSubmitter, MessageRetrieve
         }
     }
 
-    private void prepareForPushOrPull(UserMessage userMessage, String messageId, String pModeKey, Party to, MessageStatus messageStatus) {
-        if (MessageStatus.READY_TO_PULL != messageStatus) {
+    private void prepareForPushOrPull(UserMessage userMessage, String messageId, String pModeKey, Party to, MessageStatus messageStatus, Map<Boolean, List<String>> messagesToSend) {
+        if (MessageStatus.READY_TO_PULL != messageStatus && messagesToSend != null) {
+            messagesToSend.computeIfAbsent(userMessage.isSplitAndJoin(), splitAndJoin -> new ArrayList<>()).add(messageId);
+        } else if (MessageStatus.READY_TO_PULL != messageStatus) {
             // Sends message to the proper queue if not a message to be pulled.
             userMessageService.scheduleSending(messageId, userMessage.isSplitAndJoin());
         } else {
@@ -378,6 +408,48 @@ public class DatabaseMessageHandler implements MessageSubmitter, MessageRetrieve
             LOG.putMDC(DomibusLogger.MDC_MESSAGE_ID, messageData.getMessageId());
         }
         LOG.debug("Preparing to submit message");
+        final String originalUser = authorizeSubmitter();
+        final UserMessage userMessage = transformSubmission(messageData, originalUser);
+        return submitUserMessage(messageData, userMessage, backendName, true, null);
+    }
+
+    /**
+     * Submits several messages in one transaction: the submitter is authorized once, the message identifiers are
+     * checked for duplicates with one query and the messages to be pushed are scheduled for sending together once
+     * all of them are stored. If one message is rejected none of them is submitted.
+     * <p>
+     * The messages are still stored one by one: their inserts are not grouped in JDBC batches.
+     * <p>
+     * The batch is stored in its own transaction so that a rejected batch does not roll back the transaction of the
+     * caller, which can still report the error (e.g. with a JMS reply message).
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = MessagingProcessingException.class)
+    @MDCKey(DomibusLogger.MDC_MESSAGE_ID)
+    public List<String> submitBatch(final List<Submission> messagesData, final String backendName) throws MessagingProcessingException {
+        LOG.debug("Preparing to submit a batch of [{}] messages", messagesData.size());
+        final String originalUser = authorizeSubmitter();
+
+        final List<UserMessage> userMessages = new ArrayList<>();
+        for (Submission messageData : messagesData) {
+            userMessages.add(transformSubmission(messageData, originalUser));
+        }
+        checkDuplicateMessageIds(userMessages);
+
+        final Map<Boolean, List<String>> messagesToSend = new HashMap<>();
+        final List<String> messageIds = new ArrayList<>();
+        for (int i = 0; i < messagesData.size(); i++) {
+            messageIds.add(submitUserMessage(messagesData.get(i), userMessages.get(i), backendName, false, messagesToSend));
+        }
+        for (Map.Entry<Boolean, List<String>> entry : messagesToSend.entrySet()) {
+            userMessageService.scheduleSending(entry.getValue(), entry.getKey());
+        }
+
+        LOG.info("Batch of [{}] messages submitted", messageIds.size());
+        return messageIds;
+    }
+
+    protected String authorizeSubmitter() {
         if (!authUtils.isUnsecureLoginAllowed()) {
             authUtils.hasUserOrAdminRole();
         }
@@ -385,7 +457,10 @@ public class DatabaseMessageHandler implements MessageSubmitter, MessageRetrieve
         String originalUser = authUtils.getOriginalUserFromSecurityContext();
         String displayUser = originalUser == null ? "super user" : originalUser;
         LOG.debug("Authorized as [{}]", displayUser);
+        return originalUser;
+    }
 
+    protected UserMessage transformSubmission(final Submission messageData, final String originalUser) throws MessageNotFoundException {
         UserMessage userMessage = transformer.transformFromSubmission(messageData);
 
         if (userMessage == null) {
@@ -394,7 +469,36 @@ public class DatabaseMessageHandler implements MessageSubmitter, MessageRetrieve
         }
 
         validateOriginalUser(userMessage, originalUser, MessageConstants.ORIGINAL_SENDER);
+        return userMessage;
+    }
 
+    /**
+     * Checks that the message identifiers set from the outside are unique in the batch and not used by existing messages
+     */
+    protected void checkDuplicateMessageIds(final List<UserMessage> userMessages) throws DuplicateMessageException {
+        final Set<String> messageIds = new LinkedHashSet<>();
+        for (UserMessage userMessage : userMessages) {
+            final String messageId = userMessage.getMessageInfo().getMessageId();
+            if (messageId != null && !messageIds.add(messageId)) {
+                throw new DuplicateMessageException(MESSAGE_WITH_ID_STR + messageId + "] is submitted several times. Message identifiers must be unique");
+            }
+        }
+        if (messageIds.isEmpty()) {
+            return;
+        }
+        final List<String> existingMessageIds = userMessageLogDao.findExistingMessageIds(new ArrayList<>(messageIds));
+        if (!existingMessageIds.isEmpty()) {
+            throw new DuplicateMessageException(MESSAGE_WITH_ID_STR + existingMessageIds.get(0) + "] already exists. Message identifiers must be unique");
+        }
+    }
+
+    /**
+     * @param checkDuplicate false if the message identifier has already been checked for duplicates
+     * @param messagesToSend if not null, the messages to be pushed are added to it, indexed by their split and join flag,
+     *                       instead of being scheduled for sending
+     */
+    protected String submitUserMessage(final Submission messageData, final UserMessage userMessage, final String backendName,
+                                       boolean checkDuplicate, Map<Boolean, List<String>> messagesToSend) throws MessagingProcessingException {
         try {
             // MessageInfo is always initialized in the get method
             MessageInfo messageInfo = userMessage.getMessageInfo();
@@ -413,7 +517,7 @@ public class DatabaseMessageHandler implements MessageSubmitter, MessageRetrieve
                 backendMessageValidator.validateRefToMessageId(refToMessageId);
             }
             // handle if the messageId is unique. This should only fail if the ID is set from the outside
-            if (!MessageStatus.NOT_FOUND.equals(userMessageLogDao.getMessageStatus(messageId))) {
+            if (checkDuplicate && !MessageStatus.NOT_FOUND.equals(userMessageLogDao.getMessageStatus(messageId))) {
                 throw new DuplicateMessageException(MESSAGE_WITH_ID_STR + messageId + "] already exists. Message identifiers must be unique");
             }
 
@@ -475,7 +579,7 @@ public class DatabaseMessageHandler implements MessageSubmitter, MessageRetrieve
                     backendName, to.getEndpoint(), messageData.getService(), messageData.getAction(), sourceMessage, null);
 
             if (!sourceMessage) {
-                prepareForPushOrPull(userMessage, messageId, pModeKey, to, messageStatus);
+                prepareForPushOrPull(userMessage, messageId, pModeKey, to, messageStatus, messagesToSend);
             }
 
             uiReplicationSignalService.userMessageSubmitted(userMessage.getMessageInfo().getMessageId());
@@ -485,15 +589,26 @@ public class DatabaseMessageHandler implements MessageSubmitter, MessageRetrieve
 
         } catch (EbMS3Exception ebms3Ex) {
             LOG.error(ERROR_SUBMITTING_THE_MESSAGE_STR + userMessage.getMessageInfo().getMessageId() + TO_STR + backendName + "]", ebms3Ex);
-            errorLogDao.create(new ErrorLogEntry(ebms3Ex));
+            createErrorLog(new ErrorLogEntry(ebms3Ex), messagesToSend != null);
             throw MessagingExceptionFactory.transform(ebms3Ex);
         } catch (PModeException p) {
             LOG.error(ERROR_SUBMITTING_THE_MESSAGE_STR + userMessage.getMessageInfo().getMessageId() + TO_STR + backendName + "]" + p.getMessage(), p);
-            errorLogDao.create(new ErrorLogEntry(MSHRole.SENDING, userMessage.getMessageInfo().getMessageId(), ErrorCode.EBMS_0010, p.getMessage()));
+            createErrorLog(new ErrorLogEntry(MSHRole.SENDING, userMessage.getMessageInfo().getMessageId(), ErrorCode.EBMS_0010, p.getMessage()), messagesToSend != null);
             throw new PModeMismatchException(p.getMessage(), p);
         }
     }
 
+    /**
+     * @param batch true if the message is part of a batch, whose transaction is rolled back: the error is then saved in a new transaction
+     */
+    protected void createErrorLog(ErrorLogEntry errorLogEntry, boolean batch) {
+        if (batch) {
+            errorService.createErrorLog(errorLogEntry);
+            return;
+        }
+        errorLogDao.create(errorLogEntry);
+    }
+
     @Override
     @Transactional
     public void initiatePull(String mpc) {
@@ -42,8 +42,7 @@ public class ActionRoutingCriteriaFactory implements CriteriaFactory {
 
         @Override
         public boolean matches(final UserMessage userMessage, final String expression) {
-            setExpression(expression);
-            return super.matches(userMessage.getCollaborationInfo().getAction());
+            return matches(userMessage.getCollaborationInfo().getAction(), expression);
         }
     }
 }
\ No newline at end of file
@@ -44,9 +44,8 @@ public class FromRoutingCriteriaFactory implements CriteriaFactory {
 
         @Override
         public boolean matches(final UserMessage userMessage, final String expression) {
-            setExpression(expression);
             for (final PartyId partyId : userMessage.getPartyInfo().getFrom().getPartyId()) {
-                if (matches(partyId.getValue() + ":" + partyId.getType())) {
+                if (matches(partyId.getValue() + ":" + partyId.getType(), expression)) {
                     return true;
                 }
             }
@@ -9,7 +9,8 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Table;
 import javax.persistence.Transient;
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -29,7 +30,7 @@ public class RoutingCriteriaEntity extends AbstractBaseEntity implements IRoutin
     @Column(name = "EXPRESSION")
     private String expression;
     @Transient
-    private HashMap<String, Pattern> patternHashMap;
+    private final Map<String, Pattern> patternHashMap = new ConcurrentHashMap<>();
     @Transient
     private String tooltip;
     @Transient
@@ -46,7 +47,6 @@ public class RoutingCriteriaEntity extends AbstractBaseEntity implements IRoutin
         this.name = name;
         this.tooltip = tooltip;
         this.inputPattern = inputPattern;
-        patternHashMap = new HashMap<>();
     }
 
     public RoutingCriteriaEntity() {
@@ -83,18 +83,22 @@ public class RoutingCriteriaEntity extends AbstractBaseEntity implements IRoutin
     }
 
     private Pattern getPattern(final String expression) {
-        if (patternHashMap.containsKey(expression)) {
-            return patternHashMap.get(expression);
-        } else {
-            final Pattern pattern = Pattern.compile(expression);
-            patternHashMap.put(expression, pattern);
-            return pattern;
-        }
-
+        return patternHashMap.computeIfAbsent(expression, Pattern::compile);
     }
 
     public boolean matches(final String candidate) {
+        return matches(candidate, expression);
+    }
 
+    /**
+     * Matches the candidate against the given expression without changing the state of this criteria, so the same
+     * instance can be used concurrently. The expression is compiled only once.
+     *
+     * @param candidate the value extracted from the user message
+     * @param expression the regular expression to match
+     * @return result
+     */
+    protected boolean matches(final String candidate, final String expression) {
         final Matcher m = getPattern(expression).matcher(candidate);
         return m.matches();
     }
@@ -1,5 +1,8 @@
 package eu.domibus.plugin.routing;
 
+import eu.domibus.api.cluster.SignalService;
+import eu.domibus.api.multitenancy.Domain;
+import eu.domibus.api.multitenancy.DomainContextProvider;
 import eu.domibus.api.routing.BackendFilter;
 import eu.domibus.api.routing.RoutingCriteria;
 import eu.domibus.common.exception.ConfigurationException;
@@ -15,7 +18,10 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Christian Walczac
@@ -33,6 +39,17 @@ public class RoutingService {
     @Autowired
     private DomainCoreConverter coreConverter;
 
+    @Autowired
+    protected DomainContextProvider domainContextProvider;
+
+    @Autowired
+    protected SignalService signalService;
+
+    /**
+     * The persisted backend filters of each domain, used when routing the incoming messages
+     */
+    protected final Map<Domain, List<BackendFilter>> routingBackendFilters = new ConcurrentHashMap<>();
+
     /**
      * Returns the configured backend filters present in the classpath
      *
@@ -64,6 +81,32 @@ public class RoutingService {
         return coreConverter.convert(filters, BackendFilter.class);
     }
 
+    /**
+     * Returns the backend filters persisted for the current domain, in the order in which they are evaluated.
+     * The filters are read from the database once and kept until they are updated on this server or on another
+     * server of the cluster.
+     *
+     * @return The persisted backend filters of the current domain; the list is not modifiable
+     */
+    public List<BackendFilter> getRoutingBackendFilters() {
+        final Domain currentDomain = domainContextProvider.getCurrentDomain();
+        return routingBackendFilters.computeIfAbsent(currentDomain, domain -> getRoutingBackendFiltersUncached());
+    }
+
+    protected List<BackendFilter> getRoutingBackendFiltersUncached() {
+        LOG.debug("Loading the backend filters used for routing");
+        final List<BackendFilterEntity> backendFilterEntities = backendFilterDao.findAll();
+        return Collections.unmodifiableList(coreConverter.convert(backendFilterEntities, BackendFilter.class));
+    }
+
+    /**
+     * Drops the backend filters used for routing so that they are read again from the database on the next message
+     */
+    public void invalidateRoutingBackendFilters() {
+        LOG.debug("Invalidating the backend filters used for routing");
+        routingBackendFilters.clear();
+    }
+
     @CacheEvict(value = "backendFilterCache", allEntries = true)
     @PreAuthorize("hasAnyRole('ROLE_ADMIN','ROLE_AP_ADMIN')")
     public void updateBackendFilters(final List<BackendFilter> filters) {
@@ -75,6 +118,9 @@ public class RoutingService {
         List<BackendFilterEntity> backendFilterEntityListToDelete = backendFiltersToDelete(allBackendFilterEntities, backendFilterEntities);
         backendFilterDao.deleteAll(backendFilterEntityListToDelete);
         backendFilterDao.update(backendFilterEntities);
+
+        invalidateRoutingBackendFilters();
+        signalService.signalMessageFiltersUpdated();
     }
 
     protected void validateFilters(List<BackendFilter> filters) {
@@ -43,9 +43,8 @@ public class ServiceRoutingCriteriaFactory implements CriteriaFactory {
 
         @Override
         public boolean matches(final UserMessage userMessage, final String expression) {
-            setExpression(expression);
             final Service service = userMessage.getCollaborationInfo().getService();
-            return matches(service.getValue() + ":" + service.getType());
+            return matches(service.getValue() + ":" + service.getType(), expression);
         }
 
     }
@@ -42,9 +42,8 @@ public class ToRoutingCriteriaFactory implements CriteriaFactory {
 
         @Override
         public boolean matches(final UserMessage userMessage, final String expression) {
-            setExpression(expression);
             for (final PartyId partyId : userMessage.getPartyInfo().getTo().getPartyId()) {
-                if (matches(partyId.getValue() + ":" + partyId.getType())) {
+                if (matches(partyId.getValue() + ":" + partyId.getType(), expression)) {
                     return true;
                 }
             }
@@ -10,6 +10,7 @@ import eu.domibus.core.alerts.job.AlertCleanerSuperJob;
 import eu.domibus.core.alerts.job.AlertRetryJob;
 import eu.domibus.core.alerts.job.AlertRetrySuperJob;
 import eu.domibus.core.message.fragment.SplitAndJoinExpirationWorker;
+import eu.domibus.core.payload.purge.PayloadPurgeJob;
 import eu.domibus.core.payload.temp.TemporaryPayloadCleanerJob;
 import eu.domibus.core.pull.PullRetryWorker;
 import eu.domibus.ebms3.common.quartz.AutowiringSpringBeanJobFactory;
@@ -291,6 +292,27 @@ public class DomainSchedulerFactoryConfiguration {
         return obj;
     }
 
+    @Bean
+    public JobDetailFactoryBean payloadPurgeJob() {
+        JobDetailFactoryBean obj = new JobDetailFactoryBean();
+        obj.setJobClass(PayloadPurgeJob.class);
+        obj.setDurability(true);
+        return obj;
+    }
+
+    @Bean
+    @Scope(BeanDefinition.SCOPE_PROTOTYPE)
+    public CronTriggerFactoryBean payloadPurgeTrigger() {
+        if (domainContextProvider.getCurrentDomainSafely() == null) {
+            return null;
+        }
+        CronTriggerFactoryBean obj = new CronTriggerFactoryBean();
+        obj.setJobDetail(payloadPurgeJob().getObject());
+        obj.setCronExpression(domibusPropertyProvider.getDomainProperty(DOMIBUS_PAYLOAD_PURGE_CRON));
+        obj.setStartDelay(20000);
+        return obj;
+    }
+
     @Bean
     public JobDetailFactoryBean splitAndJoinExpirationJob() {
         JobDetailFactoryBean obj = new JobDetailFactoryBean();
@@ -15,16 +15,19 @@ import eu.domibus.logging.DomibusLoggerFactory;
 import eu.domibus.web.rest.ro.AuditFilterRequestRO;
 import eu.domibus.web.rest.ro.AuditResponseRo;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Thomas Dussart
@@ -135,16 +138,26 @@ public class AuditResource extends BaseResource {
      * @return CSV file with the contents of Audit table
      */
     @GetMapping(path = "/csv")
-    public ResponseEntity<String> getCsv(@Valid AuditFilterRequestRO auditCriteria) {
-        auditCriteria.setStart(0);
-        auditCriteria.setMax(csvServiceImpl.getMaxNumberRowsToExport());
-        final List<AuditResponseRo> auditResponseRos = listAudits(auditCriteria);
-
-        return exportToCSV(auditResponseRos,
+    public void getCsv(@Valid AuditFilterRequestRO auditCriteria, HttpServletResponse response) throws IOException {
+        final Supplier<Stream<AuditResponseRo>> auditResponseRos = () -> auditService.streamAudit(
+                auditCriteria.getAuditTargetName(),
+                changeActionType(auditCriteria.getAction()),
+                auditCriteria.getUser(),
+                auditCriteria.getFrom(),
+                auditCriteria.getTo(),
+                csvServiceImpl.getMaxNumberRowsToExport())
+                .map(auditLog -> {
+                    AuditResponseRo entry = domainConverter.convert(auditLog, AuditResponseRo.class);
+                    entry.setAction(getActionTypeLabelFromCode(entry.getAction()));
+                    return entry;
+                });
+
+        exportToCSV(auditResponseRos,
                 AuditResponseRo.class,
                 CsvCustomColumns.AUDIT_RESOURCE.getCustomColumns(),
                 CsvExcludedItems.AUDIT_RESOURCE.getExcludedItems(),
-                "audit");
+                "audit",
+                response);
     }
 
     @Override
@@ -7,8 +7,12 @@ import eu.domibus.logging.DomibusLoggerFactory;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Groups all common REST Resource code
@@ -49,5 +53,37 @@ public abstract class BaseResource {
                 .body(resultText);
     }
 
+    /**
+     * exports to CSV, writing the rows to the response while they are read from the database
+     * <p>
+     * No content length is set so the CSV is sent in chunks. The rows are opened and read in the transaction of the
+     * CSV service, as the controllers are not transactional.
+     *
+     * @param rows
+     * @param tClass
+     * @param customColumnNames
+     * @param excludedColumns
+     * @param moduleName
+     * @param response
+     * @throws IOException
+     */
+    protected void exportToCSV(Supplier<? extends Stream<?>> rows, Class tClass,
+                               final Map<String, String> customColumnNames,
+                               List<String> excludedColumns,
+                               final String moduleName,
+                               HttpServletResponse response) throws IOException {
+        response.setContentType(CsvService.APPLICATION_EXCEL_STR);
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + getCsvService().getCsvFilename(moduleName) + "\"");
+        try {
+            getCsvService().exportToCSV(rows, tClass, customColumnNames, excludedColumns, response.getWriter());
+        } catch (CsvException e) {
+            LOG.error("Exception caught during export to CSV", e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+            }
+        }
+    }
+
     public abstract CsvService getCsvService();
 }
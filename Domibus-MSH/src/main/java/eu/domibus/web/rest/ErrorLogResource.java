@@ -16,16 +16,19 @@ import eu.domibus.web.rest.ro.ErrorLogFilterRequestRO;
 import eu.domibus.web.rest.ro.ErrorLogRO;
 import eu.domibus.web.rest.ro.ErrorLogResultRO;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * @author Cosmin Baciu
@@ -80,21 +83,19 @@ public class ErrorLogResource extends BaseResource {
      * @return CSV file with the contents of Error Log table
      */
     @GetMapping(path = "/csv")
-    public ResponseEntity<String> getCsv(@Valid ErrorLogFilterRequestRO request) {
-        ErrorLogResultRO result = new ErrorLogResultRO();
-
+    public void getCsv(@Valid ErrorLogFilterRequestRO request, HttpServletResponse response) throws IOException {
         HashMap<String, Object> filters = createFilterMap(request);
-        result.setFilter(filters);
 
-        final List<ErrorLogEntry> errorLogEntries = errorLogDao.findPaged(0, errorLogCsvServiceImpl.getMaxNumberRowsToExport(),
-                request.getOrderBy(), request.getAsc(), filters);
-        final List<ErrorLogRO> errorLogROList = domainConverter.convert(errorLogEntries, ErrorLogRO.class);
+        final Supplier<Stream<ErrorLogRO>> errorLogROs = () -> errorLogDao.streamAll(errorLogCsvServiceImpl.getMaxNumberRowsToExport(),
+                request.getOrderBy(), request.getAsc(), filters)
+                .map(errorLogEntry -> domainConverter.convert(errorLogEntry, ErrorLogRO.class));
 
-        return exportToCSV(errorLogROList,
+        exportToCSV(errorLogROs,
                 ErrorLogRO.class,
                 CsvCustomColumns.ERRORLOG_RESOURCE.getCustomColumns(),
                 new ArrayList<>(),
-                "errorlog");
+                "errorlog",
+                response);
     }
 
     @Override
@@ -33,12 +33,15 @@ import org.springframework.web.bind.annotation.RestController;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.NoResultException;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * @author Tiago Miguel, Catalin Enache
@@ -53,6 +56,7 @@ public class MessageLogResource extends BaseResource {
 
     private static final String RECEIVED_FROM_STR = "receivedFrom";
     private static final String RECEIVED_TO_STR = "receivedTo";
+    private static final String RECEIVED_STR = "received";
 
     @Autowired
     private UserMessageLogDao userMessageLogDao;
@@ -116,7 +120,10 @@ public class MessageLogResource extends BaseResource {
         LOG.debug("using filters [{}]", filters);
 
         MessageLogResultRO result;
-        if (uiReplicationSignalService.isReplicationEnabled()) {
+        if (uiReplicationSignalService.isReplicationEnabled() && isKeysetPagination(request)) {
+            /** seek the page following the cursor in TB_MESSAGE_UI instead of skipping the previous pages */
+            result = uiMessageService.countAndFindNextPage(request.getCursor(), request.getPageSize(), request.getAsc(), filters);
+        } else if (uiReplicationSignalService.isReplicationEnabled()) {
             /** use TB_MESSAGE_UI table instead */
             result = uiMessageService.countAndFindPaged(request.getPageSize() * request.getPage(), request.getPageSize(),
                     request.getOrderBy(), request.getAsc(), filters);
@@ -149,7 +156,7 @@ public class MessageLogResource extends BaseResource {
      * @return CSV file with the contents of Messages table
      */
     @GetMapping(path = "/csv")
-    public ResponseEntity<String> getCsv(@Valid MessageLogFilterRequestRO request) {
+    public void getCsv(@Valid MessageLogFilterRequestRO request, HttpServletResponse response) throws IOException {
         HashMap<String, Object> filters = createFilterMap(request);
 
         filters.put(RECEIVED_FROM_STR, dateUtil.fromString(request.getReceivedFrom()));
@@ -158,19 +165,20 @@ public class MessageLogResource extends BaseResource {
 
         int maxNumberRowsToExport = csvServiceImpl.getMaxNumberRowsToExport();
 
-        List<MessageLogInfo> resultList;
+        Supplier<Stream<MessageLogInfo>> rows;
         if (uiReplicationSignalService.isReplicationEnabled()) {
             /** use TB_MESSAGE_UI table instead */
-            resultList = uiMessageService.findPaged(0, maxNumberRowsToExport, request.getOrderBy(), request.getAsc(), filters);
+            rows = () -> uiMessageService.streamAll(maxNumberRowsToExport, request.getOrderBy(), request.getAsc(), filters);
         } else {
-            resultList = messagesLogService.findAllInfoCSV(request.getMessageType(), maxNumberRowsToExport, request.getOrderBy(), request.getAsc(), filters);
+            rows = () -> messagesLogService.streamAllInfoCSV(request.getMessageType(), maxNumberRowsToExport, request.getOrderBy(), request.getAsc(), filters);
         }
 
-        return exportToCSV(resultList,
+        exportToCSV(rows,
                 MessageLogInfo.class,
                 CsvCustomColumns.MESSAGE_RESOURCE.getCustomColumns(),
                 CsvExcludedItems.MESSAGE_LOG_RESOURCE.getExcludedItems(),
-                "messages");
+                "messages",
+                response);
     }
 
     @GetMapping(value = "test/outgoing/latest")
@@ -233,6 +241,17 @@ public class MessageLogResource extends BaseResource {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * The pages ordered by received date are sought with a cursor when the client asks for it by sending a cursor,
+     * empty for the first page; the other clients keep the page numbers and the exact count
+     */
+    protected boolean isKeysetPagination(MessageLogFilterRequestRO request) {
+        if (request.getOrderBy() != null && !RECEIVED_STR.equals(request.getOrderBy())) {
+            return false;
+        }
+        return request.getCursor() != null;
+    }
+
     private HashMap<String, Object> createFilterMap(MessageLogFilterRequestRO request) {
         HashMap<String, Object> filters = new HashMap<>();
         filters.put("messageId", request.getMessageId());
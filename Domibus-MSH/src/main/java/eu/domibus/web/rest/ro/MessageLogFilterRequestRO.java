@@ -32,6 +32,11 @@ public class MessageLogFilterRequestRO implements Serializable {
     private String receivedFrom;
     private String receivedTo;
     private MessageSubtype messageSubtype;
+    /**
+     * the nextCursor of the previous page, or empty for the first page; when set, the page following it is returned
+     * instead of the page number and the count is capped at {@code domibus.ui.replication.search.count.max}
+     */
+    private String cursor;
 
     public int getPage() {
         return page;
@@ -176,4 +181,12 @@ public class MessageLogFilterRequestRO implements Serializable {
     public void setReceivedTo(String receivedTo) {
         this.receivedTo = receivedTo;
     }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
 }
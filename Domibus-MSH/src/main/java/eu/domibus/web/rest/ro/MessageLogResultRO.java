@@ -25,8 +25,10 @@ public class MessageLogResultRO implements Serializable {
     private NotificationStatus[] notifStatus;
 
     private Long count;
+    private boolean countCapped;
     private Integer page;
     private Integer pageSize;
+    private String nextCursor;
 
     public Map<String, Object> getFilter() {
         return filter;
@@ -84,6 +86,17 @@ public class MessageLogResultRO implements Serializable {
         this.count = count;
     }
 
+    /**
+     * @return true if the count stopped at the maximum and more messages match the filters
+     */
+    public boolean isCountCapped() {
+        return countCapped;
+    }
+
+    public void setCountCapped(boolean countCapped) {
+        this.countCapped = countCapped;
+    }
+
     public Integer getPage() {
         return page;
     }
@@ -99,4 +112,12 @@ public class MessageLogResultRO implements Serializable {
     public void setPageSize(Integer pageSize) {
         this.pageSize = pageSize;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
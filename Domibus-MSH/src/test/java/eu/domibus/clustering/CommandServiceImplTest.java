@@ -9,6 +9,7 @@ import eu.domibus.core.converter.DomainCoreConverter;
 import eu.domibus.core.crypto.api.MultiDomainCryptoService;
 import eu.domibus.core.logging.LoggingService;
 import eu.domibus.core.pmode.PModeProvider;
+import eu.domibus.plugin.routing.RoutingService;
 import mockit.Expectations;
 import mockit.Injectable;
 import mockit.Tested;
@@ -57,6 +58,9 @@ public class CommandServiceImplTest {
     @Injectable
     private List<DomibusPropertyManager> domibusPropertyManagers;
 
+    @Injectable
+    private RoutingService routingService;
+
     @Tested
     private CommandServiceImpl commandService;
 
@@ -123,6 +127,15 @@ public class CommandServiceImplTest {
         }};
     }
 
+    @Test
+    public void testExecuteMessageFilterUpdateCommand() {
+        commandService.executeCommand(Command.MESSAGE_FILTER_UPDATE, DomainService.DEFAULT_DOMAIN, null);
+
+        new Verifications() {{
+            routingService.invalidateRoutingBackendFilters();
+        }};
+    }
+
     @Test
     public void testExecuteSetLoggingLevelCommand() {
         final Map<String, String> commandProperties = new HashMap<>();
@@ -80,6 +80,24 @@ public class SignalServiceImplTest {
     }
 
 
+    @Test
+    public void testSignalMessageFiltersUpdated_NoException_MessageSent() {
+
+        new Expectations(signalService) {{
+        }};
+
+        //tested method
+        signalService.signalMessageFiltersUpdated();
+
+        new Verifications() {{
+            Map<String, Object> commandPropertiesActual;
+            signalService.sendMessage(commandPropertiesActual = withCapture());
+            Assert.assertNotNull(commandPropertiesActual);
+            Assert.assertEquals(Command.MESSAGE_FILTER_UPDATE, commandPropertiesActual.get(Command.COMMAND));
+            Assert.assertEquals(domainContextProvider.getCurrentDomain().getCode(), commandPropertiesActual.get(MessageConstants.DOMAIN));
+        }};
+    }
+
     @Test
     public void testSignalLoggingSetLevel_NoException_MessageSent() {
         final String name = "eu.domibus";
@@ -1,6 +1,7 @@
 package eu.domibus.common.dao;
 
 import eu.domibus.ebms3.common.model.SignalMessage;
+import eu.domibus.ebms3.common.model.UserMessage;
 import mockit.Expectations;
 import mockit.Injectable;
 import mockit.Mocked;
@@ -11,6 +12,10 @@ import org.springframework.dao.support.DataAccessUtils;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 public class MessagingDaoTest {
 
@@ -41,4 +46,31 @@ public class MessagingDaoTest {
         // Then
         Assert.assertEquals(signalMessage, signalMessageByMessageId);
     }
+
+    @Test
+    public void testFindUserMessageRoutings() {
+        // Given
+        final List<Object[]> routings = Arrays.asList(
+                new Object[]{"messageId", "fromRole", "from1", "fromType", "toRole", "to1", null, "service", "serviceType", "action", "agreement", null, "mpc"},
+                new Object[]{"messageId", "fromRole", "from2", "fromType", "toRole", "to1", null, "service", "serviceType", "action", "agreement", null, "mpc"});
+        new Expectations() {{
+            entityManager.createNamedQuery("Messaging.findRoutingsForMessages", Object[].class).getResultList();
+            result = routings;
+        }};
+
+        // When
+        final Map<String, UserMessage> result = messagingDao.findUserMessageRoutings(Collections.singletonList("messageId"));
+
+        // Then
+        Assert.assertEquals(1, result.size());
+        final UserMessage userMessage = result.get("messageId");
+        Assert.assertEquals("messageId", userMessage.getMessageInfo().getMessageId());
+        Assert.assertEquals(2, userMessage.getPartyInfo().getFrom().getPartyId().size());
+        Assert.assertEquals(1, userMessage.getPartyInfo().getTo().getPartyId().size());
+        Assert.assertEquals("toRole", userMessage.getPartyInfo().getTo().getRole());
+        Assert.assertEquals("serviceType", userMessage.getCollaborationInfo().getService().getType());
+        Assert.assertEquals("action", userMessage.getCollaborationInfo().getAction());
+        Assert.assertEquals("agreement", userMessage.getCollaborationInfo().getAgreementRef().getValue());
+        Assert.assertEquals("mpc", userMessage.getMpc());
+    }
 }
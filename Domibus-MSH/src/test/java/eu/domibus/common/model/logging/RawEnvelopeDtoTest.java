@@ -0,0 +1,34 @@
+package eu.domibus.common.model.logging;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+public class RawEnvelopeDtoTest {
+
+    @Test
+    public void testGetRawMessage_Compressed() throws Exception {
+        final String rawXML = "<env:Envelope xmlns:env=\"http://www.w3.org/2003/05/soap-envelope\">é</env:Envelope>";
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream outputStream = new GZIPOutputStream(compressed)) {
+            outputStream.write(rawXML.getBytes(StandardCharsets.UTF_8));
+        }
+
+        RawEnvelopeDto rawEnvelopeDto = new RawEnvelopeDto(1L, null, compressed.toByteArray());
+
+        Assert.assertEquals(rawXML, rawEnvelopeDto.getRawMessage());
+    }
+
+    @Test
+    public void testGetRawMessage_NotCompressed() {
+        Assert.assertEquals("rawXML", new RawEnvelopeDto(1L, "rawXML").getRawMessage());
+        Assert.assertNull(new RawEnvelopeDto(1L, null, null).getRawMessage());
+    }
+}
@@ -29,6 +29,7 @@ import eu.domibus.ebms3.common.context.MessageExchangeConfiguration;
 import eu.domibus.ebms3.common.model.MessagePullDto;
 import eu.domibus.ebms3.common.model.SignalMessage;
 import eu.domibus.ebms3.common.model.UserMessage;
+import eu.domibus.ebms3.puller.AdaptivePullScheduler;
 import eu.domibus.ebms3.puller.PullFrequencyHelper;
 import eu.domibus.ebms3.sender.EbMS3MessageBuilder;
 import eu.domibus.test.util.PojoInstaciatorUtil;
@@ -95,6 +96,9 @@ public class MessageExchangeServiceImplTest {
     @Mock
     private PullFrequencyHelper pullFrequencyHelper;
 
+    @Mock
+    private AdaptivePullScheduler adaptivePullScheduler;
+
     @InjectMocks
     private MessageExchangeServiceImpl messageExchangeService;
 
@@ -223,6 +227,26 @@ public class MessageExchangeServiceImplTest {
         }
     }
 
+    @Test
+    public void testInitiatePullRequestAdaptive() {
+        when(pModeProvider.isConfigurationLoaded()).thenReturn(true);
+        when(domainProvider.getCurrentDomain()).thenReturn(new Domain("default", "Default"));
+        when(adaptivePullScheduler.isActive()).thenReturn(true);
+        when(pullFrequencyHelper.getPullRequestNumberForMpc("test1")).thenReturn(10);
+        when(pullFrequencyHelper.getPullRequestNumberForMpc("test2")).thenReturn(15);
+        when(adaptivePullScheduler.acquire("qn1", "responder", 10)).thenReturn(2);
+        when(adaptivePullScheduler.acquire("qn2", "responder", 15)).thenReturn(0);
+
+        ArgumentCaptor<JmsMessage> mapArgumentCaptor = ArgumentCaptor.forClass(JmsMessage.class);
+        messageExchangeService.initiatePullRequest();
+        verify(jmsManager, times(0)).getDestinationSize(anyString());
+        verify(jmsManager, times(2)).sendMapMessageToQueue(mapArgumentCaptor.capture(), any(Queue.class));
+        for (JmsMessage jmsMessage : mapArgumentCaptor.getAllValues()) {
+            assertEquals("qn1", jmsMessage.getProperties().get(PullContext.MPC));
+            assertEquals("responder", jmsMessage.getProperties().get(PullContext.RESPONDER));
+        }
+    }
+
     @Test
     public void testInitiatePullRequestWithoutConfiguration() throws Exception {
         when(pModeProvider.isConfigurationLoaded()).thenReturn(false);
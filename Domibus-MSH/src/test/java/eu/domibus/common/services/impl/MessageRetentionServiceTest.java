@@ -1,9 +1,12 @@
 package eu.domibus.common.services.impl;
 
+import com.codahale.metrics.MetricRegistry;
 import eu.domibus.api.jms.JMSManager;
 import eu.domibus.api.jms.JmsMessage;
 import eu.domibus.api.multitenancy.DomainContextProvider;
+import eu.domibus.api.multitenancy.DomainService;
 import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.api.usermessage.UserMessageService;
 import eu.domibus.common.dao.UserMessageLogDao;
 import eu.domibus.core.pmode.PModeProvider;
 import eu.domibus.messaging.MessageConstants;
@@ -20,9 +23,12 @@ import javax.jms.Queue;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_RETENTION_WORKER_BULK_CHUNK_SIZE;
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_RETENTION_WORKER_BULK_MAX_DELETE;
 import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_RETENTION_WORKER_MESSAGE_RETENTION_DOWNLOADED_MAX_DELETE;
 import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_RETENTION_WORKER_MESSAGE_RETENTION_NOT_DOWNLOADED_MAX_DELETE;
 import static org.junit.Assert.assertEquals;
@@ -52,6 +58,12 @@ public class MessageRetentionServiceTest {
     @Injectable
     private Queue retentionMessageQueue;
 
+    @Injectable
+    private UserMessageService userMessageService;
+
+    @Injectable
+    private MetricRegistry metricRegistry;
+
     @Tested
     MessageRetentionDefaultService messageRetentionService;
 
@@ -79,6 +91,27 @@ public class MessageRetentionServiceTest {
         }};
     }
 
+    @Test
+    public void testDeleteExpiredMessagesInBulk() {
+        final String mpc1 = "mpc1";
+
+        new Expectations(messageRetentionService) {{
+            pModeProvider.getMpcURIList();
+            result = Collections.singletonList(mpc1);
+
+            messageRetentionService.getRetentionValue(DOMIBUS_RETENTION_WORKER_BULK_MAX_DELETE);
+            result = 10000;
+
+            //partial mocking of the following methods
+            messageRetentionService.deleteExpiredDownloadedMessages(mpc1, 10000);
+            messageRetentionService.deleteExpiredNotDownloadedMessages(mpc1, 10000);
+        }};
+
+        messageRetentionService.deleteExpiredMessagesInBulk();
+
+        //the verifications are done in the Expectations block
+    }
+
     @Test
     public void testDeleteExpiredMessagesForMpc() {
         final String mpc1 = "mpc1";
@@ -183,6 +216,51 @@ public class MessageRetentionServiceTest {
         }};
     }
 
+    @Test
+    public void testDeleteExpiredDownloadedMessagesInBulk() {
+        final List<String> downloadedMessageIds = Arrays.asList("1", "2", "3");
+        final String mpc1 = "mpc1";
+
+        new Expectations(messageRetentionService) {{
+            pModeProvider.getRetentionDownloadedByMpcURI(mpc1);
+            result = 10;
+
+            userMessageLogDao.getDownloadedUserMessagesOlderThan(withAny(new Date()), mpc1, null);
+            result = downloadedMessageIds;
+
+            messageRetentionService.isBulkDeleteActive();
+            result = true;
+
+            messageRetentionService.getBulkDeleteChunkSize();
+            result = 2;
+
+            domainContextProvider.getCurrentDomain();
+            result = DomainService.DEFAULT_DOMAIN;
+        }};
+
+        messageRetentionService.deleteExpiredDownloadedMessages(mpc1, 5);
+
+        new Verifications() {{
+            userMessageService.deleteMessages(Arrays.asList("1", "2"));
+            userMessageService.deleteMessages(Arrays.asList("3"));
+            jmsManager.sendMessageToQueue((JmsMessage) any, retentionMessageQueue);
+            times = 0;
+        }};
+        assertEquals(0, messageRetentionService.bulkDeleteBacklog.get(DomainService.DEFAULT_DOMAIN.getCode()).get());
+    }
+
+    @Test
+    public void testGetBulkDeleteChunkSize() {
+        new Expectations(messageRetentionService) {{
+            messageRetentionService.getRetentionValue(DOMIBUS_RETENTION_WORKER_BULK_CHUNK_SIZE);
+            returns(200, 5000, 0);
+        }};
+
+        assertEquals(200, messageRetentionService.getBulkDeleteChunkSize());
+        assertEquals(MessageRetentionDefaultService.BULK_DELETE_MAX_CHUNK_SIZE, messageRetentionService.getBulkDeleteChunkSize());
+        assertEquals(MessageRetentionDefaultService.BULK_DELETE_MAX_CHUNK_SIZE, messageRetentionService.getBulkDeleteChunkSize());
+    }
+
     @Test
     public void testGetRetentionValueWithValidRetentionValue() {
         final String propertyName = "retentionLimitProperty";
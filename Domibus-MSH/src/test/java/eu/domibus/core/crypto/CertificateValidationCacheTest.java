@@ -0,0 +1,146 @@
+package eu.domibus.core.crypto;
+
+import eu.domibus.api.multitenancy.Domain;
+import eu.domibus.api.multitenancy.DomainService;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.pki.CRLRevocationStore;
+import eu.domibus.pki.CRLUtil;
+import eu.domibus.pki.PKIUtil;
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Tested;
+import mockit.integration.junit4.JMockit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.math.BigInteger;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL;
+import static eu.domibus.core.crypto.CertificateValidationCache.ValidationType.KEYSTORE_CERTIFICATE;
+import static eu.domibus.core.crypto.CertificateValidationCache.ValidationType.TRUSTSTORE_CERTIFICATE_CHAIN;
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@RunWith(JMockit.class)
+public class CertificateValidationCacheTest {
+
+    private static final String CRL_URL = "http://domain1.crl";
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    @Tested
+    CertificateValidationCache certificateValidationCache;
+
+    @Injectable
+    CRLUtil crlUtil;
+
+    @Injectable
+    CRLRevocationStore crlRevocationStore;
+
+    @Injectable
+    DomibusPropertyProvider domibusPropertyProvider;
+
+    PKIUtil pkiUtil = new PKIUtil();
+
+    Domain domain = DomainService.DEFAULT_DOMAIN;
+
+    @Before
+    public void init() {
+        Security.addProvider(new org.bouncycastle.jce.provider.BouncyCastleProvider());
+    }
+
+    @Test
+    public void testIsValid_ValidatesOnceUntilCleared() throws Exception {
+        final X509Certificate[] certificateChain = {pkiUtil.createCertificate(BigInteger.ONE, null)};
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerProperty(DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL);
+            result = 3600;
+        }};
+        final AtomicInteger validations = new AtomicInteger();
+
+        assertTrue(certificateValidationCache.isValid(domain, TRUSTSTORE_CERTIFICATE_CHAIN, "blue_gw", certificateChain, () -> validations.incrementAndGet() > 0));
+        assertTrue(certificateValidationCache.isValid(domain, TRUSTSTORE_CERTIFICATE_CHAIN, "blue_gw", certificateChain, () -> validations.incrementAndGet() > 0));
+        assertEquals(1, validations.get());
+
+        certificateValidationCache.clear(domain);
+        certificateValidationCache.isValid(domain, TRUSTSTORE_CERTIFICATE_CHAIN, "blue_gw", certificateChain, () -> validations.incrementAndGet() > 0);
+        assertEquals(2, validations.get());
+    }
+
+    @Test
+    public void testIsValid_AnotherCertificateForTheSameAlias() throws Exception {
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerProperty(DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL);
+            result = 3600;
+        }};
+        final AtomicInteger validations = new AtomicInteger();
+
+        certificateValidationCache.isValid(domain, TRUSTSTORE_CERTIFICATE_CHAIN, "blue_gw", new X509Certificate[]{pkiUtil.createCertificate(BigInteger.ONE, null)}, () -> validations.incrementAndGet() > 0);
+        certificateValidationCache.isValid(domain, TRUSTSTORE_CERTIFICATE_CHAIN, "blue_gw", new X509Certificate[]{pkiUtil.createCertificate(BigInteger.TEN, null)}, () -> validations.incrementAndGet() > 0);
+
+        assertEquals(2, validations.get());
+    }
+
+    @Test
+    public void testIsValid_AnotherValidationForTheSameAlias() throws Exception {
+        final X509Certificate[] certificateChain = {pkiUtil.createCertificate(BigInteger.ONE, null)};
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerProperty(DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL);
+            result = 3600;
+        }};
+
+        assertTrue(certificateValidationCache.isValid(domain, KEYSTORE_CERTIFICATE, "blue_gw", certificateChain, () -> true));
+        assertFalse(certificateValidationCache.isValid(domain, TRUSTSTORE_CERTIFICATE_CHAIN, "blue_gw", certificateChain, () -> false));
+    }
+
+    @Test
+    public void testIsValid_EvictsExpired() throws Exception {
+        final long now = System.currentTimeMillis();
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerProperty(DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL);
+            result = 3600;
+        }};
+        final Map<String, CertificateValidationCache.Verdict> verdicts = new ConcurrentHashMap<>();
+        verdicts.put("expired", new CertificateValidationCache.Verdict(true, now - 1));
+        certificateValidationCache.verdictsByDomain.put(domain.getCode(), verdicts);
+        certificateValidationCache.lastEvictions.put(domain.getCode(), new AtomicLong(now - 3600_000L));
+
+        certificateValidationCache.isValid(domain, TRUSTSTORE_CERTIFICATE_CHAIN, "blue_gw", new X509Certificate[]{pkiUtil.createCertificate(BigInteger.ONE, null)}, () -> true);
+
+        assertEquals(1, verdicts.size());
+        assertFalse(verdicts.containsKey("expired"));
+    }
+
+    @Test
+    public void testGetExpiry_EarliestOfNotAfterAndCRLNextUpdate() throws Exception {
+        final long now = System.currentTimeMillis();
+        final Date notAfter = new Date(now + 10 * DAY);
+        final X509Certificate certificate = pkiUtil.createCertificate(BigInteger.ONE, new Date(now - DAY), notAfter, Arrays.asList(CRL_URL));
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerProperty(DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL);
+            result = 30 * 24 * 3600;
+
+            crlUtil.getCrlDistributionPoints(certificate);
+            result = Arrays.asList(CRL_URL);
+
+            crlRevocationStore.getNextUpdate(CRL_URL);
+            returns(now + DAY, 0L);
+        }};
+
+        assertEquals(now + DAY, certificateValidationCache.getExpiry(new X509Certificate[]{certificate}, now));
+        // the CRL was not loaded yet
+        assertEquals(notAfter.getTime() / 1000, certificateValidationCache.getExpiry(new X509Certificate[]{certificate}, now) / 1000);
+    }
+}
@@ -3,20 +3,22 @@ package eu.domibus.core.crypto;
 import eu.domibus.api.multitenancy.Domain;
 import eu.domibus.api.multitenancy.DomainService;
 import eu.domibus.api.property.DomibusPropertyProvider;
-import eu.domibus.common.services.DomibusCacheService;
 import eu.domibus.core.crypto.api.CertificateEntry;
 import eu.domibus.core.crypto.api.DomainCryptoService;
 import eu.domibus.core.crypto.api.DomainCryptoServiceFactory;
+import eu.domibus.core.pmode.DynamicDiscoveryParticipantCache;
 import mockit.*;
 import org.apache.wss4j.common.ext.WSSecurityException;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.security.InvalidParameterException;
+import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.cert.X509Certificate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 import static org.junit.Assert.assertEquals;
 
@@ -33,7 +35,10 @@ public class MultiDomainCryptoServiceImplTest {
     DomainCryptoServiceFactory domainCertificateProviderFactory;
 
     @Injectable
-    private DomibusCacheService domibusCacheService;
+    private CertificateValidationCache certificateValidationCache;
+
+    @Injectable
+    private DynamicDiscoveryParticipantCache dynamicDiscoveryParticipantCache;
 
     @Injectable
     private DomibusPropertyProvider domibusPropertyProvider;
@@ -123,6 +128,8 @@ public class MultiDomainCryptoServiceImplTest {
 
         new Verifications() {{
             cryptoService.refreshTrustStore();
+            certificateValidationCache.clear(domain);
+            dynamicDiscoveryParticipantCache.trustStoreChanged(domain);
         }};
     }
 
@@ -144,6 +151,8 @@ public class MultiDomainCryptoServiceImplTest {
 
         new Verifications() {{
             cryptoService.replaceTrustStore(store, password);
+            certificateValidationCache.clear(domain);
+            dynamicDiscoveryParticipantCache.trustStoreChanged(domain);
         }};
     }
 
@@ -187,6 +196,8 @@ public class MultiDomainCryptoServiceImplTest {
         new Expectations() {{
             domainCertificateProviderFactory.createDomainCryptoService(domain);
             result = cryptoService;
+            cryptoService.getTrustStore();
+            result = null;
         }};
 
         mdCryptoService.isCertificateChainValid(domain, alias);
@@ -196,6 +207,30 @@ public class MultiDomainCryptoServiceImplTest {
         }};
     }
 
+    @Test
+    public void isCertificateChainValid_Cached(@Mocked DomainCryptoServiceImpl cryptoService, @Mocked KeyStore trustStore, @Mocked X509Certificate certificate) throws KeyStoreException {
+        Domain domain = DomainService.DEFAULT_DOMAIN;
+        String alias = "blue_gw";
+
+        new Expectations() {{
+            domainCertificateProviderFactory.createDomainCryptoService(domain);
+            result = cryptoService;
+            cryptoService.getTrustStore();
+            result = trustStore;
+            trustStore.getCertificateChain(alias);
+            result = new X509Certificate[]{certificate};
+            certificateValidationCache.isValid(domain, CertificateValidationCache.ValidationType.TRUSTSTORE_CERTIFICATE_CHAIN, alias, (X509Certificate[]) any, (BooleanSupplier) any);
+            result = true;
+        }};
+
+        Assert.assertTrue(mdCryptoService.isCertificateChainValid(domain, alias));
+
+        new Verifications() {{
+            cryptoService.isCertificateChainValid(alias);
+            times = 0;
+        }};
+    }
+
     @Test
     public void getCertificateFromKeystore(@Mocked DomainCryptoServiceImpl cryptoService) throws KeyStoreException {
         Domain domain = DomainService.DEFAULT_DOMAIN;
@@ -15,12 +15,14 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.StringWriter;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * @author Tiago Miguel
@@ -66,6 +68,34 @@ public class CsvServiceImplTest {
         testExportCsvBySubtype(MessageSubtype.TEST);
     }
 
+    @Test
+    public void testExportToCsv_Stream() throws CsvException {
+        // Given
+        Date date = new Date();
+        List<MessageLogInfo> messageLogInfoList = getMessageList(MessageType.USER_MESSAGE, date, null);
+        StringWriter writer = new StringWriter();
+
+        // When
+        csvServiceImpl.exportToCSV(messageLogInfoList::stream, MessageLogInfo.class, null, null, writer);
+
+        // Then
+        final String exportToCSV = csvServiceImpl.exportToCSV(messageLogInfoList, MessageLogInfo.class, null, null);
+        Assert.assertEquals(exportToCSV, writer.toString());
+    }
+
+    @Test
+    public void testExportToCsv_EmptyStream() throws CsvException {
+        // Given
+        StringWriter writer = new StringWriter();
+
+        // When
+        csvServiceImpl.exportToCSV(Stream::empty, MessageLogInfo.class, null, null, writer);
+
+        // Then
+        Assert.assertTrue(writer.toString().startsWith("Message Id,From Party Id,To Party Id"));
+        Assert.assertEquals(1, writer.toString().split("\n").length);
+    }
+
     private void testExportCsvBySubtype(MessageSubtype messageSubtype) {
         // Given
         Date date = new Date();
@@ -19,11 +19,15 @@ import eu.domibus.common.services.MessageExchangeService;
 import eu.domibus.core.converter.DomainCoreConverter;
 import eu.domibus.core.message.fragment.MessageGroupDao;
 import eu.domibus.core.message.fragment.MessageGroupEntity;
+import eu.domibus.core.payload.purge.PayloadPurgeService;
 import eu.domibus.core.pmode.PModeProvider;
 import eu.domibus.core.pull.PartyExtractor;
 import eu.domibus.core.pull.PullMessageService;
+import eu.domibus.core.replication.UIMessageDao;
 import eu.domibus.core.replication.UIReplicationSignalService;
 import eu.domibus.ebms3.common.UserMessageServiceHelper;
+import eu.domibus.ebms3.common.model.MessageType;
+import eu.domibus.ebms3.common.model.PartInfo;
 import eu.domibus.ebms3.common.model.SignalMessage;
 import eu.domibus.ebms3.common.model.UserMessage;
 import eu.domibus.ebms3.receiver.BackendNotificationService;
@@ -41,10 +45,7 @@ import org.junit.runner.RunWith;
 import javax.jms.JMSException;
 import javax.jms.Queue;
 import java.sql.Timestamp;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -133,6 +134,12 @@ public class UserMessageDefaultServiceTest {
     @Injectable
     PModeProvider pModeProvider;
 
+    @Injectable
+    UIMessageDao uiMessageDao;
+
+    @Injectable
+    PayloadPurgeService payloadPurgeService;
+
 
     @Test
     public void createMessagingForFragment(@Injectable UserMessage sourceMessage,
@@ -440,6 +447,19 @@ public class UserMessageDefaultServiceTest {
 
     }
 
+    @Test
+    public void testScheduleSendingOfSeveralMessages() {
+        final List<String> messageIds = Arrays.asList("1", "2");
+
+        userMessageDefaultService.scheduleSending(messageIds, true);
+
+        new Verifications() {{
+            jmsManager.sendMessageToQueue((JmsMessage) any, sendLargeMessageQueue);
+            times = 2;
+            userMessageLogDao.setMessagesAsScheduled(messageIds);
+        }};
+    }
+
     @Test
     public void testSchedulePullReceiptSending(@Injectable final JmsMessage jmsMessage) throws Exception {
         final String messageId = "1";
@@ -621,6 +641,159 @@ public class UserMessageDefaultServiceTest {
         }};
     }
 
+    @Test
+    public void testDeleteMessages() {
+        final List<String> messageIds = Arrays.asList("1", "2");
+        final List<Long> receiptIds = Collections.singletonList(10L);
+
+        new Expectations(userMessageDefaultService) {{
+            userMessageDefaultService.deleteMessagesPluginCallback(messageIds);
+
+            userMessageDefaultService.notifyOfMessagesDeleted(messageIds);
+
+            userMessageDefaultService.clearPayloadData(messageIds);
+            result = 2;
+
+            userMessageLogDao.setMessagesAsDeleted(messageIds);
+            result = 2;
+
+            signalMessageDao.findReceiptIdsByRefMessageIds(messageIds);
+            result = receiptIds;
+
+            signalMessageDao.clearReceipts(receiptIds);
+            result = 1;
+
+            signalMessageDao.findSignalMessageIdsByRefMessageIds(messageIds);
+            result = Collections.singletonList("signal1");
+
+            signalMessageLogDao.setMessagesAsDeleted(Collections.singletonList("signal1"));
+            result = 1;
+
+            uiReplicationSignalService.isReplicationEnabled();
+            result = false;
+        }};
+
+        final int rows = userMessageDefaultService.deleteMessages(messageIds);
+
+        assertEquals(6, rows);
+        new Verifications() {{
+            signalMessageDao.clear((SignalMessage) any);
+            times = 0;
+            uiMessageDao.setMessagesAsDeleted((List<String>) any);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testNotifyOfMessagesDeleted(@Injectable UserMessageLog userMessageLog,
+                                            @Injectable UserMessageLog testMessageLog) {
+        final List<String> messageIds = Arrays.asList("1", "2");
+
+        new Expectations() {{
+            userMessageLogDao.findByMessageIds(messageIds);
+            result = Arrays.asList(userMessageLog, testMessageLog);
+
+            userMessageLog.getMessageType();
+            result = MessageType.USER_MESSAGE;
+
+            userMessageLog.isTestMessage();
+            result = false;
+
+            testMessageLog.getMessageType();
+            result = MessageType.USER_MESSAGE;
+
+            testMessageLog.isTestMessage();
+            result = true;
+        }};
+
+        userMessageDefaultService.notifyOfMessagesDeleted(messageIds);
+
+        new Verifications() {{
+            backendNotificationService.notifyOfMessageStatusChange(userMessageLog, MessageStatus.DELETED, (Timestamp) any);
+            times = 1;
+            backendNotificationService.notifyOfMessageStatusChange(testMessageLog, MessageStatus.DELETED, (Timestamp) any);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testClearPayloadData(@Injectable PartInfo databasePayload, @Injectable PartInfo filePayload) {
+        final List<String> messageIds = Arrays.asList("1", "2");
+
+        new Expectations() {{
+            messagingDao.findPartInfosForMessages(messageIds);
+            result = Arrays.asList(databasePayload, filePayload);
+
+            filePayload.getFileName();
+            result = "/payloads/file1";
+
+            messagingDao.emptyPayloads(Collections.singletonList(databasePayload));
+            result = 1;
+        }};
+
+        assertEquals(1, userMessageDefaultService.clearPayloadData(messageIds));
+
+        new Verifications() {{
+            payloadPurgeService.schedulePurge(Collections.singletonList("/payloads/file1"));
+        }};
+    }
+
+    @Test
+    public void testClearPayloadDataOfMessage() {
+        final String messageId = "1";
+
+        new Expectations() {{
+            messagingDao.clearPayloadData(messageId);
+            result = Collections.singletonList("/payloads/file1");
+        }};
+
+        userMessageDefaultService.clearPayloadData(messageId);
+
+        new Verifications() {{
+            payloadPurgeService.schedulePurge(Collections.singletonList("/payloads/file1"));
+        }};
+    }
+
+    @Test
+    public void testClearPayloadDataOfMessageStoredInDatabase() {
+        final String messageId = "1";
+
+        new Expectations() {{
+            messagingDao.clearPayloadData(messageId);
+            result = Collections.emptyList();
+        }};
+
+        userMessageDefaultService.clearPayloadData(messageId);
+
+        new Verifications() {{
+            payloadPurgeService.schedulePurge((List<String>) any);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testDeleteMessagesPluginCallbackForNotificationListener(@Injectable final NotificationListener notificationListener,
+                                                                        @Injectable Queue backendNotificationQueue) throws JMSException {
+        final List<String> messageIds = Arrays.asList("1", "2");
+        final String backendQueue = "myPluginQueue";
+
+        new Expectations() {{
+            notificationListener.getBackendNotificationQueue();
+            result = backendNotificationQueue;
+
+            backendNotificationQueue.getQueueName();
+            result = backendQueue;
+        }};
+
+        userMessageDefaultService.deleteMessagesPluginCallback(messageIds, notificationListener);
+
+        new Verifications() {{
+            jmsManager.consumeMessage(backendQueue, "1");
+            jmsManager.consumeMessage(backendQueue, "2");
+            notificationListener.deleteMessagesCallback(messageIds);
+        }};
+    }
+
     @Test
     public void marksTheUserMessageAsDeleted() throws Exception {
         final String messageId = "1";
@@ -859,49 +859,55 @@ public class SplitAndJoinDefaultServiceTest {
     }
 
     @Test
-    public void incrementSentFragments(@Injectable MessageGroupEntity messageGroupEntity) {
+    public void incrementSentFragments() {
         String groupId = "123";
 
-        new Expectations() {{
-            messageGroupDao.findByGroupId(groupId);
-            result = messageGroupEntity;
-        }};
-
         splitAndJoinDefaultService.incrementSentFragments(groupId);
 
         new Verifications() {{
-            messageGroupDao.update(messageGroupEntity);
-            messageGroupEntity.incrementSentFragments();
-
+            messageGroupDao.incrementSentFragments(groupId);
         }};
     }
 
     @Test
-    public void incrementReceivedFragments(@Injectable MessageGroupEntity messageGroupEntity) {
+    public void incrementReceivedFragments() {
         String groupId = "123";
         String backendName = "mybackend";
 
         new Expectations() {{
-            messageGroupEntity.getGroupId();
-            result = groupId;
+            messageGroupDao.incrementReceivedFragments(groupId);
+            result = 2L;
 
-            messageGroupDao.findByGroupId(groupId);
-            result = messageGroupEntity;
-
-            messageGroupEntity.getReceivedFragments();
-            result = 2;
-
-            messageGroupEntity.getFragmentCount();
-            result = 2;
+            messageGroupDao.findFragmentCount(groupId);
+            result = 2L;
         }};
 
         splitAndJoinDefaultService.incrementReceivedFragments(groupId, backendName);
 
         new Verifications() {{
-            messageGroupEntity.incrementReceivedFragments();
-            messageGroupDao.update(messageGroupEntity);
             userMessageService.scheduleSourceMessageRejoinFile(groupId, backendName);
+            times = 1;
+        }};
+    }
+
+    @Test
+    public void incrementReceivedFragments_NotAllReceived() {
+        String groupId = "123";
+        String backendName = "mybackend";
+
+        new Expectations() {{
+            messageGroupDao.incrementReceivedFragments(groupId);
+            result = 1L;
+
+            messageGroupDao.findFragmentCount(groupId);
+            result = 2L;
+        }};
 
+        splitAndJoinDefaultService.incrementReceivedFragments(groupId, backendName);
+
+        new Verifications() {{
+            userMessageService.scheduleSourceMessageRejoinFile(anyString, anyString);
+            times = 0;
         }};
     }
 
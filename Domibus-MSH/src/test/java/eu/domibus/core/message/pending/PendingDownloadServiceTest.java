@@ -0,0 +1,80 @@
+package eu.domibus.core.message.pending;
+
+import eu.domibus.api.property.DomibusPropertyProvider;
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Tested;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_LIST_PENDING_MESSAGES_INDEX_ACTIVE;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@RunWith(JMockit.class)
+public class PendingDownloadServiceTest {
+
+    private static final String MESSAGE_ID = "messageId";
+    private static final String BACKEND = "backendWebservice";
+    private static final String FINAL_RECIPIENT = "finalRecipient";
+
+    @Tested
+    PendingDownloadService pendingDownloadService;
+
+    @Injectable
+    PendingDownloadDao pendingDownloadDao;
+
+    @Injectable
+    DomibusPropertyProvider domibusPropertyProvider;
+
+    @Test
+    public void testAddPendingDownload() {
+        new Expectations() {{
+            domibusPropertyProvider.getBooleanProperty(DOMIBUS_LIST_PENDING_MESSAGES_INDEX_ACTIVE);
+            result = true;
+        }};
+
+        pendingDownloadService.addPendingDownload(MESSAGE_ID, BACKEND, FINAL_RECIPIENT);
+
+        new Verifications() {{
+            PendingDownloadEntity pendingDownload;
+            pendingDownloadDao.create(pendingDownload = withCapture());
+            Assert.assertEquals(MESSAGE_ID, pendingDownload.getMessageId());
+            Assert.assertEquals(BACKEND, pendingDownload.getBackend());
+            Assert.assertEquals(FINAL_RECIPIENT, pendingDownload.getFinalRecipient());
+            Assert.assertNotNull(pendingDownload.getCreationTime());
+        }};
+    }
+
+    @Test
+    public void testAddPendingDownload_NotActive() {
+        new Expectations() {{
+            domibusPropertyProvider.getBooleanProperty(DOMIBUS_LIST_PENDING_MESSAGES_INDEX_ACTIVE);
+            result = false;
+        }};
+
+        pendingDownloadService.addPendingDownload(MESSAGE_ID, BACKEND, FINAL_RECIPIENT);
+
+        new Verifications() {{
+            pendingDownloadDao.create((PendingDownloadEntity) any);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testRemovePendingDownload() {
+        pendingDownloadService.removePendingDownload(BACKEND, MESSAGE_ID);
+
+        new Verifications() {{
+            pendingDownloadDao.deleteByMessageIds(BACKEND, Collections.singletonList(MESSAGE_ID));
+            times = 1;
+        }};
+    }
+}
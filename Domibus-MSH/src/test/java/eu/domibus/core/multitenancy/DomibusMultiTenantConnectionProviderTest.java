@@ -0,0 +1,250 @@
+package eu.domibus.core.multitenancy;
+
+import com.codahale.metrics.MetricRegistry;
+import eu.domibus.api.configuration.DataBaseEngine;
+import eu.domibus.api.configuration.DomibusConfigurationService;
+import eu.domibus.api.multitenancy.Domain;
+import eu.domibus.api.multitenancy.DomainContextProvider;
+import eu.domibus.api.multitenancy.DomainService;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Tested;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_DATABASE_SCHEMA_AFFINITY_ACTIVE;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@RunWith(JMockit.class)
+public class DomibusMultiTenantConnectionProviderTest {
+
+    @Tested
+    DomibusMultiTenantConnectionProvider domibusMultiTenantConnectionProvider;
+
+    @Injectable
+    DataSource dataSource;
+
+    @Injectable
+    DomainContextProvider domainContextProvider;
+
+    @Injectable
+    DomainService domainService;
+
+    @Injectable
+    DomibusPropertyProvider domibusPropertyProvider;
+
+    @Injectable
+    DomibusConfigurationService domibusConfigurationService;
+
+    @Injectable
+    MetricRegistry metricRegistry;
+
+    @Test
+    public void testGetConnection_SchemaAlreadySet(@Injectable Connection connection,
+                                                   @Injectable Connection physicalConnection,
+                                                   @Injectable Statement statement) throws Exception {
+        final Domain domain = new Domain("domain1", "Domain 1");
+        new Expectations() {{
+            domibusPropertyProvider.getBooleanProperty(DOMIBUS_DATABASE_SCHEMA_AFFINITY_ACTIVE);
+            result = true;
+
+            domainContextProvider.getCurrentDomainSafely();
+            result = domain;
+
+            domainService.getDatabaseSchema(domain);
+            result = "domain1_schema";
+
+            dataSource.getConnection();
+            result = connection;
+
+            domibusConfigurationService.getDataBaseEngine();
+            result = DataBaseEngine.MYSQL;
+
+            connection.isWrapperFor((Class<?>) any);
+            result = true;
+
+            connection.unwrap((Class<?>) any);
+            result = physicalConnection;
+
+            connection.createStatement();
+            result = statement;
+        }};
+
+        domibusMultiTenantConnectionProvider.releaseConnection("domain1", domibusMultiTenantConnectionProvider.getConnection("domain1"));
+        domibusMultiTenantConnectionProvider.getConnection("domain1");
+
+        new Verifications() {{
+            statement.execute("USE domain1_schema");
+            times = 1;
+            connection.close();
+            times = 1;
+        }};
+    }
+
+    @Test
+    public void testGetConnection_SchemaChanged(@Injectable Connection connection,
+                                                @Injectable Connection physicalConnection,
+                                                @Injectable Statement statement) throws Exception {
+        final Domain domain = new Domain("domain1", "Domain 1");
+        new Expectations() {{
+            domibusPropertyProvider.getBooleanProperty(DOMIBUS_DATABASE_SCHEMA_AFFINITY_ACTIVE);
+            result = true;
+
+            domainContextProvider.getCurrentDomainSafely();
+            returns(domain, null);
+
+            domainService.getDatabaseSchema(domain);
+            result = "domain1_schema";
+
+            domainService.getGeneralSchema();
+            result = "general_schema";
+
+            dataSource.getConnection();
+            result = connection;
+
+            domibusConfigurationService.getDataBaseEngine();
+            result = DataBaseEngine.MYSQL;
+
+            connection.isWrapperFor((Class<?>) any);
+            result = true;
+
+            connection.unwrap((Class<?>) any);
+            result = physicalConnection;
+
+            connection.createStatement();
+            result = statement;
+        }};
+
+        domibusMultiTenantConnectionProvider.releaseConnection("domain1", domibusMultiTenantConnectionProvider.getConnection("domain1"));
+        domibusMultiTenantConnectionProvider.getConnection(null);
+
+        new Verifications() {{
+            statement.execute("USE domain1_schema");
+            times = 1;
+            statement.execute("USE general_schema");
+            times = 1;
+        }};
+    }
+
+    @Test
+    public void testGetConnection_SchemaAffinityDisabled(@Injectable Connection connection,
+                                                         @Injectable Statement statement) throws Exception {
+        final Domain domain = new Domain("domain1", "Domain 1");
+        new Expectations() {{
+            domibusPropertyProvider.getBooleanProperty(DOMIBUS_DATABASE_SCHEMA_AFFINITY_ACTIVE);
+            result = false;
+
+            domainContextProvider.getCurrentDomainSafely();
+            result = domain;
+
+            domainService.getDatabaseSchema(domain);
+            result = "domain1_schema";
+
+            domainService.getGeneralSchema();
+            result = "general_schema";
+
+            dataSource.getConnection();
+            result = connection;
+
+            connection.createStatement();
+            result = statement;
+        }};
+
+        domibusMultiTenantConnectionProvider.releaseConnection("domain1", domibusMultiTenantConnectionProvider.getConnection("domain1"));
+        domibusMultiTenantConnectionProvider.getConnection("domain1");
+
+        new Verifications() {{
+            statement.execute("USE domain1_schema");
+            times = 2;
+            statement.execute("USE general_schema");
+            times = 1;
+            connection.unwrap((Class<?>) any);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testGetConnection_PhysicalConnectionUnknown(@Injectable Connection connection,
+                                                            @Injectable Statement statement) throws Exception {
+        final Domain domain = new Domain("domain1", "Domain 1");
+        new Expectations() {{
+            domibusPropertyProvider.getBooleanProperty(DOMIBUS_DATABASE_SCHEMA_AFFINITY_ACTIVE);
+            result = true;
+
+            domainContextProvider.getCurrentDomainSafely();
+            result = domain;
+
+            domainService.getDatabaseSchema(domain);
+            result = "domain1_schema";
+
+            domibusConfigurationService.getDataBaseEngine();
+            result = DataBaseEngine.MYSQL;
+
+            dataSource.getConnection();
+            result = connection;
+
+            // the pool returns the handle itself
+            connection.isWrapperFor((Class<?>) any);
+            result = true;
+
+            connection.unwrap((Class<?>) any);
+            result = connection;
+
+            connection.createStatement();
+            result = statement;
+        }};
+
+        domibusMultiTenantConnectionProvider.releaseConnection("domain1", domibusMultiTenantConnectionProvider.getConnection("domain1"));
+        domibusMultiTenantConnectionProvider.getConnection("domain1");
+
+        new Verifications() {{
+            statement.execute("USE domain1_schema");
+            times = 2;
+        }};
+    }
+
+    @Test
+    public void testReleaseConnection_InUseSchema(@Injectable Connection connection,
+                                                  @Injectable Statement statement) throws Exception {
+        final Domain domain = new Domain("domain1", "Domain 1");
+        new Expectations() {{
+            domibusPropertyProvider.getBooleanProperty(DOMIBUS_DATABASE_SCHEMA_AFFINITY_ACTIVE);
+            result = false;
+
+            // the domain is no longer set when the connection is released
+            domainContextProvider.getCurrentDomainSafely();
+            returns(domain, null);
+
+            domainService.getDatabaseSchema(domain);
+            result = "domain1_schema";
+
+            domainService.getGeneralSchema();
+            result = "general_schema";
+
+            dataSource.getConnection();
+            result = connection;
+
+            connection.createStatement();
+            result = statement;
+        }};
+
+        domibusMultiTenantConnectionProvider.releaseConnection("domain1", domibusMultiTenantConnectionProvider.getConnection("domain1"));
+
+        new Verifications() {{
+            metricRegistry.counter(withSubstring("domain1_schema"));
+            times = 2;
+            metricRegistry.counter(withSubstring("general_schema"));
+            times = 0;
+        }};
+    }
+}
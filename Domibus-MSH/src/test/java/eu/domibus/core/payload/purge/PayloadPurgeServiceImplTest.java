@@ -0,0 +1,158 @@
+package eu.domibus.core.payload.purge;
+
+import com.codahale.metrics.MetricRegistry;
+import eu.domibus.api.multitenancy.Domain;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import mockit.*;
+import mockit.integration.junit4.JMockit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.scheduling.SchedulingTaskExecutor;
+
+import java.io.File;
+import java.util.*;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.*;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@RunWith(JMockit.class)
+public class PayloadPurgeServiceImplTest {
+
+    @Tested
+    PayloadPurgeServiceImpl payloadPurgeService;
+
+    @Injectable
+    PayloadPurgeDao payloadPurgeDao;
+
+    @Injectable
+    PayloadPurgeJournalService payloadPurgeJournalService;
+
+    @Injectable
+    DomibusPropertyProvider domibusPropertyProvider;
+
+    @Injectable
+    MetricRegistry metricRegistry;
+
+    @Injectable
+    SchedulingTaskExecutor schedulingTaskExecutor;
+
+    @Test
+    public void testSchedulePurge() {
+        payloadPurgeService.schedulePurge(Arrays.asList("/payloads/file1", "/payloads/file2"));
+
+        new Verifications() {{
+            List<PayloadPurgeEntity> entries = new ArrayList<>();
+            payloadPurgeDao.create(withCapture(entries));
+            times = 2;
+
+            Assert.assertEquals("/payloads/file1", entries.get(0).getFileName());
+            Assert.assertEquals("/payloads/file2", entries.get(1).getFileName());
+            Assert.assertNotNull(entries.get(0).getNextAttempt());
+            Assert.assertEquals(0, entries.get(0).getAttempts());
+        }};
+    }
+
+    @Test
+    public void testPurgePayloadFiles(@Injectable Domain domain) {
+        final PayloadPurgeEntity deleted = createEntry(1L, "/payloads/file1", 0);
+        final PayloadPurgeEntity failed = createEntry(2L, "/payloads/file2", 0);
+        final List<PayloadPurgeEntity> entries = Arrays.asList(deleted, failed);
+
+        new Expectations(payloadPurgeService) {{
+            domain.getCode();
+            result = "default";
+
+            domibusPropertyProvider.getIntegerDomainProperty(domain, DOMIBUS_PAYLOAD_PURGE_BATCH_SIZE);
+            result = 100;
+
+            domibusPropertyProvider.getIntegerDomainProperty(domain, DOMIBUS_PAYLOAD_PURGE_CONCURRENCY);
+            result = 2;
+
+            payloadPurgeJournalService.findReadyToPurge(100);
+            result = entries;
+
+            payloadPurgeService.deleteFiles(entries, 2);
+            result = Collections.singleton(1L);
+
+            payloadPurgeService.rescheduleFailedEntries(domain, Collections.singletonList(failed));
+            result = new ArrayList<>();
+
+            payloadPurgeJournalService.countEntries();
+            result = 1L;
+        }};
+
+        payloadPurgeService.purgePayloadFiles(domain);
+
+        new Verifications() {{
+            payloadPurgeJournalService.updateEntries(Collections.singletonList(1L), Collections.singletonList(failed));
+        }};
+        Assert.assertEquals(1L, payloadPurgeService.getBacklog("default").get());
+    }
+
+    @Test
+    public void testPurgePayloadFiles_NothingToPurge(@Injectable Domain domain) {
+        new Expectations(payloadPurgeService) {{
+            domain.getCode();
+            result = "default";
+
+            payloadPurgeJournalService.findReadyToPurge(anyInt);
+            result = new ArrayList<>();
+
+            payloadPurgeJournalService.countEntries();
+            result = 0L;
+        }};
+
+        payloadPurgeService.purgePayloadFiles(domain);
+
+        new Verifications() {{
+            payloadPurgeService.deleteFiles((List<PayloadPurgeEntity>) any, anyInt);
+            times = 0;
+            payloadPurgeJournalService.updateEntries((List<Long>) any, (List<PayloadPurgeEntity>) any);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testRescheduleFailedEntries(@Injectable Domain domain) {
+        final PayloadPurgeEntity retried = createEntry(1L, "/payloads/file1", 1);
+        final PayloadPurgeEntity givenUp = createEntry(2L, "/payloads/file2", 2);
+
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerDomainProperty(domain, DOMIBUS_PAYLOAD_PURGE_RETRY_MAX);
+            result = 3;
+
+            domibusPropertyProvider.getIntegerDomainProperty(domain, DOMIBUS_PAYLOAD_PURGE_RETRY_DELAY);
+            result = 10;
+        }};
+
+        final Date before = new Date();
+        final List<Long> result = payloadPurgeService.rescheduleFailedEntries(domain, Arrays.asList(retried, givenUp));
+
+        Assert.assertEquals(Collections.singletonList(2L), result);
+        Assert.assertEquals(2, retried.getAttempts());
+        Assert.assertTrue(retried.getNextAttempt().getTime() >= before.getTime() + 20 * 60 * 1000L);
+    }
+
+    @Test
+    public void testDeleteFile() throws Exception {
+        final File file = File.createTempFile("payload", ".payload");
+
+        Assert.assertTrue(payloadPurgeService.deleteFile(file.getAbsolutePath()));
+        Assert.assertFalse(file.exists());
+        // a file which does not exist anymore is considered deleted
+        Assert.assertTrue(payloadPurgeService.deleteFile(file.getAbsolutePath()));
+    }
+
+    private PayloadPurgeEntity createEntry(long id, String fileName, int attempts) {
+        final PayloadPurgeEntity entry = new PayloadPurgeEntity();
+        entry.setEntityId(id);
+        entry.setFileName(fileName);
+        entry.setAttempts(attempts);
+        entry.setNextAttempt(new Date());
+        return entry;
+    }
+}
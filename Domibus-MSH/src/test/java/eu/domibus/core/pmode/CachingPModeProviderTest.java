@@ -1,5 +1,6 @@
 package eu.domibus.core.pmode;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.Lists;
@@ -8,8 +9,10 @@ import eu.domibus.api.jms.JMSManager;
 import eu.domibus.api.multitenancy.Domain;
 import eu.domibus.api.multitenancy.DomainContextProvider;
 import eu.domibus.api.multitenancy.DomainService;
+import eu.domibus.api.property.DomibusPropertyProvider;
 import eu.domibus.api.util.xml.XMLUtil;
 import eu.domibus.common.ErrorCode;
+import eu.domibus.common.MSHRole;
 import eu.domibus.common.dao.ConfigurationDAO;
 import eu.domibus.common.dao.ConfigurationRawDAO;
 import eu.domibus.common.dao.ProcessDao;
@@ -18,13 +21,16 @@ import eu.domibus.common.model.configuration.*;
 import eu.domibus.common.model.configuration.Process;
 import eu.domibus.core.mpc.MpcService;
 import eu.domibus.core.pull.PullMessageService;
+import eu.domibus.ebms3.common.context.MessageExchangeConfiguration;
 import eu.domibus.ebms3.common.model.Ebms3Constants;
 import eu.domibus.ebms3.common.model.MessageExchangePattern;
 import eu.domibus.ebms3.common.model.PartyId;
+import eu.domibus.ebms3.common.model.UserMessage;
 import eu.domibus.ebms3.common.validators.ConfigurationValidator;
 import eu.domibus.logging.DomibusLogger;
 import eu.domibus.logging.DomibusLoggerFactory;
 import eu.domibus.test.util.PojoInstaciatorUtil;
+import mockit.Deencapsulation;
 import mockit.Expectations;
 import mockit.Injectable;
 import mockit.Tested;
@@ -111,6 +117,12 @@ public class CachingPModeProviderTest {
     @Injectable
     PullMessageService pullMessageService;
 
+    @Injectable
+    DomibusPropertyProvider domibusPropertyProvider;
+
+    @Injectable
+    MetricRegistry metricRegistry;
+
     @Tested
     CachingPModeProvider cachingPModeProvider;
 
@@ -794,6 +806,37 @@ public class CachingPModeProviderTest {
         Assert.assertFalse(true);
     }
 
+    @Test
+    public void testCacheUserMessageExchangeContext(@Injectable UserMessage userMessage,
+                                                    @Injectable MessageExchangeConfiguration messageExchangeConfiguration,
+                                                    @Injectable MessageExchangeConfigurationCache messageExchangeConfigurationCache) {
+        Deencapsulation.setField(cachingPModeProvider, "configuration", configuration);
+        Deencapsulation.setField(cachingPModeProvider, "messageExchangeConfigurationCache", messageExchangeConfigurationCache);
+
+        cachingPModeProvider.cacheUserMessageExchangeContext(userMessage, MSHRole.SENDING, false, configuration, messageExchangeConfiguration);
+
+        new Verifications() {{
+            messageExchangeConfigurationCache.put(userMessage, MSHRole.SENDING, messageExchangeConfiguration);
+            times = 1;
+        }};
+    }
+
+    @Test
+    public void testCacheUserMessageExchangeContext_PModeReloaded(@Injectable UserMessage userMessage,
+                                                                  @Injectable MessageExchangeConfiguration messageExchangeConfiguration,
+                                                                  @Injectable MessageExchangeConfigurationCache messageExchangeConfigurationCache) throws Exception {
+        final Configuration previousConfiguration = loadSamplePModeConfiguration(VALID_PMODE_CONFIG_URI);
+        Deencapsulation.setField(cachingPModeProvider, "configuration", loadSamplePModeConfiguration(VALID_PMODE_CONFIG_URI));
+        Deencapsulation.setField(cachingPModeProvider, "messageExchangeConfigurationCache", messageExchangeConfigurationCache);
+
+        // the message was resolved against the configuration loaded before the reload
+        cachingPModeProvider.cacheUserMessageExchangeContext(userMessage, MSHRole.SENDING, false, previousConfiguration, messageExchangeConfiguration);
+
+        new Verifications() {{
+            messageExchangeConfigurationCache.put((UserMessage) any, (MSHRole) any, (MessageExchangeConfiguration) any);
+            times = 0;
+        }};
+    }
 
     private Process getTestProcess(Collection<Process> processes) {
         for (Process process : processes) {
@@ -16,6 +16,7 @@ import eu.domibus.common.services.DynamicDiscoveryService;
 import eu.domibus.common.services.impl.DynamicDiscoveryServiceOASIS;
 import eu.domibus.common.services.impl.DynamicDiscoveryServicePEPPOL;
 import eu.domibus.common.util.EndpointInfo;
+import eu.domibus.core.crypto.api.CertificateEntry;
 import eu.domibus.core.crypto.api.MultiDomainCryptoService;
 import eu.domibus.core.property.DomibusPropertyProviderImpl;
 import eu.domibus.ebms3.common.model.ObjectFactory;
@@ -51,6 +52,7 @@ import java.lang.reflect.Method;
 import java.security.KeyStore;
 import java.security.cert.X509Certificate;
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 import static eu.domibus.core.certificate.CertificateTestUtils.loadCertificateFromJKSFile;
@@ -125,9 +127,14 @@ public class DynamicDiscoveryPModeProviderTest {
     @Mock
     private DomibusPropertyProviderImpl domibusPropertyProvider;
 
+    @Mock
+    DynamicDiscoveryParticipantCache participantCache;
+
     @Before
-    public void initMocks() {
+    public void initMocks() throws EbMS3Exception {
         MockitoAnnotations.initMocks(this);
+        doAnswer(invocation -> ((DynamicDiscoveryParticipantCache.ParticipantLookup) invocation.getArguments()[2]).lookup((List<String>) invocation.getArguments()[1]))
+                .when(participantCache).getParticipant(any(Domain.class), anyListOf(String.class), any(DynamicDiscoveryParticipantCache.ParticipantLookup.class));
     }
 
     private Configuration initializeConfiguration(String resourceXML) throws Exception {
@@ -209,6 +216,68 @@ public class DynamicDiscoveryPModeProviderTest {
         assertTrue(dynamicDiscoveryPModeProvider.getConfiguration().getBusinessProcesses().getParties().contains(expectedParty));
     }
 
+    @Test
+    public void testDoDynamicDiscoveryOnSender_PublishedOnce() throws Exception {
+        Configuration testData = initializeConfiguration(DYNAMIC_DISCOVERY_ENABLED);
+        doReturn(true).when(configurationDAO).configurationExists();
+        doReturn(testData).when(configurationDAO).readEager();
+        dynamicDiscoveryPModeProvider.init();
+
+        EndpointInfo testDataEndpoint = buildAS4EndpointWithArguments(PROCESSIDENTIFIER_ID, PROCESSIDENTIFIER_SCHEME, ADDRESS, ALIAS_CN_AVAILABLE);
+        DynamicDiscoveryParticipant participant = new DynamicDiscoveryParticipant(ADDRESS, testDataEndpoint.getCertificate(), EXPECTED_COMMON_NAME);
+        doReturn(participant).when(participantCache).getParticipant(any(Domain.class), anyListOf(String.class), any(DynamicDiscoveryParticipantCache.ParticipantLookup.class));
+        doReturn(DOMAIN).when(domainProvider).getCurrentDomain();
+
+        for (int i = 0; i < 2; i++) {
+            UserMessage userMessage = buildUserMessageForDoDynamicThingsWithArguments(TEST_ACTION_VALUE, TEST_SERVICE_VALUE, TEST_SERVICE_TYPE, UNKNOWN_DYNAMIC_RESPONDER_PARTYID_VALUE, UNKNOWN_DYNAMIC_RESPONDER_PARTYID_TYPE, UNKNOWN_DYNAMIC_INITIATOR_PARTYID_VALUE, UNKNOWN_DYNAMIC_INITIATOR_PARTYID_TYPE, UUID.randomUUID().toString());
+            dynamicDiscoveryPModeProvider.doDynamicDiscovery(userMessage, MSHRole.SENDING);
+            assertEquals(EXPECTED_COMMON_NAME, userMessage.getPartyInfo().getTo().getPartyId().iterator().next().getValue());
+        }
+
+        verify(multiDomainCertificateProvider, times(1)).addCertificate(eq(DOMAIN), anyListOf(CertificateEntry.class), eq(true));
+        assertNotNull(dynamicDiscoveryPModeProvider.getPModeIndex().getPartyByName(EXPECTED_COMMON_NAME));
+    }
+
+    @Test
+    public void testDoDynamicDiscoveryOnSender_PublishedAgainAfterTrustStoreChanged() throws Exception {
+        Configuration testData = initializeConfiguration(DYNAMIC_DISCOVERY_ENABLED);
+        doReturn(true).when(configurationDAO).configurationExists();
+        doReturn(testData).when(configurationDAO).readEager();
+        dynamicDiscoveryPModeProvider.init();
+
+        EndpointInfo testDataEndpoint = buildAS4EndpointWithArguments(PROCESSIDENTIFIER_ID, PROCESSIDENTIFIER_SCHEME, ADDRESS, ALIAS_CN_AVAILABLE);
+        DynamicDiscoveryParticipant participant = new DynamicDiscoveryParticipant(ADDRESS, testDataEndpoint.getCertificate(), EXPECTED_COMMON_NAME);
+        doReturn(participant).when(participantCache).getParticipant(any(Domain.class), anyListOf(String.class), any(DynamicDiscoveryParticipantCache.ParticipantLookup.class));
+        doReturn(DOMAIN).when(domainProvider).getCurrentDomain();
+
+        for (long trustStoreVersion = 0; trustStoreVersion < 2; trustStoreVersion++) {
+            // the truststore is replaced after the first message
+            doReturn(trustStoreVersion).when(participantCache).getTrustStoreVersion(DOMAIN);
+            UserMessage userMessage = buildUserMessageForDoDynamicThingsWithArguments(TEST_ACTION_VALUE, TEST_SERVICE_VALUE, TEST_SERVICE_TYPE, UNKNOWN_DYNAMIC_RESPONDER_PARTYID_VALUE, UNKNOWN_DYNAMIC_RESPONDER_PARTYID_TYPE, UNKNOWN_DYNAMIC_INITIATOR_PARTYID_VALUE, UNKNOWN_DYNAMIC_INITIATOR_PARTYID_TYPE, UUID.randomUUID().toString());
+            dynamicDiscoveryPModeProvider.doDynamicDiscovery(userMessage, MSHRole.SENDING);
+        }
+
+        verify(multiDomainCertificateProvider, times(2)).addCertificate(eq(DOMAIN), anyListOf(CertificateEntry.class), eq(true));
+    }
+
+    @Test
+    public void testDoDynamicDiscoveryOnSender_CertificateAlreadyTrusted() throws Exception {
+        Configuration testData = initializeConfiguration(DYNAMIC_DISCOVERY_ENABLED);
+        doReturn(true).when(configurationDAO).configurationExists();
+        doReturn(testData).when(configurationDAO).readEager();
+        dynamicDiscoveryPModeProvider.init();
+
+        EndpointInfo testDataEndpoint = buildAS4EndpointWithArguments(PROCESSIDENTIFIER_ID, PROCESSIDENTIFIER_SCHEME, ADDRESS, ALIAS_CN_AVAILABLE);
+        doReturn(testDataEndpoint).when(dynamicDiscoveryServiceOASIS).lookupInformation(DOMAIN.getCode(), UNKNOWN_DYNAMIC_RESPONDER_PARTYID_VALUE, UNKNOWN_DYNAMIC_RESPONDER_PARTYID_TYPE, TEST_ACTION_VALUE, TEST_SERVICE_VALUE, TEST_SERVICE_TYPE);
+        doReturn(testDataEndpoint.getCertificate()).when(multiDomainCertificateProvider).getCertificateFromTruststore(DOMAIN, EXPECTED_COMMON_NAME);
+        doReturn(DOMAIN).when(domainProvider).getCurrentDomain();
+        UserMessage userMessage = buildUserMessageForDoDynamicThingsWithArguments(TEST_ACTION_VALUE, TEST_SERVICE_VALUE, TEST_SERVICE_TYPE, UNKNOWN_DYNAMIC_RESPONDER_PARTYID_VALUE, UNKNOWN_DYNAMIC_RESPONDER_PARTYID_TYPE, UNKNOWN_DYNAMIC_INITIATOR_PARTYID_VALUE, UNKNOWN_DYNAMIC_INITIATOR_PARTYID_TYPE, UUID.randomUUID().toString());
+
+        dynamicDiscoveryPModeProvider.doDynamicDiscovery(userMessage, MSHRole.SENDING);
+
+        verify(multiDomainCertificateProvider, never()).addCertificate(any(Domain.class), anyListOf(CertificateEntry.class), anyBoolean());
+    }
+
     @Test(expected = EbMS3Exception.class)
     public void testDoDynamicDiscoveryOnSenderNullCertificate() throws Exception {
         Configuration testData = initializeConfiguration(DYNAMIC_DISCOVERY_ENABLED);
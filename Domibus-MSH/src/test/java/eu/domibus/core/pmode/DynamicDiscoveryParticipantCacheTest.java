@@ -0,0 +1,170 @@
+package eu.domibus.core.pmode;
+
+import eu.domibus.api.multitenancy.Domain;
+import eu.domibus.api.multitenancy.DomainService;
+import eu.domibus.api.multitenancy.DomainTaskExecutor;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.common.ErrorCode;
+import eu.domibus.common.exception.EbMS3Exception;
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Tested;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_DYNAMICDISCOVERY_LOOKUP_CACHE_TTL;
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@RunWith(JMockit.class)
+public class DynamicDiscoveryParticipantCacheTest {
+
+    private static final List<String> KEY = Arrays.asList("0088:123456", "iso6523-actorid-upis", "action", "service", "serviceType");
+
+    @Tested
+    DynamicDiscoveryParticipantCache participantCache;
+
+    @Injectable
+    DomibusPropertyProvider domibusPropertyProvider;
+
+    @Injectable
+    DomainTaskExecutor domainTaskExecutor;
+
+    Domain domain = DomainService.DEFAULT_DOMAIN;
+
+    @Test
+    public void testGetParticipant_LooksUpOnce() throws Exception {
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerDomainProperty(domain, DOMIBUS_DYNAMICDISCOVERY_LOOKUP_CACHE_TTL);
+            result = 3600;
+        }};
+        final AtomicInteger lookups = new AtomicInteger();
+        final DynamicDiscoveryParticipant participant = new DynamicDiscoveryParticipant("http://localhost/msh", null, "red_gw");
+
+        assertSame(participant, participantCache.getParticipant(domain, KEY, key -> lookup(lookups, participant)));
+        assertSame(participant, participantCache.getParticipant(domain, KEY, key -> lookup(lookups, participant)));
+        assertEquals(1, lookups.get());
+
+        participantCache.clear(domain.getCode());
+        participantCache.getParticipant(domain, KEY, key -> lookup(lookups, participant));
+        assertEquals(2, lookups.get());
+
+        new Verifications() {{
+            domainTaskExecutor.submitLongRunningTask((Runnable) any, (Domain) any);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testGetParticipant_NotCachedWithoutTimeToLive() throws Exception {
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerDomainProperty(domain, DOMIBUS_DYNAMICDISCOVERY_LOOKUP_CACHE_TTL);
+            result = 0;
+        }};
+        final AtomicInteger lookups = new AtomicInteger();
+        final DynamicDiscoveryParticipant participant = new DynamicDiscoveryParticipant("http://localhost/msh", null, "red_gw");
+
+        participantCache.getParticipant(domain, KEY, key -> lookup(lookups, participant));
+        participantCache.getParticipant(domain, KEY, key -> lookup(lookups, participant));
+
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void testGetParticipant_RefreshesInBackground() throws Exception {
+        final DynamicDiscoveryParticipant participant = new DynamicDiscoveryParticipant("http://localhost/msh", null, "red_gw");
+        participantCache.getParticipants(domain).put(KEY, new DynamicDiscoveryParticipantCache.Entry(participant, System.currentTimeMillis() - 3000_000L, 3600_000L));
+        final AtomicInteger lookups = new AtomicInteger();
+
+        // the refresh is due but the previous participant is still used
+        assertSame(participant, participantCache.getParticipant(domain, KEY, key -> lookup(lookups, participant)));
+        participantCache.getParticipant(domain, KEY, key -> lookup(lookups, participant));
+
+        assertEquals(0, lookups.get());
+        new Verifications() {{
+            domainTaskExecutor.submitLongRunningTask((Runnable) any, domain);
+            times = 1;
+        }};
+    }
+
+    @Test
+    public void testGetParticipant_LookupReleased() throws Exception {
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerDomainProperty(domain, DOMIBUS_DYNAMICDISCOVERY_LOOKUP_CACHE_TTL);
+            result = 3600;
+        }};
+        final DynamicDiscoveryParticipant participant = new DynamicDiscoveryParticipant("http://localhost/msh", null, "red_gw");
+
+        participantCache.getParticipant(domain, KEY, key -> participant);
+        try {
+            participantCache.getParticipant(domain, Arrays.asList("0088:654321"), key -> {
+                throw new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0010, "No participant", null, null);
+            });
+            fail("The lookup error should be thrown");
+        } catch (EbMS3Exception e) {
+            assertEquals(ErrorCode.EbMS3ErrorCode.EBMS_0010, e.getErrorCode());
+        }
+
+        assertTrue(participantCache.pendingLookups.isEmpty());
+    }
+
+    @Test
+    public void testGetParticipant_EvictsExpired() throws Exception {
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerDomainProperty(domain, DOMIBUS_DYNAMICDISCOVERY_LOOKUP_CACHE_TTL);
+            result = 3600;
+        }};
+        final long now = System.currentTimeMillis();
+        final DynamicDiscoveryParticipant participant = new DynamicDiscoveryParticipant("http://localhost/msh", null, "red_gw");
+        final List<String> expiredKey = Arrays.asList("0088:654321");
+        participantCache.getParticipants(domain).put(expiredKey, new DynamicDiscoveryParticipantCache.Entry(participant, now - 7200_000L, 3600_000L));
+        participantCache.lastEvictions.put(domain.getCode(), new AtomicLong(now - 7200_000L));
+
+        participantCache.getParticipant(domain, KEY, key -> participant);
+
+        assertEquals(Collections.singleton(KEY), participantCache.getParticipants(domain).keySet());
+    }
+
+    @Test
+    public void testGetParticipant_EvictsAtMostOncePerTimeToLive() throws Exception {
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerDomainProperty(domain, DOMIBUS_DYNAMICDISCOVERY_LOOKUP_CACHE_TTL);
+            result = 3600;
+        }};
+        final long now = System.currentTimeMillis();
+        final DynamicDiscoveryParticipant participant = new DynamicDiscoveryParticipant("http://localhost/msh", null, "red_gw");
+        final List<String> expiredKey = Arrays.asList("0088:654321");
+        participantCache.getParticipants(domain).put(expiredKey, new DynamicDiscoveryParticipantCache.Entry(participant, now - 7200_000L, 3600_000L));
+        participantCache.lastEvictions.put(domain.getCode(), new AtomicLong(now - 60_000L));
+
+        participantCache.getParticipant(domain, KEY, key -> participant);
+
+        assertEquals(2, participantCache.getParticipants(domain).size());
+    }
+
+    @Test
+    public void testTrustStoreChanged() {
+        final long trustStoreVersion = participantCache.getTrustStoreVersion(domain);
+
+        participantCache.trustStoreChanged(domain);
+
+        assertEquals(trustStoreVersion + 1, participantCache.getTrustStoreVersion(domain));
+        assertEquals(0, participantCache.getTrustStoreVersion(new Domain("domain2", "Domain 2")));
+    }
+
+    private DynamicDiscoveryParticipant lookup(AtomicInteger lookups, DynamicDiscoveryParticipant participant) {
+        lookups.incrementAndGet();
+        return participant;
+    }
+}
@@ -0,0 +1,71 @@
+package eu.domibus.core.pmode;
+
+import com.codahale.metrics.MetricRegistry;
+import eu.domibus.common.MSHRole;
+import eu.domibus.ebms3.common.context.MessageExchangeConfiguration;
+import eu.domibus.ebms3.common.model.*;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+public class MessageExchangeConfigurationCacheTest {
+
+    private MetricRegistry metricRegistry;
+
+    private MessageExchangeConfigurationCache messageExchangeConfigurationCache;
+
+    @Before
+    public void setUp() {
+        metricRegistry = new MetricRegistry();
+        messageExchangeConfigurationCache = new MessageExchangeConfigurationCache("default", 10, metricRegistry);
+    }
+
+    @Test
+    public void testGet_HitIsCaseInsensitive() {
+        MessageExchangeConfiguration messageExchangeConfiguration = new MessageExchangeConfiguration("agreement", "blue_gw", "red_gw", "service", "action", "leg");
+        messageExchangeConfigurationCache.put(createUserMessage("domibus-blue", "tc1Action"), MSHRole.SENDING, messageExchangeConfiguration);
+
+        Assert.assertSame(messageExchangeConfiguration, messageExchangeConfigurationCache.get(createUserMessage("DOMIBUS-BLUE", "TC1ACTION"), MSHRole.SENDING));
+        Assert.assertEquals(1, messageExchangeConfigurationCache.size());
+        Assert.assertEquals(1, metricRegistry.counter(MetricRegistry.name(MessageExchangeConfigurationCache.class, "default", "hits")).getCount());
+    }
+
+    @Test
+    public void testGet_Miss() {
+        messageExchangeConfigurationCache.put(createUserMessage("domibus-blue", "tc1Action"), MSHRole.SENDING,
+                new MessageExchangeConfiguration("agreement", "blue_gw", "red_gw", "service", "action", "leg"));
+
+        Assert.assertNull(messageExchangeConfigurationCache.get(createUserMessage("domibus-blue", "tc2Action"), MSHRole.SENDING));
+        Assert.assertNull(messageExchangeConfigurationCache.get(createUserMessage("domibus-blue", "tc1Action"), MSHRole.RECEIVING));
+        Assert.assertEquals(2, metricRegistry.counter(MetricRegistry.name(MessageExchangeConfigurationCache.class, "default", "misses")).getCount());
+    }
+
+    private UserMessage createUserMessage(String fromPartyId, String action) {
+        PartyId partyId = new PartyId();
+        partyId.setType("urn:oasis:names:tc:ebcore:partyid-type:unregistered");
+        partyId.setValue(fromPartyId);
+        From from = new From();
+        from.setRole("http://docs.oasis-open.org/ebxml-msg/ebms/v3.0/ns/core/200704/initiator");
+        from.getPartyId().add(partyId);
+
+        PartyInfo partyInfo = new PartyInfo();
+        partyInfo.setFrom(from);
+        partyInfo.setTo(new To());
+
+        Service service = new Service();
+        service.setType("tc1");
+        service.setValue("bdx:noprocess");
+        CollaborationInfo collaborationInfo = new CollaborationInfo();
+        collaborationInfo.setService(service);
+        collaborationInfo.setAction(action);
+
+        UserMessage userMessage = new UserMessage();
+        userMessage.setPartyInfo(partyInfo);
+        userMessage.setCollaborationInfo(collaborationInfo);
+        return userMessage;
+    }
+}
@@ -0,0 +1,86 @@
+package eu.domibus.core.pmode;
+
+import eu.domibus.common.model.configuration.Configuration;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Unmarshaller;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+public class PModeIndexTest {
+
+    private static final String VALID_PMODE_CONFIG_URI = "samplePModes/domibus-configuration-valid.xml";
+
+    private PModeIndex pModeIndex;
+
+    @Before
+    public void setUp() throws Exception {
+        InputStream xmlStream = getClass().getClassLoader().getResourceAsStream(VALID_PMODE_CONFIG_URI);
+        Unmarshaller unmarshaller = JAXBContext.newInstance(Configuration.class).createUnmarshaller();
+        Configuration configuration = (Configuration) unmarshaller.unmarshal(xmlStream);
+        Method m = configuration.getClass().getDeclaredMethod("preparePersist", null);
+        m.setAccessible(true);
+        m.invoke(configuration);
+
+        pModeIndex = new PModeIndex(configuration);
+    }
+
+    @Test
+    public void testFindLegName() {
+        Assert.assertEquals("pushTestcase1tc1Action", pModeIndex.findLegName("agreementEmpty", "blue_gw", "RED_GW", "testService1", "TC1ACTION"));
+        Assert.assertEquals("pushTestcase3Leg2tc3ActionLeg2", pModeIndex.findLegName("agreement1110", "red_gw", "blue_gw", "testService3", "tc3ActionLeg2"));
+    }
+
+    @Test
+    public void testFindLegName_AgreementWithoutValueMatchesOptionalAndEmpty() {
+        Assert.assertTrue(pModeIndex.hasLegCandidates(PModeProvider.OPTIONAL_AND_EMPTY, "blue_gw", "red_gw"));
+        Assert.assertEquals("pushTestcase1tc1Action", pModeIndex.findLegName(PModeProvider.OPTIONAL_AND_EMPTY, "blue_gw", "red_gw", "testService1", "tc1Action"));
+    }
+
+    @Test
+    public void testFindLegName_NoCandidates() {
+        Assert.assertFalse(pModeIndex.hasLegCandidates("agreementEmpty", "blue_gw", "unknownParty"));
+        Assert.assertFalse(pModeIndex.hasLegCandidates("unknownAgreement", "blue_gw", "red_gw"));
+        Assert.assertNull(pModeIndex.findLegName("agreementEmpty", "blue_gw", "red_gw", "testService1", "tc2Action"));
+    }
+
+    @Test
+    public void testGetPartyByIdentifier() {
+        Assert.assertEquals("blue_gw", pModeIndex.getPartyByIdentifier("", "URN:OASIS:NAMES:TC:EBCORE:PARTYID-TYPE:UNREGISTERED:DOMIBUS-BLUE").getName());
+        Assert.assertEquals("blue_gw", pModeIndex.getPartyByIdentifier(null, "urn:oasis:names:tc:ebcore:partyid-type:unregistered:domibus-blue").getName());
+        Assert.assertNull(pModeIndex.getPartyByIdentifier("someType", "urn:oasis:names:tc:ebcore:partyid-type:unregistered:domibus-blue"));
+        Assert.assertEquals("red_gw", pModeIndex.getPartyByIdentifierValue("urn:oasis:names:tc:ebcore:partyid-type:unregistered:domibus-red").getName());
+        Assert.assertEquals("red_gw", pModeIndex.getPartyByName("RED_GW").getName());
+    }
+
+    @Test
+    public void testFindServiceName() {
+        Assert.assertEquals("testService2", pModeIndex.findServiceName("TC2", "bdx:noprocess"));
+        Assert.assertEquals("noSecService", pModeIndex.findServiceName(null, "InternalTesting"));
+        Assert.assertEquals("noSecService", pModeIndex.findServiceName("", "internaltesting"));
+        Assert.assertNull(pModeIndex.findServiceName("tc4", "bdx:noprocess"));
+    }
+
+    @Test
+    public void testFindActionAndAgreementName() {
+        Assert.assertEquals("tc1Action", pModeIndex.findActionName("tc1leg1"));
+        Assert.assertNull(pModeIndex.findActionName("unknown"));
+        Assert.assertEquals("agreement1110", pModeIndex.findAgreementName(null, "edelivery-1110"));
+        Assert.assertNull(pModeIndex.findAgreementName("someType", "EDELIVERY-1110"));
+    }
+
+    @Test
+    public void testGetByName() {
+        Assert.assertEquals("testService1", pModeIndex.getServiceByName("TESTSERVICE1").getName());
+        Assert.assertEquals("tc1Action", pModeIndex.getActionByName("tc1action").getName());
+        Assert.assertEquals("agreement1110", pModeIndex.getAgreementByName("AGREEMENT1110").getName());
+        Assert.assertEquals("pushNoSecnoSecAction", pModeIndex.getLegConfigurationByName("pushnosecnosecaction").getName());
+    }
+}
@@ -16,6 +16,7 @@ import eu.domibus.core.crypto.api.MultiDomainCryptoService;
 import eu.domibus.core.payload.encryption.PayloadEncryptionService;
 import eu.domibus.core.payload.persistence.filesystem.PayloadFileStorage;
 import eu.domibus.core.payload.persistence.filesystem.PayloadFileStorageProvider;
+import eu.domibus.core.pmode.DynamicDiscoveryParticipantCache;
 import eu.domibus.core.pmode.PModeProvider;
 import eu.domibus.core.property.DomibusPropertyMetadataManagerImpl;
 import eu.domibus.ebms3.puller.PullFrequencyHelper;
@@ -149,6 +150,9 @@ public class DomibusPropertiesChangeListenersTest {
     @Injectable
     protected PModeProvider pModeProvider;
 
+    @Injectable
+    protected DynamicDiscoveryParticipantCache dynamicDiscoveryParticipantCache;
+
     @Injectable
     protected PayloadEncryptionService payloadEncryptionService;
 
@@ -236,6 +240,7 @@ public class DomibusPropertiesChangeListenersTest {
             messageListenerContainerInitializer.createSendMessageListenerContainer((Domain) any);
             domibusScheduler.rescheduleJob((Domain) any, anyString, anyString);
             domibusCacheService.clearCache(anyString);
+            dynamicDiscoveryParticipantCache.clear("default");
             pModeProvider.refresh();
             blacklistValidators.forEach((Consumer) any);
 
@@ -15,6 +15,7 @@ import javax.persistence.Query;
 import java.util.Date;
 
 import static eu.domibus.core.pull.MessagingLockDaoImpl.LOCK_BY_ID_QUERY;
+import static eu.domibus.core.pull.MessagingLockDaoImpl.LOCK_BY_ID_SKIP_LOCKED_QUERY;
 import static org.junit.Assert.*;
 
 @RunWith(JMockit.class)
@@ -166,6 +167,21 @@ public class MessagingLockDaoImplTest {
         assertNull(nextPullMessageToProcess);
     }
 
+    @Test
+    public void claimNextPullMessageToProcessAlreadyLocked(@Mocked final Query query) {
+        final long idPk = 6;
+        new Expectations() {{
+            entityManager.createNativeQuery(LOCK_BY_ID_SKIP_LOCKED_QUERY, MessagingLock.class);
+            result = query;
+
+            query.getSingleResult();
+            result = new NoResultException();
+        }};
+        final PullMessageId nextPullMessageToProcess = messagingLockDao.claimNextPullMessageToProcess(idPk);
+        assertNull(nextPullMessageToProcess);
+        assertTrue(LOCK_BY_ID_SKIP_LOCKED_QUERY.endsWith("FOR UPDATE SKIP LOCKED"));
+    }
+
     @Test
     public void delete(@Mocked final Query query) {
         final String messageId = "messageId";
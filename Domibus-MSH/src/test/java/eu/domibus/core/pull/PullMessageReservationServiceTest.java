@@ -0,0 +1,162 @@
+package eu.domibus.core.pull;
+
+import eu.domibus.api.configuration.DataBaseEngine;
+import eu.domibus.api.configuration.DomibusConfigurationService;
+import eu.domibus.api.multitenancy.DomainContextProvider;
+import eu.domibus.api.multitenancy.DomainService;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Tested;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_PULL_RESERVATION_PREFETCH_SIZE;
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_PULL_RESERVATION_SKIP_LOCKED;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@RunWith(JMockit.class)
+public class PullMessageReservationServiceTest {
+
+    private static final String MPC = "mpc";
+    private static final String INITIATOR = "initiator";
+
+    @Tested
+    PullMessageReservationService pullMessageReservationService;
+
+    @Injectable
+    MessagingLockDao messagingLockDao;
+
+    @Injectable
+    DomibusPropertyProvider domibusPropertyProvider;
+
+    @Injectable
+    DomibusConfigurationService domibusConfigurationService;
+
+    @Injectable
+    DomainContextProvider domainContextProvider;
+
+    @Injectable
+    Executor executor;
+
+    @Test
+    public void testIsActive_H2() {
+        new Expectations() {{
+            domibusPropertyProvider.getBooleanDomainProperty(DOMIBUS_PULL_RESERVATION_SKIP_LOCKED);
+            result = true;
+
+            domibusConfigurationService.getDataBaseEngine();
+            result = DataBaseEngine.H2;
+        }};
+
+        Assert.assertFalse(pullMessageReservationService.isActive());
+    }
+
+    @Test
+    public void testIsActive_Oracle() {
+        new Expectations() {{
+            domibusPropertyProvider.getBooleanDomainProperty(DOMIBUS_PULL_RESERVATION_SKIP_LOCKED);
+            result = true;
+
+            domibusConfigurationService.getDataBaseEngine();
+            result = DataBaseEngine.ORACLE;
+        }};
+
+        Assert.assertTrue(pullMessageReservationService.isActive());
+    }
+
+    @Test
+    public void testClaimNextPullMessage_SkipsClaimedMessages(@Injectable PullMessageId pullMessageId) {
+        new Expectations() {{
+            domainContextProvider.getCurrentDomain();
+            result = DomainService.DEFAULT_DOMAIN;
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_PULL_RESERVATION_PREFETCH_SIZE);
+            result = 4;
+
+            messagingLockDao.findReadyToPullIds(MPC, INITIATOR, 4);
+            result = Arrays.asList(1L, 2L, 3L, 4L);
+
+            messagingLockDao.claimNextPullMessageToProcess(1L);
+            result = null;
+
+            messagingLockDao.claimNextPullMessageToProcess(2L);
+            result = pullMessageId;
+        }};
+
+        Assert.assertSame(pullMessageId, pullMessageReservationService.claimNextPullMessage(MPC, INITIATOR));
+
+        final PullMessageReservationService.ReadyQueue readyQueue = pullMessageReservationService.readyQueues.get("default:" + MPC + ":" + INITIATOR);
+        Assert.assertEquals(Arrays.asList(3L, 4L), Arrays.asList(readyQueue.ids.toArray()));
+        new Verifications() {{
+            messagingLockDao.claimNextPullMessageToProcess(3L);
+            times = 0;
+            executor.execute((Runnable) any);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testClaimNextPullMessage_RefillsInBackground(@Injectable PullMessageId pullMessageId) {
+        new Expectations() {{
+            domainContextProvider.getCurrentDomain();
+            result = DomainService.DEFAULT_DOMAIN;
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_PULL_RESERVATION_PREFETCH_SIZE);
+            result = 4;
+
+            messagingLockDao.findReadyToPullIds(MPC, INITIATOR, 4);
+            result = Arrays.asList(1L, 2L);
+
+            messagingLockDao.claimNextPullMessageToProcess(1L);
+            result = pullMessageId;
+        }};
+
+        Assert.assertSame(pullMessageId, pullMessageReservationService.claimNextPullMessage(MPC, INITIATOR));
+
+        new Verifications() {{
+            executor.execute((Runnable) any);
+            times = 1;
+        }};
+    }
+
+    @Test
+    public void testRefill_AddsOnlyNewIds() {
+        final PullMessageReservationService.ReadyQueue readyQueue = new PullMessageReservationService.ReadyQueue();
+        readyQueue.ids.add(2L);
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_PULL_RESERVATION_PREFETCH_SIZE);
+            result = 50;
+
+            messagingLockDao.findReadyToPullIds(MPC, INITIATOR, 50);
+            result = Arrays.asList(1L, 2L, 3L);
+        }};
+
+        pullMessageReservationService.refill(readyQueue, MPC, INITIATOR);
+
+        Assert.assertEquals(Arrays.asList(2L, 1L, 3L), Arrays.asList(readyQueue.ids.toArray()));
+        Assert.assertFalse(readyQueue.refilling.get());
+    }
+
+    @Test
+    public void testRefill_AlreadyRefilling() {
+        final PullMessageReservationService.ReadyQueue readyQueue = new PullMessageReservationService.ReadyQueue();
+        readyQueue.refilling.set(true);
+
+        pullMessageReservationService.refill(readyQueue, MPC, INITIATOR);
+
+        new Verifications() {{
+            messagingLockDao.findReadyToPullIds(anyString, anyString, anyInt);
+            times = 0;
+        }};
+    }
+}
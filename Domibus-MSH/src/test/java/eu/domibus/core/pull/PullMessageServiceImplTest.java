@@ -4,10 +4,10 @@ import com.google.common.collect.Lists;
 import eu.domibus.api.message.UserMessageLogService;
 import eu.domibus.api.pmode.PModeException;
 import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.api.usermessage.UserMessageService;
 import eu.domibus.common.ErrorCode;
 import eu.domibus.common.MSHRole;
 import eu.domibus.common.MessageStatus;
-import eu.domibus.common.dao.MessagingDao;
 import eu.domibus.common.dao.RawEnvelopeLogDao;
 import eu.domibus.common.dao.UserMessageLogDao;
 import eu.domibus.common.exception.EbMS3Exception;
@@ -44,7 +44,7 @@ public class PullMessageServiceImplTest {
     private BackendNotificationService backendNotificationService;
 
     @Injectable
-    private MessagingDao messagingDao;
+    private UserMessageService userMessageService;
 
     @Injectable
     private PullMessageStateService pullMessageStateService;
@@ -73,6 +73,9 @@ public class PullMessageServiceImplTest {
     @Injectable
     protected MpcService mpcService;
 
+    @Injectable
+    protected PullMessageReservationService pullMessageReservationService;
+
     @Tested
     private PullMessageServiceImpl pullMessageService;
 
@@ -203,6 +206,40 @@ public class PullMessageServiceImplTest {
 
     }
 
+    @Test
+    public void getPullMessageIdSkipLocked(@Mocked final PullMessageId expiredPullMessageId, @Mocked final PullMessageId pullMessageId) {
+        final String initiator = "initiator";
+        final String mpc = "mpc";
+        new Expectations() {{
+            pullMessageReservationService.isActive();
+            result = true;
+
+            pullMessageReservationService.claimNextPullMessage(mpc, initiator);
+            returns(expiredPullMessageId, pullMessageId);
+
+            expiredPullMessageId.getState();
+            result = PullMessageState.EXPIRED;
+
+            expiredPullMessageId.getMessageId();
+            result = "expiredMessageId";
+
+            pullMessageId.getState();
+            result = PullMessageState.FIRST_ATTEMPT;
+
+            pullMessageId.getMessageId();
+            result = "messageId";
+        }};
+
+        final String returnedMessageId = pullMessageService.getPullMessageId(initiator, mpc);
+        assertEquals("messageId", returnedMessageId);
+
+        new Verifications() {{
+            pullMessageStateService.expirePullMessage("expiredMessageId");
+            messagingLockDao.findReadyToPull(anyString, anyString);
+            times = 0;
+        }};
+    }
+
     @Test(expected = PModeException.class)
     public void addPullMessageLockWithPmodeException(@Mocked final PartyIdExtractor partyIdExtractor, @Mocked final UserMessage userMessage, @Mocked final MessageLog messageLog) throws EbMS3Exception {
         final String pmodeKey = "pmodeKey";
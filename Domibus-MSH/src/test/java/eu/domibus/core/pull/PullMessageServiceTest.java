@@ -2,7 +2,7 @@ package eu.domibus.core.pull;
 
 import eu.domibus.api.message.UserMessageLogService;
 import eu.domibus.api.property.DomibusPropertyProvider;
-import eu.domibus.common.dao.MessagingDao;
+import eu.domibus.api.usermessage.UserMessageService;
 import eu.domibus.common.dao.RawEnvelopeLogDao;
 import eu.domibus.common.dao.UserMessageLogDao;
 import eu.domibus.core.message.UserMessageLogDefaultService;
@@ -38,6 +38,9 @@ public class PullMessageServiceTest {
     @Injectable
     MpcService mpcService;
 
+    @Injectable
+    protected PullMessageReservationService pullMessageReservationService;
+
     @Injectable
     private UserMessageLogDefaultService userMessageLogService;
 
@@ -45,7 +48,7 @@ public class PullMessageServiceTest {
     private BackendNotificationService backendNotificationService;
 
     @Injectable
-    private MessagingDao messagingDao;
+    private UserMessageService userMessageService;
 
     @Injectable
     private PullMessageStateService pullMessageStateService;
@@ -8,9 +8,14 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_BATCH_SIZE;
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_DELAY;
+
 /**
  * JUnit for {@link UIMessageDiffServiceImpl}
  *
@@ -35,6 +40,9 @@ public class UIMessageDiffServiceImplTest {
     @Injectable
     UIMessageService uiMessageService;
 
+    @Injectable
+    UIReplicationIncrementalSyncService uiReplicationIncrementalSyncService;
+
 
     @Test
     public void testCountAll() {
@@ -122,6 +130,85 @@ public class UIMessageDiffServiceImplTest {
         }};
     }
 
+    @Test
+    public void testFindAndSyncUIMessages_Incremental() {
+        final List<Object[]> firstBatch = createChanges(1000);
+        final List<Object[]> secondBatch = createChanges(300);
+        new Expectations(uiMessageDiffService) {{
+            uiReplicationIncrementalSyncService.isActive();
+            result = true;
+
+            domibusPropertyProvider.getDomainProperty(UIMessageDiffServiceImpl.MAX_ROWS_KEY);
+            result = 2500;
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_BATCH_SIZE);
+            result = 1000;
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_DELAY);
+            result = 60000;
+
+            uiReplicationIncrementalSyncService.findNextChanges((Date) any, 1000);
+            returns(firstBatch, secondBatch);
+        }};
+
+        //tested method
+        uiMessageDiffService.findAndSyncUIMessages();
+
+        new Verifications() {{
+            uiReplicationIncrementalSyncService.findNextChanges((Date) any, anyInt);
+            times = 2;
+            uiReplicationIncrementalSyncService.synchronizeChange((Object[]) any);
+            times = 1300;
+
+            uiMessageDiffService.countAll();
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testFindAndSyncUIMessages_IncrementalStopsAtTheFirstFailure() {
+        final List<Object[]> changes = createChanges(3);
+
+        new Expectations(uiMessageDiffService) {{
+            uiReplicationIncrementalSyncService.isActive();
+            result = true;
+
+            domibusPropertyProvider.getDomainProperty(UIMessageDiffServiceImpl.MAX_ROWS_KEY);
+            result = 2500;
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_BATCH_SIZE);
+            result = 3;
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_UI_REPLICATION_SYNC_INCREMENTAL_DELAY);
+            result = 60000;
+
+            uiReplicationIncrementalSyncService.findNextChanges((Date) any, 3);
+            result = changes;
+
+            uiReplicationIncrementalSyncService.synchronizeChange(changes.get(1));
+            result = new IllegalStateException("message deleted meanwhile");
+        }};
+
+        //tested method
+        uiMessageDiffService.findAndSyncUIMessages();
+
+        new Verifications() {{
+            // the synchronization resumes from the failed message at the next run
+            uiReplicationIncrementalSyncService.synchronizeChange(changes.get(2));
+            times = 0;
+            uiReplicationIncrementalSyncService.findNextChanges((Date) any, anyInt);
+            times = 1;
+        }};
+    }
+
+    private List<Object[]> createChanges(int count) {
+        final List<Object[]> changes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            changes.add(new Object[]{i, "message" + i, "USER_MESSAGE", new Date()});
+        }
+        return changes;
+    }
+
     @Test
     public void testFindAndSyncUIMessagesWithLimit(final @Mocked UIMessageDiffEntity uiMessageDiffEntity) {
         final int countAllRows = 10;
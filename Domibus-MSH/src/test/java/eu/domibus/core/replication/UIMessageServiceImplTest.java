@@ -1,5 +1,6 @@
 package eu.domibus.core.replication;
 
+import eu.domibus.api.property.DomibusPropertyProvider;
 import eu.domibus.common.model.logging.MessageLogInfo;
 import eu.domibus.core.converter.DomainCoreConverter;
 import eu.domibus.web.rest.ro.MessageLogRO;
@@ -11,11 +12,15 @@ import mockit.Verifications;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_UI_REPLICATION_SEARCH_COUNT_MAX;
+
 /**
  * @author Catalin Enache
  * @since 4.1
@@ -28,6 +33,9 @@ public class UIMessageServiceImplTest {
     @Injectable
     private DomainCoreConverter domainConverter;
 
+    @Injectable
+    private DomibusPropertyProvider domibusPropertyProvider;
+
     @Tested
     UIMessageServiceImpl uiMessageService;
 
@@ -79,6 +87,79 @@ public class UIMessageServiceImplTest {
         }};
     }
 
+    @Test
+    public void testCountAndFindPaged_ExactCount() {
+        new Expectations() {{
+            uiMessageDao.countEntries(filters);
+            result = 10001L;
+
+            uiMessageDao.findPaged(from, max, column, asc, filters);
+            result = uiMessageEntityList;
+        }};
+
+        //tested method
+        final MessageLogResultRO messageLogResultRO = uiMessageService.countAndFindPaged(from, max, column, asc, filters);
+        Assert.assertEquals(Long.valueOf(10001), messageLogResultRO.getCount());
+        Assert.assertFalse(messageLogResultRO.isCountCapped());
+
+        new Verifications() {{
+            // the page numbers need the exact count
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_UI_REPLICATION_SEARCH_COUNT_MAX);
+            times = 0;
+            uiMessageDao.countEntries(filters, anyInt);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testCountAndFindNextPage() {
+        final UIMessageEntity last = new UIMessageEntity();
+        last.setEntityId(7);
+        last.setReceived(new Date(2000L));
+
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_UI_REPLICATION_SEARCH_COUNT_MAX);
+            result = 10000;
+
+            uiMessageDao.countEntries(filters, 10000);
+            result = 20L;
+
+            uiMessageDao.findNextPage(new Date(1000L), 5L, 2, asc, filters);
+            result = Arrays.asList(uiMessageEntity, last);
+        }};
+
+        //tested method
+        final MessageLogResultRO messageLogResultRO = uiMessageService.countAndFindNextPage("1000_5", 2, asc, filters);
+        Assert.assertEquals(Long.valueOf(20), messageLogResultRO.getCount());
+        Assert.assertFalse(messageLogResultRO.isCountCapped());
+        Assert.assertEquals(2, messageLogResultRO.getMessageLogEntries().size());
+        Assert.assertEquals("2000_7", messageLogResultRO.getNextCursor());
+    }
+
+    @Test
+    public void testCountAndFindNextPage_LastPage() {
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_UI_REPLICATION_SEARCH_COUNT_MAX);
+            result = 0;
+
+            uiMessageDao.countEntries(filters);
+            result = 1L;
+
+            uiMessageDao.findNextPage(null, 0L, max, asc, filters);
+            result = uiMessageEntityList;
+        }};
+
+        //tested method
+        final MessageLogResultRO messageLogResultRO = uiMessageService.countAndFindNextPage(null, max, asc, filters);
+        Assert.assertEquals(Long.valueOf(1), messageLogResultRO.getCount());
+        Assert.assertNull(messageLogResultRO.getNextCursor());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCountAndFindNextPage_InvalidCursor() {
+        uiMessageService.countAndFindNextPage("1000", max, asc, filters);
+    }
+
     @Test
     public void testSaveOrUpdate() {
 
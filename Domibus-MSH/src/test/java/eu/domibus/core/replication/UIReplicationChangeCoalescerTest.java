@@ -0,0 +1,78 @@
+package eu.domibus.core.replication;
+
+import eu.domibus.api.multitenancy.DomainContextProvider;
+import eu.domibus.api.multitenancy.DomainService;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Tested;
+import mockit.integration.junit4.JMockit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@RunWith(JMockit.class)
+public class UIReplicationChangeCoalescerTest {
+
+    private static final String MESSAGE_ID = "messageId";
+
+    @Tested
+    UIReplicationChangeCoalescer uiReplicationChangeCoalescer;
+
+    @Injectable
+    DomainContextProvider domainContextProvider;
+
+    @Injectable
+    DomibusPropertyProvider domibusPropertyProvider;
+
+    @Before
+    public void setUp() {
+        new Expectations() {{
+            domainContextProvider.getCurrentDomain();
+            result = DomainService.DEFAULT_DOMAIN;
+            minTimes = 0;
+        }};
+    }
+
+    @Test
+    public void testMessageChange_KeepsTheMostRecentChange() {
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerProperty(UIReplicationChangeCoalescer.DOMIBUS_UI_REPLICATION_WAIT_BEFORE_UPDATE);
+            result = 0;
+        }};
+
+        uiReplicationChangeCoalescer.messageChange(MESSAGE_ID, 2000L);
+        uiReplicationChangeCoalescer.messageChange(MESSAGE_ID, 1000L);
+        uiReplicationChangeCoalescer.messageChange(MESSAGE_ID, 3000L);
+
+        final Map<String, Long> changes = uiReplicationChangeCoalescer.drainReadyChanges();
+        Assert.assertEquals(1, changes.size());
+        Assert.assertEquals(Long.valueOf(3000L), changes.get(MESSAGE_ID));
+        Assert.assertTrue(uiReplicationChangeCoalescer.drainReadyChanges().isEmpty());
+    }
+
+    @Test
+    public void testDrainReadyChanges_ChangeNotReady() {
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerProperty(UIReplicationChangeCoalescer.DOMIBUS_UI_REPLICATION_WAIT_BEFORE_UPDATE);
+            result = 60000;
+        }};
+
+        uiReplicationChangeCoalescer.messageChange(MESSAGE_ID, 1000L);
+
+        Assert.assertTrue(uiReplicationChangeCoalescer.drainReadyChanges().isEmpty());
+        Assert.assertEquals(1, uiReplicationChangeCoalescer.pendingChanges.get(DomainService.DEFAULT_DOMAIN.getCode()).size());
+    }
+
+    @Test
+    public void testDrainReadyChanges_NoChanges() {
+        Assert.assertTrue(uiReplicationChangeCoalescer.drainReadyChanges().isEmpty());
+    }
+}
@@ -1,7 +1,6 @@
 package eu.domibus.core.replication;
 
 import eu.domibus.api.message.MessageSubtype;
-import eu.domibus.api.property.DomibusPropertyProvider;
 import eu.domibus.common.MSHRole;
 import eu.domibus.common.MessageStatus;
 import eu.domibus.common.NotificationStatus;
@@ -22,6 +21,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.sql.Date;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
 
@@ -56,7 +57,7 @@ public class UIReplicationDataServiceImplTest {
     private UserMessageDefaultServiceHelper userMessageDefaultServiceHelper;
 
     @Injectable
-    private DomibusPropertyProvider domibusPropertyProvider;
+    private UIReplicationChangeCoalescer uiReplicationChangeCoalescer;
 
     @Injectable
     private DomainCoreConverter domainConverter;
@@ -126,36 +127,45 @@ public class UIReplicationDataServiceImplTest {
     }
 
     @Test
-    public void testMessageChange_EntityFound_ResultOK(final @Mocked UIMessageEntity uiMessageEntity) {
+    public void testMessageChange() {
+        //tested method
+        uiReplicationDataService.messageChange(messageId, jmsTime.getTime());
+
+        new FullVerifications(uiReplicationDataService) {{
+            uiReplicationChangeCoalescer.messageChange(messageId, jmsTime.getTime());
+        }};
+    }
+
+    @Test
+    public void testUpdateChangedMessages() {
         final UserMessageLog userMessageLog = createUserMessageLog();
+        final Map<String, Long> changes = Collections.singletonMap(messageId, jmsTime.getTime());
 
         new Expectations(uiReplicationDataService) {{
-            userMessageLogDao.findByMessageId(anyString);
-            result = userMessageLog;
+            uiReplicationChangeCoalescer.drainReadyChanges();
+            result = changes;
 
-            uiMessageDao.findUIMessageByMessageId(anyString);
-            result = uiMessageEntity;
+            userMessageLogDao.findByMessageIds(Collections.singletonList(messageId));
+            result = Collections.singletonList(userMessageLog);
         }};
 
         //tested method
-        uiReplicationDataService.messageChange(messageId, jmsTime.getTime());
+        uiReplicationDataService.updateChangedMessages();
 
         new FullVerifications(uiReplicationDataService) {{
-            uiMessageDao.updateMessage(userMessageLog, jmsTime.getTime());
+            uiMessageDao.updateMessages(Collections.singletonList(userMessageLog), changes);
         }};
     }
 
     @Test
-    public void testMessageChange_EntityNotFound_Warn() {
-        final UserMessageLog userMessageLog = createUserMessageLog();
-
+    public void testUpdateChangedMessages_NoChanges() {
         new Expectations(uiReplicationDataService) {{
-            uiMessageDao.findUIMessageByMessageId(anyString);
-            result = null;
+            uiReplicationChangeCoalescer.drainReadyChanges();
+            result = Collections.emptyMap();
         }};
 
         //tested method
-        uiReplicationDataService.messageChange(messageId, jmsTime.getTime());
+        uiReplicationDataService.updateChangedMessages();
 
         new FullVerifications(uiReplicationDataService) {{
         }};
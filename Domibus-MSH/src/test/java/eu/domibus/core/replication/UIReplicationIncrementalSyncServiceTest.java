@@ -0,0 +1,101 @@
+package eu.domibus.core.replication;
+
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.ebms3.common.model.MessageType;
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Tested;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.Date;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@RunWith(JMockit.class)
+public class UIReplicationIncrementalSyncServiceTest {
+
+    @Tested
+    UIReplicationIncrementalSyncService uiReplicationIncrementalSyncService;
+
+    @Injectable
+    UIReplicationCheckpointDao uiReplicationCheckpointDao;
+
+    @Injectable
+    UIReplicationDataService uiReplicationDataService;
+
+    @Injectable
+    DomibusPropertyProvider domibusPropertyProvider;
+
+    @Test
+    public void testSynchronizeChange_MovesTheCheckpoint() {
+        final UIReplicationCheckpoint checkpoint = new UIReplicationCheckpoint();
+        checkpoint.setLastModified(new Date(1000L));
+        checkpoint.setLastEntityId(5L);
+        final Timestamp lastModified = new Timestamp(3000L);
+
+        new Expectations() {{
+            uiReplicationCheckpointDao.findCheckpoint();
+            result = checkpoint;
+        }};
+
+        uiReplicationIncrementalSyncService.synchronizeChange(new Object[]{BigInteger.valueOf(7L), "signal1", "SIGNAL_MESSAGE", lastModified});
+
+        new Verifications() {{
+            uiReplicationDataService.synchronizeMessage("signal1", MessageType.SIGNAL_MESSAGE);
+            times = 1;
+        }};
+        Assert.assertEquals(7L, checkpoint.getLastEntityId());
+        Assert.assertEquals(lastModified, checkpoint.getLastModified());
+    }
+
+    @Test
+    public void testSynchronizeChange_Failure() {
+        new Expectations() {{
+            uiReplicationDataService.synchronizeMessage("user1", MessageType.USER_MESSAGE);
+            result = new IllegalStateException("message deleted meanwhile");
+        }};
+
+        try {
+            uiReplicationIncrementalSyncService.synchronizeChange(new Object[]{BigInteger.valueOf(7L), "user1", "USER_MESSAGE", new Timestamp(2000L)});
+            Assert.fail("IllegalStateException was expected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        new Verifications() {{
+            // the checkpoint is kept before the failed message
+            uiReplicationCheckpointDao.findCheckpoint();
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testFindNextChanges_FirstRun() {
+        final Date modifiedUntil = new Date();
+
+        new Expectations() {{
+            uiReplicationCheckpointDao.findCheckpoint();
+            result = null;
+
+            uiReplicationCheckpointDao.findChangedMessageLogs(new Date(0), 0L, modifiedUntil, 100);
+            result = Collections.emptyList();
+        }};
+
+        Assert.assertTrue(uiReplicationIncrementalSyncService.findNextChanges(modifiedUntil, 100).isEmpty());
+
+        new Verifications() {{
+            UIReplicationCheckpoint checkpoint;
+            uiReplicationCheckpointDao.create(checkpoint = withCapture());
+            Assert.assertEquals(0L, checkpoint.getLastModified().getTime());
+        }};
+    }
+}
@@ -0,0 +1,102 @@
+package eu.domibus.core.replication;
+
+import eu.domibus.api.multitenancy.Domain;
+import eu.domibus.api.multitenancy.DomainService;
+import eu.domibus.api.multitenancy.DomainTaskExecutor;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Tested;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_UI_REPLICATION_UPDATE_DELAY;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@RunWith(JMockit.class)
+public class UIReplicationUpdateSchedulerTest {
+
+    @Tested
+    UIReplicationUpdateScheduler uiReplicationUpdateScheduler;
+
+    @Injectable
+    DomainService domainService;
+
+    @Injectable
+    DomainTaskExecutor domainTaskExecutor;
+
+    @Injectable
+    DomibusPropertyProvider domibusPropertyProvider;
+
+    @Injectable
+    UIReplicationDataService uiReplicationDataService;
+
+    @Injectable
+    UIReplicationSignalService uiReplicationSignalService;
+
+    @After
+    public void tearDown() {
+        uiReplicationUpdateScheduler.destroy();
+    }
+
+    @Test
+    public void testUpdateChangedMessages_EachDomain() {
+        final Domain red = new Domain("red", "Red");
+        new Expectations() {{
+            uiReplicationSignalService.isReplicationEnabled();
+            result = true;
+
+            domainService.getDomains();
+            result = Arrays.asList(DomainService.DEFAULT_DOMAIN, red);
+
+            domainTaskExecutor.submit((Runnable) any, DomainService.DEFAULT_DOMAIN);
+            result = new IllegalStateException("timeout");
+        }};
+
+        uiReplicationUpdateScheduler.updateChangedMessages();
+
+        new Verifications() {{
+            // a failure of a domain does not prevent the update of the other ones
+            domainTaskExecutor.submit((Runnable) any, red);
+        }};
+    }
+
+    @Test
+    public void testUpdateChangedMessages_ReplicationDisabled() {
+        new Expectations() {{
+            uiReplicationSignalService.isReplicationEnabled();
+            result = false;
+        }};
+
+        uiReplicationUpdateScheduler.updateChangedMessages();
+
+        new Verifications() {{
+            domainTaskExecutor.submit((Runnable) any, (Domain) any);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testNextExecutionTime() {
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerProperty(DOMIBUS_UI_REPLICATION_UPDATE_DELAY);
+            result = 1000;
+        }};
+        final Date lastCompletionTime = new Date(5000L);
+
+        final Date nextExecutionTime = uiReplicationUpdateScheduler.nextExecutionTime(new SimpleTriggerContext(null, null, lastCompletionTime));
+
+        Assert.assertEquals(new Date(6000L), nextExecutionTime);
+    }
+}
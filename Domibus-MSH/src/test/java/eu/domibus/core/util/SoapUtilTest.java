@@ -16,6 +16,7 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.soap.*;
 import javax.xml.transform.dom.DOMSource;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -38,6 +39,17 @@ public class SoapUtilTest {
 
     }
 
+    @Test
+    public void writeRawXMLMessageTest() throws Exception {
+        SOAPMessage soapMessage = SoapUtilTest.createSOAPMessage("SOAPMessage.xml");
+        final SoapUtil soapUtil = new SoapUtil();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        soapUtil.writeRawXMLMessage(soapMessage, outputStream);
+
+        Assert.assertEquals(soapUtil.getRawXMLMessage(soapMessage), new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
     public static SOAPMessage createSOAPMessage(String dataset) throws SOAPException, IOException, ParserConfigurationException, SAXException {
 
         MessageFactory factory = MessageFactory.newInstance(SOAPConstants.SOAP_1_1_PROTOCOL);
@@ -0,0 +1,132 @@
+package eu.domibus.ebms3.puller;
+
+import eu.domibus.api.multitenancy.DomainContextProvider;
+import eu.domibus.api.multitenancy.DomainService;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Tested;
+import mockit.integration.junit4.JMockit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.*;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@RunWith(JMockit.class)
+public class AdaptivePullSchedulerTest {
+
+    private static final String MPC = "qn1";
+    private static final String RESPONDER = "responder";
+
+    @Tested
+    AdaptivePullScheduler adaptivePullScheduler;
+
+    @Injectable
+    DomibusPropertyProvider domibusPropertyProvider;
+
+    @Injectable
+    DomainContextProvider domainContextProvider;
+
+    @Before
+    public void setUp() {
+        new Expectations() {{
+            domainContextProvider.getCurrentDomain();
+            result = DomainService.DEFAULT_DOMAIN;
+            minTimes = 0;
+
+            domibusPropertyProvider.getBooleanDomainProperty(DOMIBUS_PULL_ADAPTIVE_ACTIVE);
+            result = true;
+            minTimes = 0;
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_PULL_ADAPTIVE_BACKOFF_INITIAL);
+            result = 1000;
+            minTimes = 0;
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_PULL_ADAPTIVE_BACKOFF_MAX);
+            result = 3000;
+            minTimes = 0;
+        }};
+    }
+
+    @Test
+    public void testAcquire_StartsWithOnePullRequest() {
+        Assert.assertEquals(1, adaptivePullScheduler.acquire(MPC, RESPONDER, 10));
+
+        // the pull request sent is still in flight
+        Assert.assertEquals(0, adaptivePullScheduler.acquire(MPC, RESPONDER, 10));
+    }
+
+    @Test
+    public void testOnMessagePulled_DoublesThePullRequestsInFlight() {
+        adaptivePullScheduler.acquire(MPC, RESPONDER, 3);
+
+        Assert.assertEquals(2, adaptivePullScheduler.onMessagePulled(MPC, RESPONDER, adaptivePullScheduler.getNodeId()));
+        Assert.assertEquals(2, adaptivePullScheduler.onMessagePulled(MPC, RESPONDER, adaptivePullScheduler.getNodeId()));
+        // limited to the maximum number of pull requests of the mpc
+        Assert.assertEquals(1, adaptivePullScheduler.onMessagePulled(MPC, RESPONDER, adaptivePullScheduler.getNodeId()));
+        Assert.assertEquals(3, adaptivePullScheduler.getPullState(MPC, RESPONDER).inFlight.size());
+    }
+
+    @Test
+    public void testOnEmptyMpc_BacksOffExponentially() {
+        adaptivePullScheduler.acquire(MPC, RESPONDER, 10);
+        adaptivePullScheduler.onMessagePulled(MPC, RESPONDER, adaptivePullScheduler.getNodeId());
+
+        final long start = System.currentTimeMillis();
+        adaptivePullScheduler.onEmptyMpc(MPC, RESPONDER, adaptivePullScheduler.getNodeId());
+        final AdaptivePullScheduler.PullState pullState = adaptivePullScheduler.getPullState(MPC, RESPONDER);
+        Assert.assertEquals(1, pullState.limit);
+        Assert.assertEquals(1, pullState.inFlight.size());
+        Assert.assertTrue(pullState.nextPullTime >= start + 1000);
+        Assert.assertEquals(0, adaptivePullScheduler.acquire(MPC, RESPONDER, 10));
+
+        adaptivePullScheduler.onEmptyMpc(MPC, RESPONDER, adaptivePullScheduler.getNodeId());
+        Assert.assertTrue(pullState.nextPullTime >= start + 2000);
+
+        // limited to the maximum delay
+        adaptivePullScheduler.onEmptyMpc(MPC, RESPONDER, adaptivePullScheduler.getNodeId());
+        Assert.assertTrue(pullState.nextPullTime <= System.currentTimeMillis() + 3000);
+        Assert.assertEquals(0, pullState.inFlight.size());
+    }
+
+    @Test
+    public void testAcquire_ExpiresTheLostPullRequests() {
+        adaptivePullScheduler.acquire(MPC, RESPONDER, 2);
+        final AdaptivePullScheduler.PullState pullState = adaptivePullScheduler.getPullState(MPC, RESPONDER);
+        pullState.limit = 2;
+        pullState.inFlight.clear();
+        pullState.inFlight.addLast(System.currentTimeMillis() - AdaptivePullScheduler.IN_FLIGHT_TIMEOUT - 1);
+        pullState.inFlight.addLast(System.currentTimeMillis());
+
+        // only the pull request sent before the timeout is no longer counted in flight
+        Assert.assertEquals(1, adaptivePullScheduler.acquire(MPC, RESPONDER, 2));
+        Assert.assertEquals(2, pullState.inFlight.size());
+    }
+
+    @Test
+    public void testRelease_NotTracked() {
+        adaptivePullScheduler.acquire(MPC, RESPONDER, 10);
+
+        adaptivePullScheduler.release(MPC, null, adaptivePullScheduler.getNodeId());
+
+        Assert.assertEquals(1, adaptivePullScheduler.getPullState(MPC, RESPONDER).inFlight.size());
+    }
+
+    @Test
+    public void testRelease_SentByAnotherNode() {
+        adaptivePullScheduler.acquire(MPC, RESPONDER, 10);
+
+        adaptivePullScheduler.release(MPC, RESPONDER, "anotherNode");
+        adaptivePullScheduler.onEmptyMpc(MPC, RESPONDER, null);
+
+        final AdaptivePullScheduler.PullState pullState = adaptivePullScheduler.getPullState(MPC, RESPONDER);
+        Assert.assertEquals(1, pullState.inFlight.size());
+        Assert.assertEquals(0, pullState.consecutiveEmptyPulls);
+    }
+}
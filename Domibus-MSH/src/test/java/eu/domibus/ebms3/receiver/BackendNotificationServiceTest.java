@@ -19,6 +19,7 @@ import eu.domibus.core.alerts.model.service.MessagingModuleConfiguration;
 import eu.domibus.core.alerts.service.EventService;
 import eu.domibus.core.alerts.service.MultiDomainAlertConfigurationService;
 import eu.domibus.core.converter.DomainCoreConverter;
+import eu.domibus.core.message.pending.PendingDownloadService;
 import eu.domibus.core.replication.UIReplicationSignalService;
 import eu.domibus.ebms3.common.UserMessageServiceHelper;
 import eu.domibus.ebms3.common.model.UserMessage;
@@ -128,6 +129,9 @@ public class BackendNotificationServiceTest {
     @Injectable
     UserMessageService userMessageService;
 
+    @Injectable
+    PendingDownloadService pendingDownloadService;
+
     @Test
     public void testValidateSubmissionForUnsupportedNotificationType(@Injectable final Submission submission, @Injectable final UserMessage userMessage) throws Exception {
         final String backendName = "customPlugin";
@@ -286,6 +290,43 @@ public class BackendNotificationServiceTest {
         }};
     }
 
+    @Test
+    public void testNotifyWithPullNotificationListener(
+            @Injectable final NotificationListener notificationListener,
+            @Injectable final Queue queue) throws Exception {
+
+        final String backendName = "customPlugin";
+        final String finalRecipient = "finalRecipient";
+        List<NotificationType> requiredNotifications = new ArrayList<>();
+        requiredNotifications.add(NotificationType.MESSAGE_RECEIVED);
+        new Expectations(backendNotificationService) {{
+            backendNotificationService.getNotificationListener(backendName);
+            result = notificationListener;
+
+            notificationListener.getRequiredNotificationTypeList();
+            result = requiredNotifications;
+
+            notificationListener.getBackendNotificationQueue();
+            result = queue;
+
+            notificationListener.getMode();
+            result = BackendConnector.Mode.PULL;
+        }};
+
+        final String messageId = "123";
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(MessageConstants.FINAL_RECIPIENT, finalRecipient);
+        backendNotificationService.notify(messageId, backendName, NotificationType.MESSAGE_RECEIVED, properties);
+
+        new Verifications() {{
+            jmsManager.sendMessageToQueue((JmsMessage) any, queue);
+            times = 1;
+
+            pendingDownloadService.addPendingDownload(messageId, backendName, finalRecipient);
+            times = 1;
+        }};
+    }
+
     @Test
     public void testIsBackendFilterMatchingANDOperationWithFromAndActionMatching(@Injectable final BackendFilter filter,
                                                                                  @Injectable final Map<String, IRoutingCriteria> criteriaMap,
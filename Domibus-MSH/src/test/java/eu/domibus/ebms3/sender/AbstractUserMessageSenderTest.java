@@ -5,6 +5,7 @@ import eu.domibus.api.message.attempt.MessageAttempt;
 import eu.domibus.api.message.attempt.MessageAttemptService;
 import eu.domibus.api.message.attempt.MessageAttemptStatus;
 import eu.domibus.api.security.ChainCertificateInvalidException;
+import eu.domibus.api.usermessage.UserMessageService;
 import eu.domibus.common.ErrorCode;
 import eu.domibus.common.MSHRole;
 import eu.domibus.common.dao.UserMessageLogDao;
@@ -12,8 +13,10 @@ import eu.domibus.common.exception.ConfigurationException;
 import eu.domibus.common.exception.EbMS3Exception;
 import eu.domibus.common.model.configuration.LegConfiguration;
 import eu.domibus.common.model.configuration.Party;
+import eu.domibus.common.model.logging.UserMessageLog;
 import eu.domibus.common.services.MessageExchangeService;
 import eu.domibus.common.services.ReliabilityService;
+import eu.domibus.core.message.UserMessageLogDefaultService;
 import eu.domibus.core.pmode.PModeProvider;
 import eu.domibus.ebms3.common.model.UserMessage;
 import eu.domibus.ext.exceptions.DomibusErrorCode;
@@ -27,7 +30,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import javax.xml.soap.SOAPMessage;
+import javax.xml.ws.AsyncHandler;
 import java.sql.Timestamp;
+import java.util.Date;
 import java.util.UUID;
 
 /**
@@ -71,6 +76,18 @@ public class AbstractUserMessageSenderTest {
     @Injectable
     protected UserMessageLogDao userMessageLogDao;
 
+    @Injectable
+    protected DispatchCompletionService dispatchCompletionService;
+
+    @Injectable
+    protected DispatchCircuitBreaker dispatchCircuitBreaker;
+
+    @Injectable
+    protected UserMessageService userMessageService;
+
+    @Injectable
+    protected UserMessageLogDefaultService userMessageLogService;
+
 
     private final String messageId = UUID.randomUUID().toString();
 
@@ -226,6 +243,184 @@ public class AbstractUserMessageSenderTest {
         }};
     }
 
+    @Test
+    public void testSendMessage_CircuitOpen(@Mocked final UserMessage userMessage, @Mocked final LegConfiguration legConfiguration, @Mocked final Policy policy,
+                                            final @Mocked Party senderParty, final @Mocked Party receiverParty) throws Exception {
+        final String endpoint = "http://localhost:8180/domibus/services/msh";
+
+        new Expectations(abstractUserMessageSender) {{
+            abstractUserMessageSender.getLog();
+            result = DomibusLoggerFactory.getLogger(AbstractUserMessageSenderTest.class);
+
+            userMessage.getMessageInfo().getMessageId();
+            result = messageId;
+
+            pModeProvider.findUserMessageExchangeContext(userMessage, MSHRole.SENDING).getPmodeKey();
+            result = pModeKey;
+
+            pModeProvider.getLegConfiguration(pModeKey);
+            result = legConfiguration;
+
+            policyService.parsePolicy(anyString);
+            result = policy;
+
+            pModeProvider.getSenderParty(pModeKey);
+            result = senderParty;
+
+            pModeProvider.getReceiverParty(pModeKey);
+            result = receiverParty;
+
+            receiverParty.getEndpoint();
+            result = endpoint;
+
+            dispatchCircuitBreaker.shortCircuit(endpoint);
+            result = true;
+        }};
+
+        //tested method
+        abstractUserMessageSender.sendMessage(userMessage);
+
+        new Verifications() {{
+            abstractUserMessageSender.createSOAPMessage(userMessage, legConfiguration);
+            times = 0;
+            mshDispatcher.dispatch((SOAPMessage) any, anyString, (Policy) any, (LegConfiguration) any, anyString);
+            times = 0;
+            reliabilityService.handleReliability(messageId, userMessage, ReliabilityChecker.CheckResult.SEND_FAIL, isOk, legConfiguration);
+            abstractUserMessageSender.updateAndCreateAttempt((MessageAttempt) any);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testSendMessage_DispatchedAsync(@Mocked final UserMessage userMessage, @Mocked final LegConfiguration legConfiguration, @Mocked final Policy policy,
+                                                final @Mocked Party senderParty, final @Mocked Party receiverParty, final @Mocked SOAPMessage soapMessage,
+                                                final @Mocked UserMessageLog userMessageLog) throws Exception {
+        final Date responseDeadline = new Date();
+        final String endpoint = "http://localhost:8180/domibus/services/msh";
+
+        new Expectations(abstractUserMessageSender) {{
+            abstractUserMessageSender.getLog();
+            result = DomibusLoggerFactory.getLogger(AbstractUserMessageSenderTest.class);
+
+            userMessage.getMessageInfo().getMessageId();
+            result = messageId;
+
+            pModeProvider.findUserMessageExchangeContext(userMessage, MSHRole.SENDING).getPmodeKey();
+            result = pModeKey;
+
+            pModeProvider.getLegConfiguration(pModeKey);
+            result = legConfiguration;
+
+            policyService.parsePolicy(anyString);
+            result = policy;
+
+            pModeProvider.getSenderParty(pModeKey);
+            result = senderParty;
+
+            pModeProvider.getReceiverParty(pModeKey);
+            result = receiverParty;
+
+            receiverParty.getEndpoint();
+            result = endpoint;
+
+            dispatchCircuitBreaker.shortCircuit(endpoint);
+            result = false;
+
+            abstractUserMessageSender.createSOAPMessage(userMessage, legConfiguration);
+            result = soapMessage;
+
+            mshDispatcher.isAsyncDispatchActivated();
+            result = true;
+
+            mshDispatcher.dispatchAsync(soapMessage, endpoint, policy, legConfiguration, pModeKey, (AsyncHandler<SOAPMessage>) any);
+            result = true;
+
+            userMessageLogDao.findByMessageId(messageId, MSHRole.SENDING);
+            result = userMessageLog;
+
+            mshDispatcher.getAsyncResponseDeadline();
+            result = responseDeadline;
+        }};
+
+        //tested method
+        abstractUserMessageSender.sendMessage(userMessage);
+
+        new Verifications() {{
+            userMessageLogService.setMessageAsSendInProgress(userMessageLog, responseDeadline);
+            mshDispatcher.dispatch((SOAPMessage) any, anyString, (Policy) any, (LegConfiguration) any, anyString);
+            times = 0;
+            reliabilityService.handleReliability(anyString, (UserMessage) any, (ReliabilityChecker.CheckResult) any, (ResponseHandler.CheckResult) any, (LegConfiguration) any);
+            times = 0;
+            abstractUserMessageSender.updateAndCreateAttempt((MessageAttempt) any);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testSendMessage_MaxInFlightReached(@Mocked final UserMessage userMessage, @Mocked final LegConfiguration legConfiguration, @Mocked final Policy policy,
+                                                   final @Mocked Party senderParty, final @Mocked Party receiverParty, final @Mocked SOAPMessage soapMessage) throws Exception {
+        final String endpoint = "http://localhost:8180/domibus/services/msh";
+
+        new Expectations(abstractUserMessageSender) {{
+            abstractUserMessageSender.getLog();
+            result = DomibusLoggerFactory.getLogger(AbstractUserMessageSenderTest.class);
+
+            userMessage.getMessageInfo().getMessageId();
+            result = messageId;
+
+            pModeProvider.findUserMessageExchangeContext(userMessage, MSHRole.SENDING).getPmodeKey();
+            result = pModeKey;
+
+            pModeProvider.getLegConfiguration(pModeKey);
+            result = legConfiguration;
+
+            policyService.parsePolicy(anyString);
+            result = policy;
+
+            pModeProvider.getSenderParty(pModeKey);
+            result = senderParty;
+
+            pModeProvider.getReceiverParty(pModeKey);
+            result = receiverParty;
+
+            receiverParty.getEndpoint();
+            result = endpoint;
+
+            dispatchCircuitBreaker.shortCircuit(endpoint);
+            result = false;
+
+            abstractUserMessageSender.createSOAPMessage(userMessage, legConfiguration);
+            result = soapMessage;
+
+            mshDispatcher.isAsyncDispatchActivated();
+            result = true;
+
+            mshDispatcher.dispatchAsync(soapMessage, endpoint, policy, legConfiguration, pModeKey, (AsyncHandler<SOAPMessage>) any);
+            result = false;
+
+            mshDispatcher.getAsyncDeferDelay();
+            result = 1000L;
+
+            userMessage.isSplitAndJoin();
+            result = false;
+        }};
+
+        //tested method
+        abstractUserMessageSender.sendMessage(userMessage);
+
+        new Verifications() {{
+            userMessageService.scheduleSending(messageId, 1000L, false);
+            mshDispatcher.dispatch((SOAPMessage) any, anyString, (Policy) any, (LegConfiguration) any, anyString);
+            times = 0;
+            userMessageLogService.setMessageAsSendInProgress((UserMessageLog) any, (Date) any);
+            times = 0;
+            reliabilityService.handleReliability(anyString, (UserMessage) any, (ReliabilityChecker.CheckResult) any, (ResponseHandler.CheckResult) any, (LegConfiguration) any);
+            times = 0;
+            abstractUserMessageSender.updateAndCreateAttempt((MessageAttempt) any);
+            times = 0;
+        }};
+    }
+
     @Test
     public void testSendMessage_ChainCertificateInvalid_Exception(@Mocked final UserMessage userMessage, @Mocked final LegConfiguration legConfiguration,
                                                                   final @Mocked Party senderParty, final @Mocked Party receiverParty) throws Exception {
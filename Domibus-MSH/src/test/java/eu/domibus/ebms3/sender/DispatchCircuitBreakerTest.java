@@ -0,0 +1,123 @@
+package eu.domibus.ebms3.sender;
+
+import eu.domibus.api.multitenancy.Domain;
+import eu.domibus.api.multitenancy.DomainContextProvider;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Tested;
+import mockit.integration.junit4.JMockit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.*;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@RunWith(JMockit.class)
+public class DispatchCircuitBreakerTest {
+
+    private static final String ENDPOINT = "http://localhost:8180/domibus/services/msh";
+
+    @Tested
+    DispatchCircuitBreaker dispatchCircuitBreaker;
+
+    @Injectable
+    DomibusPropertyProvider domibusPropertyProvider;
+
+    @Injectable
+    DomainContextProvider domainContextProvider;
+
+    @Before
+    public void setUp() {
+        new Expectations() {{
+            domainContextProvider.getCurrentDomain();
+            result = new Domain("default", "Default");
+            minTimes = 0;
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_CIRCUIT_BREAKER_FAILURE_THRESHOLD);
+            result = 2;
+            minTimes = 0;
+        }};
+    }
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        openDuration(60000);
+
+        dispatchCircuitBreaker.onConnectionFailure(ENDPOINT);
+        Assert.assertFalse(dispatchCircuitBreaker.shortCircuit(ENDPOINT));
+
+        dispatchCircuitBreaker.onConnectionFailure(ENDPOINT);
+        Assert.assertTrue(dispatchCircuitBreaker.shortCircuit(ENDPOINT));
+    }
+
+    @Test
+    public void testSuccessResetsTheFailures() {
+        openDuration(60000);
+
+        dispatchCircuitBreaker.onConnectionFailure(ENDPOINT);
+        dispatchCircuitBreaker.onSuccess(ENDPOINT);
+        dispatchCircuitBreaker.onConnectionFailure(ENDPOINT);
+
+        Assert.assertFalse(dispatchCircuitBreaker.shortCircuit(ENDPOINT));
+    }
+
+    @Test
+    public void testHalfOpen_SingleProbe() {
+        openDuration(0);
+
+        dispatchCircuitBreaker.onConnectionFailure(ENDPOINT);
+        dispatchCircuitBreaker.onConnectionFailure(ENDPOINT);
+
+        // the open duration has elapsed: the first call probes the endpoint
+        Assert.assertFalse(dispatchCircuitBreaker.shortCircuit(ENDPOINT));
+        Assert.assertEquals(DispatchCircuitBreaker.State.HALF_OPEN, dispatchCircuitBreaker.getCircuit(ENDPOINT).state);
+
+        // the probe fails: the circuit opens again
+        dispatchCircuitBreaker.onConnectionFailure(ENDPOINT);
+        Assert.assertEquals(DispatchCircuitBreaker.State.OPEN, dispatchCircuitBreaker.getCircuit(ENDPOINT).state);
+
+        // the probe succeeds: the circuit closes
+        Assert.assertFalse(dispatchCircuitBreaker.shortCircuit(ENDPOINT));
+        dispatchCircuitBreaker.onSuccess(ENDPOINT);
+        Assert.assertEquals(DispatchCircuitBreaker.State.CLOSED, dispatchCircuitBreaker.getCircuit(ENDPOINT).state);
+    }
+
+    @Test
+    public void testHalfOpen_OtherCallsRejectedDuringTheProbe() {
+        openDuration(60000);
+        dispatchCircuitBreaker.getCircuit(ENDPOINT).state = DispatchCircuitBreaker.State.HALF_OPEN;
+        dispatchCircuitBreaker.getCircuit(ENDPOINT).stateChangeTime = System.currentTimeMillis();
+
+        Assert.assertTrue(dispatchCircuitBreaker.shortCircuit(ENDPOINT));
+    }
+
+    @Test
+    public void testInactive() {
+        new Expectations() {{
+            domibusPropertyProvider.getBooleanDomainProperty(DOMIBUS_DISPATCHER_CIRCUIT_BREAKER_ACTIVE);
+            result = false;
+        }};
+
+        dispatchCircuitBreaker.onConnectionFailure(ENDPOINT);
+        dispatchCircuitBreaker.onConnectionFailure(ENDPOINT);
+
+        Assert.assertFalse(dispatchCircuitBreaker.shortCircuit(ENDPOINT));
+    }
+
+    private void openDuration(final int openDuration) {
+        new Expectations() {{
+            domibusPropertyProvider.getBooleanDomainProperty(DOMIBUS_DISPATCHER_CIRCUIT_BREAKER_ACTIVE);
+            result = true;
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_CIRCUIT_BREAKER_OPEN_DURATION);
+            result = openDuration;
+            minTimes = 0;
+        }};
+    }
+}
@@ -1,5 +1,6 @@
 package eu.domibus.ebms3.sender;
 
+import eu.domibus.api.multitenancy.DomainContextProvider;
 import eu.domibus.api.property.DomibusPropertyProvider;
 import eu.domibus.proxy.DomibusProxy;
 import eu.domibus.proxy.DomibusProxyService;
@@ -42,6 +43,9 @@ public class DispatchClientDefaultProviderTest {
     @Injectable
     protected DomibusProxyService domibusProxyService;
 
+    @Injectable
+    protected DomainContextProvider domainContextProvider;
+
     @Tested
     DispatchClientDefaultProvider dispatchClientDefaultProvider;
 
@@ -86,6 +90,30 @@ public class DispatchClientDefaultProviderTest {
         }};
     }
 
+    @Test
+    public void testGetDomainExecutor_ClearsTheDomain() {
+        final Runnable failingTask = () -> {
+            throw new IllegalStateException("task failed");
+        };
+
+        dispatchClientDefaultProvider.getDomainExecutor("default").execute(failingTask);
+
+        new Verifications() {{
+            Runnable domainTask;
+            taskExecutor.execute(domainTask = withCapture());
+            try {
+                domainTask.run();
+                Assert.fail("IllegalStateException was expected");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        }};
+        new Verifications() {{
+            domainContextProvider.setCurrentDomain("default");
+            domainContextProvider.clearCurrentDomain();
+        }};
+    }
+
     @Test
     public void testGetClient(@Injectable org.apache.neethi.Policy policy) {
         String endpoint = "https://tbd";
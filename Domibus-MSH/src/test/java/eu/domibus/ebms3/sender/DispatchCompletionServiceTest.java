@@ -0,0 +1,122 @@
+package eu.domibus.ebms3.sender;
+
+import eu.domibus.api.message.attempt.MessageAttempt;
+import eu.domibus.api.message.attempt.MessageAttemptService;
+import eu.domibus.api.message.attempt.MessageAttemptStatus;
+import eu.domibus.common.ErrorCode;
+import eu.domibus.common.dao.MessagingDao;
+import eu.domibus.common.exception.EbMS3Exception;
+import eu.domibus.common.model.configuration.LegConfiguration;
+import eu.domibus.common.services.ReliabilityService;
+import eu.domibus.ebms3.common.model.UserMessage;
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Tested;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import javax.xml.soap.SOAPMessage;
+import javax.xml.ws.Response;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@RunWith(JMockit.class)
+public class DispatchCompletionServiceTest {
+
+    private static final String MESSAGE_ID = "123@domibus.eu";
+    private static final String ENDPOINT = "http://localhost:8080/domibus/services/msh";
+    private static final String PMODE_KEY = "pModeKey";
+
+    @Tested
+    DispatchCompletionService dispatchCompletionService;
+
+    @Injectable
+    MSHDispatcher mshDispatcher;
+
+    @Injectable
+    ResponseHandler responseHandler;
+
+    @Injectable
+    ReliabilityChecker reliabilityChecker;
+
+    @Injectable
+    ReliabilityService reliabilityService;
+
+    @Injectable
+    MessageAttemptService messageAttemptService;
+
+    @Injectable
+    MessagingDao messagingDao;
+
+    @Injectable
+    ReceiverBulkheadService receiverBulkheadService;
+
+    @Test
+    public void testHandleResponse(@Injectable SOAPMessage request,
+                                   @Injectable SOAPMessage responseMessage,
+                                   @Injectable Response<SOAPMessage> response,
+                                   @Injectable LegConfiguration legConfiguration,
+                                   @Injectable UserMessage userMessage) throws EbMS3Exception {
+        final MessageAttempt attempt = new MessageAttempt();
+        attempt.setStatus(MessageAttemptStatus.SUCCESS);
+
+        new Expectations() {{
+            mshDispatcher.getAsyncResponse(response, ENDPOINT);
+            result = responseMessage;
+
+            responseHandler.handle(responseMessage);
+            result = ResponseHandler.CheckResult.OK;
+
+            reliabilityChecker.check(request, responseMessage, PMODE_KEY);
+            result = ReliabilityChecker.CheckResult.OK;
+
+            messagingDao.findUserMessageByMessageId(MESSAGE_ID);
+            result = userMessage;
+        }};
+
+        dispatchCompletionService.handleResponse(MESSAGE_ID, request, response, ENDPOINT, PMODE_KEY, legConfiguration, attempt);
+
+        new Verifications() {{
+            reliabilityService.handleReliability(MESSAGE_ID, userMessage, ReliabilityChecker.CheckResult.OK, ResponseHandler.CheckResult.OK, legConfiguration);
+            messageAttemptService.create(attempt);
+            receiverBulkheadService.releaseAsync(MESSAGE_ID);
+        }};
+        Assert.assertEquals(MessageAttemptStatus.SUCCESS, attempt.getStatus());
+        Assert.assertNotNull(attempt.getEndDate());
+    }
+
+    @Test
+    public void testHandleResponse_DispatchError(@Injectable SOAPMessage request,
+                                                @Injectable Response<SOAPMessage> response,
+                                                @Injectable LegConfiguration legConfiguration,
+                                                @Injectable UserMessage userMessage) throws EbMS3Exception {
+        final MessageAttempt attempt = new MessageAttempt();
+        attempt.setStatus(MessageAttemptStatus.SUCCESS);
+        final EbMS3Exception dispatchException = new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0005, "Error dispatching message to " + ENDPOINT, null, null);
+
+        new Expectations() {{
+            mshDispatcher.getAsyncResponse(response, ENDPOINT);
+            result = dispatchException;
+
+            messagingDao.findUserMessageByMessageId(MESSAGE_ID);
+            result = userMessage;
+        }};
+
+        dispatchCompletionService.handleResponse(MESSAGE_ID, request, response, ENDPOINT, PMODE_KEY, legConfiguration, attempt);
+
+        new Verifications() {{
+            reliabilityChecker.handleEbms3Exception(dispatchException, MESSAGE_ID);
+            responseHandler.handle((SOAPMessage) any);
+            times = 0;
+            reliabilityService.handleReliability(MESSAGE_ID, userMessage, ReliabilityChecker.CheckResult.SEND_FAIL, ResponseHandler.CheckResult.OK, legConfiguration);
+            messageAttemptService.create(attempt);
+            receiverBulkheadService.releaseAsync(MESSAGE_ID);
+        }};
+        Assert.assertEquals(MessageAttemptStatus.ERROR, attempt.getStatus());
+    }
+}
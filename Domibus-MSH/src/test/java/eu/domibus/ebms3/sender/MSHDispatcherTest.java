@@ -26,15 +26,23 @@ import org.apache.neethi.Policy;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.xml.sax.SAXException;
 
 import javax.xml.bind.JAXBException;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.soap.SOAPMessage;
+import javax.xml.ws.AsyncHandler;
 import javax.xml.ws.Dispatch;
+import javax.xml.ws.Response;
 import javax.xml.ws.WebServiceException;
+import javax.xml.ws.soap.SOAPFaultException;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutionException;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_DISPATCHER_ASYNC_MAX_IN_FLIGHT;
 
 /**
  * @author Arun Raj
@@ -106,6 +114,9 @@ public class MSHDispatcherTest {
     @Injectable
     DomainContextProvider domainContextProvider;
 
+    @Injectable
+    DispatchCircuitBreaker dispatchCircuitBreaker;
+
     @Tested
     MSHDispatcher mshDispatcher;
 
@@ -202,4 +213,150 @@ public class MSHDispatcherTest {
         }
 
     }
+
+    @Test
+    public void testDispatchAsync_MaxInFlightReached(@Injectable final SOAPMessage requestSoapMessage,
+                                                     @Injectable final Policy policy,
+                                                     @Injectable final AsyncHandler<SOAPMessage> handler) throws EbMS3Exception {
+        final String endPoint = "http://localhost";
+        final Domain domain = new Domain("default", "Default");
+
+        new Expectations() {{
+            domainContextProvider.getCurrentDomain();
+            result = domain;
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_ASYNC_MAX_IN_FLIGHT);
+            result = 1;
+        }};
+        mshDispatcher.acquireInFlightRequest(domain.getCode() + endPoint, 1);
+
+        Assert.assertFalse(mshDispatcher.dispatchAsync(requestSoapMessage, endPoint, policy, legConfiguration, "myPmodeKey", handler));
+
+        new Verifications() {{
+            dispatchClientProvider.getClient(anyString, anyString, anyString, (Policy) any, anyString, anyBoolean);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testDispatchAsync_ExceptionDuringDispatch(@Injectable final SOAPMessage requestSoapMessage,
+                                                          @Injectable final Policy policy,
+                                                          @Injectable final AsyncHandler<SOAPMessage> handler,
+                                                          @Injectable final Dispatch<SOAPMessage> dispatch) throws EbMS3Exception {
+        final String endPoint = "http://localhost";
+        final Domain domain = new Domain("default", "Default");
+
+        new Expectations() {{
+            domainContextProvider.getCurrentDomain();
+            result = domain;
+
+            dispatchClientProvider.getClient(domain.getCode(), endPoint, anyString, policy, anyString, anyBoolean);
+            result = dispatch;
+
+            dispatch.invokeAsync(requestSoapMessage, (AsyncHandler<SOAPMessage>) any);
+            result = new WebServiceException();
+        }};
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            Assert.assertTrue(mshDispatcher.dispatchAsync(requestSoapMessage, endPoint, policy, legConfiguration, "myPmodeKey", handler));
+            // the message is only dispatched once the transaction is committed
+            Assert.assertEquals(1, mshDispatcher.inFlightRequests.get(domain.getCode() + endPoint).get());
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        new Verifications() {{
+            Response<SOAPMessage> response;
+            handler.handleResponse(response = withCapture());
+            try {
+                response.get();
+                Assert.fail("ExecutionException was expected");
+            } catch (Exception e) {
+                Assert.assertTrue(e.getCause() instanceof WebServiceException);
+            }
+        }};
+        // the request in flight has been released
+        Assert.assertEquals(0, mshDispatcher.inFlightRequests.get(domain.getCode() + endPoint).get());
+    }
+
+    @Test
+    public void testDispatchAsync_TransactionRolledBack(@Injectable final SOAPMessage requestSoapMessage,
+                                                        @Injectable final Policy policy,
+                                                        @Injectable final AsyncHandler<SOAPMessage> handler,
+                                                        @Injectable final Dispatch<SOAPMessage> dispatch) throws EbMS3Exception {
+        final String endPoint = "http://localhost";
+        final Domain domain = new Domain("default", "Default");
+
+        new Expectations() {{
+            domainContextProvider.getCurrentDomain();
+            result = domain;
+
+            dispatchClientProvider.getClient(domain.getCode(), endPoint, anyString, policy, anyString, anyBoolean);
+            result = dispatch;
+        }};
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            Assert.assertTrue(mshDispatcher.dispatchAsync(requestSoapMessage, endPoint, policy, legConfiguration, "myPmodeKey", handler));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        new Verifications() {{
+            dispatch.invokeAsync((SOAPMessage) any, (AsyncHandler<SOAPMessage>) any);
+            times = 0;
+        }};
+        Assert.assertEquals(0, mshDispatcher.inFlightRequests.get(domain.getCode() + endPoint).get());
+    }
+
+    @Test
+    public void testAcquireInFlightRequest() {
+        Assert.assertTrue(mshDispatcher.acquireInFlightRequest("endpoint", 2));
+        Assert.assertTrue(mshDispatcher.acquireInFlightRequest("endpoint", 2));
+        Assert.assertFalse(mshDispatcher.acquireInFlightRequest("endpoint", 2));
+
+        mshDispatcher.releaseInFlightRequest("endpoint");
+        Assert.assertTrue(mshDispatcher.acquireInFlightRequest("endpoint", 2));
+        // no limit
+        Assert.assertTrue(mshDispatcher.acquireInFlightRequest("endpoint", 0));
+    }
+
+    @Test
+    public void testGetAsyncResponse_SOAPFault(@Injectable final Response<SOAPMessage> response,
+                                               @Injectable final SOAPFaultException soapFaultException) throws Exception {
+        new Expectations() {{
+            response.get();
+            result = new ExecutionException(soapFaultException);
+        }};
+
+        try {
+            mshDispatcher.getAsyncResponse(response, "http://localhost");
+            Assert.fail("SOAPFaultException was expected");
+        } catch (SOAPFaultException e) {
+            Assert.assertSame(soapFaultException, e);
+        }
+    }
+
+    @Test
+    public void testGetAsyncResponse_WebServiceException(@Injectable final Response<SOAPMessage> response) throws Exception {
+        new Expectations() {{
+            response.get();
+            result = new ExecutionException(new WebServiceException("connection refused"));
+        }};
+
+        try {
+            mshDispatcher.getAsyncResponse(response, "http://localhost");
+            Assert.fail("EbMS3Exception was expected");
+        } catch (EbMS3Exception e) {
+            Assert.assertEquals(ErrorCode.EbMS3ErrorCode.EBMS_0005, e.getErrorCode());
+        }
+    }
 }
@@ -1,9 +1,11 @@
 package eu.domibus.ebms3.sender;
 
 import eu.domibus.api.message.attempt.MessageAttemptService;
+import eu.domibus.api.usermessage.UserMessageService;
 import eu.domibus.common.dao.UserMessageLogDao;
 import eu.domibus.common.services.MessageExchangeService;
 import eu.domibus.common.services.ReliabilityService;
+import eu.domibus.core.message.UserMessageLogDefaultService;
 import eu.domibus.core.message.fragment.MessageGroupDao;
 import eu.domibus.core.message.fragment.MessageGroupEntity;
 import eu.domibus.core.pmode.PModeProvider;
@@ -56,6 +58,18 @@ public class MessageFragmentSenderTest {
     @Injectable
     protected UserMessageLogDao userMessageLogDao;
 
+    @Injectable
+    protected DispatchCompletionService dispatchCompletionService;
+
+    @Injectable
+    protected DispatchCircuitBreaker dispatchCircuitBreaker;
+
+    @Injectable
+    protected UserMessageService userMessageService;
+
+    @Injectable
+    protected UserMessageLogDefaultService userMessageLogService;
+
     @Injectable
     protected MessageGroupDao messageGroupDao;
 
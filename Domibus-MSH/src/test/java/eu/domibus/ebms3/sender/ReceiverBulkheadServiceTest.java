@@ -0,0 +1,138 @@
+package eu.domibus.ebms3.sender;
+
+import com.codahale.metrics.MetricRegistry;
+import eu.domibus.api.multitenancy.Domain;
+import eu.domibus.api.multitenancy.DomainContextProvider;
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.common.MessageStatus;
+import eu.domibus.common.dao.UserMessageLogDao;
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Tested;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.*;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@RunWith(JMockit.class)
+public class ReceiverBulkheadServiceTest {
+
+    private static final String RECEIVER = "domibus-red";
+
+    @Tested
+    ReceiverBulkheadService receiverBulkheadService;
+
+    @Injectable
+    DomibusPropertyProvider domibusPropertyProvider;
+
+    @Injectable
+    DomainContextProvider domainContextProvider;
+
+    @Injectable
+    UserMessageLogDao userMessageLogDao;
+
+    @Injectable
+    MetricRegistry metricRegistry;
+
+    @Test
+    public void testTryAcquire_LimitReached() {
+        new Expectations() {{
+            domainContextProvider.getCurrentDomain();
+            result = new Domain("default", "Default");
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_RECEIVER_MAX_IN_FLIGHT);
+            result = 1;
+        }};
+
+        Assert.assertTrue(receiverBulkheadService.tryAcquire(RECEIVER));
+        Assert.assertFalse(receiverBulkheadService.tryAcquire(RECEIVER));
+
+        new Verifications() {{
+            metricRegistry.meter(MetricRegistry.name(ReceiverBulkheadService.class, "default", RECEIVER, ReceiverBulkheadService.METRIC_DEFERRED)).mark();
+            times = 1;
+        }};
+    }
+
+    @Test
+    public void testRelease_FailedMessage() {
+        new Expectations() {{
+            domainContextProvider.getCurrentDomain();
+            result = new Domain("default", "Default");
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_RECEIVER_MAX_IN_FLIGHT);
+            result = 4;
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_RECEIVER_LATENCY_THRESHOLD);
+            result = 30000;
+
+            userMessageLogDao.getMessageStatus("messageId");
+            result = MessageStatus.WAITING_FOR_RETRY;
+        }};
+
+        receiverBulkheadService.tryAcquire(RECEIVER);
+        receiverBulkheadService.release(RECEIVER, "messageId", 100L, true);
+
+        final ReceiverBulkhead bulkhead = receiverBulkheadService.bulkheads.get("default:" + RECEIVER);
+        Assert.assertEquals(2, bulkhead.getLimit());
+        Assert.assertEquals(0, bulkhead.getInFlight());
+    }
+
+    @Test
+    public void testRelease_SlowMessage() {
+        new Expectations() {{
+            domainContextProvider.getCurrentDomain();
+            result = new Domain("default", "Default");
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_RECEIVER_MAX_IN_FLIGHT);
+            result = 4;
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_RECEIVER_LATENCY_THRESHOLD);
+            result = 30000;
+        }};
+
+        receiverBulkheadService.tryAcquire(RECEIVER);
+        receiverBulkheadService.release(RECEIVER, "messageId", 60000L, true);
+
+        Assert.assertEquals(2, receiverBulkheadService.bulkheads.get("default:" + RECEIVER).getLimit());
+        new Verifications() {{
+            userMessageLogDao.getMessageStatus(anyString);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testReleaseAsync() {
+        new Expectations() {{
+            domainContextProvider.getCurrentDomain();
+            result = new Domain("default", "Default");
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_RECEIVER_MAX_IN_FLIGHT);
+            result = 4;
+
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_DISPATCHER_RECEIVER_LATENCY_THRESHOLD);
+            result = 30000;
+
+            userMessageLogDao.getMessageStatus("messageId");
+            result = MessageStatus.ACKNOWLEDGED;
+        }};
+
+        receiverBulkheadService.tryAcquire(RECEIVER);
+        receiverBulkheadService.releaseAfterResponse(RECEIVER, "messageId", System.currentTimeMillis());
+
+        final ReceiverBulkhead bulkhead = receiverBulkheadService.bulkheads.get("default:" + RECEIVER);
+        Assert.assertEquals(1, bulkhead.getInFlight());
+
+        receiverBulkheadService.releaseAsync("messageId");
+        receiverBulkheadService.releaseAsync("messageId");
+
+        Assert.assertEquals(0, bulkhead.getInFlight());
+        Assert.assertTrue(receiverBulkheadService.asyncInFlightMessages.isEmpty());
+    }
+}
@@ -0,0 +1,75 @@
+package eu.domibus.ebms3.sender;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+public class ReceiverBulkheadTest {
+
+    @Test
+    public void testTryAcquire() {
+        final ReceiverBulkhead bulkhead = new ReceiverBulkhead(2);
+
+        Assert.assertTrue(bulkhead.tryAcquire(2));
+        Assert.assertTrue(bulkhead.tryAcquire(2));
+        Assert.assertFalse(bulkhead.tryAcquire(2));
+        Assert.assertEquals(2, bulkhead.getInFlight());
+    }
+
+    @Test
+    public void testRelease_FailureHalvesTheLimit() {
+        final ReceiverBulkhead bulkhead = new ReceiverBulkhead(8);
+        bulkhead.tryAcquire(8);
+
+        bulkhead.release(false, 8);
+
+        Assert.assertEquals(4, bulkhead.getLimit());
+        Assert.assertEquals(0, bulkhead.getInFlight());
+    }
+
+    @Test
+    public void testRelease_LimitNeverBelowOne() {
+        final ReceiverBulkhead bulkhead = new ReceiverBulkhead(2);
+        for (int i = 0; i < 5; i++) {
+            bulkhead.tryAcquire(2);
+            bulkhead.release(false, 2);
+        }
+
+        Assert.assertEquals(1, bulkhead.getLimit());
+        Assert.assertTrue(bulkhead.tryAcquire(2));
+        Assert.assertFalse(bulkhead.tryAcquire(2));
+    }
+
+    @Test
+    public void testRelease_SuccessGrowsTheLimitUpToTheMaximum() {
+        final ReceiverBulkhead bulkhead = new ReceiverBulkhead(4);
+        bulkhead.tryAcquire(4);
+        bulkhead.release(false, 4);
+        Assert.assertEquals(2, bulkhead.getLimit());
+
+        // each successful sending increases the limit by 1/limit
+        for (int i = 0; i < 3; i++) {
+            bulkhead.tryAcquire(4);
+            bulkhead.release(true, 4);
+        }
+        Assert.assertEquals(3, bulkhead.getLimit());
+
+        for (int i = 0; i < 20; i++) {
+            bulkhead.tryAcquire(4);
+            bulkhead.release(true, 4);
+        }
+        Assert.assertEquals(4, bulkhead.getLimit());
+    }
+
+    @Test
+    public void testTryAcquire_MaximumLowered() {
+        final ReceiverBulkhead bulkhead = new ReceiverBulkhead(10);
+
+        Assert.assertTrue(bulkhead.tryAcquire(1));
+        Assert.assertFalse(bulkhead.tryAcquire(1));
+        Assert.assertEquals(1, bulkhead.getLimit());
+    }
+}
@@ -2,37 +2,28 @@
 package eu.domibus.ebms3.sender;
 
 import eu.domibus.api.jms.JMSManager;
-import eu.domibus.api.jms.JmsMessage;
 import eu.domibus.api.message.UserMessageLogService;
 import eu.domibus.api.property.DomibusPropertyProvider;
 import eu.domibus.api.usermessage.UserMessageService;
-import eu.domibus.common.ErrorCode;
-import eu.domibus.common.MSHRole;
-import eu.domibus.common.MessageStatus;
 import eu.domibus.common.dao.MessagingDao;
 import eu.domibus.common.dao.RawEnvelopeLogDao;
 import eu.domibus.common.dao.UserMessageLogDao;
-import eu.domibus.common.exception.EbMS3Exception;
 import eu.domibus.common.model.configuration.LegConfiguration;
-import eu.domibus.common.model.logging.UserMessageLog;
+import eu.domibus.common.model.configuration.Process;
+import eu.domibus.common.model.logging.UserMessageLogRetryDto;
 import eu.domibus.core.pmode.PModeProvider;
 import eu.domibus.core.pull.MessagingLockDao;
 import eu.domibus.core.pull.PullMessageService;
-import eu.domibus.ebms3.common.model.UserMessage;
 import eu.domibus.ebms3.receiver.BackendNotificationService;
-import eu.domibus.messaging.MessageConstants;
 import mockit.*;
 import mockit.integration.junit4.JMockit;
-import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import javax.jms.Queue;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_MSH_RETRY_PAGE_SIZE;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -42,8 +33,6 @@ import static org.junit.Assert.assertEquals;
  */
 @RunWith(JMockit.class)
 public class RetryDefaultServiceTest {
-    private static List<String> QUEUED_MESSAGEIDS = Arrays.asList("queued123@domibus.eu", "queued456@domibus.eu", "queued789@domibus.eu");
-
     @Tested
     private RetryDefaultService retryService;
 
@@ -89,185 +78,119 @@ public class RetryDefaultServiceTest {
     @Injectable
     UpdateRetryLoggingService updateRetryLoggingService;
 
-    private List<JmsMessage> getQueuedMessages() {
-        List<JmsMessage> jmsMessages = new ArrayList<>();
-        for (String messageId : QUEUED_MESSAGEIDS) {
-            JmsMessage jmsMessage = new JmsMessage();
-            jmsMessage.setProperty(MessageConstants.MESSAGE_ID, messageId);
-            jmsMessages.add(jmsMessage);
-        }
-        return jmsMessages;
-    }
-
-    @Test
-    public void getMessagesNotAlreadyQueuedWithNoAlreadyQueuedMessagesTest() {
-        List<String> retryMessageIds = Arrays.asList("retry123@domibus.eu", "retry456@domibus.eu", "expired123@domibus.eu");
-
-        new NonStrictExpectations(retryService) {{
-            userMessageLogDao.findRetryMessages();
-            result = new ArrayList<>(retryMessageIds);
-        }};
-
-        List<String> result = retryService.getMessagesNotAlreadyScheduled();
-        assertEquals(3, result.size());
-
-        assertEquals(result, retryMessageIds);
-    }
+    @Injectable
+    RetryPageService retryPageService;
 
     @Test
-    public void test_failIfExpired_MessageExpired_NotSourceMessage(final @Mocked UserMessage userMessage) throws Exception {
-        final String messageId = "expired123@domibus.eu";
-        final String pModeKey = "pModeKey";
-
-        final UserMessageLog userMessageLog = new UserMessageLog();
-        userMessageLog.setSendAttempts(2);
-        userMessageLog.setSendAttemptsMax(3);
-        userMessageLog.setMessageStatus(MessageStatus.WAITING_FOR_RETRY);
-
-        final LegConfiguration legConfiguration = new LegConfiguration();
-        legConfiguration.setName("myLegConfiguration");
-
-        new Expectations() {{
-            userMessage.getMessageInfo().getMessageId();
-            result = messageId;
+    public void testEnqueueMessages_KeysetPagination() {
+        final Date secondNextAttempt = new Date(2000L);
+        final UserMessageLogRetryDto first = new UserMessageLogRetryDto(1L, "first", new Date(1000L), new Date(), null, false);
+        final UserMessageLogRetryDto second = new UserMessageLogRetryDto(2L, "second", secondNextAttempt, new Date(), null, false);
+        final UserMessageLogRetryDto third = new UserMessageLogRetryDto(3L, "third", new Date(3000L), new Date(), null, false);
+        final List<UserMessageLogRetryDto> firstPage = Arrays.asList(first, second);
+        final List<UserMessageLogRetryDto> secondPage = Collections.singletonList(third);
 
-            userMessageLogDao.findByMessageId(messageId, MSHRole.SENDING);
-            result = userMessageLog;
+        new Expectations(retryService) {{
+            retryService.getMinRetryTimeout();
+            result = 60000L;
 
-            pModeProvider.findUserMessageExchangeContext(userMessage, MSHRole.SENDING).getPmodeKey();
-            result = pModeKey;
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_MSH_RETRY_PAGE_SIZE);
+            result = 2;
 
-            pModeProvider.getLegConfiguration(pModeKey);
-            result = legConfiguration;
+            userMessageLogDao.findRetryMessages((Date) any, new Date(0L), 0L, 2);
+            result = firstPage;
 
-            updateRetryLoggingService.isExpired(legConfiguration, userMessageLog);
-            result = true;
+            userMessageLogDao.findRetryMessages((Date) any, secondNextAttempt, 2L, 2);
+            result = secondPage;
 
-            userMessage.isUserMessageFragment();
-            result = false;
+            retryPageService.enqueueMessages((List<UserMessageLogRetryDto>) any, 60000L);
+            result = 2;
+            result = 1;
         }};
 
-        //tested method
-        boolean result = retryService.failIfExpired(userMessage);
-        Assert.assertTrue(result);
+        retryService.enqueueMessages();
 
-        new FullVerifications() {{
-            updateRetryLoggingService.messageFailed(userMessage, userMessageLog);
+        new Verifications() {{
+            retryPageService.enqueueMessages(firstPage, 60000L);
+            retryPageService.enqueueMessages(secondPage, 60000L);
+            userMessageLogDao.findRetryMessages((Date) any, (Date) any, anyLong, anyInt);
+            times = 2;
         }};
     }
 
     @Test
-    public void test_failIfExpired_ExceptionThrown(final @Mocked UserMessage userMessage) throws Exception {
-        final String messageId = "expired123@domibus.eu";
-        final String pModeKey = "pModeKey";
-
-        final UserMessageLog userMessageLog = new UserMessageLog();
-        userMessageLog.setSendAttempts(2);
-        userMessageLog.setSendAttemptsMax(3);
-        userMessageLog.setMessageStatus(MessageStatus.WAITING_FOR_RETRY);
-
-        final LegConfiguration legConfiguration = new LegConfiguration();
-        legConfiguration.setName("myLegConfiguration");
-
-        new Expectations() {{
-            userMessage.getMessageInfo().getMessageId();
-            result = messageId;
-
-            userMessageLogDao.findByMessageId(messageId, MSHRole.SENDING);
-            result = userMessageLog;
+    public void testEnqueueMessages_NoMessages() {
+        new Expectations(retryService) {{
+            retryService.getMinRetryTimeout();
+            result = null;
 
-            pModeProvider.findUserMessageExchangeContext(userMessage, MSHRole.SENDING).getPmodeKey();
-            result = new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0001, null, UUID.randomUUID().toString(), null);
+            userMessageLogDao.findRetryMessages((Date) any, (Date) any, anyLong, anyInt);
+            result = new ArrayList<>();
         }};
 
-        //tested method
-        boolean result = retryService.failIfExpired(userMessage);
-        Assert.assertFalse(result);
+        retryService.enqueueMessages();
 
-        new FullVerifications() {{
+        new Verifications() {{
+            retryPageService.enqueueMessages((List<UserMessageLogRetryDto>) any, (Long) any);
+            times = 0;
         }};
     }
 
     @Test
-    public void test_failIfExpired_MessageExpired_SourceMessage(final @Mocked UserMessage userMessage) throws Exception {
-        final String messageId = "expired123@domibus.eu";
-        final String pModeKey = "pModeKey";
-
-        final UserMessageLog userMessageLog = new UserMessageLog();
-        userMessageLog.setSendAttempts(2);
-        userMessageLog.setSendAttemptsMax(3);
-        userMessageLog.setMessageStatus(MessageStatus.WAITING_FOR_RETRY);
-
-        final LegConfiguration legConfiguration = new LegConfiguration();
-        legConfiguration.setName("myLegConfiguration");
-
+    public void testResetTimedOutDispatches() {
         new Expectations(retryService) {{
-            userMessage.getMessageInfo().getMessageId();
-            result = messageId;
-
-            userMessageLogDao.findByMessageId(messageId, MSHRole.SENDING);
-            result = userMessageLog;
-
-            pModeProvider.findUserMessageExchangeContext(userMessage, MSHRole.SENDING).getPmodeKey();
-            result = pModeKey;
-
-            pModeProvider.getLegConfiguration(pModeKey);
-            result = legConfiguration;
+            retryService.getPageSize();
+            result = 2;
 
-            updateRetryLoggingService.isExpired(legConfiguration, userMessageLog);
-            result = true;
+            userMessageLogDao.findTimedOutDispatches((Date) any, 2);
+            result = Arrays.asList("first", "second");
 
-            userMessage.isUserMessageFragment();
-            result = true;
+            retryPageService.resetTimedOutDispatch("first");
+            result = new RuntimeException("lock timeout");
         }};
 
-        //tested method
-        boolean result = retryService.failIfExpired(userMessage);
-        Assert.assertTrue(result);
+        retryService.resetTimedOutDispatches();
 
-        new FullVerifications(retryService) {{
-            updateRetryLoggingService.messageFailed(userMessage, userMessageLog);
-
-            userMessageService.scheduleSplitAndJoinSendFailed(anyString, anyString);
+        new Verifications() {{
+            // a failure does not prevent the other messages from being reset
+            retryPageService.resetTimedOutDispatch("second");
         }};
     }
 
     @Test
-    public void test_failIfExpired_MessageNotExpired_NotSourceMessage(final @Mocked UserMessage userMessage) throws Exception {
-        final String messageId = "expired123@domibus.eu";
-        final String pModeKey = "pModeKey";
-
-        final UserMessageLog userMessageLog = new UserMessageLog();
-        userMessageLog.setSendAttempts(2);
-        userMessageLog.setSendAttemptsMax(3);
-        userMessageLog.setMessageStatus(MessageStatus.WAITING_FOR_RETRY);
-
-        final LegConfiguration legConfiguration = new LegConfiguration();
-        legConfiguration.setName("myLegConfiguration");
-
+    public void testGetMinRetryTimeout(@Injectable Process process,
+                                       @Injectable LegConfiguration leg1,
+                                       @Injectable LegConfiguration leg2,
+                                       @Injectable LegConfiguration legWithoutReceptionAwareness) {
         new Expectations() {{
-            userMessage.getMessageInfo().getMessageId();
-            result = messageId;
+            pModeProvider.findAllProcesses();
+            result = Collections.singletonList(process);
 
-            userMessageLogDao.findByMessageId(messageId, MSHRole.SENDING);
-            result = userMessageLog;
+            process.getLegs();
+            result = new LinkedHashSet<>(Arrays.asList(leg1, leg2, legWithoutReceptionAwareness));
 
-            pModeProvider.findUserMessageExchangeContext(userMessage, MSHRole.SENDING).getPmodeKey();
-            result = pModeKey;
+            leg1.getReceptionAwareness().getRetryTimeout();
+            result = 12;
 
-            pModeProvider.getLegConfiguration(pModeKey);
-            result = legConfiguration;
+            leg2.getReceptionAwareness().getRetryTimeout();
+            result = 5;
 
-            updateRetryLoggingService.isExpired(legConfiguration, userMessageLog);
-            result = false;
+            legWithoutReceptionAwareness.getReceptionAwareness();
+            result = null;
         }};
 
-        //tested method
-        boolean result = retryService.failIfExpired(userMessage);
-        Assert.assertFalse(result);
+        assertEquals(Long.valueOf(5 * 60000L), retryService.getMinRetryTimeout());
+    }
 
-        new FullVerifications() {{
+    @Test
+    public void testGetPageSize() {
+        new Expectations() {{
+            domibusPropertyProvider.getIntegerDomainProperty(DOMIBUS_MSH_RETRY_PAGE_SIZE);
+            returns(100, 5000, null);
         }};
-    }
 
-}
\ No newline at end of file
+        assertEquals(100, retryService.getPageSize());
+        assertEquals(RetryDefaultService.MAX_PAGE_SIZE, retryService.getPageSize());
+        assertEquals(RetryDefaultService.MAX_PAGE_SIZE, retryService.getPageSize());
+    }
+}
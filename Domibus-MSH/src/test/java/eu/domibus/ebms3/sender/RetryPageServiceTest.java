@@ -0,0 +1,229 @@
+package eu.domibus.ebms3.sender;
+
+import eu.domibus.api.property.DomibusPropertyProvider;
+import eu.domibus.api.usermessage.UserMessageService;
+import eu.domibus.common.ErrorCode;
+import eu.domibus.common.MSHRole;
+import eu.domibus.common.dao.MessagingDao;
+import eu.domibus.common.dao.UserMessageLogDao;
+import eu.domibus.common.exception.EbMS3Exception;
+import eu.domibus.common.model.configuration.LegConfiguration;
+import eu.domibus.common.model.configuration.ReceptionAwareness;
+import eu.domibus.common.model.logging.UserMessageLog;
+import eu.domibus.common.model.logging.UserMessageLogRetryDto;
+import eu.domibus.core.pmode.PModeProvider;
+import eu.domibus.ebms3.common.model.UserMessage;
+import mockit.*;
+import mockit.integration.junit4.JMockit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.*;
+
+import static eu.domibus.ebms3.sender.UpdateRetryLoggingService.MESSAGE_EXPIRATION_DELAY;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@RunWith(JMockit.class)
+public class RetryPageServiceTest {
+
+    @Tested
+    RetryPageService retryPageService;
+
+    @Injectable
+    DomibusPropertyProvider domibusPropertyProvider;
+
+    @Injectable
+    UserMessageService userMessageService;
+
+    @Injectable
+    UserMessageLogDao userMessageLogDao;
+
+    @Injectable
+    MessagingDao messagingDao;
+
+    @Injectable
+    PModeProvider pModeProvider;
+
+    @Injectable
+    UpdateRetryLoggingService updateRetryLoggingService;
+
+    @Test
+    public void testEnqueueMessages() {
+        final long now = System.currentTimeMillis();
+        final UserMessageLogRetryDto recent = new UserMessageLogRetryDto(1L, "recent", new Date(now), new Date(now), null, false);
+        final UserMessageLogRetryDto recentFragment = new UserMessageLogRetryDto(2L, "recentFragment", new Date(now), new Date(now), null, true);
+        final UserMessageLogRetryDto oldNotExpired = new UserMessageLogRetryDto(3L, "oldNotExpired", new Date(now), new Date(now - 3600000L), null, false);
+        final UserMessageLogRetryDto oldExpired = new UserMessageLogRetryDto(4L, "oldExpired", new Date(now), new Date(now - 3600000L), null, false);
+
+        new Expectations(retryPageService) {{
+            domibusPropertyProvider.getIntegerProperty(MESSAGE_EXPIRATION_DELAY);
+            result = 30000;
+
+            retryPageService.failExpiredMessages(Arrays.asList(oldNotExpired, oldExpired));
+            result = Collections.singleton("oldExpired");
+        }};
+
+        final int scheduled = retryPageService.enqueueMessages(Arrays.asList(recent, recentFragment, oldNotExpired, oldExpired), 60000L);
+
+        Assert.assertEquals(3, scheduled);
+        new Verifications() {{
+            userMessageService.scheduleSending(Arrays.asList("recent", "oldNotExpired"), false);
+            userMessageService.scheduleSending(Collections.singletonList("recentFragment"), true);
+        }};
+    }
+
+    @Test
+    public void testEnqueueMessages_UnknownRetryTimeout() {
+        final UserMessageLogRetryDto retryMessage = new UserMessageLogRetryDto(1L, "messageId", new Date(), new Date(), null, null);
+
+        new Expectations(retryPageService) {{
+            retryPageService.failExpiredMessages(Collections.singletonList(retryMessage));
+            result = Collections.emptySet();
+        }};
+
+        retryPageService.enqueueMessages(Collections.singletonList(retryMessage), null);
+
+        new Verifications() {{
+            userMessageService.scheduleSending(Collections.singletonList("messageId"), false);
+        }};
+    }
+
+    @Test
+    public void testFailExpiredMessages(final @Mocked UserMessage routing1, final @Mocked UserMessage routing2) throws Exception {
+        final long now = System.currentTimeMillis();
+        final UserMessageLogRetryDto expired = new UserMessageLogRetryDto(1L, "expired", new Date(now), new Date(now - 7200000L), null, false);
+        final UserMessageLogRetryDto notExpired = new UserMessageLogRetryDto(2L, "notExpired", new Date(now), new Date(now - 1800000L), null, false);
+        final UserMessageLogRetryDto notFound = new UserMessageLogRetryDto(3L, "notFound", new Date(now), new Date(now - 7200000L), null, false);
+        final Map<String, UserMessage> routings = new HashMap<>();
+        routings.put("expired", routing1);
+        routings.put("notExpired", routing2);
+
+        final LegConfiguration legConfiguration = new LegConfiguration();
+        final ReceptionAwareness receptionAwareness = new ReceptionAwareness();
+        receptionAwareness.setRetryTimeout(60);
+        Deencapsulation.setField(legConfiguration, "receptionAwareness", receptionAwareness);
+
+        new Expectations(retryPageService) {{
+            messagingDao.findUserMessageRoutings(Arrays.asList("expired", "notExpired", "notFound"));
+            result = routings;
+
+            domibusPropertyProvider.getIntegerProperty(MESSAGE_EXPIRATION_DELAY);
+            result = 30000;
+
+            pModeProvider.findUserMessageExchangeContext((UserMessage) any, MSHRole.SENDING).getPmodeKey();
+            result = "pModeKey";
+
+            pModeProvider.getLegConfiguration("pModeKey");
+            result = legConfiguration;
+
+            retryPageService.failExpiredMessage("expired");
+        }};
+
+        final Set<String> expiredMessageIds = retryPageService.failExpiredMessages(Arrays.asList(expired, notExpired, notFound));
+
+        Assert.assertEquals(Collections.singleton("expired"), expiredMessageIds);
+        new Verifications() {{
+            // the leg is resolved once for the page
+            pModeProvider.getLegConfiguration(anyString);
+            times = 1;
+            retryPageService.failExpiredMessage(anyString);
+            times = 1;
+            messagingDao.findUserMessageByMessageId(anyString);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testFailExpiredMessages_LegNotFound(final @Mocked UserMessage routing) throws Exception {
+        final UserMessageLogRetryDto retryMessage = new UserMessageLogRetryDto(1L, "messageId", new Date(), new Date(0), null, false);
+
+        new Expectations(retryPageService) {{
+            messagingDao.findUserMessageRoutings(Collections.singletonList("messageId"));
+            result = Collections.singletonMap("messageId", routing);
+
+            pModeProvider.findUserMessageExchangeContext(routing, MSHRole.SENDING);
+            result = new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0001, null, UUID.randomUUID().toString(), null);
+        }};
+
+        Assert.assertTrue(retryPageService.failExpiredMessages(Collections.singletonList(retryMessage)).isEmpty());
+
+        new Verifications() {{
+            retryPageService.failExpiredMessage(anyString);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testFailExpiredMessages_Empty() {
+        Assert.assertTrue(retryPageService.failExpiredMessages(Collections.emptyList()).isEmpty());
+
+        new FullVerifications() {{
+        }};
+    }
+
+    @Test
+    public void testIsExpired() {
+        final long now = System.currentTimeMillis();
+        final LegConfiguration legConfiguration = new LegConfiguration();
+        final ReceptionAwareness receptionAwareness = new ReceptionAwareness();
+        receptionAwareness.setRetryTimeout(60);
+        Deencapsulation.setField(legConfiguration, "receptionAwareness", receptionAwareness);
+
+        Assert.assertTrue(retryPageService.isExpired(legConfiguration, new UserMessageLogRetryDto(1L, "messageId", new Date(now), new Date(now - 3700000L), null, false), 30000));
+        Assert.assertFalse(retryPageService.isExpired(legConfiguration, new UserMessageLogRetryDto(1L, "messageId", new Date(now), new Date(now - 3600000L), null, false), 30000));
+        Assert.assertFalse(retryPageService.isExpired(legConfiguration, new UserMessageLogRetryDto(1L, "messageId", new Date(now), new Date(now - 3700000L), new Date(now), false), 30000));
+        Assert.assertFalse(retryPageService.isExpired(new LegConfiguration(), new UserMessageLogRetryDto(1L, "messageId", new Date(now), new Date(0), null, false), 30000));
+    }
+
+    @Test
+    public void testFailExpiredMessage_SourceMessage(final @Mocked UserMessage userMessage) {
+        final String messageId = "expired123@domibus.eu";
+        final UserMessageLog userMessageLog = new UserMessageLog();
+
+        new Expectations() {{
+            messagingDao.findUserMessageByMessageId(messageId);
+            result = userMessage;
+
+            userMessageLogDao.findByMessageId(messageId, MSHRole.SENDING);
+            result = userMessageLog;
+
+            userMessage.isUserMessageFragment();
+            result = true;
+        }};
+
+        retryPageService.failExpiredMessage(messageId);
+
+        new FullVerifications() {{
+            updateRetryLoggingService.messageFailed(userMessage, userMessageLog);
+
+            userMessageService.scheduleSplitAndJoinSendFailed(anyString, anyString);
+        }};
+    }
+
+    @Test
+    public void testFailExpiredMessage_NotSourceMessage(final @Mocked UserMessage userMessage) {
+        final String messageId = "expired123@domibus.eu";
+        final UserMessageLog userMessageLog = new UserMessageLog();
+
+        new Expectations() {{
+            messagingDao.findUserMessageByMessageId(messageId);
+            result = userMessage;
+
+            userMessageLogDao.findByMessageId(messageId, MSHRole.SENDING);
+            result = userMessageLog;
+
+            userMessage.isUserMessageFragment();
+            result = false;
+        }};
+
+        retryPageService.failExpiredMessage(messageId);
+
+        new FullVerifications() {{
+            updateRetryLoggingService.messageFailed(userMessage, userMessageLog);
+        }};
+    }
+}
@@ -95,7 +95,7 @@ public class UpdateRetryLoggingServiceTest {
      * Notification is enabled
      * Expected result: MessageLogDao#setAsNotified() is called
      *                  MessageLogDao#setMessageAsSendFailure is called
-     *                  MessagingDao#clearPayloadData() is called
+     *                  UserMessageService#clearPayloadData() is called
      *
      * @throws Exception
      */
@@ -129,17 +129,40 @@ public class UpdateRetryLoggingServiceTest {
 
         new Verifications() {{
             messageLogService.setMessageAsSendFailure(userMessageLog);
-            messagingDao.clearPayloadData(messageId);
+            userMessageService.clearPayloadData(messageId);
         }};
 
     }
 
+    @Test
+    public void testUpdateTimedOutDispatchRetryLogging_ResponseAlreadyReceived() {
+        final String messageId = UUID.randomUUID().toString();
+
+        final UserMessageLog userMessageLog = new UserMessageLog();
+        userMessageLog.setSendAttempts(1);
+        userMessageLog.setMessageStatus(MessageStatus.ACKNOWLEDGED);
+        userMessageLog.setMessageId(messageId);
+
+        new Expectations() {{
+            messageLogDao.findByMessageId(messageId, MSHRole.SENDING);
+            result = userMessageLog;
+        }};
+
+        updateRetryLoggingService.updateTimedOutDispatchRetryLogging(messageId, legConfiguration);
+
+        assertEquals(1, userMessageLog.getSendAttempts());
+        new Verifications() {{
+            messageLogDao.update((UserMessageLog) any);
+            times = 0;
+        }};
+    }
+
     /**
      * Message was restored
      * Max retries limit reached
      * Expected result: MessageLogDao#setAsNotified() is called
      *                  MessageLogDao#setMessageAsSendFailure is called
-     *                  MessagingDao#clearPayloadData() is called
+     *                  UserMessageService#clearPayloadData() is called
      *
      *
      * @throws Exception
@@ -175,7 +198,7 @@ public class UpdateRetryLoggingServiceTest {
 
         new Verifications() {{
             messageLogService.setMessageAsSendFailure(userMessageLog);
-            messagingDao.clearPayloadData(messageId);
+            userMessageService.clearPayloadData(messageId);
         }};
 
     }
@@ -221,7 +244,7 @@ public class UpdateRetryLoggingServiceTest {
      * Notification is disabled
      * Expected result: MessageLogDao#setAsNotified() is not called
      *                  MessageLogDao#setMessageAsSendFailure is called
-     *                  MessagingDao#clearPayloadData() is called
+     *                  UserMessageService#clearPayloadData() is called
      *
      * @throws Exception
      */
@@ -250,7 +273,7 @@ public class UpdateRetryLoggingServiceTest {
         updateRetryLoggingService.updatePushedMessageRetryLogging(messageId, legConfiguration);
 
         new Verifications() {{
-            messagingDao.clearPayloadData(messageId);
+            userMessageService.clearPayloadData(messageId);
             messageLogService.setMessageAsSendFailure(userMessageLog);
             messageLogDao.setAsNotified(messageId); times = 0;
         }};
@@ -261,7 +284,7 @@ public class UpdateRetryLoggingServiceTest {
      * Max retries limit reached
      * Notification is disabled
      * Clear payload is default (false)
-     * Expected result: MessagingDao#clearPayloadData is not called
+     * Expected result: UserMessageService#clearPayloadData is not called
      *                  MessageLogDao#setMessageAsSendFailure is called
      *                  MessageLogDao#setAsNotified() is not called
      *
@@ -289,7 +312,7 @@ public class UpdateRetryLoggingServiceTest {
         updateRetryLoggingService.updatePushedMessageRetryLogging(messageId, legConfiguration);
 
         new Verifications() {{
-            messagingDao.clearPayloadData(messageId); times = 0;
+            userMessageService.clearPayloadData(messageId); times = 0;
             messageLogService.setMessageAsSendFailure(userMessageLog);
             messageLogDao.setAsNotified(messageId); times = 0;
         }};
@@ -300,7 +323,7 @@ public class UpdateRetryLoggingServiceTest {
      * Max retries limit not reached
      * Timeout limit reached
      * Notification is enabled
-     * Expected result: MessagingDao#clearPayloadData is called
+     * Expected result: UserMessageService#clearPayloadData is called
      *                  MessageLogDao#setMessageAsSendFailure is called
      *                  MessageLogDao#setAsNotified() is called
      *
@@ -334,7 +357,7 @@ public class UpdateRetryLoggingServiceTest {
 
         new Verifications() {{
             messageLogService.setMessageAsSendFailure(userMessageLog);
-            messagingDao.clearPayloadData(messageId);
+            userMessageService.clearPayloadData(messageId);
         }};
 
     }
@@ -344,7 +367,7 @@ public class UpdateRetryLoggingServiceTest {
      * Max retries limit not reached
      * Timeout limit reached
      * Notification is disableds
-     * Expected result: MessagingDao#clearPayloadData is called
+     * Expected result: UserMessageService#clearPayloadData is called
      *                  MessageLogDao#setMessageAsSendFailure is called
      *                  MessageLogDao#setAsNotified() is called
      *
@@ -378,7 +401,7 @@ public class UpdateRetryLoggingServiceTest {
 
         new Verifications() {{
             messageLogService.setMessageAsSendFailure(userMessageLog);
-            messagingDao.clearPayloadData(messageId);
+            userMessageService.clearPayloadData(messageId);
         }};
 
     }
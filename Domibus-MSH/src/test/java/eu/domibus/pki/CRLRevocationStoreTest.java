@@ -0,0 +1,133 @@
+package eu.domibus.pki;
+
+import eu.domibus.api.property.DomibusPropertyProvider;
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Tested;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.math.BigInteger;
+import java.security.Security;
+import java.security.cert.X509CRL;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_CERTIFICATE_CRL_STORE_LOCATION;
+import static eu.domibus.api.property.DomibusPropertyMetadataManager.DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ * @since 4.1.5
+ */
+@RunWith(JMockit.class)
+public class CRLRevocationStoreTest {
+
+    private static final String CRL_URL = "http://domain1.crl";
+
+    private static final BigInteger REVOKED_SERIAL = new BigInteger("0400000000011E44A5E405", 16);
+
+    private static final BigInteger VALID_SERIAL = new BigInteger("0400000000011E44A5E406", 16);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Tested
+    CRLRevocationStore crlRevocationStore;
+
+    @Injectable
+    CRLUtil crlUtil;
+
+    @Injectable
+    DomibusPropertyProvider domibusPropertyProvider;
+
+    @Injectable
+    Executor executor;
+
+    PKIUtil pkiUtil = new PKIUtil();
+
+    @Before
+    public void init() {
+        Security.addProvider(new org.bouncycastle.jce.provider.BouncyCastleProvider());
+    }
+
+    @Test
+    public void testIsRevoked_DownloadsOncePerDistributionPoint() throws Exception {
+        final X509CRL crl = pkiUtil.createCRL(Arrays.asList(REVOKED_SERIAL, new BigInteger("0400000000011E44A5E404", 16)));
+        new Expectations() {{
+            domibusPropertyProvider.getProperty(DOMIBUS_CERTIFICATE_CRL_STORE_LOCATION);
+            result = null;
+
+            domibusPropertyProvider.getIntegerProperty(DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL);
+            result = 3600;
+
+            crlUtil.downloadCRL(CRL_URL);
+            result = crl;
+        }};
+
+        assertTrue(crlRevocationStore.isRevoked(pkiUtil.createCertificate(REVOKED_SERIAL, null), CRL_URL));
+        assertFalse(crlRevocationStore.isRevoked(pkiUtil.createCertificate(VALID_SERIAL, null), CRL_URL));
+
+        new Verifications() {{
+            crlUtil.downloadCRL(CRL_URL);
+            times = 1;
+        }};
+    }
+
+    @Test
+    public void testIsRevoked_ReadsTheSavedCRLAfterRestart() throws Exception {
+        final X509CRL crl = pkiUtil.createCRL(Arrays.asList(REVOKED_SERIAL));
+        final String location = temporaryFolder.getRoot().getAbsolutePath();
+        new Expectations() {{
+            domibusPropertyProvider.getProperty(DOMIBUS_CERTIFICATE_CRL_STORE_LOCATION);
+            result = location;
+
+            domibusPropertyProvider.getIntegerProperty(DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL);
+            result = 3600;
+
+            crlUtil.downloadCRL(CRL_URL);
+            result = crl;
+            times = 1;
+        }};
+        crlRevocationStore.isRevoked(pkiUtil.createCertificate(VALID_SERIAL, null), CRL_URL);
+
+        // the restarted server only has the file saved on disk
+        crlRevocationStore.revokedSerialsByUrl.clear();
+
+        assertTrue(crlRevocationStore.isRevoked(pkiUtil.createCertificate(REVOKED_SERIAL, null), CRL_URL));
+    }
+
+    @Test
+    public void testIsRevoked_RefreshesInBackground() throws Exception {
+        final X509CRL crl = pkiUtil.createCRL(Arrays.asList(REVOKED_SERIAL));
+        new Expectations() {{
+            domibusPropertyProvider.getProperty(DOMIBUS_CERTIFICATE_CRL_STORE_LOCATION);
+            result = null;
+
+            domibusPropertyProvider.getIntegerProperty(DOMIBUS_CERTIFICATE_CRL_STORE_REFRESH_INTERVAL);
+            result = 0;
+
+            crlUtil.downloadCRL(CRL_URL);
+            result = crl;
+        }};
+
+        crlRevocationStore.isRevoked(pkiUtil.createCertificate(VALID_SERIAL, null), CRL_URL);
+        // the refresh is due but the previous CRL is still used
+        assertTrue(crlRevocationStore.isRevoked(pkiUtil.createCertificate(REVOKED_SERIAL, null), CRL_URL));
+        crlRevocationStore.isRevoked(pkiUtil.createCertificate(REVOKED_SERIAL, null), CRL_URL);
+
+        new Verifications() {{
+            crlUtil.downloadCRL(CRL_URL);
+            times = 1;
+            executor.execute((Runnable) any);
+            times = 1;
+        }};
+    }
+}
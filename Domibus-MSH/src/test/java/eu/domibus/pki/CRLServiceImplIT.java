@@ -18,11 +18,13 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import java.io.File;
 import java.math.BigInteger;
+import java.nio.file.Path;
 import java.security.Principal;
 import java.security.Security;
 import java.security.cert.X509CRL;
 import java.security.cert.X509Certificate;
 import java.util.Arrays;
+import java.util.concurrent.Executor;
 
 /**
  * Integration test for {@code CRLServiceImpl} class
@@ -49,6 +51,26 @@ public class CRLServiceImplIT {
         CRLUtil crlUtil() {
             return Mockito.mock(CRLUtil.class);
         }
+
+        @Bean
+        CRLRevocationStore crlRevocationStore() {
+            return new CRLRevocationStore() {
+                @Override
+                protected Path getStoreFile(String crlDistributionPointURL) {
+                    return null;
+                }
+
+                @Override
+                protected long getRefreshInterval() {
+                    return 3600 * 1000L;
+                }
+            };
+        }
+
+        @Bean
+        Executor taskExecutor() {
+            return Mockito.mock(Executor.class);
+        }
     }
 
     @Autowired
@@ -82,7 +104,7 @@ public class CRLServiceImplIT {
     }
 
     @Test
-    public void test_isCertificateRevoked_withCache() {
+    public void test_isCertificateRevoked_withRevocationStore() {
 
         X509CRL x509CRLMock = Mockito.mock(X509CRL.class);
         Principal principalMock = Mockito.mock((Principal.class));
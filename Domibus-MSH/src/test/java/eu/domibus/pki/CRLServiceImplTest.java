@@ -32,6 +32,9 @@ public class CRLServiceImplTest {
     @Injectable
     CRLUtil crlUtil;
 
+    @Injectable
+    CRLRevocationStore crlRevocationStore;
+
     @Injectable
     DomibusPropertyProvider domibusPropertyProvider;
 
@@ -146,7 +149,7 @@ public class CRLServiceImplTest {
             crlUtil.getCrlDistributionPoints(certificate);
             returns(crlUrlList);
 
-            crlUtil.downloadCRL(crlUrl1);
+            crlRevocationStore.isRevoked(certificate, crlUrl1);
             result = new DomibusCRLException();
         }};
         crlService.isCertificateRevoked(certificate);
@@ -192,12 +195,11 @@ public class CRLServiceImplTest {
     @Test
     public void testIsCertificateRevokedWithCRLExtractedFromCertificate() throws Exception {
         final String crlUrlString = "file://test";
-        final X509CRL x509CRL = pkiUtil.createCRL(Arrays.asList(new BigInteger[]{new BigInteger("0400000000011E44A5E405", 16), new BigInteger("0400000000011E44A5E404", 16)}));
+        X509Certificate certificate = pkiUtil.createCertificate(new BigInteger("0400000000011E44A5E405", 16), null);
         new Expectations() {{
-            crlUtil.downloadCRL(crlUrlString);
-            result = x509CRL;
+            crlRevocationStore.isRevoked(certificate, crlUrlString);
+            result = true;
         }};
-        X509Certificate certificate = pkiUtil.createCertificate(new BigInteger("0400000000011E44A5E405", 16), null);
         boolean certificateRevoked = crlService.isCertificateRevoked(certificate, crlUrlString);
         assertTrue(certificateRevoked);
     }
@@ -8,6 +8,7 @@ import eu.domibus.api.security.AuthUtils;
 import eu.domibus.common.MessageStatus;
 import eu.domibus.common.MessageStatusChangeEvent;
 import eu.domibus.common.NotificationType;
+import eu.domibus.core.message.pending.PendingDownloadService;
 import eu.domibus.messaging.MessageConstants;
 import eu.domibus.messaging.MessageNotFoundException;
 import eu.domibus.plugin.delegate.BackendConnectorDelegate;
@@ -67,6 +68,9 @@ public class NotificationListenerServiceTest {
     @Injectable
     BackendConnectorDelegate backendConnectorDelegate;
 
+    @Injectable
+    PendingDownloadService pendingDownloadService;
+
     @Tested
     NotificationListenerService objNotificationListenerService;
 
@@ -132,7 +136,7 @@ public class NotificationListenerServiceTest {
     }
 
     @Test
-    public void testRemoveFromPendingOk() throws Exception {
+    public void testRemoveFromPendingOk(@Injectable final BackendConnector backendConnector) throws Exception {
 
         mode = BackendConnector.Mode.PULL;
 
@@ -149,6 +153,9 @@ public class NotificationListenerServiceTest {
             jmsManager.consumeMessage(queueName, messageId);
             result = messages.get(0);
 
+            backendConnector.getName();
+            result = "backendWebservice";
+
         }};
 
         objNotificationListenerService.removeFromPending(messageId);
@@ -156,6 +163,39 @@ public class NotificationListenerServiceTest {
         new Verifications() {{
             objNotificationListenerService.getBackendNotificationQueue().getQueueName();
             jmsManager.consumeMessage(queueName, messageId);
+            pendingDownloadService.removePendingDownload("backendWebservice", messageId);
+        }};
+    }
+
+    @Test
+    public void testListPendingMessagesFromIndex(@Injectable final BackendConnector backendConnector) {
+        mode = BackendConnector.Mode.PULL;
+
+        final List<String> messageIds = new ArrayList<>();
+        messageIds.add("ID3");
+
+        new Expectations() {{
+            pendingDownloadService.isActive();
+            result = true;
+
+            authUtils.isUnsecureLoginAllowed();
+            result = true;
+
+            authUtils.getOriginalUserFromSecurityContext();
+            result = TEST_FINAL_RECIPIENT;
+
+            backendConnector.getName();
+            result = "backendWebservice";
+
+            pendingDownloadService.findPendingMessageIds("backendWebservice", TEST_FINAL_RECIPIENT, 10, 5);
+            result = messageIds;
+        }};
+
+        Assert.assertEquals(messageIds, objNotificationListenerService.listPendingMessages(10, 5));
+
+        new Verifications() {{
+            jmsManager.browseClusterMessages(anyString, anyString);
+            times = 0;
         }};
     }
 
@@ -15,6 +15,7 @@ import eu.domibus.common.exception.EbMS3Exception;
 import eu.domibus.common.model.configuration.*;
 import eu.domibus.common.model.logging.ErrorLogEntry;
 import eu.domibus.common.model.logging.UserMessageLog;
+import eu.domibus.common.services.ErrorService;
 import eu.domibus.common.services.MessageExchangeService;
 import eu.domibus.common.services.MessagingService;
 import eu.domibus.common.services.impl.CompressionService;
@@ -39,6 +40,7 @@ import eu.domibus.logging.DomibusLoggerFactory;
 import eu.domibus.messaging.*;
 import eu.domibus.plugin.Submission;
 import eu.domibus.plugin.transformer.impl.SubmissionAS4Transformer;
+import mockit.Delegate;
 import mockit.Expectations;
 import mockit.Injectable;
 import mockit.Tested;
@@ -48,6 +50,8 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.jms.Queue;
 import javax.persistence.NoResultException;
@@ -126,6 +130,9 @@ public class DatabaseMessageHandlerTest {
     @Injectable
     private ErrorLogDao errorLogDao;
 
+    @Injectable
+    private ErrorService errorService;
+
     @Injectable
     private PModeProvider pModeProvider;
 
@@ -986,7 +993,7 @@ public class DatabaseMessageHandlerTest {
             userMessageLogDao.findByMessageId(MESS_ID, MSHRole.RECEIVING);
             userMessageLogService.setMessageAsDownloaded(userMessageLog);
             pModeProvider.getRetentionDownloadedByMpcURI(userMessage.getMpc());
-            messagingDao.clearPayloadData(anyString);
+            userMessageService.clearPayloadData(anyString);
             signalMessageDao.findSignalMessagesByRefMessageId(MESS_ID);
             userMessageLogService.setMessageAsDeleted(anyString);
             userMessageLogService.setMessageAsDeleted(anyString);
@@ -1033,7 +1040,7 @@ public class DatabaseMessageHandlerTest {
             userMessageLogDao.findByMessageId(MESS_ID, MSHRole.RECEIVING);
             userMessageLogService.setMessageAsDownloaded(userMessageLog);
             pModeProvider.getRetentionDownloadedByMpcURI(userMessage.getMpc());
-            messagingDao.clearPayloadData(anyString);
+            userMessageService.clearPayloadData(anyString);
             times = 0;
             signalMessageDao.findSignalMessagesByRefMessageId(MESS_ID);
             times = 0;
@@ -1219,6 +1226,42 @@ public class DatabaseMessageHandlerTest {
         }
     }
 
+    @Test
+    public void testGetStatuses_OriginalUser() {
+        final List<String> messageIds = Arrays.asList("id1", "id2", "id3");
+        final Map<String, MessageStatus> statuses = new HashMap<>();
+        statuses.put("id1", MessageStatus.ACKNOWLEDGED);
+        statuses.put("id2", MessageStatus.RECEIVED);
+        final Map<String, List<String>> originalUsers = new HashMap<>();
+        originalUsers.put("id1", Arrays.asList("urn:oasis:names:tc:ebcore:partyid-type:unregistered:C1", "user"));
+        originalUsers.put("id2", Collections.singletonList("anotherUser"));
+
+        new Expectations() {{
+            authUtils.isUnsecureLoginAllowed();
+            result = false;
+
+            userMessageLogDao.findMessageStatuses(messageIds);
+            result = statuses;
+
+            authUtils.getOriginalUserFromSecurityContext();
+            result = "USER";
+
+            messagingDao.findMessagePropertyValues((List<String>) any, (List<String>) any);
+            result = originalUsers;
+        }};
+
+        final Map<String, MessageStatus> result = dmh.getStatuses(messageIds);
+
+        Assert.assertEquals(messageIds, new ArrayList<>(result.keySet()));
+        Assert.assertEquals(MessageStatus.ACKNOWLEDGED, result.get("id1"));
+        // the message of another user is not reported
+        Assert.assertEquals(MessageStatus.NOT_FOUND, result.get("id2"));
+        Assert.assertEquals(MessageStatus.NOT_FOUND, result.get("id3"));
+        new Verifications() {{
+            authUtils.hasUserOrAdminRole();
+        }};
+    }
+
     @Test
     public void testcreateNewParty() {
         String mpc = "mpc_qn";
@@ -1238,4 +1281,127 @@ public class DatabaseMessageHandlerTest {
         Party party = dmh.createNewParty(null);
         Assert.assertNull(party);
     }
+
+    @Test
+    public void testSubmitBatch(@Injectable final Submission messageData1, @Injectable final Submission messageData2,
+                                @Injectable final UserMessage userMessage1, @Injectable final UserMessage userMessage2) throws Exception {
+        new Expectations(dmh) {{
+            dmh.authorizeSubmitter();
+            result = "user";
+
+            dmh.transformSubmission(messageData1, "user");
+            result = userMessage1;
+
+            dmh.transformSubmission(messageData2, "user");
+            result = userMessage2;
+
+            dmh.submitUserMessage(messageData1, userMessage1, BACKEND, false, (Map<Boolean, List<String>>) any);
+            result = new Delegate<String>() {
+                @SuppressWarnings("unused")
+                String delegate(Submission messageData, UserMessage userMessage, String backendName, boolean checkDuplicate, Map<Boolean, List<String>> messagesToSend) {
+                    messagesToSend.computeIfAbsent(false, splitAndJoin -> new ArrayList<>()).add("id1");
+                    return "id1";
+                }
+            };
+
+            dmh.submitUserMessage(messageData2, userMessage2, BACKEND, false, (Map<Boolean, List<String>>) any);
+            result = "id2";
+        }};
+
+        final List<String> messageIds = dmh.submitBatch(Arrays.asList(messageData1, messageData2), BACKEND);
+
+        assertEquals(Arrays.asList("id1", "id2"), messageIds);
+        new Verifications() {{
+            dmh.checkDuplicateMessageIds(Arrays.asList(userMessage1, userMessage2));
+            userMessageService.scheduleSending(Collections.singletonList("id1"), false);
+            userMessageService.scheduleSending(anyString, anyBoolean);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testSubmitBatch_SecondMessageRejected(@Injectable final Submission messageData1, @Injectable final Submission messageData2,
+                                                     @Injectable final UserMessage userMessage1) throws Exception {
+        final UserMessage userMessage2 = createUserMessage();
+        new Expectations(dmh) {{
+            dmh.authorizeSubmitter();
+            result = "user";
+
+            dmh.transformSubmission(messageData1, "user");
+            result = userMessage1;
+
+            dmh.transformSubmission(messageData2, "user");
+            result = userMessage2;
+
+            dmh.submitUserMessage(messageData1, userMessage1, BACKEND, false, (Map<Boolean, List<String>>) any);
+            result = new Delegate<String>() {
+                @SuppressWarnings("unused")
+                String delegate(Submission messageData, UserMessage userMessage, String backendName, boolean checkDuplicate, Map<Boolean, List<String>> messagesToSend) {
+                    messagesToSend.computeIfAbsent(false, splitAndJoin -> new ArrayList<>()).add("id1");
+                    return "id1";
+                }
+            };
+
+            messageIdGenerator.generateMessageId();
+            result = MESS_ID;
+
+            pModeProvider.findUserMessageExchangeContext(userMessage2, MSHRole.SENDING);
+            result = new EbMS3Exception(ErrorCode.EbMS3ErrorCode.EBMS_0010, "PMode could not be found", MESS_ID, null);
+        }};
+
+        try {
+            dmh.submitBatch(Arrays.asList(messageData1, messageData2), BACKEND);
+            Assert.fail("It should throw " + MessagingProcessingException.class.getCanonicalName());
+        } catch (MessagingProcessingException mpEx) {
+            assertEquals(ErrorCode.EBMS_0010, mpEx.getEbms3ErrorCode());
+        }
+
+        // the batch is rolled back on the checked exception, only the error is saved in its own transaction
+        final Transactional transactional = DatabaseMessageHandler.class.getMethod("submitBatch", List.class, String.class).getAnnotation(Transactional.class);
+        Assert.assertTrue(Arrays.asList(transactional.rollbackFor()).contains(MessagingProcessingException.class));
+        assertEquals(Propagation.REQUIRES_NEW, transactional.propagation());
+        new Verifications() {{
+            errorService.createErrorLog((ErrorLogEntry) any);
+            errorLogDao.create((ErrorLogEntry) any);
+            times = 0;
+            userMessageService.scheduleSending((List<String>) any, anyBoolean);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testCheckDuplicateMessageIds() throws Exception {
+        final UserMessage userMessage1 = createUserMessage();
+        userMessage1.getMessageInfo().setMessageId("id1");
+        final UserMessage userMessage2 = createUserMessage();
+
+        dmh.checkDuplicateMessageIds(Arrays.asList(userMessage1, userMessage2));
+
+        new Verifications() {{
+            userMessageLogDao.findExistingMessageIds(Collections.singletonList("id1"));
+        }};
+    }
+
+    @Test(expected = DuplicateMessageException.class)
+    public void testCheckDuplicateMessageIds_SubmittedTwice() throws Exception {
+        final UserMessage userMessage1 = createUserMessage();
+        userMessage1.getMessageInfo().setMessageId("id1");
+        final UserMessage userMessage2 = createUserMessage();
+        userMessage2.getMessageInfo().setMessageId("id1");
+
+        dmh.checkDuplicateMessageIds(Arrays.asList(userMessage1, userMessage2));
+    }
+
+    @Test(expected = DuplicateMessageException.class)
+    public void testCheckDuplicateMessageIds_AlreadyExists() throws Exception {
+        final UserMessage userMessage1 = createUserMessage();
+        userMessage1.getMessageInfo().setMessageId("id1");
+
+        new Expectations() {{
+            userMessageLogDao.findExistingMessageIds(Collections.singletonList("id1"));
+            result = Collections.singletonList("id1");
+        }};
+
+        dmh.checkDuplicateMessageIds(Collections.singletonList(userMessage1));
+    }
 }
@@ -1,17 +1,24 @@
 package eu.domibus.plugin.routing;
 
+import eu.domibus.api.cluster.SignalService;
+import eu.domibus.api.multitenancy.DomainContextProvider;
+import eu.domibus.api.multitenancy.DomainService;
 import eu.domibus.api.routing.BackendFilter;
 import eu.domibus.api.routing.RoutingCriteria;
 import eu.domibus.common.exception.ConfigurationException;
 import eu.domibus.core.converter.DomainCoreConverter;
 import eu.domibus.plugin.NotificationListener;
 import eu.domibus.plugin.routing.dao.BackendFilterDao;
+import mockit.Expectations;
 import mockit.Injectable;
 import mockit.Tested;
+import mockit.Verifications;
 import mockit.integration.junit4.JMockit;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -36,6 +43,68 @@ public class RoutingServiceTest {
     @Injectable
     private DomainCoreConverter coreConverter;
 
+    @Injectable
+    private DomainContextProvider domainContextProvider;
+
+    @Injectable
+    private SignalService signalService;
+
+    @Test
+    public void getRoutingBackendFiltersIsLoadedOnce(@Injectable BackendFilterEntity backendFilterEntity) {
+        final List<BackendFilterEntity> backendFilterEntities = Arrays.asList(backendFilterEntity);
+        final List<BackendFilter> backendFilters = Arrays.asList(new BackendFilter());
+        new Expectations() {{
+            domainContextProvider.getCurrentDomain();
+            result = DomainService.DEFAULT_DOMAIN;
+
+            backendFilterDao.findAll();
+            result = backendFilterEntities;
+
+            coreConverter.convert(backendFilterEntities, BackendFilter.class);
+            result = backendFilters;
+        }};
+
+        Assert.assertEquals(backendFilters, routingService.getRoutingBackendFilters());
+        Assert.assertEquals(backendFilters, routingService.getRoutingBackendFilters());
+
+        new Verifications() {{
+            backendFilterDao.findAll();
+            times = 1;
+        }};
+    }
+
+    @Test
+    public void getRoutingBackendFiltersIsReloadedAfterInvalidation() {
+        new Expectations() {{
+            domainContextProvider.getCurrentDomain();
+            result = DomainService.DEFAULT_DOMAIN;
+
+            coreConverter.convert((List<?>) any, BackendFilter.class);
+            result = new ArrayList<>();
+        }};
+
+        routingService.getRoutingBackendFilters();
+        routingService.invalidateRoutingBackendFilters();
+        routingService.getRoutingBackendFilters();
+
+        new Verifications() {{
+            backendFilterDao.findAll();
+            times = 2;
+        }};
+    }
+
+    @Test
+    public void updateBackendFiltersInvalidatesTheRoutingFilters() {
+        routingService.routingBackendFilters.put(DomainService.DEFAULT_DOMAIN, new ArrayList<>());
+
+        routingService.updateBackendFilters(new ArrayList<>());
+
+        Assert.assertTrue(routingService.routingBackendFilters.isEmpty());
+        new Verifications() {{
+            signalService.signalMessageFiltersUpdated();
+        }};
+    }
+
     @Test(expected = ConfigurationException.class)
     public void validateFiltersThrowsError() {
         BackendFilter bf1 = new BackendFilter();
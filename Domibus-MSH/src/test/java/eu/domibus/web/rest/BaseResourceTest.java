@@ -1,5 +1,7 @@
 package eu.domibus.web.rest;
 
+import eu.domibus.api.csv.CsvException;
+import eu.domibus.api.exceptions.DomibusCoreErrorCode;
 import eu.domibus.api.jms.JmsMessage;
 import eu.domibus.core.csv.CsvCustomColumns;
 import eu.domibus.core.csv.CsvExcludedItems;
@@ -15,11 +17,15 @@ import org.junit.runner.RunWith;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * @author Catalin Enache
@@ -61,6 +67,53 @@ public class BaseResourceTest {
         }};
     }
 
+    @Test
+    public void testExportToCSV_Stream() throws Exception {
+        final List<JmsMessage> jmsMessageList = getJmsMessageList();
+        final Supplier<Stream<JmsMessage>> rows = jmsMessageList::stream;
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        final String moduleName = "test";
+        new Expectations(baseResource) {{
+            baseResource.getCsvService();
+            result = csvServiceImpl;
+
+            csvServiceImpl.getCsvFilename(moduleName);
+            result = moduleName;
+        }};
+
+        //tested method
+        baseResource.exportToCSV(rows, JmsMessage.class,
+                CsvCustomColumns.JMS_RESOURCE.getCustomColumns(), CsvExcludedItems.JMS_RESOURCE.getExcludedItems(), moduleName, response);
+
+        Assert.assertEquals(HttpStatus.OK.value(), response.getStatus());
+        Assert.assertEquals(CsvServiceImpl.APPLICATION_EXCEL_STR, response.getContentType());
+        Assert.assertEquals("attachment; filename=\"test\"", response.getHeader("Content-Disposition"));
+
+        new FullVerifications() {{
+            csvServiceImpl.exportToCSV(rows, JmsMessage.class,
+                    CsvCustomColumns.JMS_RESOURCE.getCustomColumns(), CsvExcludedItems.JMS_RESOURCE.getExcludedItems(), response.getWriter());
+        }};
+    }
+
+    @Test
+    public void testExportToCSV_StreamException() throws Exception {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new Expectations(baseResource) {{
+            baseResource.getCsvService();
+            result = csvServiceImpl;
+
+            csvServiceImpl.exportToCSV((Supplier<? extends Stream<?>>) any, JmsMessage.class, null, null, (Writer) any);
+            result = new CsvException(DomibusCoreErrorCode.DOM_001, "Exception", new Exception());
+        }};
+
+        //tested method
+        baseResource.exportToCSV(Stream::empty, JmsMessage.class, null, null, "test", response);
+
+        Assert.assertEquals(HttpStatus.NO_CONTENT.value(), response.getStatus());
+        Assert.assertNull(response.getHeader("Content-Disposition"));
+    }
 
     private List<JmsMessage> getJmsMessageList() {
         List<JmsMessage> result = new ArrayList<>();
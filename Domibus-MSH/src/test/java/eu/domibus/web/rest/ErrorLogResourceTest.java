@@ -1,6 +1,5 @@
 package eu.domibus.web.rest;
 
-import eu.domibus.api.csv.CsvException;
 import eu.domibus.api.util.DateUtil;
 import eu.domibus.common.ErrorCode;
 import eu.domibus.common.MSHRole;
@@ -15,15 +14,19 @@ import eu.domibus.web.rest.ro.ErrorLogResultRO;
 import mockit.Expectations;
 import mockit.Injectable;
 import mockit.Tested;
+import mockit.Verifications;
 import mockit.integration.junit4.JMockit;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 
 import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Tiago Miguel
@@ -32,8 +35,6 @@ import java.util.*;
 @RunWith(JMockit.class)
 public class ErrorLogResourceTest {
 
-    private static final String CSV_TITLE = "Error Signal Message Id, Msh Role, Message In Error Id, Error Code, Error Detail, Timestamp, Notified";
-
     @Tested
     ErrorLogResource errorLogResource;
 
@@ -92,61 +93,51 @@ public class ErrorLogResourceTest {
     }
 
     @Test
-    public void testGetCsv() throws CsvException {
+    public void testGetCsv() throws Exception {
         // Given
         Date date = new Date();
-        List<ErrorLogEntry> errorLogEntries = new ArrayList<>();
         ErrorLogEntry errorLogEntry = new ErrorLogEntry();
         errorLogEntry.setEntityId(1);
-        final String errorDetailStr = "ErrorDetail";
-        final String signalMessageIdStr = "SignalMessageId";
-        final String refToMessageIdStr = "RefToMessageId";
-        errorLogEntry.setErrorDetail(errorDetailStr);
-        errorLogEntry.setErrorSignalMessageId(signalMessageIdStr);
-        errorLogEntry.setMessageInErrorId(refToMessageIdStr);
+        errorLogEntry.setErrorSignalMessageId("SignalMessageId");
         errorLogEntry.setErrorCode(ErrorCode.EBMS_0001);
         errorLogEntry.setMshRole(MSHRole.RECEIVING);
         errorLogEntry.setTimestamp(date);
-        errorLogEntry.setNotified(date);
-        errorLogEntries.add(errorLogEntry);
 
-        List<ErrorLogRO> errorLogROEntries = new ArrayList<>();
         ErrorLogRO errorLogRO = new ErrorLogRO();
-        errorLogRO.setErrorDetail(errorDetailStr);
-        errorLogRO.setErrorSignalMessageId(signalMessageIdStr);
-        errorLogRO.setMessageInErrorId(refToMessageIdStr);
+        errorLogRO.setErrorSignalMessageId("SignalMessageId");
         errorLogRO.setErrorCode(ErrorCode.EBMS_0001);
         errorLogRO.setMshRole(MSHRole.RECEIVING);
         errorLogRO.setTimestamp(date);
-        errorLogRO.setNotified(date);
-        errorLogROEntries.add(errorLogRO);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
         new Expectations() {{
             errorLogCsvServiceImpl.getMaxNumberRowsToExport();
             result = 10000;
 
-            errorLogDao.findPaged(anyInt, anyInt, anyString, anyBoolean, (HashMap<String, Object>) any);
-            result = errorLogEntries;
+            errorLogCsvServiceImpl.getCsvFilename("errorlog");
+            result = "errorlog.csv";
 
-            domainConverter.convert(errorLogEntries, ErrorLogRO.class);
-            result = errorLogROEntries;
+            errorLogDao.streamAll(10000, "timestamp", false, (HashMap<String, Object>) any);
+            result = Stream.of(errorLogEntry);
 
-            errorLogCsvServiceImpl.exportToCSV(errorLogROEntries, ErrorLogRO.class, (Map<String, String>) any, (List<String>) any);
-            result = CSV_TITLE +
-                    signalMessageIdStr + "," + MSHRole.RECEIVING + "," + refToMessageIdStr + "," + ErrorCode.EBMS_0001.getErrorCodeName() + "," +
-                    errorDetailStr + "," + date + "," + date + System.lineSeparator();
+            domainConverter.convert(errorLogEntry, ErrorLogRO.class);
+            result = errorLogRO;
         }};
 
         // When
-        final ResponseEntity<String> csv = errorLogResource.getCsv(new ErrorLogFilterRequestRO() {{
+        errorLogResource.getCsv(new ErrorLogFilterRequestRO() {{
             setOrderBy("timestamp");
             setAsc(false);
-        }});
+        }}, response);
 
         // Then
-        Assert.assertEquals(HttpStatus.OK, csv.getStatusCode());
-        Assert.assertEquals(CSV_TITLE +
-                        signalMessageIdStr + "," + MSHRole.RECEIVING + "," + refToMessageIdStr + "," + ErrorCode.EBMS_0001.getErrorCodeName() + "," +
-                        errorDetailStr + "," + date + "," + date + System.lineSeparator(),
-                csv.getBody());
+        Assert.assertEquals(HttpStatus.OK.value(), response.getStatus());
+        Assert.assertEquals("attachment; filename=\"errorlog.csv\"", response.getHeader("Content-Disposition"));
+        final List<Supplier<? extends Stream<?>>> rows = new ArrayList<>();
+        new Verifications() {{
+            errorLogCsvServiceImpl.exportToCSV(withCapture(rows), ErrorLogRO.class, (Map<String, String>) any, (List<String>) any, response.getWriter());
+        }};
+        // the rows are only read inside the transaction of the CSV service
+        Assert.assertEquals(Collections.singletonList(errorLogRO), rows.get(0).get().collect(Collectors.toList()));
     }
 }
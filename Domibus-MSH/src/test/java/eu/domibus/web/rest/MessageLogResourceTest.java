@@ -31,14 +31,20 @@ import mockit.Expectations;
 import mockit.Injectable;
 import mockit.Mocked;
 import mockit.Tested;
+import mockit.Verifications;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 
+import java.io.Writer;
 import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Tiago Miguel
@@ -47,9 +53,6 @@ import java.util.*;
 @RunWith(Parameterized.class)
 public class MessageLogResourceTest {
 
-    private static final String CSV_TITLE = "Conversation Id, From Party Id, To Party Id, Original Sender, Final Recipient, ref To Message Id, Message Id, Message Status, Notification Status, " +
-            "MSH Role, Message Type, Deleted, Received, Send Attempts, Send Attempts Max, Next Attempt, Failed, Restored, Message Subtype";
-
     @Tested
     MessageLogResource messageLogResource;
 
@@ -149,60 +152,112 @@ public class MessageLogResourceTest {
     }
 
     @Test
-    public void testMessageLogInfoGetCsv() throws CsvException {
+    public void testMessageLog_KeysetPagination() {
+        // Given
+        MessageLogResultRO expectedMessageLogResult = new MessageLogResultRO();
+        expectedMessageLogResult.setMessageLogEntries(Collections.singletonList(createMessageLog(messageType, messageSubtype)));
+        expectedMessageLogResult.setNextCursor("2000_7");
+
+        new Expectations() {{
+            uiReplicationSignalService.isReplicationEnabled();
+            result = true;
+
+            uiMessageService.countAndFindNextPage("1000_5", 10, true, (HashMap<String, Object>) any);
+            result = expectedMessageLogResult;
+        }};
+
+        // When
+        final MessageLogResultRO messageLogResultRO = messageLogResource.getMessageLog(new MessageLogFilterRequestRO() {{
+            setPage(3);
+            setOrderBy("received");
+            setCursor("1000_5");
+            setMessageType(messageType);
+            setMessageSubtype(messageSubtype);
+        }});
+
+        // Then
+        Assert.assertEquals("2000_7", messageLogResultRO.getNextCursor());
+        Assert.assertEquals(Integer.valueOf(3), messageLogResultRO.getPage());
+        new Verifications() {{
+            uiMessageService.countAndFindPaged(anyInt, anyInt, anyString, anyBoolean, (HashMap<String, Object>) any);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testIsKeysetPagination() {
+        final MessageLogFilterRequestRO request = new MessageLogFilterRequestRO();
+        // the clients not sending a cursor keep the page numbers
+        Assert.assertFalse(messageLogResource.isKeysetPagination(request));
+
+        request.setCursor("");
+        Assert.assertTrue(messageLogResource.isKeysetPagination(request));
+
+        request.setCursor("1000_5");
+        Assert.assertTrue(messageLogResource.isKeysetPagination(request));
+
+        request.setOrderBy("messageId");
+        Assert.assertFalse(messageLogResource.isKeysetPagination(request));
+    }
+
+    @Test
+    public void testMessageLogInfoGetCsv() throws Exception {
         // Given
         Date date = new Date();
         List<MessageLogInfo> messageList = getMessageList(messageType, date, messageSubtype);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
 
         new Expectations() {{
             csvServiceImpl.getMaxNumberRowsToExport();
             result = 10000;
 
-            messagesLogService.findAllInfoCSV(messageType, anyInt, "received", true, (HashMap<String, Object>) any);
-            result = messageList;
+            csvServiceImpl.getCsvFilename("messages");
+            result = "messages.csv";
 
-            csvServiceImpl.exportToCSV(messageList, null, (Map<String, String>) any, (List<String>) any);
-            result = CSV_TITLE +
-                    "conversationId,fromPartyId,toPartyId,originalSender,finalRecipient,refToMessageId,messageId," + MessageStatus.ACKNOWLEDGED + "," +
-                    NotificationStatus.NOTIFIED + "," + MSHRole.RECEIVING + "," + messageType + "," + date + "," + date + ",1,5," + date + "," +
-                    date + "," + date + "," + messageSubtype + System.lineSeparator();
+            messagesLogService.streamAllInfoCSV(messageType, 10000, "received", true, (HashMap<String, Object>) any);
+            result = messageList.stream();
         }};
 
         // When
-        final ResponseEntity<String> csv = messageLogResource.getCsv(new MessageLogFilterRequestRO() {{
+        messageLogResource.getCsv(new MessageLogFilterRequestRO() {{
             setOrderBy("received");
             setMessageType(messageType);
             setMessageSubtype(messageSubtype);
-        }});
+        }}, response);
 
         // Then
-        Assert.assertEquals(HttpStatus.OK, csv.getStatusCode());
-        Assert.assertEquals(CSV_TITLE +
-                        "conversationId,fromPartyId,toPartyId,originalSender,finalRecipient,refToMessageId,messageId," + MessageStatus.ACKNOWLEDGED + "," + NotificationStatus.NOTIFIED + "," +
-                        MSHRole.RECEIVING + "," + messageType + "," + date + "," + date + ",1,5," + date + "," + date + "," + date + "," + messageSubtype + System.lineSeparator(),
-                csv.getBody());
+        Assert.assertEquals(HttpStatus.OK.value(), response.getStatus());
+        Assert.assertEquals(CsvServiceImpl.APPLICATION_EXCEL_STR, response.getContentType());
+        Assert.assertEquals("attachment; filename=\"messages.csv\"", response.getHeader("Content-Disposition"));
+        final List<Supplier<? extends Stream<?>>> rows = new ArrayList<>();
+        new Verifications() {{
+            csvServiceImpl.exportToCSV(withCapture(rows), MessageLogInfo.class, (Map<String, String>) any, (List<String>) any, response.getWriter());
+        }};
+        // the rows are only read inside the transaction of the CSV service
+        Assert.assertEquals(messageList, rows.get(0).get().collect(Collectors.toList()));
     }
 
     @Test
-    public void testUserMessageGetCsv_Exception() throws CsvException {
+    public void testUserMessageGetCsv_Exception() throws Exception {
         // Given
+        final MockHttpServletResponse response = new MockHttpServletResponse();
         new Expectations() {{
             csvServiceImpl.getMaxNumberRowsToExport();
             result = 10000;
 
-            csvServiceImpl.exportToCSV((List<?>) any, null, null, null);
+            csvServiceImpl.exportToCSV((Supplier<? extends Stream<?>>) any, MessageLogInfo.class, (Map<String, String>) any, (List<String>) any, (Writer) any);
             result = new CsvException(DomibusCoreErrorCode.DOM_001, "Exception", new Exception());
         }};
 
         // When
-        final ResponseEntity<String> csv = messageLogResource.getCsv(new MessageLogFilterRequestRO() {{
+        messageLogResource.getCsv(new MessageLogFilterRequestRO() {{
             setOrderBy("received");
             setMessageType(messageType);
             setMessageSubtype(messageSubtype);
-        }});
+        }}, response);
 
         // Then
-        Assert.assertEquals(HttpStatus.NO_CONTENT, csv.getStatusCode());
+        Assert.assertEquals(HttpStatus.NO_CONTENT.value(), response.getStatus());
     }
 
     @Test
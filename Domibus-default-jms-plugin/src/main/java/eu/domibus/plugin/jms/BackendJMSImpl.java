@@ -31,10 +31,11 @@ import javax.jms.MapMessage;
 import javax.jms.Message;
 import javax.jms.Session;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.List;
 
-import static eu.domibus.plugin.jms.JMSMessageConstants.MESSAGE_ID;
-import static eu.domibus.plugin.jms.JMSMessageConstants.MESSAGE_TYPE_SUBMIT;
+import static eu.domibus.plugin.jms.JMSMessageConstants.*;
 
 /**
  * @author Christian Koch, Stefan Mueller
@@ -47,6 +48,8 @@ public class BackendJMSImpl extends AbstractBackendConnector<MapMessage, MapMess
     protected static final String JMSPLUGIN_QUEUE_CONSUMER_NOTIFICATION_ERROR = "jmsplugin.queue.consumer.notification.error";
     protected static final String JMSPLUGIN_QUEUE_PRODUCER_NOTIFICATION_ERROR = "jmsplugin.queue.producer.notification.error";
     protected static final String JMSPLUGIN_QUEUE_OUT = "jmsplugin.queue.out";
+    protected static final String JMSPLUGIN_SUBMIT_BATCH_MAX_SIZE = JMSMessageConstants.JMS_PLUGIN_PROPERTY_PREFIX + "." + JMSMessageConstants.SUBMIT_BATCH_MAX_SIZE;
+    protected static final int DEFAULT_SUBMIT_BATCH_MAX_SIZE = 100;
 
     @Autowired
     protected JMSExtService jmsExtService;
@@ -119,7 +122,7 @@ public class BackendJMSImpl extends AbstractBackendConnector<MapMessage, MapMess
                 messageID = submit(map);
             } catch (final MessagingProcessingException e) {
                 LOG.error("Exception occurred receiving message [{}}], jmsCorrelationID [{}}]",  messageID, jmsCorrelationID, e);
-                errorMessage = e.getMessage() + ": Error Code: " + (e.getEbms3ErrorCode() != null ? e.getEbms3ErrorCode().getErrorCodeName() : " not set");
+                errorMessage = getErrorMessage(e);
             }
 
             sendReplyMessage(messageID, errorMessage, jmsCorrelationID);
@@ -131,9 +134,90 @@ public class BackendJMSImpl extends AbstractBackendConnector<MapMessage, MapMess
         }
     }
 
+    /**
+     * This method is called when a batch of messages was received at the incoming queue. The batch contains the
+     * properties and the entries of each message prefixed with message_N_, N going from 1 to the totalNumberOfMessages
+     * property. The messages are submitted all together: a reply message is sent for each one of them or, if the batch
+     * was rejected, a single reply message containing the error.
+     *
+     * @param batch   The incoming JMS Message
+     * @param session The JMS session used to create the messages of the batch
+     */
+    @Transactional
+    public void receiveMessageBatch(final MapMessage batch, final Session session) {
+        try {
+            final String jmsCorrelationID = batch.getJMSCorrelationID();
+            final int batchSize = batch.propertyExists(TOTAL_NUMBER_OF_MESSAGES) ? batch.getIntProperty(TOTAL_NUMBER_OF_MESSAGES) : 0;
+            final int maxSize = getSubmitBatchMaxSize();
+            if (batchSize < 1 || batchSize > maxSize) {
+                String wrongBatchSizeMessage = MessageFormat.format("Illegal batch of [{0}] messages with JMSCorrelationId [{1}]. Between 1 and [{2}] messages can be submitted at once",
+                        String.valueOf(batchSize), jmsCorrelationID, String.valueOf(maxSize));
+                LOG.error(wrongBatchSizeMessage);
+                sendReplyMessage(null, wrongBatchSizeMessage, jmsCorrelationID);
+                return;
+            }
+            LOG.info("Received a batch of [{}] messages, jmsCorrelationID [{}]", batchSize, jmsCorrelationID);
+
+            final List<MapMessage> messages = new ArrayList<>();
+            for (int index = 1; index <= batchSize; index++) {
+                messages.add(getBatchMessage(batch, index, session));
+            }
+
+            final List<String> messageIDs;
+            try {
+                messageIDs = submitBatch(messages);
+            } catch (final MessagingProcessingException e) {
+                LOG.error("Exception occurred receiving a batch of [{}] messages, jmsCorrelationID [{}]", batchSize, jmsCorrelationID, e);
+                sendReplyMessage(null, getErrorMessage(e), jmsCorrelationID);
+                return;
+            }
+
+            for (String messageID : messageIDs) {
+                sendReplyMessage(messageID, null, jmsCorrelationID);
+            }
+            LOG.info("Submitted a batch of [{}] messages, jmsCorrelationID [{}]", messageIDs.size(), jmsCorrelationID);
+        } catch (Exception e) {
+            LOG.error("Exception occurred while receiving a batch of messages [" + batch + "]", e);
+            throw new DefaultJmsPluginException("Exception occurred while receiving a batch of messages [" + batch + "]", e);
+        }
+    }
+
+    /**
+     * Creates the message of the batch at the given index, copying the properties and the entries having its prefix
+     */
+    protected MapMessage getBatchMessage(final MapMessage batch, final int index, final Session session) throws JMSException {
+        final String prefix = BATCH_MESSAGE_PREFIX + index + "_";
+        final MapMessage message = session.createMapMessage();
+        final Enumeration<?> propertyNames = batch.getPropertyNames();
+        while (propertyNames.hasMoreElements()) {
+            final String propertyName = (String) propertyNames.nextElement();
+            if (propertyName.startsWith(prefix)) {
+                message.setObjectProperty(propertyName.substring(prefix.length()), batch.getObjectProperty(propertyName));
+            }
+        }
+        final Enumeration<?> mapNames = batch.getMapNames();
+        while (mapNames.hasMoreElements()) {
+            final String mapName = (String) mapNames.nextElement();
+            if (mapName.startsWith(prefix)) {
+                message.setObject(mapName.substring(prefix.length()), batch.getObject(mapName));
+            }
+        }
+        return message;
+    }
+
+    protected int getSubmitBatchMaxSize() {
+        final DomainDTO currentDomain = domainContextExtService.getCurrentDomain();
+        final String maxSize = domibusPropertyExtService.getDomainProperty(currentDomain, JMSPLUGIN_SUBMIT_BATCH_MAX_SIZE, String.valueOf(DEFAULT_SUBMIT_BATCH_MAX_SIZE));
+        return Integer.parseInt(StringUtils.trim(maxSize));
+    }
+
+    protected String getErrorMessage(final MessagingProcessingException e) {
+        return e.getMessage() + ": Error Code: " + (e.getEbms3ErrorCode() != null ? e.getEbms3ErrorCode().getErrorCodeName() : " not set");
+    }
+
     protected String getWrongMessageTypeErrorMessage(String messageID, String jmsCorrelationID, String messageType) {
-        return MessageFormat.format("Illegal messageType [{0}] on message with JMSCorrelationId [{1}] and messageId [{2}]. Only [{3}] messages are accepted on this queue",
-                messageType, jmsCorrelationID, messageID, MESSAGE_TYPE_SUBMIT);
+        return MessageFormat.format("Illegal messageType [{0}] on message with JMSCorrelationId [{1}] and messageId [{2}]. Only [{3}] and [{4}] messages are accepted on this queue",
+                messageType, jmsCorrelationID, messageID, MESSAGE_TYPE_SUBMIT, MESSAGE_TYPE_SUBMIT_BATCH);
     }
 
     protected void sendReplyMessage(final String messageId, final String errorMessage, final String correlationId) {
@@ -151,7 +235,23 @@ public class BackendJMSImpl extends AbstractBackendConnector<MapMessage, MapMess
             throw new DomibusPropertyExtException("Error getting the queue [" + JMSPLUGIN_QUEUE_OUT + "]");
         }
         LOG.info("Sending message to queue [{}]", queueValue);
-        mshToBackendTemplate.send(queueValue, new DownloadMessageCreator(messageId));
+        final DownloadMessageCreator messageCreator = new DownloadMessageCreator(messageId);
+        try {
+            mshToBackendTemplate.send(queueValue, messageCreator);
+        } catch (RuntimeException e) {
+            deletePayloadReferences(messageCreator.getMapMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * The payload files written to the attachments reference folder are not consumed by any backend if the message could
+     * not be sent
+     */
+    protected void deletePayloadReferences(MapMessage mapMessage) {
+        if (mapMessage != null && getMessageRetrievalTransformer() instanceof JMSMessageTransformer) {
+            ((JMSMessageTransformer) getMessageRetrievalTransformer()).deletePayloadReferences(mapMessage);
+        }
     }
 
     @Override
@@ -205,6 +305,7 @@ public class BackendJMSImpl extends AbstractBackendConnector<MapMessage, MapMess
     private class DownloadMessageCreator implements MessageCreator {
         private String messageId;
 
+        private MapMessage mapMessage;
 
         public DownloadMessageCreator(final String messageId) {
             this.messageId = messageId;
@@ -218,10 +319,15 @@ public class BackendJMSImpl extends AbstractBackendConnector<MapMessage, MapMess
             } catch (final MessageNotFoundException e) {
                 throw new DefaultJmsPluginException("Unable to create push message", e);
             }
+            this.mapMessage = mapMessage;
             mapMessage.setStringProperty(JMSMessageConstants.JMS_BACKEND_MESSAGE_TYPE_PROPERTY_KEY, JMSMessageConstants.MESSAGE_TYPE_INCOMING);
             final DomainDTO currentDomain = domainContextExtService.getCurrentDomain();
             mapMessage.setStringProperty(MessageConstants.DOMAIN, currentDomain.getCode());
             return mapMessage;
         }
+
+        public MapMessage getMapMessage() {
+            return mapMessage;
+        }
     }
 }
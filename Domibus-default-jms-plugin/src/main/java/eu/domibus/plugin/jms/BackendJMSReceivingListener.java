@@ -12,7 +12,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.jms.JMSException;
 import javax.jms.MapMessage;
+import javax.jms.Session;
 
 /**
  * @author Cosmin Baciu
@@ -38,20 +40,34 @@ public class BackendJMSReceivingListener {
     /**
      * This method is called when a message was received at the incoming queue
      *
-     * @param map The incoming JMS Message
+     * @param map     The incoming JMS Message
+     * @param session The JMS session of the listener, used to split the batches of messages
      */
     @JmsListener(destination = "${jmsplugin.queue.in}", containerFactory = "backendJmsListenerContainerFactory")
     //Propagation.REQUIRES_NEW is needed in order to avoid sending the JMS message before the database data is commited; probably this is a bug in Atomikos which will be solved by performing an upgrade
     @Transactional(propagation = Propagation.REQUIRES_NEW, timeout = 1200) // 20 minutes
-    public void receiveMessage(final MapMessage map) {
+    public void receiveMessage(final MapMessage map, final Session session) {
         if (!authenticationExtService.isUnsecureLoginAllowed()) {
             LOG.debug("Performing authentication");
             LOG.clearCustomKeys();
             authenticate(map);
         }
+        if (isMessageBatch(map)) {
+            backendJMS.receiveMessageBatch(map, session);
+            return;
+        }
         backendJMS.receiveMessage(map);
     }
 
+    protected boolean isMessageBatch(final MapMessage map) {
+        try {
+            return JMSMessageConstants.MESSAGE_TYPE_SUBMIT_BATCH.equals(map.getStringProperty(JMSMessageConstants.JMS_BACKEND_MESSAGE_TYPE_PROPERTY_KEY));
+        } catch (JMSException e) {
+            LOG.error("Exception occurred while retrieving the message type", e);
+            throw new DefaultJmsPluginException("Exception occurred while retrieving the message type", e);
+        }
+    }
+
     protected void authenticate(final MapMessage map) {
         String username = null;
         String password = null;
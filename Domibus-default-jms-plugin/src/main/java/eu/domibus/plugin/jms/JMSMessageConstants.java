@@ -32,7 +32,10 @@ public class JMSMessageConstants {
     public static final String PROPERTY_ENDPOINT = "endPointAddress";
     public static final String PROTOCOL = "protocol";
     public static final String TOTAL_NUMBER_OF_PAYLOADS = "totalNumberOfPayloads";
+    public static final String TOTAL_NUMBER_OF_MESSAGES = "totalNumberOfMessages";
+    public static final String BATCH_MESSAGE_PREFIX = "message_";
     public static final String MESSAGE_TYPE_SUBMIT = "submitMessage";
+    public static final String MESSAGE_TYPE_SUBMIT_BATCH = "submitMessageBatch";
     public static final String MESSAGE_TYPE_SUBMIT_RESPONSE = "submitResponse";
     public static final String MESSAGE_TYPE_INCOMING = "incomingMessage";
     public static final String MESSAGE_TYPE_SEND_SUCCESS = "messageSent";
@@ -42,7 +45,7 @@ public class JMSMessageConstants {
     public static final String ERROR_DETAIL = "errorDetail";
     public static final String PROPERTY_PREFIX = "property_";
     public static final String PROPERTY_TYPE_PREFIX = "propertyType_";
-    private static final String PAYLOAD_NAME_PREFIX = "payload_";
+    public static final String PAYLOAD_NAME_PREFIX = "payload_";
     public static final String PAYLOAD_NAME_FORMAT = PAYLOAD_NAME_PREFIX + "{0}";
     private static final String PAYLOAD_MIME_TYPE_SUFFIX = "_mimeType";
     public static final String PAYLOAD_MIME_TYPE_FORMAT = PAYLOAD_NAME_FORMAT + PAYLOAD_MIME_TYPE_SUFFIX;
@@ -51,6 +54,8 @@ public class JMSMessageConstants {
     private static final String PAYLOAD_MIME_CONTENT_ID_SUFFIX = "_mimeContentId";
     public static final String PAYLOAD_MIME_CONTENT_ID_FORMAT = PAYLOAD_NAME_FORMAT + PAYLOAD_MIME_CONTENT_ID_SUFFIX;
     public static final String PUT_ATTACHMENTS_IN_QUEUE = "putAttachmentInQueue";
+    public static final String ATTACHMENTS_REFERENCE_FOLDER = "attachments.reference.folder";
+    public static final String SUBMIT_BATCH_MAX_SIZE = "submit.batch.maxSize";
     public static final String PAYLOAD_FILENAME = "FileName";
     public static final String JMS_PAYLOAD_NAME_FORMAT = PAYLOAD_NAME_FORMAT + "_" + MessageConstants.PAYLOAD_PROPERTY_FILE_NAME;
 
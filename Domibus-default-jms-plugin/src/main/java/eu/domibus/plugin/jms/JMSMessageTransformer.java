@@ -21,9 +21,14 @@ import javax.activation.URLDataSource;
 import javax.jms.JMSException;
 import javax.jms.MapMessage;
 import javax.mail.util.ByteArrayDataSource;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.net.URI;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -117,13 +122,15 @@ public class JMSMessageTransformer implements MessageRetrievalTransformer<MapMes
             }
 
             final boolean putAttachmentsInQueue = Boolean.parseBoolean(getProperty(PUT_ATTACHMENTS_IN_QUEUE, "true"));
+            final File attachmentsReferenceFolder = putAttachmentsInQueue ? null : getAttachmentsReferenceFolder();
             for (final Submission.Payload p : submission.getPayloads()) {
                 // counter is increased for payloads (not for bodyload which is always set to payload_1)
-                counter = transformFromSubmissionHandlePayload(messageOut, putAttachmentsInQueue, counter, p);
+                counter = transformFromSubmissionHandlePayload(messageOut, putAttachmentsInQueue, attachmentsReferenceFolder, submission.getMessageId(), counter, p);
             }
             messageOut.setIntProperty(TOTAL_NUMBER_OF_PAYLOADS, submission.getPayloads().size());
         } catch (final JMSException | IOException ex) {
             LOG.error("Error while filling the MapMessage", ex);
+            deletePayloadReferences(messageOut);
             throw new DefaultJmsPluginException(ex);
         }
 
@@ -140,10 +147,76 @@ public class JMSMessageTransformer implements MessageRetrievalTransformer<MapMes
     }
 
 
-    private int transformFromSubmissionHandlePayload(MapMessage messageOut, boolean putAttachmentsInQueue, int counter, Submission.Payload p) throws JMSException, IOException {
+    protected File getAttachmentsReferenceFolder() throws IOException {
+        final String folderName = getProperty(ATTACHMENTS_REFERENCE_FOLDER);
+        if (StringUtils.isBlank(folderName)) {
+            return null;
+        }
+        final File folder = new File(trim(folderName));
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Could not create the attachments reference folder [" + folder + "]");
+        }
+        return folder;
+    }
+
+    /**
+     * Streams the payload to the shared folder so that the backend reads it from there instead of from the JMS message
+     *
+     * @return the URL of the payload file
+     */
+    protected String writePayloadReference(File folder, String messageId, String payloadName, DataHandler payloadDataHandler) throws IOException {
+        final File payloadFile = new File(folder, messageId.replaceAll("[^\\w.@-]", "_") + "_" + payloadName);
+        try (InputStream inputStream = payloadDataHandler.getInputStream()) {
+            Files.copy(inputStream, payloadFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        LOG.debug("Payload [{}] of message [{}] written to [{}]", payloadName, messageId, payloadFile);
+        return payloadFile.toURI().toString();
+    }
+
+    /**
+     * Deletes the payload files written to the attachments reference folder for a message that could not be sent
+     *
+     * @param messageOut the message containing the URLs of the payload files
+     */
+    public void deletePayloadReferences(MapMessage messageOut) {
+        try {
+            final File folder = getAttachmentsReferenceFolder();
+            if (folder == null) {
+                return;
+            }
+            final Enumeration<?> names = messageOut.getMapNames();
+            while (names.hasMoreElements()) {
+                final String name = (String) names.nextElement();
+                final Object value = messageOut.getObject(name);
+                if (name.startsWith(PAYLOAD_NAME_PREFIX) && value instanceof String) {
+                    deletePayloadReference(folder, (String) value);
+                }
+            }
+        } catch (JMSException | IOException | RuntimeException e) {
+            LOG.warn("Could not delete the payload files of the message", e);
+        }
+    }
+
+    protected void deletePayloadReference(File folder, String payloadUrl) throws IOException {
+        final File payloadFile = new File(URI.create(payloadUrl));
+        // only the files written by the plugin are deleted, not the ones a backend may refer to
+        if (!folder.getAbsoluteFile().equals(payloadFile.getAbsoluteFile().getParentFile())) {
+            LOG.debug("Payload [{}] is not in the attachments reference folder, not deleted", payloadUrl);
+            return;
+        }
+        Files.deleteIfExists(payloadFile.toPath());
+        LOG.debug("Payload file [{}] deleted", payloadFile);
+    }
+
+    private int transformFromSubmissionHandlePayload(MapMessage messageOut, boolean putAttachmentsInQueue, File attachmentsReferenceFolder, String messageId, int counter, Submission.Payload p) throws JMSException, IOException {
         if (p.isInBody()) {
             if (p.getPayloadDatahandler() != null) {
-                messageOut.setBytes(MessageFormat.format(PAYLOAD_NAME_FORMAT, 1), IOUtils.toByteArray(p.getPayloadDatahandler().getInputStream()));
+                final String propPayload = MessageFormat.format(PAYLOAD_NAME_FORMAT, 1);
+                if (!putAttachmentsInQueue && attachmentsReferenceFolder != null) {
+                    messageOut.setString(propPayload, writePayloadReference(attachmentsReferenceFolder, messageId, propPayload, p.getPayloadDatahandler()));
+                } else {
+                    messageOut.setBytes(propPayload, IOUtils.toByteArray(p.getPayloadDatahandler().getInputStream()));
+                }
                 messageOut.setStringProperty(P1_IN_BODY, "true");
             }
 
@@ -161,6 +234,10 @@ public class JMSMessageTransformer implements MessageRetrievalTransformer<MapMes
                 } else {
                     LOG.debug("putAttachmentsInQueue is false");
                     messageOut.setStringProperty(payFileNameProp, findFilename(p.getPayloadProperties()));
+                    if (attachmentsReferenceFolder != null) {
+                        // same format as the payloads submitted by URL
+                        messageOut.setString(propPayload, writePayloadReference(attachmentsReferenceFolder, messageId, propPayload, p.getPayloadDatahandler()));
+                    }
                 }
             }
             messageOut.setStringProperty(payMimeTypeProp, findMime(p.getPayloadProperties()));
@@ -35,7 +35,7 @@ public class JmsPluginPropertyManager implements DomibusPropertyManagerExt {
             FROM_PARTY_ID, FROM_PARTY_TYPE, FROM_ROLE,
             TO_PARTY_ID, TO_PARTY_TYPE, TO_ROLE,
             AGREEMENT_REF, SERVICE, SERVICE_TYPE, ACTION,
-            PUT_ATTACHMENTS_IN_QUEUE,
+            PUT_ATTACHMENTS_IN_QUEUE, ATTACHMENTS_REFERENCE_FOLDER, SUBMIT_BATCH_MAX_SIZE,
     };
 
     private Map<String, DomibusPropertyMetadataDTO> knownProperties = Arrays.stream(knownPropertyNames)
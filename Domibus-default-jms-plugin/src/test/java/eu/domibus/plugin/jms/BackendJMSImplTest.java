@@ -9,6 +9,7 @@ import eu.domibus.ext.services.DomainContextExtService;
 import eu.domibus.ext.services.DomibusPropertyExtService;
 import eu.domibus.ext.services.JMSExtService;
 import eu.domibus.ext.services.MessageExtService;
+import eu.domibus.messaging.MessagingProcessingException;
 import eu.domibus.plugin.handler.MessagePuller;
 import eu.domibus.plugin.handler.MessageRetriever;
 import eu.domibus.plugin.handler.MessageSubmitter;
@@ -20,9 +21,14 @@ import org.junit.runner.RunWith;
 import org.springframework.jms.core.JmsOperations;
 
 import javax.jms.MapMessage;
+import javax.jms.Session;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 
 /**
@@ -188,6 +194,140 @@ public class BackendJMSImplTest {
         }};
     }
 
+    @Test
+    public void testReceiveMessageBatch(@Injectable final MapMessage batch, @Injectable final Session session,
+                                        @Injectable final MapMessage message1, @Injectable final MapMessage message2) throws Exception {
+        final String jmsCorrelationId = "2";
+
+        new Expectations(backendJMS) {{
+            batch.getJMSCorrelationID();
+            result = jmsCorrelationId;
+
+            batch.propertyExists(JMSMessageConstants.TOTAL_NUMBER_OF_MESSAGES);
+            result = true;
+
+            batch.getIntProperty(JMSMessageConstants.TOTAL_NUMBER_OF_MESSAGES);
+            result = 2;
+
+            backendJMS.getSubmitBatchMaxSize();
+            result = 100;
+
+            backendJMS.getBatchMessage(batch, 1, session);
+            result = message1;
+
+            backendJMS.getBatchMessage(batch, 2, session);
+            result = message2;
+
+            backendJMS.submitBatch(Arrays.asList(message1, message2));
+            result = Arrays.asList("id1", "id2");
+
+            backendJMS.sendReplyMessage(anyString, anyString, jmsCorrelationId);
+        }};
+
+        backendJMS.receiveMessageBatch(batch, session);
+
+        new VerificationsInOrder() {{
+            backendJMS.sendReplyMessage("id1", null, jmsCorrelationId);
+            backendJMS.sendReplyMessage("id2", null, jmsCorrelationId);
+        }};
+    }
+
+    @Test
+    public void testReceiveMessageBatch_Rejected(@Injectable final MapMessage batch, @Injectable final Session session,
+                                                 @Injectable final MapMessage message1) throws Exception {
+        final String jmsCorrelationId = "2";
+
+        new Expectations(backendJMS) {{
+            batch.getJMSCorrelationID();
+            result = jmsCorrelationId;
+
+            batch.propertyExists(JMSMessageConstants.TOTAL_NUMBER_OF_MESSAGES);
+            result = true;
+
+            batch.getIntProperty(JMSMessageConstants.TOTAL_NUMBER_OF_MESSAGES);
+            result = 1;
+
+            backendJMS.getSubmitBatchMaxSize();
+            result = 100;
+
+            backendJMS.getBatchMessage(batch, 1, session);
+            result = message1;
+
+            backendJMS.submitBatch(Collections.singletonList(message1));
+            result = new MessagingProcessingException("rejected");
+
+            backendJMS.sendReplyMessage(anyString, anyString, jmsCorrelationId);
+        }};
+
+        backendJMS.receiveMessageBatch(batch, session);
+
+        new Verifications() {{
+            String capturedErrorMessage;
+            backendJMS.sendReplyMessage(null, capturedErrorMessage = withCapture(), jmsCorrelationId);
+            times = 1;
+            assertTrue(capturedErrorMessage.startsWith("rejected"));
+        }};
+    }
+
+    @Test
+    public void testReceiveMessageBatch_TooManyMessages(@Injectable final MapMessage batch, @Injectable final Session session) throws Exception {
+        final String jmsCorrelationId = "2";
+
+        new Expectations(backendJMS) {{
+            batch.getJMSCorrelationID();
+            result = jmsCorrelationId;
+
+            batch.propertyExists(JMSMessageConstants.TOTAL_NUMBER_OF_MESSAGES);
+            result = true;
+
+            batch.getIntProperty(JMSMessageConstants.TOTAL_NUMBER_OF_MESSAGES);
+            result = 101;
+
+            backendJMS.getSubmitBatchMaxSize();
+            result = 100;
+
+            backendJMS.sendReplyMessage(anyString, anyString, jmsCorrelationId);
+        }};
+
+        backendJMS.receiveMessageBatch(batch, session);
+
+        new Verifications() {{
+            backendJMS.sendReplyMessage(null, anyString, jmsCorrelationId);
+            times = 1;
+            backendJMS.submitBatch((List<MapMessage>) any);
+            times = 0;
+        }};
+    }
+
+    @Test
+    public void testGetBatchMessage(@Injectable final MapMessage batch, @Injectable final Session session, @Injectable final MapMessage message) throws Exception {
+        final byte[] payload = "payload".getBytes();
+
+        new Expectations() {{
+            session.createMapMessage();
+            result = message;
+
+            batch.getPropertyNames();
+            result = Collections.enumeration(Arrays.asList("message_1_messageId", "message_10_messageId", "username"));
+
+            batch.getObjectProperty("message_1_messageId");
+            result = "id1";
+
+            batch.getMapNames();
+            result = Collections.enumeration(Arrays.asList("message_1_payload_1", "message_2_payload_1"));
+
+            batch.getObject("message_1_payload_1");
+            result = payload;
+        }};
+
+        assertEquals(message, backendJMS.getBatchMessage(batch, 1, session));
+
+        new FullVerifications(message) {{
+            message.setObjectProperty("messageId", "id1");
+            message.setObject("payload_1", payload);
+        }};
+    }
+
     @Test
     public void testMessageReceiveFailed(@Mocked ErrorMessageCreator errorMessageCreator) throws Exception {
         MessageReceiveFailureEvent event = new MessageReceiveFailureEvent();
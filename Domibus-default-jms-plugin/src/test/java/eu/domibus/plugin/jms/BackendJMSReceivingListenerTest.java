@@ -12,6 +12,7 @@ import org.junit.runner.RunWith;
 
 import javax.jms.JMSException;
 import javax.jms.MapMessage;
+import javax.jms.Session;
 
 /**
  * @author Cosmin Baciu
@@ -36,23 +37,45 @@ public class BackendJMSReceivingListenerTest {
     BackendJMSReceivingListener backendJMSReceivingListener;
 
     @Test
-    public void receiveMessage(@Injectable MapMessage map, @Mocked DomibusLogger LOG) {
+    public void receiveMessage(@Injectable MapMessage map, @Injectable Session session, @Mocked DomibusLogger LOG) {
         new Expectations(backendJMSReceivingListener) {{
             authenticationExtService.isUnsecureLoginAllowed();
             result = false;
 
             backendJMSReceivingListener.authenticate(map);
+
+            backendJMSReceivingListener.isMessageBatch(map);
+            result = false;
         }};
-        backendJMSReceivingListener.receiveMessage(map);
+        backendJMSReceivingListener.receiveMessage(map, session);
 
         new FullVerificationsInOrder() {{
             LOG.debug("Performing authentication");
             LOG.clearCustomKeys();
             backendJMSReceivingListener.authenticate(map);
+            backendJMSReceivingListener.isMessageBatch(map);
             backendJMS.receiveMessage(map);
         }};
     }
 
+    @Test
+    public void receiveMessageBatch(@Injectable MapMessage map, @Injectable Session session, @Mocked DomibusLogger LOG) throws JMSException {
+        new Expectations() {{
+            authenticationExtService.isUnsecureLoginAllowed();
+            result = true;
+
+            map.getStringProperty(JMSMessageConstants.JMS_BACKEND_MESSAGE_TYPE_PROPERTY_KEY);
+            result = JMSMessageConstants.MESSAGE_TYPE_SUBMIT_BATCH;
+        }};
+        backendJMSReceivingListener.receiveMessage(map, session);
+
+        new Verifications() {{
+            backendJMS.receiveMessageBatch(map, session);
+            backendJMS.receiveMessage((MapMessage) any);
+            times = 0;
+        }};
+    }
+
     @Test
     public void authenticate(@Injectable MapMessage map, @Mocked DomibusLogger LOG) throws JMSException {
         String username = "cosmin";
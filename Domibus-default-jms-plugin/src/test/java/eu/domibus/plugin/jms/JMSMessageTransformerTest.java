@@ -1,5 +1,6 @@
 package eu.domibus.plugin.jms;
 
+import eu.domibus.ext.domain.DomainDTO;
 import eu.domibus.ext.services.DomainContextExtService;
 import eu.domibus.ext.services.DomibusPropertyExtService;
 import eu.domibus.ext.services.FileUtilExtService;
@@ -9,14 +10,18 @@ import mockit.NonStrictExpectations;
 import mockit.Tested;
 import mockit.integration.junit4.JMockit;
 import org.apache.activemq.command.ActiveMQMapMessage;
+import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 
 import javax.activation.DataHandler;
 import javax.jms.MapMessage;
 import javax.mail.util.ByteArrayDataSource;
 import java.io.File;
+import java.nio.file.Files;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -64,6 +69,9 @@ public class JMSMessageTransformerTest {
     @Tested
     JMSMessageTransformer testObj = new JMSMessageTransformer();
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     /**
      * Testing basic happy flow scenario of the transform from submission of JMS transformer
      */
@@ -130,6 +138,83 @@ public class JMSMessageTransformerTest {
 
     }
 
+    @Test
+    public void transformFromSubmission_AttachmentsReference() throws Exception {
+        final File referenceFolder = temporaryFolder.newFolder("reference");
+        new NonStrictExpectations() {{
+            domibusPropertyExtService.getDomainProperty((DomainDTO) any, JMS_PLUGIN_PROPERTY_PREFIX + "." + PUT_ATTACHMENTS_IN_QUEUE, anyString);
+            result = "false";
+
+            domibusPropertyExtService.getDomainProperty((DomainDTO) any, JMS_PLUGIN_PROPERTY_PREFIX + "." + ATTACHMENTS_REFERENCE_FOLDER, null);
+            result = referenceFolder.getAbsolutePath();
+        }};
+        final byte[] payloadContent = "<hello>world</hello>".getBytes();
+        Submission submissionObj = new Submission();
+        submissionObj.setMessageId("1234@domibus.eu");
+        Collection<Submission.TypedProperty> listTypedProperty = new ArrayList<>();
+        listTypedProperty.add(new Submission.TypedProperty(MIME_TYPE, DEFAULT_MT));
+        submissionObj.addPayload(new Submission.Payload(PAYLOAD_ID, new DataHandler(new ByteArrayDataSource(payloadContent, DEFAULT_MT)), listTypedProperty, false, null, null));
+
+        MapMessage messageMap = testObj.transformFromSubmission(submissionObj, new ActiveMQMapMessage());
+
+        final File payloadFile = new File(referenceFolder, "1234@domibus.eu_payload_1");
+        Assert.assertEquals(payloadFile.toURI().toString(), messageMap.getString("payload_1"));
+        Assert.assertArrayEquals(payloadContent, Files.readAllBytes(payloadFile.toPath()));
+
+        // the backend can submit the payload back by URL
+        final Submission submission = testObj.transformToSubmission(messageMap);
+        final Submission.Payload payload = submission.getPayloads().iterator().next();
+        Assert.assertArrayEquals(payloadContent, IOUtils.toByteArray(payload.getPayloadDatahandler().getInputStream()));
+    }
+
+    @Test
+    public void transformFromSubmission_BodyloadReference() throws Exception {
+        final File referenceFolder = temporaryFolder.newFolder("reference");
+        new NonStrictExpectations() {{
+            domibusPropertyExtService.getDomainProperty((DomainDTO) any, JMS_PLUGIN_PROPERTY_PREFIX + "." + PUT_ATTACHMENTS_IN_QUEUE, anyString);
+            result = "false";
+
+            domibusPropertyExtService.getDomainProperty((DomainDTO) any, JMS_PLUGIN_PROPERTY_PREFIX + "." + ATTACHMENTS_REFERENCE_FOLDER, null);
+            result = referenceFolder.getAbsolutePath();
+        }};
+        final byte[] payloadContent = "<hello>world</hello>".getBytes();
+        Submission submissionObj = new Submission();
+        submissionObj.setMessageId("1234@domibus.eu");
+        Collection<Submission.TypedProperty> listTypedProperty = new ArrayList<>();
+        listTypedProperty.add(new Submission.TypedProperty(MIME_TYPE, DEFAULT_MT));
+        submissionObj.addPayload(new Submission.Payload(PAYLOAD_ID, new DataHandler(new ByteArrayDataSource(payloadContent, DEFAULT_MT)), listTypedProperty, true, null, null));
+
+        MapMessage messageMap = testObj.transformFromSubmission(submissionObj, new ActiveMQMapMessage());
+
+        final File payloadFile = new File(referenceFolder, "1234@domibus.eu_payload_1");
+        Assert.assertEquals(payloadFile.toURI().toString(), messageMap.getString("payload_1"));
+        Assert.assertEquals("true", messageMap.getStringProperty(P1_IN_BODY));
+        Assert.assertArrayEquals(payloadContent, Files.readAllBytes(payloadFile.toPath()));
+    }
+
+    @Test
+    public void deletePayloadReferences() throws Exception {
+        final File referenceFolder = temporaryFolder.newFolder("reference");
+        final File otherFolder = temporaryFolder.newFolder("other");
+        new NonStrictExpectations() {{
+            domibusPropertyExtService.getDomainProperty((DomainDTO) any, JMS_PLUGIN_PROPERTY_PREFIX + "." + ATTACHMENTS_REFERENCE_FOLDER, null);
+            result = referenceFolder.getAbsolutePath();
+        }};
+        final File payloadFile = new File(referenceFolder, "1234@domibus.eu_payload_1");
+        final File otherFile = new File(otherFolder, "payload.xml");
+        Files.write(payloadFile.toPath(), "<hello>world</hello>".getBytes());
+        Files.write(otherFile.toPath(), "<hello>world</hello>".getBytes());
+        final MapMessage messageMap = new ActiveMQMapMessage();
+        messageMap.setString("payload_1", payloadFile.toURI().toString());
+        messageMap.setString("payload_2", otherFile.toURI().toString());
+        messageMap.setBytes("payload_3", "<hello>world</hello>".getBytes());
+
+        testObj.deletePayloadReferences(messageMap);
+
+        Assert.assertFalse(payloadFile.exists());
+        Assert.assertTrue(otherFile.exists());
+    }
+
     /*
      * Testing basic happy flow scenario of the transform from messaging to submission of JMS transformer
      */
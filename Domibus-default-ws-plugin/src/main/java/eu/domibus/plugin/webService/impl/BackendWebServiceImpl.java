@@ -29,6 +29,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @SuppressWarnings("ValidExternallyBoundObject")
 @javax.jws.WebService(
@@ -52,6 +55,12 @@ public class BackendWebServiceImpl extends AbstractBackendConnector<Messaging, U
 
     private static final String MESSAGE_NOT_FOUND_ID = "Message not found, id [";
 
+    protected static final int DEFAULT_STATUS_BATCH_MAX_SIZE = 1000;
+
+    protected static final int DEFAULT_SUBMIT_BATCH_MAX_SIZE = 100;
+
+    protected static final int DEFAULT_RETRIEVE_MESSAGES_MAX_COUNT = 10;
+
     @Autowired
     private StubDtoTransformer defaultTransformer;
 
@@ -61,10 +70,37 @@ public class BackendWebServiceImpl extends AbstractBackendConnector<Messaging, U
     @Autowired
     protected BackendWebServiceExceptionFactory backendWebServiceExceptionFactory;
 
+    /**
+     * Maximum number of message ids accepted by {@link #getStatusBatch(StatusBatchRequest)}
+     */
+    protected int statusBatchMaxSize = DEFAULT_STATUS_BATCH_MAX_SIZE;
+
+    /**
+     * Maximum number of messages accepted by {@link #submitMessageBatch(SubmitBatchRequest)}
+     */
+    protected int submitBatchMaxSize = DEFAULT_SUBMIT_BATCH_MAX_SIZE;
+
+    /**
+     * Maximum number of messages returned by {@link #retrieveMessages(RetrieveMessagesRequest)}
+     */
+    protected int retrieveMessagesMaxCount = DEFAULT_RETRIEVE_MESSAGES_MAX_COUNT;
+
     public BackendWebServiceImpl(final String name) {
         super(name);
     }
 
+    public void setStatusBatchMaxSize(int statusBatchMaxSize) {
+        this.statusBatchMaxSize = statusBatchMaxSize;
+    }
+
+    public void setSubmitBatchMaxSize(int submitBatchMaxSize) {
+        this.submitBatchMaxSize = submitBatchMaxSize;
+    }
+
+    public void setRetrieveMessagesMaxCount(int retrieveMessagesMaxCount) {
+        this.retrieveMessagesMaxCount = retrieveMessagesMaxCount;
+    }
+
     /**
      * Add support for large files using DataHandler instead of byte[]
      *
@@ -79,6 +115,63 @@ public class BackendWebServiceImpl extends AbstractBackendConnector<Messaging, U
     public SubmitResponse submitMessage(SubmitRequest submitRequest, Messaging ebMSHeaderInfo) throws SubmitMessageFault {
         LOG.debug("Received message");
 
+        prepareSubmission(submitRequest, ebMSHeaderInfo);
+
+        final String messageId;
+        try {
+            messageId = this.submit(ebMSHeaderInfo);
+        } catch (final MessagingProcessingException mpEx) {
+            LOG.error(MESSAGE_SUBMISSION_FAILED, mpEx);
+            throw new SubmitMessageFault(MESSAGE_SUBMISSION_FAILED, generateFaultDetail(mpEx));
+        }
+        LOG.info("Received message from backend with messageID [{}]", messageId);
+        final SubmitResponse response = WEBSERVICE_OF.createSubmitResponse();
+        response.getMessageID().add(messageId);
+        return response;
+    }
+
+    /**
+     * Submits several messages, each one with its own ebMS header and payloads, in one transaction: either all the
+     * messages are submitted or none of them.
+     *
+     * @param submitBatchRequest the messages to submit, limited by the server
+     * @return {@link SubmitResponse} object containing the ids of the messages, in the order of the request
+     * @throws SubmitMessageFault if too many messages are given or one of the messages is rejected
+     */
+    @Override
+    // the fault is expected to roll back the batch, so that it is returned instead of failing the commit
+    @Transactional(propagation = Propagation.REQUIRED, timeout = 1200, rollbackFor = SubmitMessageFault.class) // 20 minutes
+    public SubmitResponse submitMessageBatch(SubmitBatchRequest submitBatchRequest) throws SubmitMessageFault {
+        final int batchSize = submitBatchRequest.getMessage().size();
+        LOG.debug("Received a batch of [{}] messages", batchSize);
+        if (batchSize > submitBatchMaxSize) {
+            LOG.error("A batch of [{}] messages was submitted, more than the maximum of [{}]", batchSize, submitBatchMaxSize);
+            throw new SubmitMessageFault("Too many messages", backendWebServiceExceptionFactory.createFault("At most " + submitBatchMaxSize + " messages can be submitted at once"));
+        }
+
+        final List<Messaging> messages = new ArrayList<>();
+        for (SubmitBatchMessageType batchMessage : submitBatchRequest.getMessage()) {
+            final SubmitRequest submitRequest = WEBSERVICE_OF.createSubmitRequest();
+            submitRequest.setBodyload(batchMessage.getBodyload());
+            submitRequest.getPayload().addAll(batchMessage.getPayload());
+            prepareSubmission(submitRequest, batchMessage.getMessaging());
+            messages.add(batchMessage.getMessaging());
+        }
+
+        final List<String> messageIds;
+        try {
+            messageIds = this.submitBatch(messages);
+        } catch (final MessagingProcessingException mpEx) {
+            LOG.error(MESSAGE_SUBMISSION_FAILED, mpEx);
+            throw new SubmitMessageFault(MESSAGE_SUBMISSION_FAILED, generateFaultDetail(mpEx));
+        }
+        LOG.info("Received a batch of [{}] messages from backend", messageIds.size());
+        final SubmitResponse response = WEBSERVICE_OF.createSubmitResponse();
+        response.getMessageID().addAll(messageIds);
+        return response;
+    }
+
+    protected void prepareSubmission(SubmitRequest submitRequest, Messaging ebMSHeaderInfo) throws SubmitMessageFault {
         addPartInfos(submitRequest, ebMSHeaderInfo);
         if (ebMSHeaderInfo.getUserMessage().getMessageInfo() == null) {
             MessageInfo messageInfo = new MessageInfo();
@@ -93,18 +186,6 @@ public class BackendWebServiceImpl extends AbstractBackendConnector<Messaging, U
                 ebMSHeaderInfo.getUserMessage().getMessageInfo().setMessageId(trimmedMessageId);
             }
         }
-
-        final String messageId;
-        try {
-            messageId = this.submit(ebMSHeaderInfo);
-        } catch (final MessagingProcessingException mpEx) {
-            LOG.error(MESSAGE_SUBMISSION_FAILED, mpEx);
-            throw new SubmitMessageFault(MESSAGE_SUBMISSION_FAILED, generateFaultDetail(mpEx));
-        }
-        LOG.info("Received message from backend with messageID [{}]", messageId);
-        final SubmitResponse response = WEBSERVICE_OF.createSubmitResponse();
-        response.getMessageID().add(messageId);
-        return response;
     }
 
     private void addPartInfos(SubmitRequest submitRequest, Messaging ebMSHeaderInfo) throws SubmitMessageFault {
@@ -263,26 +344,78 @@ public class BackendWebServiceImpl extends AbstractBackendConnector<Messaging, U
             throw new RetrieveMessageFault(MESSAGE_NOT_FOUND_ID + retrieveMessageRequest.getMessageID() + "]", backendWebServiceExceptionFactory.createFault("UserMessage not found"));
         }
 
+        Messaging messaging = createMessaging(userMessage);
+        ebMSHeaderInfo.value = messaging;
+        retrieveMessageResponse.value = WEBSERVICE_OF.createRetrieveMessageResponse();
+
+        fillInfoPartsForLargeFiles(messaging, retrieveMessageResponse.value::setBodyload, retrieveMessageResponse.value.getPayload());
+
+        acknowledgeMessageDelivered(trimmedMessageId);
+    }
+
+    /**
+     * Downloads several messages pending for download in one call, in the order they were received. The payloads are
+     * streamed as MTOM attachments when MTOM is enabled.
+     *
+     * @param retrieveMessagesRequest the maximum number of messages to download, limited by the server
+     * @return the downloaded messages
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW, timeout = 1200) // 20 minutes
+    public RetrieveMessagesResponse retrieveMessages(RetrieveMessagesRequest retrieveMessagesRequest) throws RetrieveMessageFault {
+        int maxCount = retrieveMessagesRequest.getMaxCount();
+        if (maxCount <= 0 || maxCount > retrieveMessagesMaxCount) {
+            LOG.debug("Retrieving at most [{}] messages instead of the [{}] requested", retrieveMessagesMaxCount, maxCount);
+            maxCount = retrieveMessagesMaxCount;
+        }
+
+        final RetrieveMessagesResponse response = WEBSERVICE_OF.createRetrieveMessagesResponse();
+        for (String messageId : listPendingMessages(0, maxCount)) {
+            final UserMessage userMessage;
+            try {
+                userMessage = downloadMessage(messageId, null);
+            } catch (final MessageNotFoundException mnfEx) {
+                // the message might have been downloaded in the meantime by another request
+                LOG.warn("Message [{}] is no longer pending for download", messageId, mnfEx);
+                continue;
+            }
+            if (userMessage == null) {
+                LOG.warn(MESSAGE_NOT_FOUND_ID + messageId + "]");
+                continue;
+            }
+
+            final RetrievedMessageType retrievedMessage = WEBSERVICE_OF.createRetrievedMessageType();
+            final Messaging messaging = createMessaging(userMessage);
+            retrievedMessage.setMessaging(messaging);
+            fillInfoPartsForLargeFiles(messaging, retrievedMessage::setBodyload, retrievedMessage.getPayload());
+            response.getMessage().add(retrievedMessage);
+
+            acknowledgeMessageDelivered(messageId);
+        }
+        LOG.info("Retrieved [{}] messages", response.getMessage().size());
+        return response;
+    }
+
+    private Messaging createMessaging(UserMessage userMessage) {
         // To avoid blocking errors during the Header's response validation
         if (StringUtils.isEmpty(userMessage.getCollaborationInfo().getAgreementRef().getValue())) {
             userMessage.getCollaborationInfo().setAgreementRef(null);
         }
         Messaging messaging = EBMS_OBJECT_FACTORY.createMessaging();
         messaging.setUserMessage(userMessage);
-        ebMSHeaderInfo.value = messaging;
-        retrieveMessageResponse.value = WEBSERVICE_OF.createRetrieveMessageResponse();
-
-        fillInfoPartsForLargeFiles(retrieveMessageResponse, messaging);
+        return messaging;
+    }
 
+    private void acknowledgeMessageDelivered(String messageId) {
         try {
-            messageAcknowledgeExtService.acknowledgeMessageDelivered(trimmedMessageId, new Timestamp(System.currentTimeMillis()));
+            messageAcknowledgeExtService.acknowledgeMessageDelivered(messageId, new Timestamp(System.currentTimeMillis()));
         } catch (AuthenticationExtException | MessageAcknowledgeExtException e) {
             //if an error occurs related to the message acknowledgement do not block the download message operation
-            LOG.error("Error acknowledging message [" + retrieveMessageRequest.getMessageID() + "]", e);
+            LOG.error("Error acknowledging message [" + messageId + "]", e);
         }
     }
 
-    private void fillInfoPartsForLargeFiles(Holder<RetrieveMessageResponse> retrieveMessageResponse, Messaging messaging) {
+    private void fillInfoPartsForLargeFiles(Messaging messaging, Consumer<LargePayloadType> bodyloadSetter, List<LargePayloadType> payloads) {
         if (getPayloadInfo(messaging) == null || CollectionUtils.isEmpty(getPartInfo(messaging))) {
             LOG.info("No payload found for message [{}]", messaging.getUserMessage().getMessageInfo().getMessageId());
             return;
@@ -296,10 +429,10 @@ public class BackendWebServiceImpl extends AbstractBackendConnector<Messaging, U
                 payloadType.setValue(extPartInfo.getPayloadDatahandler());
             }
             if (extPartInfo.isInBody()) {
-                retrieveMessageResponse.value.setBodyload(payloadType);
+                bodyloadSetter.accept(payloadType);
             } else {
                 payloadType.setPayloadId(partInfo.getHref());
-                retrieveMessageResponse.value.getPayload().add(payloadType);
+                payloads.add(payloadType);
             }
         }
     }
@@ -332,6 +465,36 @@ public class BackendWebServiceImpl extends AbstractBackendConnector<Messaging, U
         return defaultTransformer.transformFromMessageStatus(messageRetriever.getStatus(trimmedMessageId));
     }
 
+    /**
+     * Gets the statuses of several messages with one database query per thousand messages
+     *
+     * @param statusBatchRequest the ids of the messages, limited by the server
+     * @return the status of each message, in the order of the request
+     * @throws StatusFault if no message id or too many message ids are given
+     */
+    @Override
+    public GetStatusBatchResponse getStatusBatch(final StatusBatchRequest statusBatchRequest) throws StatusFault {
+        final List<String> messageIds = statusBatchRequest.getMessageID();
+        if (messageIds.isEmpty() || messageIds.stream().anyMatch(StringUtils::isEmpty)) {
+            LOG.error(MESSAGE_ID_EMPTY);
+            throw new StatusFault(MESSAGE_ID_EMPTY, backendWebServiceExceptionFactory.createFault("MessageId is empty"));
+        }
+        if (messageIds.size() > statusBatchMaxSize) {
+            LOG.error("The statuses of [{}] messages were requested, more than the maximum of [{}]", messageIds.size(), statusBatchMaxSize);
+            throw new StatusFault("Too many message ids", backendWebServiceExceptionFactory.createFault("The statuses of at most " + statusBatchMaxSize + " messages can be requested at once"));
+        }
+
+        final List<String> trimmedMessageIds = messageIds.stream().map(messageExtService::cleanMessageIdentifier).collect(Collectors.toList());
+        final GetStatusBatchResponse response = WEBSERVICE_OF.createGetStatusBatchResponse();
+        for (Map.Entry<String, eu.domibus.common.MessageStatus> status : messageRetriever.getStatuses(trimmedMessageIds).entrySet()) {
+            final MessageStatusEntryType messageStatus = WEBSERVICE_OF.createMessageStatusEntryType();
+            messageStatus.setMessageID(status.getKey());
+            messageStatus.setStatus(defaultTransformer.transformFromMessageStatus(status.getValue()));
+            response.getMessageStatus().add(messageStatus);
+        }
+        return response;
+    }
+
     @Override
     public ErrorResultImplArray getMessageErrors(final GetErrorsRequest messageErrorsRequest) {
         return defaultTransformer.transformFromErrorResults(messageRetriever.getErrorsForMessage(messageErrorsRequest.getMessageID()));
@@ -7,5 +7,7 @@ package eu.domibus.plugin.webService.impl;
 public class BackendWebServiceOperation {
 
     public static final String SUBMIT_MESSAGE = "submitMessage";
+    public static final String SUBMIT_MESSAGE_BATCH = "submitMessageBatch";
     public static final String RETRIEVE_MESSAGE = "retrieveMessage";
+    public static final String RETRIEVE_MESSAGES = "retrieveMessages";
 }
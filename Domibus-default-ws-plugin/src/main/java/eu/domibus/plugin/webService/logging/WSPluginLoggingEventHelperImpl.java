@@ -22,7 +22,9 @@ public class WSPluginLoggingEventHelperImpl implements WSPluginLoggingEventHelpe
     static final String VALUE_START_MARKER = "<value";
     static final String VALUE_END_MARKER = "</value";
     static final String RETRIEVE_MESSAGE_RESPONSE = "retrieveMessageResponse";
+    static final String RETRIEVE_MESSAGES_RESPONSE = "retrieveMessagesResponse";
     static final String SUBMIT_REQUEST = "submitRequest";
+    static final String SUBMIT_BATCH_REQUEST = "submitBatchRequest";
 
     @Override
     public void stripPayload(LogEvent event) {
@@ -52,10 +54,18 @@ public class WSPluginLoggingEventHelperImpl implements WSPluginLoggingEventHelpe
 
     @Override
     public String checkIfOperationIsAllowed(LogEvent logEvent) {
-        if (logEvent.getType() == EventType.REQ_IN && logEvent.getOperationName().contains(BackendWebServiceOperation.SUBMIT_MESSAGE)) {
+        final EventType eventType = logEvent.getType();
+        final String operationName = logEvent.getOperationName();
+        if (eventType == EventType.REQ_IN && StringUtils.contains(operationName, BackendWebServiceOperation.SUBMIT_MESSAGE_BATCH)) {
+            return SUBMIT_BATCH_REQUEST;
+        }
+        if (eventType == EventType.REQ_IN && StringUtils.contains(operationName, BackendWebServiceOperation.SUBMIT_MESSAGE)) {
             return SUBMIT_REQUEST;
         }
-        if (logEvent.getType() == EventType.RESP_OUT && logEvent.getOperationName().contains(BackendWebServiceOperation.RETRIEVE_MESSAGE)) {
+        if (eventType == EventType.RESP_OUT && StringUtils.contains(operationName, BackendWebServiceOperation.RETRIEVE_MESSAGES)) {
+            return RETRIEVE_MESSAGES_RESPONSE;
+        }
+        if (eventType == EventType.RESP_OUT && StringUtils.contains(operationName, BackendWebServiceOperation.RETRIEVE_MESSAGE)) {
             return RETRIEVE_MESSAGE_RESPONSE;
         }
         return null;
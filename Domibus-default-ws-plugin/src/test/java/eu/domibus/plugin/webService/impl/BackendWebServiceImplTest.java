@@ -15,12 +15,17 @@ import mockit.Verifications;
 import mockit.integration.junit4.JMockit;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.xml.ws.Holder;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Cosmin Baciu
@@ -179,4 +184,81 @@ public class BackendWebServiceImplTest {
             assertEquals("The message identifier should have been cleaned before retrieving the message", "-Dom138--", messageId);
         }};
     }
+
+    @Test
+    public void testGetStatusBatch() throws StatusFault {
+        final StatusBatchRequest statusBatchRequest = new StatusBatchRequest();
+        statusBatchRequest.getMessageID().add(" id1 ");
+        statusBatchRequest.getMessageID().add("id2");
+        final Map<String, eu.domibus.common.MessageStatus> statuses = new LinkedHashMap<>();
+        statuses.put("id1", eu.domibus.common.MessageStatus.ACKNOWLEDGED);
+        statuses.put("id2", eu.domibus.common.MessageStatus.NOT_FOUND);
+
+        new Expectations() {{
+            messageExtService.cleanMessageIdentifier(" id1 ");
+            result = "id1";
+
+            messageExtService.cleanMessageIdentifier("id2");
+            result = "id2";
+
+            messageRetriever.getStatuses(Arrays.asList("id1", "id2"));
+            result = statuses;
+
+            defaultTransformer.transformFromMessageStatus(eu.domibus.common.MessageStatus.ACKNOWLEDGED);
+            result = MessageStatus.ACKNOWLEDGED;
+
+            defaultTransformer.transformFromMessageStatus(eu.domibus.common.MessageStatus.NOT_FOUND);
+            result = MessageStatus.NOT_FOUND;
+        }};
+
+        final GetStatusBatchResponse response = backendWebService.getStatusBatch(statusBatchRequest);
+
+        assertEquals(2, response.getMessageStatus().size());
+        assertEquals("id1", response.getMessageStatus().get(0).getMessageID());
+        assertEquals(MessageStatus.ACKNOWLEDGED, response.getMessageStatus().get(0).getStatus());
+        assertEquals("id2", response.getMessageStatus().get(1).getMessageID());
+        assertEquals(MessageStatus.NOT_FOUND, response.getMessageStatus().get(1).getStatus());
+    }
+
+    @Test(expected = StatusFault.class)
+    public void testGetStatusBatch_TooManyMessages() throws StatusFault {
+        final StatusBatchRequest statusBatchRequest = new StatusBatchRequest();
+        statusBatchRequest.getMessageID().add("id1");
+        statusBatchRequest.getMessageID().add("id2");
+        backendWebService.setStatusBatchMaxSize(1);
+
+        backendWebService.getStatusBatch(statusBatchRequest);
+    }
+
+    @Test(expected = SubmitMessageFault.class)
+    public void testSubmitMessageBatch_TooManyMessages() throws SubmitMessageFault {
+        final SubmitBatchRequest submitBatchRequest = new SubmitBatchRequest();
+        submitBatchRequest.getMessage().add(new SubmitBatchMessageType());
+        submitBatchRequest.getMessage().add(new SubmitBatchMessageType());
+        backendWebService.setSubmitBatchMaxSize(1);
+
+        backendWebService.submitMessageBatch(submitBatchRequest);
+    }
+
+    @Test
+    public void testSubmitMessageBatch_RolledBackOnFault() throws Exception {
+        final Transactional transactional = BackendWebServiceImpl.class.getMethod("submitMessageBatch", SubmitBatchRequest.class).getAnnotation(Transactional.class);
+
+        assertTrue(Arrays.asList(transactional.rollbackFor()).contains(SubmitMessageFault.class));
+    }
+
+    @Test
+    public void testRetrieveMessages_LimitedByTheServer() throws RetrieveMessageFault {
+        final RetrieveMessagesRequest retrieveMessagesRequest = new RetrieveMessagesRequest();
+        retrieveMessagesRequest.setMaxCount(1000);
+
+        new Expectations() {{
+            lister.listPendingMessages(0, BackendWebServiceImpl.DEFAULT_RETRIEVE_MESSAGES_MAX_COUNT);
+            result = new ArrayList<>();
+        }};
+
+        final RetrieveMessagesResponse response = backendWebService.retrieveMessages(retrieveMessagesRequest);
+
+        assertEquals(0, response.getMessage().size());
+    }
 }
\ No newline at end of file
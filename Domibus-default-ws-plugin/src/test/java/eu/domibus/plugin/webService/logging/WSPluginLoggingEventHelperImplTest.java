@@ -241,6 +241,34 @@ public class WSPluginLoggingEventHelperImplTest {
                 wsPluginLoggingEventHelper.checkIfOperationIsAllowed(logEvent));
     }
 
+    @Test
+    public void test_checkIfOperationIsAllowed_SubmitMessageBatch(final @Mocked LogEvent logEvent) {
+        new Expectations() {{
+            logEvent.getType();
+            result = EventType.REQ_IN;
+
+            logEvent.getOperationName();
+            result = BackendWebServiceOperation.SUBMIT_MESSAGE_BATCH;
+        }};
+
+        Assert.assertEquals(WSPluginLoggingEventHelperImpl.SUBMIT_BATCH_REQUEST,
+                wsPluginLoggingEventHelper.checkIfOperationIsAllowed(logEvent));
+    }
+
+    @Test
+    public void test_checkIfOperationIsAllowed_RetrieveMessages(final @Mocked LogEvent logEvent) {
+        new Expectations() {{
+            logEvent.getType();
+            result = EventType.RESP_OUT;
+
+            logEvent.getOperationName();
+            result = BackendWebServiceOperation.RETRIEVE_MESSAGES;
+        }};
+
+        Assert.assertEquals(WSPluginLoggingEventHelperImpl.RETRIEVE_MESSAGES_RESPONSE,
+                wsPluginLoggingEventHelper.checkIfOperationIsAllowed(logEvent));
+    }
+
     private String readPayload(final String payloadName) throws Exception {
         return IOUtils.toString(getClass().getClassLoader().getResourceAsStream(payloadName), "UTF-8");
     }
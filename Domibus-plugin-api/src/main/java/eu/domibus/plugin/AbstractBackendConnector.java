@@ -21,6 +21,8 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Base class for implementing plugins
@@ -76,6 +78,33 @@ public abstract class AbstractBackendConnector<U, T> implements BackendConnector
         }
     }
 
+    /**
+     * Transforms all the messages before passing them to {@link MessageSubmitter#submitBatch(List, String)}. Whether the
+     * messages are accepted or rejected all together depends on the message submitter: the Domibus MSH stores them in
+     * one transaction, while the default implementation of the interface submits them one by one.
+     */
+    @Override
+    public List<String> submitBatch(final List<U> messages) throws MessagingProcessingException {
+        try {
+            final List<Submission> messagesData = new ArrayList<>();
+            for (U message : messages) {
+                messagesData.add(getMessageSubmissionTransformer().transformToSubmission(message));
+            }
+            final List<String> messageIds = this.messageSubmitter.submitBatch(messagesData, this.getName());
+            LOG.info("Batch of [{}] messages submitted", messageIds.size());
+            return messageIds;
+        } catch (IllegalArgumentException iaEx) {
+            LOG.businessError(DomibusMessageCode.BUS_MESSAGE_SUBMIT_FAILED, iaEx);
+            throw new TransformationException(iaEx);
+        } catch (IllegalStateException ise) {
+            LOG.businessError(DomibusMessageCode.BUS_MESSAGE_SUBMIT_FAILED, ise);
+            throw new PModeMismatchException(ise);
+        } catch (MessagingProcessingException mpEx) {
+            LOG.businessError(DomibusMessageCode.BUS_MESSAGE_SUBMIT_FAILED, mpEx);
+            throw mpEx;
+        }
+    }
+
 
     @Override
     @Transactional(propagation = Propagation.REQUIRED)
@@ -121,11 +150,28 @@ public abstract class AbstractBackendConnector<U, T> implements BackendConnector
         return lister.listPendingMessages();
     }
 
+    /**
+     * Lists a page of the messages pending for download by the backend
+     *
+     * @param pageStart the index of the first message returned
+     * @param pageSize  the maximum number of messages returned or 0 for all of them
+     * @return a collection of messageIds pending download
+     */
+    public Collection<String> listPendingMessages(int pageStart, int pageSize) {
+        return lister.listPendingMessages(pageStart, pageSize);
+    }
+
     @Override
     public MessageStatus getStatus(final String messageId) {
         return this.messageRetriever.getStatus(messageExtService.cleanMessageIdentifier(messageId));
     }
 
+    @Override
+    public Map<String, MessageStatus> getStatuses(final List<String> messageIds) {
+        final List<String> cleanedMessageIds = messageIds.stream().map(messageExtService::cleanMessageIdentifier).collect(Collectors.toList());
+        return this.messageRetriever.getStatuses(cleanedMessageIds);
+    }
+
     @Override
     public List<ErrorResult> getErrorsForMessage(final String messageId) {
         return new ArrayList<>(this.messageRetriever.getErrorsForMessage(messageId));
@@ -7,8 +7,11 @@ import eu.domibus.messaging.MessagingProcessingException;
 import eu.domibus.plugin.transformer.MessageRetrievalTransformer;
 import eu.domibus.plugin.transformer.MessageSubmissionTransformer;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Definition of a backend integration plugin. Direct implementation of this interface is NOT RECOMMENDED.
@@ -40,6 +43,23 @@ public interface BackendConnector<U, T> {
      */
     String submit(final U message) throws MessagingProcessingException;
 
+    /**
+     * Submits several messages in the native format to the Domibus MSH.
+     * By default {@link #submit(Object)} is called for each message: the batch is not atomic, each message is committed
+     * independently and the messages submitted before a rejected one are kept.
+     *
+     * @param messages the messages to be sent
+     * @return the Domibus-internal Ids of the messages, in the order of the messages
+     * @throws MessagingProcessingException If one of the messages was rejected by the Domibus MSH
+     */
+    default List<String> submitBatch(final List<U> messages) throws MessagingProcessingException {
+        final List<String> messageIds = new ArrayList<>();
+        for (U message : messages) {
+            messageIds.add(submit(message));
+        }
+        return messageIds;
+    }
+
     /**
      * provides the message with the corresponding messageId. A target object (i.e. an instance of javax.jms.Message)
      * can be provided. This is necessary in case the DTO for transfer to the backend is constructed by a
@@ -80,6 +100,21 @@ public interface BackendConnector<U, T> {
      */
     MessageStatus getStatus(final String messageId);
 
+    /**
+     * Returns the statuses {@link eu.domibus.common.MessageStatus} of several messages.
+     * By default {@link #getStatus(String)} is called for each message.
+     *
+     * @param messageIds ids of the messages the statuses are requested for
+     * @return the message status of each message, by message id and in the order of the message ids
+     */
+    default Map<String, MessageStatus> getStatuses(final List<String> messageIds) {
+        final Map<String, MessageStatus> statuses = new LinkedHashMap<>();
+        for (String messageId : messageIds) {
+            statuses.put(messageId, getStatus(messageId));
+        }
+        return statuses;
+    }
+
     /**
      * Returns List {@link java.util.List} of error logs {@link ErrorResult} for message with messageid
      *
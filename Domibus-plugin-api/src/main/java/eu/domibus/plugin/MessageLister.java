@@ -4,6 +4,8 @@ package eu.domibus.plugin;
 import eu.domibus.messaging.MessageNotFoundException;
 
 import java.util.Collection;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Provides access to messages waiting to be pulled by plugins using BackendConnector.Mode.PULL.
@@ -19,6 +21,21 @@ public interface MessageLister {
      */
     Collection<String> listPendingMessages();
 
+    /**
+     * Lists a page of the messages pending for download by the backend
+     *
+     * @param pageStart the index of the first message returned
+     * @param pageSize  the maximum number of messages returned or 0 for all of them
+     * @return a collection of messageIds pending download
+     */
+    default Collection<String> listPendingMessages(int pageStart, int pageSize) {
+        Stream<String> messageIds = listPendingMessages().stream().skip(pageStart);
+        if (pageSize > 0) {
+            messageIds = messageIds.limit(pageSize);
+        }
+        return messageIds.collect(Collectors.toList());
+    }
+
     /**
      * removes the message with the corresponding id from the download queue
      *
@@ -52,6 +52,16 @@ public interface NotificationListener {
     default void deleteMessageCallback(String messageId) {
     }
 
+    /**
+     * Custom action to be performed by the plugins when several messages are being deleted at once, e.g. by the bulk retention.
+     * By default {@link #deleteMessageCallback(String)} is called for each message.
+     *
+     * @param messageIds The message ids
+     */
+    default void deleteMessagesCallback(List<String> messageIds) {
+        messageIds.forEach(this::deleteMessageCallback);
+    }
+
     /**
      * Notify plugin for various events related to message lifecycle. For more details see {@link NotificationType}
      *
@@ -6,7 +6,9 @@ import eu.domibus.common.MessageStatus;
 import eu.domibus.messaging.MessageNotFoundException;
 import eu.domibus.plugin.Submission;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementations of this interface handle the retrieval of messages from
@@ -44,6 +46,21 @@ public interface MessageRetriever {
      */
     MessageStatus getStatus(String messageId);
 
+    /**
+     * Returns the message statuses {@link eu.domibus.common.MessageStatus} of several messages.
+     * By default {@link #getStatus(String)} is called for each message.
+     *
+     * @param messageIds ids of the messages the statuses are requested for
+     * @return the message status of each message, by message id and in the order of the message ids
+     */
+    default Map<String, MessageStatus> getStatuses(List<String> messageIds) {
+        final Map<String, MessageStatus> statuses = new LinkedHashMap<>();
+        for (String messageId : messageIds) {
+            statuses.put(messageId, getStatus(messageId));
+        }
+        return statuses;
+    }
+
     /**
      * Returns List {@link java.util.List} of error logs {@link ErrorResult} for message with messageid
      *
@@ -5,6 +5,9 @@ package eu.domibus.plugin.handler;
 import eu.domibus.messaging.MessagingProcessingException;
 import eu.domibus.plugin.Submission;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Implementations of this interface handle the submit of messages from the
  * backend to Domibus.
@@ -22,4 +25,23 @@ public interface MessageSubmitter {
      * @throws MessagingProcessingException if the message was rejected by the Domibus MSH
      */
     String submit(Submission messageData, String submitterName) throws MessagingProcessingException;
+
+    /**
+     * Submits several messages to Domibus to be processed.
+     * By default {@link #submit(Submission, String)} is called for each message: the batch is not atomic, each message
+     * is committed independently and the messages submitted before a rejected one are kept. Implementations can accept
+     * or reject the messages all together, as the Domibus MSH does.
+     *
+     * @param messagesData the messages to be processed
+     * @param submitterName the name of the submitter
+     * @return the messageIds of the submitted messages, in the order of the messages
+     * @throws MessagingProcessingException if one of the messages was rejected by the Domibus MSH
+     */
+    default List<String> submitBatch(List<Submission> messagesData, String submitterName) throws MessagingProcessingException {
+        final List<String> messageIds = new ArrayList<>();
+        for (Submission messageData : messagesData) {
+            messageIds.add(submit(messageData, submitterName));
+        }
+        return messageIds;
+    }
 }